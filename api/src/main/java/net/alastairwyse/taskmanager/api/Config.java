@@ -16,11 +16,14 @@
 
 package net.alastairwyse.taskmanager.api;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.springdoc.core.models.GroupedOpenApi;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -29,12 +32,23 @@ import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.info.Info;
 
 import net.alastairwyse.taskmanager.*;
+import net.alastairwyse.taskmanager.api.changes.TaskChangeFeed;
+import net.alastairwyse.taskmanager.api.serialization.TaskDtoModule;
+import net.alastairwyse.taskmanager.api.serialization.TaskJsonCache;
+import net.alastairwyse.taskmanager.changes.TaskChangeIndex;
 import net.alastairwyse.taskmanager.models.dtos.DateOnlyDto;
 import net.alastairwyse.taskmanager.models.dtos.TaskDto;
+import net.alastairwyse.taskmanager.persistence.FsyncPolicy;
+import net.alastairwyse.taskmanager.persistence.LogCompactor;
+import net.alastairwyse.taskmanager.persistence.SnapshotStore;
+import net.alastairwyse.taskmanager.persistence.WriteAheadLog;
 
 // References
 //  https://www.tabnine.com/code/java/classes/io.swagger.v3.oas.annotations.info.Info
@@ -53,13 +67,83 @@ import net.alastairwyse.taskmanager.models.dtos.TaskDto;
 )
 public class Config implements WebMvcConfigurer {
     
+    /** The implementation of {@link TaskManager} to use, set via the 'taskmanager.engine' application property. */
+    @Value("${taskmanager.engine:default}")
+    protected String taskManagerEngine;
+    /** The number of partitions used by the 'partitioned' {@link TaskManager} implementation, or 0 to use one partition per available processor. */
+    @Value("${taskmanager.partitionCount:0}")
+    protected int partitionCount;
+    /** The directory to store the write-ahead log and snapshots in, or blank to hold tasks in memory only. */
+    @Value("${taskmanager.persistence.directory:}")
+    protected String persistenceDirectory;
+    /** When the write-ahead log forces records to the storage device ('everybatch', 'interval', or 'os'). */
+    @Value("${taskmanager.persistence.fsyncPolicy:everybatch}")
+    protected String fsyncPolicy;
+    /** The interval in milliseconds between forces of the write-ahead log when using the 'interval' fsync policy. */
+    @Value("${taskmanager.persistence.fsyncInterval:100}")
+    protected long fsyncInterval;
+    /** The interval in milliseconds between snapshots of the tasks, or 0 to disable periodic snapshots. */
+    @Value("${taskmanager.persistence.snapshotInterval:300000}")
+    protected long snapshotInterval;
+    /** The interval in milliseconds between compactions of the write-ahead log, or 0 to disable periodic compaction. */
+    @Value("${taskmanager.persistence.compactionInterval:600000}")
+    protected long compactionInterval;
+    /** The maximum rate in bytes per second at which compaction reads and writes the write-ahead log. */
+    @Value("${taskmanager.persistence.compactionBytesPerSecond:16777216}")
+    protected long compactionBytesPerSecond;
+    /** Whether changes to the tasks are indexed so that the 'delta' endpoint returns only the changes since a version, rather than a full snapshot. */
+    @Value("${taskmanager.delta.enabled:true}")
+    protected boolean deltaEnabled;
+    /** The maximum number of changed task ids retained for the 'delta' endpoint, before older changes are discarded (and requests for them answered with a full snapshot). */
+    @Value("${taskmanager.delta.maximumChangeCount:100000}")
+    protected int deltaMaximumChangeCount;
+    /** The time in milliseconds after which a version missing from the changes indexed for the 'delta' endpoint is assumed to have been abandoned and is skipped. */
+    @Value("${taskmanager.delta.abandonedVersionTimeout:1000}")
+    protected long deltaAbandonedVersionTimeout;
+    /** The maximum number of recent changes retained by the 'changes' endpoint for subscribers which reconnect or fall behind. */
+    @Value("${taskmanager.changeFeed.capacity:10000}")
+    protected int changeFeedCapacity;
+    /** The maximum number of events queued for each subscriber of the 'changes' endpoint. */
+    @Value("${taskmanager.changeFeed.subscriberQueueCapacity:1000}")
+    protected int changeFeedSubscriberQueueCapacity;
+    /** The time in milliseconds after which a subscription to the 'changes' endpoint is completed (clients reconnect and resume from the last event received). */
+    @Value("${taskmanager.changeFeed.timeout:300000}")
+    protected long changeFeedTimeout;
+    /** The number of threads which send events to subscribers of the 'changes' endpoint, or 0 to use one thread per available processor. */
+    @Value("${taskmanager.changeFeed.senderThreadCount:0}")
+    protected int changeFeedSenderThreadCount;
+    /** The time in milliseconds after which a write to a subscriber of the 'changes' endpoint is considered stalled and the subscriber dropped, or 0 to never drop subscribers. */
+    @Value("${taskmanager.changeFeed.sendStallTimeout:30000}")
+    protected long changeFeedSendStallTimeout;
+    /** The maximum number of tasks whose JSON representation is cached for the 'get' endpoints, or 0 to disable caching. */
+    @Value("${taskmanager.jsonCache.maximumSize:100000}")
+    protected int jsonCacheMaximumSize;
+
     /**
      * Bean which contains the singleton {@link TaskManager} which underlies the REST API.
      */
     @Bean
     @Scope(value = ConfigurableBeanFactory.SCOPE_SINGLETON)
-    public TaskManager addTaskManager() {
-        var returnTaskManager = new DefaultTaskManager();
+    public TaskManager addTaskManager() throws IOException {
+        TaskManager returnTaskManager = createTaskManager(taskManagerEngine);
+        if (deltaEnabled == true) {
+            returnTaskManager = new ChangeTrackingTaskManager(returnTaskManager, new TaskChangeIndex(deltaMaximumChangeCount, deltaAbandonedVersionTimeout));
+        }
+        if (persistenceDirectory.isBlank() == false) {
+            var log = new WriteAheadLog(Path.of(persistenceDirectory, "log"), parseFsyncPolicy(fsyncPolicy), fsyncInterval, WriteAheadLog.DEFAULT_SEGMENT_SIZE);
+            var snapshotStore = new SnapshotStore(Path.of(persistenceDirectory, "snapshots"));
+            var writeAheadLogTaskManager = new WriteAheadLogTaskManager(returnTaskManager, log, snapshotStore);
+            if (snapshotInterval > 0) {
+                writeAheadLogTaskManager.startPeriodicSnapshots(snapshotInterval);
+            }
+            if (compactionInterval > 0) {
+                writeAheadLogTaskManager.startPeriodicCompaction(new LogCompactor(log, compactionBytesPerSecond), compactionInterval);
+            }
+            returnTaskManager = writeAheadLogTaskManager;
+            if (returnTaskManager.getSnapshot().getSize() > 0) {
+                return returnTaskManager;
+            }
+        }
         // TODO: Remove test tasks
         var testTaskDto1 = new TaskDto();
         testTaskDto1.setId(UUID.randomUUID());
@@ -77,6 +161,33 @@ public class Config implements WebMvcConfigurer {
         return returnTaskManager;
     }
 
+    /**
+     * Bean which publishes changes to the tasks in the {@link TaskManager} to subscribers of the 'changes' endpoint.  Closed on shutdown, to deregister it from the {@link TaskManager} and stop its threads.
+     */
+    @Bean(destroyMethod = "close")
+    @Scope(value = ConfigurableBeanFactory.SCOPE_SINGLETON)
+    public TaskChangeFeed addTaskChangeFeed(TaskManager taskManager, ObjectMapper objectMapper) {
+        int senderThreadCount = changeFeedSenderThreadCount == 0 ? Runtime.getRuntime().availableProcessors() : changeFeedSenderThreadCount;
+        return new TaskChangeFeed(taskManager, objectMapper.getFactory(), changeFeedCapacity, changeFeedSubscriberQueueCapacity, changeFeedTimeout, senderThreadCount, changeFeedSendStallTimeout);
+    }
+
+    /**
+     * Bean which caches the JSON representation of the tasks returned by the 'get' endpoints.
+     */
+    @Bean
+    @Scope(value = ConfigurableBeanFactory.SCOPE_SINGLETON)
+    public TaskJsonCache addTaskJsonCache(ObjectMapper objectMapper) {
+        return new TaskJsonCache(objectMapper.getFactory(), jsonCacheMaximumSize);
+    }
+
+    /**
+     * Bean which registers the hand-written serializers for task DTOs with the API's {@link com.fasterxml.jackson.databind.ObjectMapper} (which registers all {@link Module} beans).
+     */
+    @Bean
+    public Module addTaskDtoModule() {
+        return new TaskDtoModule();
+    }
+
     /**
      * Bean which defines the swagger grouping for version 1 of the API.
      */
@@ -104,6 +215,53 @@ public class Config implements WebMvcConfigurer {
         var validAcceptHeaderValues = new ArrayList<String>();
         validAcceptHeaderValues.add("*/*");
         validAcceptHeaderValues.add("application/json");
+        validAcceptHeaderValues.add("application/x-ndjson");
+        validAcceptHeaderValues.add("text/csv");
+        validAcceptHeaderValues.add("text/event-stream");
         registry.addInterceptor(new AcceptHeaderParsingHandlerInterceptor(validAcceptHeaderValues));
     }
-}
+
+    /**
+     * Creates the {@link TaskManager} implementation with the specified name.
+     * 
+     * @param engine The name of the implementation ('default', 'concurrent', 'persistent', 'partitioned', 'openaddressing', or 'offheap').
+     * @return The {@link TaskManager}.
+     */
+    protected TaskManager createTaskManager(String engine) {
+        switch (engine.trim().toLowerCase()) {
+            case "default":
+                return new DefaultTaskManager();
+            case "concurrent":
+                return new ConcurrentTaskManager();
+            case "persistent":
+                return new PersistentTaskManager();
+            case "partitioned":
+                return partitionCount == 0 ? new PartitionedTaskManager() : new PartitionedTaskManager(partitionCount);
+            case "openaddressing":
+                return new OpenAddressingTaskManager();
+            case "offheap":
+                return new OffHeapTaskManager();
+            default:
+                throw new IllegalArgumentException(String.format("Property '%s' contains unsupported value '%s'.", "taskmanager.engine", engine));
+        }
+    }
+
+    /**
+     * Converts the specified fsync policy name to a {@link FsyncPolicy}.
+     * 
+     * @param policy The name of the policy ('everybatch', 'interval', or 'os').
+     * @return The {@link FsyncPolicy}.
+     */
+    protected FsyncPolicy parseFsyncPolicy(String policy) {
+        switch (policy.trim().toLowerCase()) {
+            case "everybatch":
+                return FsyncPolicy.EVERY_BATCH;
+            case "interval":
+                return FsyncPolicy.INTERVAL;
+            case "os":
+                return FsyncPolicy.OPERATING_SYSTEM;
+            default:
+                throw new IllegalArgumentException(String.format("Property '%s' contains unsupported value '%s'.", "taskmanager.persistence.fsyncPolicy", policy));
+        }
+    }
+}
\ No newline at end of file
@@ -23,6 +23,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
@@ -85,6 +86,20 @@ public class GlobalControllerExceptionHandler {
         return new ResponseEntity<HttpErrorResponse>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Maps a {@link MissingServletRequestParameterException} to a 400 status error.
+     * 
+     * @param missingServletRequestParameterException The exception.
+     * @return The exception mapped to a {@link HttpErrorResponse}.
+     */
+    @ExceptionHandler({MissingServletRequestParameterException.class})
+    public ResponseEntity<HttpErrorResponse> processException(MissingServletRequestParameterException missingServletRequestParameterException) {
+        var attributes = new ArrayList<Map.Entry<String, String>>();
+        attributes.add(new AbstractMap.SimpleEntry<String,String>("ParameterName", missingServletRequestParameterException.getParameterName()));
+        var errorResponse = new HttpErrorResponse(missingServletRequestParameterException.getClass().getSimpleName(), missingServletRequestParameterException.getMessage(), attributes);
+        return new ResponseEntity<HttpErrorResponse>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
     /**
      * Maps a {@link HttpMessageNotReadableException} to a 400 status error.
      * 
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import net.alastairwyse.taskmanager.api.serialization.ExportFormat;
+
+/**
+ * Command line tool which exports all tasks from a running instance of the API to a file, via the 'GET /api/v1/task/export' endpoint.
+ * <p>
+ * Usage: TaskExportCli [base URL] [output file] [--format ndjson|csv] [--gzip]
+ * <p>
+ * The export is always requested compressed, and is streamed to the file through NIO channels without being held in memory.  If '--gzip' is specified the compressed response is written to the file as received, otherwise it's decompressed as it's written.
+ */
+public class TaskExportCli {
+
+    /** The size in bytes of the buffer used to copy the response to the file. */
+    protected static final int COPY_BUFFER_SIZE = 65536;
+
+    public static void main(String[] args) {
+
+        System.exit(run(args, System.err));
+    }
+
+    /**
+     * Runs the tool.
+     * 
+     * @param args The command line arguments.
+     * @param errorOutput The stream to write usage and error messages to.
+     * @return The exit code (0 on success).
+     */
+    public static int run(String[] args, PrintStream errorOutput) {
+
+        String baseUrl = null;
+        String outputFile = null;
+        ExportFormat format = ExportFormat.NDJSON;
+        boolean gzip = false;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("--gzip")) {
+                    gzip = true;
+                }
+                else if (args[i].equals("--format") && i + 1 < args.length) {
+                    i++;
+                    format = ExportFormat.valueOf(args[i].trim().toUpperCase());
+                }
+                else if (baseUrl == null) {
+                    baseUrl = args[i];
+                }
+                else if (outputFile == null) {
+                    outputFile = args[i];
+                }
+                else {
+                    throw new IllegalArgumentException(String.format("Unexpected argument '%s'.", args[i]));
+                }
+            }
+            if (baseUrl == null || outputFile == null)
+                throw new IllegalArgumentException("A base URL and an output file must be specified.");
+        }
+        catch (IllegalArgumentException e) {
+            errorOutput.println(e.getMessage());
+            errorOutput.println(String.format("Usage: %s [base URL] [output file] [--format ndjson|csv] [--gzip]", TaskExportCli.class.getSimpleName()));
+            return 2;
+        }
+
+        try {
+            long byteCount = export(HttpClient.newHttpClient(), URI.create(baseUrl), format, Path.of(outputFile), gzip);
+            errorOutput.println(String.format("Exported %d bytes to '%s'.", byteCount, outputFile));
+            return 0;
+        }
+        catch (IOException e) {
+            errorOutput.println(String.format("Export failed.  %s", e.getMessage()));
+            return 1;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            errorOutput.println("Export interrupted.");
+            return 1;
+        }
+    }
+
+    /**
+     * Exports all tasks from the API at the specified base URL to a file.
+     * 
+     * @param httpClient The client to send the export request with.
+     * @param baseUri The base URI of the API (e.g. 'http://localhost:8080/').
+     * @param format The format to export the tasks in.
+     * @param outputFile The file to write the exported tasks to.  Overwritten if it already exists.
+     * @param gzip Whether to write the file compressed with gzip.
+     * @return The number of bytes written to the file.
+     * @throws IOException If the request fails or returns an error status, or an error occurs writing the file.
+     * @throws InterruptedException If interrupted while sending the request.
+     */
+    public static long export(HttpClient httpClient, URI baseUri, ExportFormat format, Path outputFile, boolean gzip) throws IOException, InterruptedException {
+
+        // Resolve relative to the base URI's path, so APIs hosted under a path prefix are supported
+        if (baseUri.getPath().endsWith("/") == false) {
+            baseUri = URI.create(baseUri.toString() + "/");
+        }
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(String.format("api/v1/task/export?format=%s", format.name().toLowerCase())))
+            .header("Accept", "*/*")
+            .header("Accept-Encoding", "gzip")
+            .GET()
+            .build();
+        HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream responseBody = response.body()) {
+            boolean responseCompressed = response.headers().firstValue("Content-Encoding").orElse("").equalsIgnoreCase("gzip");
+            InputStream decodedResponseBody = responseCompressed == true && gzip == false ? new GZIPInputStream(responseBody, COPY_BUFFER_SIZE) : responseBody;
+            if (response.statusCode() != 200) {
+                String errorResponse = new String(decodedResponseBody.readAllBytes(), StandardCharsets.UTF_8);
+                throw new IOException(String.format("Received status %d from '%s'.  %s", response.statusCode(), request.uri(), errorResponse));
+            }
+            try (FileChannel fileChannel = FileChannel.open(outputFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ReadableByteChannel source = Channels.newChannel(decodedResponseBody);
+                if (gzip == true && responseCompressed == false) {
+                    // Finished rather than closed, since closing would also close the file channel
+                    var compressedOutputStream = new GZIPOutputStream(Channels.newOutputStream(fileChannel), COPY_BUFFER_SIZE);
+                    Copy(source, Channels.newChannel(compressedOutputStream));
+                    compressedOutputStream.finish();
+                }
+                else {
+                    Copy(source, fileChannel);
+                }
+                fileChannel.force(false);
+
+                return fileChannel.size();
+            }
+        }
+    }
+
+    protected static void Copy(ReadableByteChannel source, WritableByteChannel destination) throws IOException {
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(COPY_BUFFER_SIZE);
+        while (source.read(buffer) >= 0) {
+            buffer.flip();
+            while (buffer.hasRemaining() == true) {
+                destination.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,517 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.api.changes;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import net.alastairwyse.taskmanager.TaskManager;
+import net.alastairwyse.taskmanager.api.serialization.TaskJsonWriter;
+import net.alastairwyse.taskmanager.changes.TaskChangeListener;
+import net.alastairwyse.taskmanager.changes.TaskChangeLog;
+import net.alastairwyse.taskmanager.models.TaskChange;
+
+/**
+ * Publishes the changes to the tasks in a {@link TaskManager} to subscribers as server-sent events.
+ * <p>
+ * Changes are appended to a {@link TaskChangeLog} by a listener registered with the manager, which then wakes a single dispatcher thread and returns, so the manager's writers never wait for subscribers.  The dispatcher moves the changes after the last one queued for each subscriber into the subscriber's bounded queue, encoding each change as JSON only once regardless of the number of subscribers, and never blocks.  Subscribers' queues are drained by a fixed pool of sender threads.  A send for a subscriber writes at most {@link #SEND_BATCH_SIZE} events before re-submitting itself to the back of the pool's queue, so subscribers with many queued events share the senders fairly with the others.  When a subscriber's queue is full the dispatcher leaves the remaining changes in the log, and the subscriber's send schedules a further dispatch once the queue has drained.  The request threads of subscriptions are released as soon as the {@link SseEmitter} is returned.
+ * <p>
+ * A write to a client which has stopped reading blocks until the servlet container's write timeout expires.  Each write is hence made on a virtual thread, and the sender thread waits for it for at most the send stall timeout.  If the write hasn't finished by then the subscriber is dropped, so it's queued and sent no further events, and the sender thread is released to serve other subscribers immediately.  The stalled write holds only its virtual thread until it returns, after which the emitter is completed, and the client reconnects and resumes from the last event received.
+ * <p>
+ * Each change is sent as an event whose id contains the change's sequence number in the log.  A client reconnecting with a 'Last-Event-ID' header resumes from the following change, as long as that change is still retained by the log.  Otherwise (or if the id was issued by a previous instance of the feed) the client is sent a 'reset' event, indicating that it may have missed changes and should reload the tasks, followed by subsequent changes.  A subscriber which falls behind by more changes than the log retains is also sent a 'reset' event.
+ */
+public class TaskChangeFeed implements AutoCloseable {
+
+    /** The name of the event sent to subscribers which may have missed changes. */
+    protected static final String RESET_EVENT_NAME = "reset";
+    /** The maximum number of changes read from the log at once when dispatching to a subscriber. */
+    protected static final int DISPATCH_BATCH_SIZE = 1000;
+    /** The maximum number of events written to a subscriber by a send before it yields its sender thread to the sends of other subscribers. */
+    protected static final int SEND_BATCH_SIZE = 100;
+    /** The default time in milliseconds after which a write to a subscriber is considered stalled, and the subscriber dropped. */
+    protected static final long DEFAULT_SEND_STALL_TIMEOUT = 30000;
+
+    /** The manager whose changes are published. */
+    protected final TaskManager taskManager;
+    /** Retains recent changes for dispatching to subscribers. */
+    protected final TaskChangeLog changeLog;
+    /** Used to create generators which encode changes. */
+    protected final JsonFactory jsonFactory;
+    /** Writes the tasks in changes. */
+    protected final TaskJsonWriter taskJsonWriter;
+    /** The time in milliseconds after which a subscription is completed (after which the client is expected to reconnect), or 0 for no timeout. */
+    protected final long timeout;
+    /** Prefix of the event ids sent by the feed.  Random per instance, since sequence numbers restart from 1 when the application restarts. */
+    protected final String eventIdPrefix;
+    /** The maximum number of events queued for each subscriber. */
+    protected final int subscriberQueueCapacity;
+    /** The time in milliseconds after which a write to a subscriber is considered stalled and the subscriber dropped, or 0 to never drop subscribers with stalled writes. */
+    protected final long sendStallTimeout;
+    /** The current subscribers. */
+    protected final CopyOnWriteArrayList<Subscriber> subscribers;
+    /** Runs dispatches, on a single thread. */
+    protected final ExecutorService dispatcher;
+    /** Sends the events queued for subscribers, on a fixed number of threads. */
+    protected final ExecutorService senders;
+    /** Makes each write to a subscriber on a new virtual thread, so a sender thread can stop waiting for a stalled write.  Unused if the send stall timeout is 0. */
+    protected final ExecutorService writers;
+    /** Whether a dispatch has been submitted to the dispatcher and not yet started. */
+    protected final AtomicBoolean dispatchPending;
+    /** The listener registered with the manager. */
+    protected final TaskChangeListener listener;
+
+    /**
+     * Constructs a TaskChangeFeed with one sender thread per available processor, and registers it to receive the changes from the specified {@link TaskManager}.
+     * 
+     * @param taskManager The manager whose changes are published.
+     * @param jsonFactory Used to create generators which encode changes.
+     * @param capacity The maximum number of recent changes retained for dispatching to slow or reconnecting subscribers.
+     * @param subscriberQueueCapacity The maximum number of events queued for each subscriber.
+     * @param timeout The time in milliseconds after which a subscription is completed, or 0 for no timeout.
+     */
+    public TaskChangeFeed(TaskManager taskManager, JsonFactory jsonFactory, int capacity, int subscriberQueueCapacity, long timeout) {
+        this(taskManager, jsonFactory, capacity, subscriberQueueCapacity, timeout, Runtime.getRuntime().availableProcessors(), DEFAULT_SEND_STALL_TIMEOUT);
+    }
+
+    /**
+     * Constructs a TaskChangeFeed, and registers it to receive the changes from the specified {@link TaskManager}.
+     * 
+     * @param taskManager The manager whose changes are published.
+     * @param jsonFactory Used to create generators which encode changes.
+     * @param capacity The maximum number of recent changes retained for dispatching to slow or reconnecting subscribers.
+     * @param subscriberQueueCapacity The maximum number of events queued for each subscriber.
+     * @param timeout The time in milliseconds after which a subscription is completed, or 0 for no timeout.
+     * @param senderThreadCount The number of threads which send events to subscribers.
+     * @param sendStallTimeout The time in milliseconds after which a write to a subscriber is considered stalled and the subscriber dropped, or 0 to never drop subscribers with stalled writes.
+     */
+    public TaskChangeFeed(TaskManager taskManager, JsonFactory jsonFactory, int capacity, int subscriberQueueCapacity, long timeout, int senderThreadCount, long sendStallTimeout) {
+
+        if (taskManager == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null.", "taskManager"));
+        if (jsonFactory == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null.", "jsonFactory"));
+        if (subscriberQueueCapacity < 1)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be greater than 0.", "subscriberQueueCapacity"));
+        if (timeout < 0)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be greater than or equal to 0.", "timeout"));
+        if (senderThreadCount < 1)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be greater than 0.", "senderThreadCount"));
+        if (sendStallTimeout < 0)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be greater than or equal to 0.", "sendStallTimeout"));
+
+        this.taskManager = taskManager;
+        this.changeLog = new TaskChangeLog(capacity);
+        this.jsonFactory = jsonFactory;
+        this.taskJsonWriter = new TaskJsonWriter();
+        this.timeout = timeout;
+        this.eventIdPrefix = Long.toHexString(ThreadLocalRandom.current().nextLong()) + "-";
+        this.subscriberQueueCapacity = subscriberQueueCapacity;
+        this.sendStallTimeout = sendStallTimeout;
+        this.subscribers = new CopyOnWriteArrayList<Subscriber>();
+        this.dispatcher = Executors.newSingleThreadExecutor((Runnable runnable) -> 
+        {
+            var thread = new Thread(runnable, "TaskChangeFeedDispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.senders = Executors.newFixedThreadPool(senderThreadCount, (Runnable runnable) -> 
+        {
+            var thread = new Thread(runnable, "TaskChangeFeedSender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.writers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("TaskChangeFeedWriter").factory());
+        this.dispatchPending = new AtomicBoolean(false);
+        this.listener = (long version, List<TaskChange> changes) -> 
+        {
+            changeLog.tasksChanged(version, changes);
+            if (subscribers.isEmpty() == false)
+                ScheduleDispatch();
+        };
+        taskManager.addChangeListener(listener);
+    }
+
+    /**
+     * @return The number of current subscribers.
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Subscribes to the changes made after the subscription, or after a previously sent event.
+     * 
+     * @param lastEventId The id of the last event received by the client (i.e. the value of its 'Last-Event-ID' header), or null to receive only changes made after the subscription.
+     * @return The emitter which sends events to the subscriber.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+
+        var subscriber = new Subscriber(CreateEmitter(), subscriberQueueCapacity);
+        subscriber.lastSequence = changeLog.getLastSequence();
+        if (lastEventId != null) {
+            Optional<Long> lastSequence = ParseEventId(lastEventId);
+            if (lastSequence.isPresent() == true && changeLog.getChangesAfter(lastSequence.get(), 1).isPresent() == true) {
+                subscriber.lastSequence = lastSequence.get();
+            }
+            else {
+                subscriber.resetPending = true;
+            }
+        }
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> subscriber.emitter.complete());
+        subscriber.emitter.onError((Throwable e) -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        ScheduleDispatch();
+
+        return subscriber.emitter;
+    }
+
+    /**
+     * Deregisters the feed from the manager, stops the dispatcher and senders, and completes all subscriptions.
+     */
+    @Override
+    public void close() {
+
+        taskManager.removeChangeListener(listener);
+        dispatcher.shutdown();
+        senders.shutdown();
+        writers.shutdown();
+        for (Subscriber currentSubscriber : subscribers) {
+            currentSubscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    /**
+     * Creates the emitter for a new subscription.
+     * 
+     * @return The emitter.
+     */
+    protected SseEmitter CreateEmitter() {
+
+        return new SseEmitter(timeout);
+    }
+
+    /**
+     * Submits a dispatch to the dispatcher, unless one is already pending (in which case it will include any changes appended since the call).
+     */
+    protected void ScheduleDispatch() {
+
+        if (dispatchPending.compareAndSet(false, true) == true) {
+            try {
+                dispatcher.execute(this::Dispatch);
+            }
+            catch (RejectedExecutionException e) {
+                // The feed has been closed
+            }
+        }
+    }
+
+    /**
+     * Queues the changes appended to the log since the last change queued for each subscriber.  Runs on the dispatcher thread.
+     */
+    protected void Dispatch() {
+
+        // Cleared before reading the log, so changes appended during the dispatch schedule a further dispatch
+        dispatchPending.set(false);
+        // Each change is encoded once, and the encoded change shared by all subscribers
+        var sequenceToEncodedChangeMap = new HashMap<Long, String>();
+        for (Subscriber currentSubscriber : subscribers) {
+            try {
+                DispatchToSubscriber(currentSubscriber, sequenceToEncodedChangeMap);
+            }
+            catch (IOException e) {
+                // Encoding failed, so the subscriber can't be sent a consistent sequence of changes
+                subscribers.remove(currentSubscriber);
+                currentSubscriber.emitter.completeWithError(e);
+            }
+        }
+    }
+
+    /**
+     * Queues the changes appended to the log since the last change queued for a subscriber, until the subscriber's queue is full.
+     * 
+     * @param subscriber The subscriber.
+     * @param sequenceToEncodedChangeMap Changes already encoded during the current dispatch, indexed by sequence number.
+     * @throws IOException If an error occurs encoding a change.
+     */
+    protected void DispatchToSubscriber(Subscriber subscriber, HashMap<Long, String> sequenceToEncodedChangeMap) throws IOException {
+
+        // Only the dispatcher adds to the queue, so its remaining capacity can only grow during the loop
+        while (subscriber.queue.remainingCapacity() > 0) {
+            if (subscriber.resetPending == true) {
+                subscriber.queue.add(new Event(CreateEventId(subscriber.lastSequence), RESET_EVENT_NAME, ""));
+                subscriber.resetPending = false;
+                continue;
+            }
+            Optional<List<TaskChange>> changes = changeLog.getChangesAfter(subscriber.lastSequence, Math.min(DISPATCH_BATCH_SIZE, subscriber.queue.remainingCapacity()));
+            if (changes.isPresent() == false) {
+                // The subscriber has fallen behind by more than the log retains
+                subscriber.lastSequence = changeLog.getLastSequence();
+                subscriber.resetPending = true;
+                continue;
+            }
+            if (changes.get().isEmpty() == true)
+                break;
+            for (TaskChange currentChange : changes.get()) {
+                long sequence = subscriber.lastSequence + 1;
+                String encodedChange = sequenceToEncodedChangeMap.get(sequence);
+                if (encodedChange == null) {
+                    encodedChange = EncodeChange(currentChange);
+                    sequenceToEncodedChangeMap.put(sequence, encodedChange);
+                }
+                subscriber.queue.add(new Event(CreateEventId(sequence), null, encodedChange));
+                subscriber.lastSequence = sequence;
+            }
+        }
+        ScheduleSend(subscriber);
+    }
+
+    /**
+     * Submits a send of the events queued for a subscriber to the senders, unless the queue is empty or a send is already running for the subscriber.
+     * 
+     * @param subscriber The subscriber.
+     */
+    protected void ScheduleSend(Subscriber subscriber) {
+
+        if (subscriber.queue.isEmpty() == false && subscriber.sendPending.compareAndSet(false, true) == true) {
+            try {
+                senders.execute(() -> Send(subscriber));
+            }
+            catch (RejectedExecutionException e) {
+                // The feed has been closed
+            }
+        }
+    }
+
+    /**
+     * Sends the events queued for a subscriber, until the queue is empty or {@link #SEND_BATCH_SIZE} events have been sent, in which case the send is re-submitted to the senders.  Runs on a sender thread, and only one send runs for a subscriber at a time.
+     * 
+     * @param subscriber The subscriber.
+     */
+    protected void Send(Subscriber subscriber) {
+
+        while (true) {
+            Event event;
+            int sentCount = 0;
+            while (sentCount < SEND_BATCH_SIZE && (event = subscriber.queue.poll()) != null) {
+                SseEmitter.SseEventBuilder builder = SseEmitter.event().id(event.id).data(event.data);
+                if (event.name != null) {
+                    builder.name(event.name);
+                }
+                try {
+                    Write(subscriber, builder);
+                }
+                catch (IOException | IllegalStateException | TimeoutException e) {
+                    // The client has disconnected, the emitter has completed, or the write stalled (in which case the emitter is completed once the write returns), so the subscriber is dropped, leaving 'sendPending' set so no further sends are submitted for it
+                    subscribers.remove(subscriber);
+                    subscriber.queue.clear();
+                    return;
+                }
+                sentCount++;
+            }
+            if (sentCount == SEND_BATCH_SIZE && subscriber.queue.isEmpty() == false) {
+                // Yield the thread to the sends of other subscribers, leaving 'sendPending' set so the dispatcher doesn't submit a concurrent send
+                try {
+                    senders.execute(() -> Send(subscriber));
+                }
+                catch (RejectedExecutionException e) {
+                    // The feed has been closed
+                }
+                return;
+            }
+            // The queue was full, or is no longer, so have the dispatcher queue any changes which didn't fit
+            if (subscriber.lastSequence < changeLog.getLastSequence() || subscriber.resetPending == true) {
+                ScheduleDispatch();
+            }
+            // Cleared before checking the queue, so events added after the check schedule a further send
+            subscriber.sendPending.set(false);
+            if (subscriber.queue.isEmpty() == true || subscriber.sendPending.compareAndSet(false, true) == false)
+                return;
+        }
+    }
+
+    /**
+     * Writes an event to a subscriber, waiting for at most the send stall timeout.  If the write stalls it continues on its virtual thread, and the subscriber's emitter is completed once it returns (since completing an emitter waits for a write in progress).
+     * 
+     * @param subscriber The subscriber.
+     * @param builder The event.
+     * @throws IOException If an error occurs writing the event.
+     * @throws TimeoutException If the write didn't finish within the send stall timeout.
+     */
+    protected void Write(Subscriber subscriber, SseEmitter.SseEventBuilder builder) throws IOException, TimeoutException {
+
+        if (sendStallTimeout == 0) {
+            subscriber.emitter.send(builder);
+            return;
+        }
+        CompletableFuture<Void> write;
+        try {
+            write = CompletableFuture.runAsync(() -> 
+            {
+                try {
+                    subscriber.emitter.send(builder);
+                }
+                catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, writers);
+        }
+        catch (RejectedExecutionException e) {
+            throw new IllegalStateException("The feed has been closed.", e);
+        }
+        try {
+            write.get(sendStallTimeout, TimeUnit.MILLISECONDS);
+        }
+        catch (TimeoutException e) {
+            write.thenRun(() -> subscriber.emitter.complete());
+            throw e;
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException)
+                throw ((UncheckedIOException)e.getCause()).getCause();
+            if (e.getCause() instanceof IllegalStateException)
+                throw (IllegalStateException)e.getCause();
+            throw new IOException(e.getCause());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Encodes a change as a JSON object containing the type of the change, the id of the task, the version of the manager resulting from the change, and (unless the task was deleted) the task.
+     * 
+     * @param change The change.
+     * @return The JSON object.
+     * @throws IOException If an error occurs encoding the change.
+     */
+    protected String EncodeChange(TaskChange change) throws IOException {
+
+        var writer = new StringWriter();
+        try (JsonGenerator generator = jsonFactory.createGenerator(writer)) {
+            generator.writeStartObject();
+            generator.writeStringField("type", change.getType().name());
+            generator.writeStringField("id", change.getId().toString());
+            generator.writeNumberField("version", change.getVersion());
+            if (change.getTask() != null) {
+                generator.writeFieldName("task");
+                taskJsonWriter.writeTask(generator, change.getTask());
+            }
+            generator.writeEndObject();
+        }
+
+        return writer.toString();
+    }
+
+    /**
+     * Creates the id of the event for the change with the specified sequence number.
+     * 
+     * @param sequence The sequence number.
+     * @return The event id.
+     */
+    protected String CreateEventId(long sequence) {
+
+        return eventIdPrefix + sequence;
+    }
+
+    /**
+     * Parses the sequence number from an event id created by {@link #CreateEventId(long)}.
+     * 
+     * @param eventId The event id.
+     * @return The sequence number, or an empty result if the event id wasn't created by this feed.
+     */
+    protected Optional<Long> ParseEventId(String eventId) {
+
+        if (eventId.startsWith(eventIdPrefix) == false)
+            return Optional.empty();
+        try {
+            long sequence = Long.parseLong(eventId.substring(eventIdPrefix.length()));
+            if (sequence < 0)
+                return Optional.empty();
+
+            return Optional.of(sequence);
+        }
+        catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * A subscription to the feed.
+     */
+    protected static class Subscriber {
+
+        /** Sends events to the subscriber. */
+        protected final SseEmitter emitter;
+        /** The events waiting to be sent to the subscriber.  Added to only by the dispatcher, and removed from only by the subscriber's send (or cleared when the subscriber is dropped). */
+        protected final ArrayBlockingQueue<Event> queue;
+        /** Whether a send has been submitted to the senders and not yet finished. */
+        protected final AtomicBoolean sendPending;
+        /** The sequence number of the last change queued for the subscriber.  Updated only by the dispatcher after the subscriber is added to the 'subscribers' field. */
+        protected volatile long lastSequence;
+        /** Whether a 'reset' event should be queued before the next change. */
+        protected volatile boolean resetPending;
+
+        protected Subscriber(SseEmitter emitter, int queueCapacity) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<Event>(queueCapacity);
+            this.sendPending = new AtomicBoolean(false);
+            this.lastSequence = 0;
+            this.resetPending = false;
+        }
+    }
+
+    /**
+     * An event waiting to be sent to a subscriber.
+     */
+    protected static class Event {
+
+        /** The id of the event. */
+        protected final String id;
+        /** The name of the event, or null for a change. */
+        protected final String name;
+        /** The data of the event. */
+        protected final String data;
+
+        protected Event(String id, String name, String data) {
+            this.id = id;
+            this.name = name;
+            this.data = data;
+        }
+    }
+}
@@ -16,13 +16,29 @@
 
 package net.alastairwyse.taskmanager.api.controllers;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.List;
 import java.util.function.Function;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -30,18 +46,34 @@ import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 import net.alastairwyse.taskmanager.*;
+import net.alastairwyse.taskmanager.api.changes.TaskChangeFeed;
 import net.alastairwyse.taskmanager.api.models.HttpErrorResponse;
+import net.alastairwyse.taskmanager.api.models.TaskBatchItemResponse;
+import net.alastairwyse.taskmanager.api.models.TaskImportResponse;
+import net.alastairwyse.taskmanager.api.models.TaskLookupResponse;
+import net.alastairwyse.taskmanager.api.serialization.ExportFormat;
+import net.alastairwyse.taskmanager.api.serialization.JsonArrayReader;
+import net.alastairwyse.taskmanager.api.serialization.NdjsonTaskImporter;
+import net.alastairwyse.taskmanager.api.serialization.TaskExporter;
+import net.alastairwyse.taskmanager.api.serialization.TaskJsonCache;
+import net.alastairwyse.taskmanager.api.serialization.TaskJsonWriter;
 import net.alastairwyse.taskmanager.models.*;
 import net.alastairwyse.taskmanager.models.dtos.*;
 
@@ -52,14 +84,55 @@ import net.alastairwyse.taskmanager.models.dtos.*;
 @RequestMapping("/api/v1/task")
 @Tag(name = "Task")
 public class TaskController {
+
+    /** The maximum number of tasks which can be requested from the 'suggest' endpoint. */
+    protected static final int MAXIMUM_SUGGESTION_LIMIT = 100;
+    /** The maximum number of tasks which can be requested in a single page from the 'page' endpoint. */
+    protected static final int MAXIMUM_PAGE_LIMIT = 1000;
+    /** The maximum number of items in a single request to the 'batch' endpoints. */
+    protected static final int MAXIMUM_BATCH_SIZE = 10000;
+    /** The number of records from the 'import' endpoint passed to the task manager at once. */
+    protected static final int IMPORT_BATCH_SIZE = 1000;
+    /** The maximum number of rejected records the 'import' endpoint returns details of. */
+    protected static final int MAXIMUM_IMPORT_REPORTED_REJECTIONS = 100;
+    /** The number of tasks in each chunk encoded in parallel by the 'export' endpoint. */
+    protected static final int EXPORT_CHUNK_SIZE = 4096;
+    /** The size in bytes of the buffer used to compress responses from the 'export' endpoint. */
+    protected static final int EXPORT_COMPRESSION_BUFFER_SIZE = 65536;
+    /** The number of tasks written to a streamed response between each flush of the response. */
+    protected static final int STREAMED_RESPONSE_FLUSH_INTERVAL = 1000;
     
     protected final TaskManager taskManager;
+    /** Used to create generators which write streamed responses, with the same configuration as the rest of the API's JSON serialization. */
+    protected final ObjectMapper objectMapper;
+    /** Caches the JSON representation of tasks returned by the 'get' endpoints. */
+    protected final TaskJsonCache taskJsonCache;
+    /** Writes the tasks in responses from the 'delta' endpoint. */
+    protected final TaskJsonWriter taskJsonWriter;
+    /** Reads the request bodies of the 'batch' endpoints, rejecting them once they exceed the maximum batch size. */
+    protected final JsonArrayReader batchReader;
+    /** Imports tasks posted to the 'import' endpoint. */
+    protected final NdjsonTaskImporter ndjsonTaskImporter;
+    /** Exports tasks from the 'export' endpoint. */
+    protected final TaskExporter taskExporter;
+    /** Publishes changes to the tasks to subscribers of the 'changes' endpoint. */
+    protected final TaskChangeFeed taskChangeFeed;
+    /** Prefix of the entity tags returned by the controller.  Random per instance, since task manager versions restart from 0 when the application restarts. */
+    protected final String entityTagPrefix;
 
     /**
      * Constructs a TaskController.
      */
-    public TaskController(TaskManager taskManager) {
+    public TaskController(TaskManager taskManager, ObjectMapper objectMapper, TaskJsonCache taskJsonCache, TaskChangeFeed taskChangeFeed) {
         this.taskManager = taskManager;
+        this.objectMapper = objectMapper;
+        this.taskJsonCache = taskJsonCache;
+        this.taskJsonWriter = new TaskJsonWriter();
+        this.batchReader = new JsonArrayReader(objectMapper, MAXIMUM_BATCH_SIZE);
+        this.ndjsonTaskImporter = new NdjsonTaskImporter(objectMapper, IMPORT_BATCH_SIZE, MAXIMUM_IMPORT_REPORTED_REJECTIONS);
+        this.taskExporter = new TaskExporter(objectMapper.getFactory(), ForkJoinPool.commonPool(), EXPORT_CHUNK_SIZE);
+        this.entityTagPrefix = Long.toHexString(ThreadLocalRandom.current().nextLong()) + "-";
+        this.taskChangeFeed = taskChangeFeed;
     }
 
     /**
@@ -87,33 +160,267 @@ public class TaskController {
     @PutMapping("")
     @ApiResponse(responseCode = "200", description = "Task updated successfully")
     @ApiResponse(responseCode = "404", description = "A task with the specified id does not exist", content = @Content)
-    public ResponseEntity<?> updateTask(@RequestBody TaskDto taskDto) throws TaskDoesntExistException {
+    public ResponseEntity<?> updateTask(@RequestBody TaskDto taskDto) {
 
         var task = new Task(taskDto);
-        taskManager.updateTask(task);
+        if (taskManager.tryUpdateTask(task) == false)
+            return CreateTaskDoesntExistResponse(task.getId());
+        taskJsonCache.remove(task.getId());
 
         return new ResponseEntity<Void>(HttpStatus.OK);
     }
 
     /**
-     * Returns all tasks in the manager.
+     * Returns all tasks in the manager, or if either of 'dueFrom' or 'dueTo' are specified, the tasks due within that range of dates.
+     * <p>
+     * The tasks are streamed, i.e. each task is written straight to the response as JSON as it's read from the manager, and the response is flushed periodically.  Hence memory use doesn't grow with the number of tasks, and the start of the response is sent before all the tasks have been read.
+     * <p>
+     * The response has an entity tag derived from the version of the manager the tasks were read at (tasks returned for a range of due dates are untagged if the manager changed while they were read).  If the request's 'If-None-Match' header contains the current tag, nothing has changed since the client's copy was returned, and a 304 (Not Modified) response is returned without reading or serializing any tasks.
      * 
-     * @return All tasks.
+     * @param dueFrom The earliest due date of tasks to return (inclusive).
+     * @param dueTo The latest due date of tasks to return (inclusive).
+     * @param ifNoneMatch The value of the request's 'If-None-Match' header.
+     * @return The tasks.  Tasks returned for a range of due dates are ordered by due date, then id.
      */
-    @Operation(summary = "Returns all tasks")
+    @Operation(summary = "Returns all tasks, or the tasks due within a range of dates")
     @GetMapping("")
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = TaskDto.class))))
+    @ApiResponse(responseCode = "304", description = "The tasks haven't changed since the entity tag in the 'If-None-Match' header was returned", content = @Content)
+    @ApiResponse(responseCode = "400", description = "The due date range is invalid", content = @Content)
+    public ResponseEntity<StreamingResponseBody> getTasks(
+        @Parameter(description = "The earliest due date of tasks to return, in ISO format (e.g. 2023-12-01)")
+        @RequestParam(value = "dueFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueFrom, 
+        @Parameter(description = "The latest due date of tasks to return, in ISO format (e.g. 2023-12-31)")
+        @RequestParam(value = "dueTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueTo, 
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+
+        if (dueFrom != null && dueTo != null && dueFrom.isAfter(dueTo)) {
+            String errorMessage = String.format("Parameter '%s' with value '%s' must be less than or equal to parameter '%s' with value '%s'.", "dueFrom", dueFrom, "dueTo", dueTo);
+            return CreateStreamedBadRequestResponse(errorMessage);
+        }
+        // If the current version matches the client's tag nothing has changed, so a 304 is returned without reading any tasks
+        long version = taskManager.getVersion();
+        if (EntityTagMatches(ifNoneMatch, CreateEntityTag(version)) == true)
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(CreateEntityTag(version)).build();
+
+        if (dueFrom == null && dueTo == null) {
+            // The tag and the body are both taken from the same snapshot, so the tag always identifies exactly the tasks returned
+            TaskSnapshot snapshot = taskManager.getSnapshot();
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).eTag(CreateEntityTag(snapshot.getVersion())).body(CreateStreamingTaskArrayResponseBody(snapshot.stream(), snapshot.getSize()));
+        }
+        else {
+            // The tasks are only tagged if the version didn't change while they were read, otherwise the tag could identify a different set of tasks
+            List<Task> tasks = taskManager.getTasksDueBetween(dueFrom, dueTo);
+            ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+            if (taskManager.getVersion() == version)
+                responseBuilder.eTag(CreateEntityTag(version));
+            return responseBuilder.body(CreateStreamingTaskArrayResponseBody(tasks.stream(), tasks.size()));
+        }
+    }
+
+    /**
+     * Exports all tasks in the manager as newline delimited JSON (NDJSON) or CSV.
+     * <p>
+     * The tasks are read from a consistent snapshot of the manager, encoded in parallel in chunks, and streamed to the response in order.  The response is compressed with gzip if the request's 'Accept-Encoding' header allows it.
+     * 
+     * @param format The format to export the tasks in ('ndjson' or 'csv').
+     * @param acceptEncoding The value of the request's 'Accept-Encoding' header.
+     * @return The exported tasks.
+     */
+    @Operation(summary = "Exports all tasks as NDJSON or CSV")
+    @GetMapping("/export")
+    @ApiResponse(responseCode = "200", description = "The exported tasks, in the requested format")
+    @ApiResponse(responseCode = "400", description = "The format is not supported", content = @Content)
+    public ResponseEntity<StreamingResponseBody> exportTasks(
+        @Parameter(description = "The format to export the tasks in, 'ndjson' or 'csv'")
+        @RequestParam(value = "format", required = false, defaultValue = "ndjson") String format, 
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+
+        ExportFormat exportFormat;
+        MediaType contentType;
+        switch (format.trim().toLowerCase()) {
+            case "ndjson":
+                exportFormat = ExportFormat.NDJSON;
+                contentType = MediaType.APPLICATION_NDJSON;
+                break;
+            case "csv":
+                exportFormat = ExportFormat.CSV;
+                contentType = new MediaType("text", "csv", StandardCharsets.UTF_8);
+                break;
+            default:
+                String errorMessage = String.format("Parameter '%s' contains unsupported value '%s'.", "format", format);
+                return CreateStreamedBadRequestResponse(errorMessage);
+        }
+        boolean compress = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        TaskSnapshot snapshot = taskManager.getSnapshot();
+        StreamingResponseBody responseBody = (OutputStream outputStream) -> {
+            if (compress == true) {
+                // The servlet container is responsible for closing the response stream, so the compressed stream is finished rather than closed
+                var compressedOutputStream = new GZIPOutputStream(outputStream, EXPORT_COMPRESSION_BUFFER_SIZE);
+                taskExporter.export(snapshot.iterator(), exportFormat, Channels.newChannel(compressedOutputStream));
+                compressedOutputStream.finish();
+            }
+            else {
+                taskExporter.export(snapshot.iterator(), exportFormat, Channels.newChannel(outputStream));
+            }
+        };
+        var response = ResponseEntity.ok()
+            .contentType(contentType)
+            .header(HttpHeaders.CONTENT_DISPOSITION, String.format("attachment; filename=\"tasks.%s\"", exportFormat.name().toLowerCase()))
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (compress == true) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        return response.body(responseBody);
+    }
+
+    /**
+     * Returns a page of tasks, in order of task id.
+     * 
+     * @param cursor The cursor returned with the previous page, or null to return the first page.
+     * @param limit The maximum number of tasks to return.
+     * @return The page.
+     */
+    @Operation(summary = "Returns a page of tasks, ordered by id")
+    @GetMapping("/page")
     @ApiResponse(responseCode = "200")
-    public Iterable<TaskDto> getTasks() {
+    @ApiResponse(responseCode = "400", description = "The cursor is invalid or the limit is outside the allowed range", content = @Content)
+    public ResponseEntity<?> getTaskPage(
+        @Parameter(description = "The 'nextCursor' value returned with the previous page.  Omit to return the first page")
+        @RequestParam(value = "cursor", required = false) String cursor, 
+        @Parameter(description = "The maximum number of tasks to return (between 1 and 1000)")
+        @RequestParam(value = "limit", defaultValue = "100") int limit
+    ) {
+
+        if (limit < 1 || limit > MAXIMUM_PAGE_LIMIT) {
+            String errorMessage = String.format("Parameter '%s' with value %d must be between 1 and %d.", "limit", limit, MAXIMUM_PAGE_LIMIT);
+            var errorResponse = new HttpErrorResponse(IllegalArgumentException.class.getSimpleName(), errorMessage);
+            return new ResponseEntity<HttpErrorResponse>(errorResponse, HttpStatus.BAD_REQUEST);
+        }
+        try {
+            TaskPage.decodeCursor(cursor);
+        }
+        catch (IllegalArgumentException e) {
+            var errorResponse = new HttpErrorResponse(IllegalArgumentException.class.getSimpleName(), e.getMessage());
+            return new ResponseEntity<HttpErrorResponse>(errorResponse, HttpStatus.BAD_REQUEST);
+        }
+
+        return new ResponseEntity<TaskPageDto>(new TaskPageDto(taskManager.getTaskPage(cursor, limit)), HttpStatus.OK);
+    }
+
+    /**
+     * Returns the tasks containing all the terms in the specified query.
+     * <p>
+     * The tasks are streamed from their cached JSON representations, in the same way as {@link #getTasks(LocalDate, LocalDate, String)}.
+     * 
+     * @param query The query.
+     * @return The tasks whose title or detail contain every term in the query.
+     */
+    @Operation(summary = "Returns the tasks whose title or detail contain all the words in a query")
+    @GetMapping("/search")
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = TaskDto.class))))
+    public ResponseEntity<StreamingResponseBody> searchTasks(
+        @Parameter(description = "The words to search for, separated by spaces or punctuation.  Matching is case-insensitive")
+        @RequestParam(value = "q") String query
+    ) {
+
+        List<Task> tasks = taskManager.searchTasks(query);
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(CreateStreamingTaskArrayResponseBody(tasks.stream(), tasks.size()));
+    }
+
+    /**
+     * Returns the tasks whose title starts with the specified prefix, e.g. to suggest tasks as a user types.
+     * <p>
+     * The tasks are streamed from their cached JSON representations, in the same way as {@link #getTasks(LocalDate, LocalDate, String)}.
+     * 
+     * @param prefix The prefix.
+     * @param limit The maximum number of tasks to return.
+     * @return The tasks, ordered by title.
+     */
+    @Operation(summary = "Returns the tasks whose title starts with a prefix")
+    @GetMapping("/suggest")
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = TaskDto.class))))
+    @ApiResponse(responseCode = "400", description = "The limit is outside the allowed range", content = @Content)
+    public ResponseEntity<StreamingResponseBody> suggestTasks(
+        @Parameter(description = "The prefix to match against the start of task titles.  Matching is case-insensitive")
+        @RequestParam(value = "prefix") String prefix, 
+        @Parameter(description = "The maximum number of tasks to return (between 1 and 100)")
+        @RequestParam(value = "limit", defaultValue = "10") int limit
+    ) {
 
-        var allTasks = new ArrayList<Task>();
-        for (Task currentTask : taskManager.getAllTasks()) {
-            allTasks.add(currentTask);
+        if (limit < 1 || limit > MAXIMUM_SUGGESTION_LIMIT) {
+            String errorMessage = String.format("Parameter '%s' with value %d must be between 1 and %d.", "limit", limit, MAXIMUM_SUGGESTION_LIMIT);
+            return CreateStreamedBadRequestResponse(errorMessage);
         }
-        Function<Task, TaskDto> conversionFunction = (Task inputTask) -> {
-            return new TaskDto(inputTask);
+        List<Task> tasks = taskManager.suggestTasks(prefix, limit);
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(CreateStreamingTaskArrayResponseBody(tasks.stream(), tasks.size()));
+    }
+
+    /**
+     * Streams the changes made to tasks as server-sent events, so clients can follow changes without polling the task listing.
+     * <p>
+     * Each event contains a JSON object with the type of the change ('CREATED', 'UPDATED' or 'DELETED'), the id of the task, the version of the task manager resulting from the change, and (unless the task was deleted) the task.  A client which reconnects with the id of the last event it received in the 'Last-Event-ID' header resumes from the following change, or is sent a 'reset' event if it may have missed changes (after which it should reload the tasks).
+     * 
+     * @param lastEventId The id of the last event received by the client, if it is reconnecting.
+     * @return The emitter which sends the events.
+     */
+    @Operation(summary = "Streams changes to tasks as server-sent events")
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ApiResponse(responseCode = "200")
+    public SseEmitter getChanges(
+        @Parameter(description = "The id of the last event received, to resume a previous subscription")
+        @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId
+    ) {
+
+        return taskChangeFeed.subscribe(lastEventId);
+    }
+
+    /**
+     * Returns the changes made to tasks since the specified version of the task manager, so clients holding a copy of the tasks can synchronize it without reloading every task.
+     * <p>
+     * The response contains the version of the task manager the changes are current to (to pass as 'since' in the next request), the tasks created or updated since the specified version, and the ids of the tasks deleted since it.  If the changes since the version are no longer held (or the version is later than the current one, e.g. because the service has restarted), 'fullSnapshot' is true and the response contains all tasks instead, which should replace the client's copy.
+     * 
+     * @param since The version of the task manager returned by the previous request, or 0 to return all tasks.
+     * @return The changes.
+     */
+    @Operation(summary = "Returns the changes to tasks since a version")
+    @GetMapping("/delta")
+    @ApiResponse(responseCode = "200", description = "A JSON object with properties 'version', 'fullSnapshot', 'deletedIds' and 'tasks'")
+    @ApiResponse(responseCode = "400", description = "The version is negative", content = @Content)
+    public ResponseEntity<StreamingResponseBody> getTaskDelta(
+        @Parameter(description = "The 'version' value returned by the previous request, or 0 to return all tasks")
+        @RequestParam(value = "since") long since
+    ) {
+
+        if (since < 0) {
+            String errorMessage = String.format("Parameter '%s' with value %d must be greater than or equal to 0.", "since", since);
+            return CreateStreamedBadRequestResponse(errorMessage);
+        }
+        TaskDelta delta = taskManager.getChangesSince(since);
+        StreamingResponseBody responseBody = (OutputStream outputStream) -> {
+            // The servlet container is responsible for closing the response stream
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+                generator.writeStartObject();
+                generator.writeNumberField("version", delta.getVersion());
+                generator.writeBooleanField("fullSnapshot", delta.getFullSnapshot());
+                generator.writeArrayFieldStart("deletedIds");
+                for (UUID currentId : delta.getDeletedIds()) {
+                    generator.writeString(currentId.toString());
+                }
+                generator.writeEndArray();
+                // The tasks are written last, so a full snapshot is streamed rather than held in memory
+                generator.writeFieldName("tasks");
+                taskJsonWriter.writeTaskArray(generator, delta.getTasks().iterator(), STREAMED_RESPONSE_FLUSH_INTERVAL);
+                generator.writeEndObject();
+            }
         };
 
-        return new ArrayListIteratorConverter<Task, TaskDto>(allTasks, conversionFunction);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(responseBody);
     }
 
     /**
@@ -129,76 +436,368 @@ public class TaskController {
 
         var task = new Task(taskDto);
         taskManager.deleteTask(task);
+        taskJsonCache.remove(task.getId());
+
+        return new ResponseEntity<Void>(HttpStatus.OK);
+    }
+
+    /**
+     * Deletes the task with the specified id from the manager.
+     * <p>
+     * Unlike {@link #deleteTask(TaskDto)} this doesn't need a request body, so no {@link Task} has to be built and validated just to obtain the id.
+     * 
+     * @param id The id of the task to delete.
+     */
+    @Operation(summary = "Deletes the task with the specified id")
+    @DeleteMapping("/{id}")
+    @ApiResponse(responseCode = "200", description = "Task deleted successfully")
+    @ApiResponse(responseCode = "404", description = "A task with the specified id does not exist", content = @Content)
+    public ResponseEntity<?> deleteTask(
+        @Parameter(description = "The id of the task to delete")
+        @PathVariable(value="id") UUID id
+    ) {
+
+        if (taskManager.tryDeleteTask(id) == false)
+            return CreateTaskDoesntExistResponse(id);
+        taskJsonCache.remove(id);
 
         return new ResponseEntity<Void>(HttpStatus.OK);
     }
 
+    /**
+     * Creates a task from each of the {@link NewTaskDto} objects in the request body.
+     * 
+     * @param requestBody The request body containing a JSON array of {@link NewTaskDto} objects to create the tasks from.
+     * @return The result of each item, in the same order as the request.
+     * @throws IOException If an error occurs reading the request body.
+     */
+    @Operation(summary = "Creates a batch of new tasks")
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(array = @ArraySchema(schema = @Schema(implementation = NewTaskDto.class))))
+    @ApiResponse(responseCode = "200", description = "The batch was processed.  The result of each item is returned in the same order as the request, with the status the equivalent single task request would have returned (201 if created, or 400 if invalid)")
+    @ApiResponse(responseCode = "400", description = "The request body could not be parsed, or the batch contains too many items", content = @Content)
+    public ResponseEntity<?> createTasks(InputStream requestBody) throws IOException {
+
+        return ReadBatch(requestBody, NewTaskDto.class, (List<NewTaskDto> newTaskDtos) -> {
+            List<TaskBatchItemResult> results = taskManager.createTasks(newTaskDtos);
+
+            return new ResponseEntity<List<TaskBatchItemResponse>>(ConvertBatchResults(results, HttpStatus.CREATED), HttpStatus.OK);
+        });
+    }
+
+    /**
+     * Updates each of the tasks in the request body in the manager.
+     * 
+     * @param requestBody The request body containing a JSON array of the updated {@link TaskDto} objects.
+     * @return The result of each item, in the same order as the request.
+     * @throws IOException If an error occurs reading the request body.
+     */
+    @Operation(summary = "Updates a batch of tasks")
+    @PutMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(array = @ArraySchema(schema = @Schema(implementation = TaskDto.class))))
+    @ApiResponse(responseCode = "200", description = "The batch was processed.  The result of each item is returned in the same order as the request, with the status the equivalent single task request would have returned (200 if updated, 400 if invalid, or 404 if the task doesn't exist)")
+    @ApiResponse(responseCode = "400", description = "The request body could not be parsed, or the batch contains too many items", content = @Content)
+    public ResponseEntity<?> updateTasks(InputStream requestBody) throws IOException {
+
+        return ReadBatch(requestBody, TaskDto.class, (List<TaskDto> taskDtos) -> {
+            List<TaskBatchItemResult> results = ApplyTaskBatch(taskDtos, taskManager::updateTasks);
+            RemoveFromJsonCache(results);
+
+            return new ResponseEntity<List<TaskBatchItemResponse>>(ConvertBatchResults(results, HttpStatus.OK), HttpStatus.OK);
+        });
+    }
+
+    /**
+     * Deletes each of the tasks in the request body from the manager.
+     * 
+     * @param requestBody The request body containing a JSON array of the {@link TaskDto} objects to delete.
+     * @return The result of each item, in the same order as the request.
+     * @throws IOException If an error occurs reading the request body.
+     */
+    @Operation(summary = "Deletes a batch of tasks")
+    @DeleteMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(array = @ArraySchema(schema = @Schema(implementation = TaskDto.class))))
+    @ApiResponse(responseCode = "200", description = "The batch was processed.  The result of each item is returned in the same order as the request, with the status the equivalent single task request would have returned (200 if deleted, 400 if invalid, or 404 if the task doesn't exist)")
+    @ApiResponse(responseCode = "400", description = "The request body could not be parsed, or the batch contains too many items", content = @Content)
+    public ResponseEntity<?> deleteTasks(InputStream requestBody) throws IOException {
+
+        return ReadBatch(requestBody, TaskDto.class, (List<TaskDto> taskDtos) -> {
+            List<TaskBatchItemResult> results = ApplyTaskBatch(taskDtos, taskManager::deleteTasks);
+            RemoveFromJsonCache(results);
+
+            return new ResponseEntity<List<TaskBatchItemResponse>>(ConvertBatchResults(results, HttpStatus.OK), HttpStatus.OK);
+        });
+    }
+
+    /**
+     * Retrieves the tasks with the ids in the request body from the task manager.
+     * 
+     * @param requestBody The request body containing a JSON array of the ids of the tasks to retrieve.
+     * @return The tasks which were found, and the ids which weren't.
+     * @throws IOException If an error occurs reading the request body.
+     */
+    @Operation(summary = "Retrieves multiple tasks by id")
+    @PostMapping(value = "/batchGet", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(array = @ArraySchema(schema = @Schema(implementation = UUID.class))))
+    @ApiResponse(responseCode = "200", description = "The tasks which were found, in the same order as their ids in the request, and the ids for which no task exists")
+    @ApiResponse(responseCode = "400", description = "The request body could not be parsed, or contains a null id or too many ids", content = @Content)
+    public ResponseEntity<?> getTasks(InputStream requestBody) throws IOException {
+
+        return ReadBatch(requestBody, UUID.class, (List<UUID> ids) -> {
+            for (int i = 0; i < ids.size(); i++) {
+                if (ids.get(i) == null) {
+                    var errorResponse = new HttpErrorResponse(IllegalArgumentException.class.getSimpleName(), String.format("Element %d of the request body cannot be null.", i));
+                    return new ResponseEntity<HttpErrorResponse>(errorResponse, HttpStatus.BAD_REQUEST);
+                }
+            }
+            TaskLookupResult result = taskManager.getTasks(ids);
+            var taskDtos = new ArrayList<TaskDto>(result.getTasks().size());
+            for (Task currentTask : result.getTasks()) {
+                taskDtos.add(new TaskDto(currentTask));
+            }
+
+            return new ResponseEntity<TaskLookupResponse>(new TaskLookupResponse(taskDtos, result.getMissingIds()), HttpStatus.OK);
+        });
+    }
+
+    /**
+     * Imports tasks from newline delimited JSON (NDJSON) records in the request body, where each record is in the format of a {@link NewTaskDto}.
+     * <p>
+     * Records are parsed from the request body one at a time and created in the manager in batches, so the request body is never held in memory in full.  Records which fail validation are rejected without stopping the import.
+     * 
+     * @param requestBody The request body containing the NDJSON records.
+     * @return The number of tasks imported and details of any rejected records.
+     * @throws IOException If an error occurs reading the request body.
+     */
+    @Operation(summary = "Imports tasks from newline delimited JSON")
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @ApiResponse(responseCode = "200", description = "The records were imported.  Any records which failed validation are reported in the response")
+    @ApiResponse(responseCode = "400", description = "A record could not be parsed.  Tasks from records preceding it remain imported", content = @Content)
+    public ResponseEntity<?> importTasks(InputStream requestBody) throws IOException {
+
+        try {
+            TaskImportResponse importResponse = ndjsonTaskImporter.importTasks(requestBody, taskManager);
+
+            return new ResponseEntity<TaskImportResponse>(importResponse, HttpStatus.OK);
+        }
+        catch (IllegalArgumentException e) {
+            var errorResponse = new HttpErrorResponse(IllegalArgumentException.class.getSimpleName(), e.getMessage());
+
+            return new ResponseEntity<HttpErrorResponse>(errorResponse, HttpStatus.BAD_REQUEST);
+        }
+    }
+
     /**
      * Retrieves a single task from the task manager.
+     * <p>
+     * The response has an entity tag derived from the version of the task.  If the request's 'If-None-Match' header contains the current tag, a 304 (Not Modified) response is returned without serializing the task.
      * 
      * @param id The id of the task to retrieve.
+     * @param ifNoneMatch The value of the request's 'If-None-Match' header.
      * @return The task.
      */
     @Operation(summary = "Retrieves the task with the specified id")
     @GetMapping("/{id}")
     @ApiResponse(responseCode = "200", description = "Task retrieved successfully")
+    @ApiResponse(responseCode = "304", description = "The task hasn't changed since the entity tag in the 'If-None-Match' header was returned", content = @Content)
     @ApiResponse(responseCode = "404", description = "A task with the specified id does not exist", content = @Content)
-    public TaskDto getTask(
+    public ResponseEntity<?> getTask(
         @Parameter(description = "The id of the task to retrieve")
-        @PathVariable(value="id") UUID id
-    ) throws TaskDoesntExistException {
+        @PathVariable(value="id") UUID id, 
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) throws IOException {
+
+        Optional<Task> task = taskManager.findTask(id);
+        if (task.isEmpty() == true)
+            return CreateTaskDoesntExistResponse(id);
+        String entityTag = CreateEntityTag(task.get().getVersion());
+        if (EntityTagMatches(ifNoneMatch, entityTag) == true)
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(entityTag).build();
 
-        return new TaskDto(taskManager.getTask(id));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).eTag(entityTag).body(taskJsonCache.getJson(task.get()));
     }
 
-    //#region Exception to HTTP Status Mapping
+    /**
+     * Converts the specified {@link TaskDto} objects to tasks and applies a batch operation to the valid ones.
+     * 
+     * @param taskDtos The {@link TaskDto} objects.
+     * @param operation The batch operation to apply to the tasks converted from the valid {@link TaskDto} objects.
+     * @return The result for each {@link TaskDto}, in the same order.  Invalid {@link TaskDto} objects have a failed result containing an {@link IllegalArgumentException}.
+     */
+    protected List<TaskBatchItemResult> ApplyTaskBatch(List<TaskDto> taskDtos, Function<List<Task>, List<TaskBatchItemResult>> operation) {
 
-    @ExceptionHandler({TaskDoesntExistException.class})
-    public ResponseEntity<?> processException(TaskDoesntExistException taskDoesntExistException) {
-        var errorResponse = new HttpErrorResponse(TaskDoesntExistException.class.getSimpleName(), taskDoesntExistException.getMessage());
-        return new ResponseEntity<HttpErrorResponse>(errorResponse, HttpStatus.NOT_FOUND);
+        var results = new TaskBatchItemResult[taskDtos.size()];
+        var tasks = new ArrayList<Task>(taskDtos.size());
+        var taskIndices = new ArrayList<Integer>(taskDtos.size());
+        for (int i = 0; i < taskDtos.size(); i++) {
+            TaskDto currentTaskDto = taskDtos.get(i);
+            if (currentTaskDto == null || currentTaskDto.getId() == null) {
+                String errorMessage = String.format("Element %d of the request body %s.", i, currentTaskDto == null ? "cannot be null" : "must have an 'id'");
+                results[i] = new TaskBatchItemResult(null, new IllegalArgumentException(errorMessage));
+                continue;
+            }
+            try {
+                tasks.add(new Task(currentTaskDto));
+                taskIndices.add(i);
+            }
+            catch (IllegalArgumentException e) {
+                results[i] = new TaskBatchItemResult(null, e);
+            }
+        }
+        List<TaskBatchItemResult> appliedResults = operation.apply(tasks);
+        for (int i = 0; i < appliedResults.size(); i++) {
+            results[taskIndices.get(i)] = appliedResults.get(i);
+        }
+
+        return List.of(results);
     }
 
-    //#endregion
+    /**
+     * Converts the results of a batch operation to {@link TaskBatchItemResponse} objects.
+     * 
+     * @param results The results of the batch operation.
+     * @param successStatus The status to return for items which succeeded.
+     * @return The {@link TaskBatchItemResponse} objects.
+     */
+    protected List<TaskBatchItemResponse> ConvertBatchResults(List<TaskBatchItemResult> results, HttpStatus successStatus) {
+
+        var responses = new ArrayList<TaskBatchItemResponse>(results.size());
+        for (TaskBatchItemResult currentResult : results) {
+            if (currentResult.getSuccess() == true) {
+                responses.add(new TaskBatchItemResponse(successStatus.value(), new TaskDto(currentResult.getTask()), null));
+            }
+            else {
+                Exception exception = currentResult.getException();
+                HttpStatus status = exception instanceof TaskDoesntExistException ? HttpStatus.NOT_FOUND : HttpStatus.BAD_REQUEST;
+                var errorResponse = new HttpErrorResponse(exception.getClass().getSimpleName(), exception.getMessage());
+                responses.add(new TaskBatchItemResponse(status.value(), null, errorResponse));
+            }
+        }
+
+        return responses;
+    }
 
     /**
-     * Implements {@link Iterable} and {@link Iterator}, applying a specified conversion function to each element in an {@link ArrayList}.
+     * Creates a 400 response for an endpoint whose success response is streamed, and whose return type hence restricts the error response to also being streamed.
      * 
-     * @param <TIn> The type of the elements in the {@link ArrayList}.
-     * @param <TOut> The type the elements of the {@link ArrayList} are converted to.
+     * @param errorMessage The message describing the invalid parameter.
+     * @return The response.
      */
-    protected class ArrayListIteratorConverter<TIn, TOut> implements Iterable<TOut>, Iterator<TOut> {
+    protected ResponseEntity<StreamingResponseBody> CreateStreamedBadRequestResponse(String errorMessage) {
 
-        protected ArrayList<TIn> inputArray;
-        protected Function<TIn, TOut> conversionFunction;
-        protected int currentIndex;
+        var errorResponse = new HttpErrorResponse(IllegalArgumentException.class.getSimpleName(), errorMessage);
+        StreamingResponseBody errorResponseBody = (OutputStream outputStream) -> {
+            objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(outputStream, errorResponse);
+        };
 
-        /**
-         * Constructs an ArrayListIteratorConverter.
-         * 
-         * @param inputArray The {@link ArrayList} to apply the conversion function to.
-         * @param conversionFunction A function which converts elements of the {@link ArrayList} to type {@link TOut}
-         */
-        public ArrayListIteratorConverter(ArrayList<TIn> inputArray, Function<TIn, TOut> conversionFunction) {
-            this.inputArray = inputArray;
-            this.conversionFunction = conversionFunction;
-            currentIndex = 0;
-        }
+        return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(errorResponseBody);
+    }
+
+    /**
+     * Reads the JSON array in the request body of a 'batch' endpoint, and passes the elements to a handler which processes the batch.  Reading stops as soon as the array exceeds the maximum batch size, so an oversized batch is rejected without the request body being read in full.
+     * 
+     * @param <T> The type of the elements.
+     * @param requestBody The request body.
+     * @param elementType The type of the elements.
+     * @param handler Processes the batch and returns the response.
+     * @return The response returned by the handler, or a 400 response if the request body could not be parsed or contains too many elements.
+     * @throws IOException If an error occurs reading the request body.
+     */
+    protected <T> ResponseEntity<?> ReadBatch(InputStream requestBody, Class<T> elementType, Function<List<T>, ResponseEntity<?>> handler) throws IOException {
 
-        @Override
-        public Iterator<TOut> iterator() {
-            return this;
+        List<T> elements;
+        try {
+            elements = batchReader.read(requestBody, elementType);
         }
+        catch (IllegalArgumentException e) {
+            var errorResponse = new HttpErrorResponse(IllegalArgumentException.class.getSimpleName(), e.getMessage());
+            return new ResponseEntity<HttpErrorResponse>(errorResponse, HttpStatus.BAD_REQUEST);
+        }
+
+        return handler.apply(elements);
+    }
+
+    /**
+     * Creates a {@link StreamingResponseBody} which writes the specified tasks as a JSON array (from their cached JSON representations, unless there are more tasks than the cache holds), closing the stream of tasks once written.
+     */
+    protected StreamingResponseBody CreateStreamingTaskArrayResponseBody(Stream<Task> tasks, int taskCount) {
+
+        return (OutputStream outputStream) -> {
+            // The servlet container is responsible for closing the response stream
+            try (tasks) {
+                taskJsonCache.writeJsonArray(outputStream, tasks.iterator(), taskCount, STREAMED_RESPONSE_FLUSH_INTERVAL);
+            }
+        };
+    }
+
+    /**
+     * Removes the cached JSON representations of the tasks in the successful results of a batch update or delete.
+     * 
+     * @param results The results of the batch.
+     */
+    protected void RemoveFromJsonCache(List<TaskBatchItemResult> results) {
 
-        @Override
-        public boolean hasNext() {
-            return (currentIndex < inputArray.size());
+        for (TaskBatchItemResult currentResult : results) {
+            if (currentResult.getSuccess() == true) {
+                taskJsonCache.remove(currentResult.getTask().getId());
+            }
         }
+    }
 
-        @Override
-        public TOut next() {
-            currentIndex++;
-            return conversionFunction.apply(inputArray.get(currentIndex - 1));
+    /**
+     * Creates a strong entity tag for the specified version of the task manager or of a task.
+     * 
+     * @param version The version.
+     * @return The entity tag, including the enclosing quotes.
+     */
+    protected String CreateEntityTag(long version) {
+
+        return "\"" + entityTagPrefix + Long.toString(version) + "\"";
+    }
+
+    /**
+     * Checks whether the value of an 'If-None-Match' header matches the specified entity tag.
+     * 
+     * @param ifNoneMatch The value of the header (a comma separated list of entity tags, or '*'), or null if the header wasn't included in the request.
+     * @param entityTag The current entity tag of the resource, including the enclosing quotes.
+     * @return Whether the header matches the entity tag.
+     */
+    protected boolean EntityTagMatches(String ifNoneMatch, String entityTag) {
+
+        if (ifNoneMatch == null)
+            return false;
+        for (String currentTag : ifNoneMatch.split(",")) {
+            currentTag = currentTag.trim();
+            // 'If-None-Match' uses weak comparison, so a weak tag matches a strong tag with the same value
+            if (currentTag.startsWith("W/") == true)
+                currentTag = currentTag.substring(2);
+            if (currentTag.equals("*") == true || currentTag.equals(entityTag) == true)
+                return true;
         }
+
+        return false;
+    }
+
+    /**
+     * Creates a 404 response for a task which doesn't exist, with the same body as a {@link TaskDoesntExistException} mapped by {@link #processException(TaskDoesntExistException)}.
+     * 
+     * @param id The id of the task.
+     * @return The response.
+     */
+    protected ResponseEntity<HttpErrorResponse> CreateTaskDoesntExistResponse(UUID id) {
+
+        var errorResponse = new HttpErrorResponse(TaskDoesntExistException.class.getSimpleName(), TaskDoesntExistException.createMessage(id));
+
+        return new ResponseEntity<HttpErrorResponse>(errorResponse, HttpStatus.NOT_FOUND);
     }
+
+    //#region Exception to HTTP Status Mapping
+
+    @ExceptionHandler({TaskDoesntExistException.class})
+    public ResponseEntity<?> processException(TaskDoesntExistException taskDoesntExistException) {
+        var errorResponse = new HttpErrorResponse(TaskDoesntExistException.class.getSimpleName(), taskDoesntExistException.getMessage());
+        return new ResponseEntity<HttpErrorResponse>(errorResponse, HttpStatus.NOT_FOUND);
+    }
+
+    //#endregion
 }
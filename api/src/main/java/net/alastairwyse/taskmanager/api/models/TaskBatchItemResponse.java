@@ -0,0 +1,66 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.api.models;
+
+import net.alastairwyse.taskmanager.models.dtos.TaskDto;
+
+/**
+ * The outcome of a single item in a batch request, returned in the same position as the item in the request.
+ */
+public class TaskBatchItemResponse {
+
+    /** The HTTP status code which the equivalent single item request would have returned. */
+    protected int status;
+    /** The created, updated, or deleted task, or null if the item failed. */
+    protected TaskDto task;
+    /** Details of why the item failed, or null if the item succeeded. */
+    protected HttpErrorResponse error;
+
+    /**
+     * @return The HTTP status code which the equivalent single item request would have returned.
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * @return The created, updated, or deleted task, or null if the item failed.
+     */
+    public TaskDto getTask() {
+        return task;
+    }
+
+    /**
+     * @return Details of why the item failed, or null if the item succeeded.
+     */
+    public HttpErrorResponse getError() {
+        return error;
+    }
+
+    /**
+     * Constructs a TaskBatchItemResponse.
+     * 
+     * @param status The HTTP status code which the equivalent single item request would have returned.
+     * @param task The created, updated, or deleted task, or null if the item failed.
+     * @param error Details of why the item failed, or null if the item succeeded.
+     */
+    public TaskBatchItemResponse(int status, TaskDto task, HttpErrorResponse error) {
+        this.status = status;
+        this.task = task;
+        this.error = error;
+    }
+}
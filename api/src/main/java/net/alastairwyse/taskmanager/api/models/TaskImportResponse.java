@@ -0,0 +1,66 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.api.models;
+
+import java.util.List;
+
+/**
+ * The outcome of an import of tasks.
+ */
+public class TaskImportResponse {
+
+    /** The number of tasks which were imported. */
+    protected long importedCount;
+    /** The number of records which were rejected (e.g. because they failed validation). */
+    protected long rejectedCount;
+    /** Details of why records were rejected, each including the number of the rejected record in attribute 'Record'.  Only the first rejections up to a fixed limit are included. */
+    protected List<HttpErrorResponse> rejections;
+
+    /**
+     * @return The number of tasks which were imported.
+     */
+    public long getImportedCount() {
+        return importedCount;
+    }
+
+    /**
+     * @return The number of records which were rejected (e.g. because they failed validation).
+     */
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * @return Details of why records were rejected, each including the number of the rejected record in attribute 'Record'.  Only the first rejections up to a fixed limit are included.
+     */
+    public List<HttpErrorResponse> getRejections() {
+        return rejections;
+    }
+
+    /**
+     * Constructs a TaskImportResponse.
+     * 
+     * @param importedCount The number of tasks which were imported.
+     * @param rejectedCount The number of records which were rejected.
+     * @param rejections Details of why records were rejected.
+     */
+    public TaskImportResponse(long importedCount, long rejectedCount, List<HttpErrorResponse> rejections) {
+        this.importedCount = importedCount;
+        this.rejectedCount = rejectedCount;
+        this.rejections = rejections;
+    }
+}
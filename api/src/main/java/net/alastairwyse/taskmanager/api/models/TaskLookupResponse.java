@@ -0,0 +1,58 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.api.models;
+
+import java.util.List;
+import java.util.UUID;
+
+import net.alastairwyse.taskmanager.models.dtos.TaskDto;
+
+/**
+ * The result of retrieving multiple tasks by id.
+ */
+public class TaskLookupResponse {
+
+    /** The tasks which were found, in the order of their ids in the request. */
+    protected List<TaskDto> tasks;
+    /** The ids in the request for which no task was found. */
+    protected List<UUID> missingIds;
+
+    /**
+     * @return The tasks which were found, in the order of their ids in the request.
+     */
+    public List<TaskDto> getTasks() {
+        return tasks;
+    }
+
+    /**
+     * @return The ids in the request for which no task was found.
+     */
+    public List<UUID> getMissingIds() {
+        return missingIds;
+    }
+
+    /**
+     * Constructs a TaskLookupResponse.
+     * 
+     * @param tasks The tasks which were found, in the order of their ids in the request.
+     * @param missingIds The ids in the request for which no task was found.
+     */
+    public TaskLookupResponse(List<TaskDto> tasks, List<UUID> missingIds) {
+        this.tasks = tasks;
+        this.missingIds = missingIds;
+    }
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.api.serialization;
+
+/**
+ * Formats which tasks can be exported in.
+ */
+public enum ExportFormat {
+
+    /** Newline delimited JSON, with each line containing a task in the same format as Jackson's serialization of a TaskDto. */
+    NDJSON,
+    /** Comma separated values as defined by RFC 4180, with a header row, and columns 'id', 'title', 'detail', and 'dueDate' (in ISO format, or empty if the task has no due date). */
+    CSV
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.api.serialization;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Reads a JSON array from a request body, with a limit on the number of elements.
+ * <p>
+ * The elements are read one at a time with a streaming {@link JsonParser}, and reading stops as soon as the limit is exceeded, so an oversized request body is rejected without being read (or held in memory) in full.
+ */
+public class JsonArrayReader {
+
+    /** The object mapper used to read the elements. */
+    protected ObjectMapper objectMapper;
+    /** The maximum number of elements in an array. */
+    protected int maximumSize;
+
+    /**
+     * Constructs a JsonArrayReader.
+     * 
+     * @param objectMapper The object mapper to use to read the elements.
+     * @param maximumSize The maximum number of elements in an array.
+     */
+    public JsonArrayReader(ObjectMapper objectMapper, int maximumSize) {
+
+        if (maximumSize < 1)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be greater than 0.", "maximumSize"));
+
+        this.objectMapper = objectMapper;
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * @return The maximum number of elements in an array.
+     */
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Reads the JSON array in the specified input.
+     * 
+     * @param <T> The type of the elements.
+     * @param input The input containing the array.
+     * @param elementType The type of the elements.
+     * @return The elements, in the same order as the array.  JSON null elements are returned as null.
+     * @throws IllegalArgumentException If the input is not a JSON array of elements of the specified type, or the array contains more than the maximum number of elements.
+     * @throws IOException If an error occurs reading the input.
+     */
+    public <T> List<T> read(InputStream input, Class<T> elementType) throws IOException {
+
+        ObjectReader elementReader = objectMapper.readerFor(elementType);
+        var elements = new ArrayList<T>();
+        try (JsonParser parser = elementReader.createParser(input)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY)
+                throw new IllegalArgumentException("The request body must contain a JSON array.");
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (elements.size() == maximumSize)
+                    throw new IllegalArgumentException(String.format("The request body contains more than the maximum of %d items.", maximumSize));
+                if (parser.currentToken() == JsonToken.VALUE_NULL) {
+                    elements.add(null);
+                }
+                else {
+                    elements.add(elementReader.readValue(parser));
+                }
+            }
+        }
+        catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(String.format("Failed to parse element %d of the request body.  %s", elements.size(), e.getOriginalMessage()), e);
+        }
+
+        return elements;
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.api.serialization;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import net.alastairwyse.taskmanager.TaskManager;
+import net.alastairwyse.taskmanager.api.models.HttpErrorResponse;
+import net.alastairwyse.taskmanager.api.models.TaskImportResponse;
+import net.alastairwyse.taskmanager.models.TaskBatchItemResult;
+import net.alastairwyse.taskmanager.models.dtos.NewTaskDto;
+import net.alastairwyse.taskmanager.validation.NewTaskDtoValidator;
+import net.alastairwyse.taskmanager.validation.ValidationResult;
+
+/**
+ * Imports tasks from newline delimited JSON (NDJSON), where each line contains a JSON object in the format of {@link NewTaskDto}.
+ * <p>
+ * Records are read one at a time with a streaming {@link JsonParser}, and are validated and passed to {@link TaskManager#createTasks(List)} in batches of a fixed size.  Reading of the input is paused while each batch is being created, so the rate of reading is limited by the rate the task manager can create tasks, and memory use doesn't grow with the size of the input.
+ */
+public class NdjsonTaskImporter {
+
+    /** Reader which reads {@link NewTaskDto} objects from the input. */
+    protected ObjectReader newTaskDtoReader;
+    /** The validator for each record. */
+    protected NewTaskDtoValidator newTaskDtoValidator;
+    /** The maximum number of records passed to the task manager at once. */
+    protected int batchSize;
+    /** The maximum number of rejected records to include details of in the response. */
+    protected int maximumReportedRejections;
+
+    /**
+     * Constructs an NdjsonTaskImporter.
+     * 
+     * @param objectMapper The object mapper to use to read records.
+     * @param batchSize The maximum number of records passed to the task manager at once.
+     * @param maximumReportedRejections The maximum number of rejected records to include details of in the response.
+     */
+    public NdjsonTaskImporter(ObjectMapper objectMapper, int batchSize, int maximumReportedRejections) {
+
+        if (batchSize < 1)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be greater than 0.", "batchSize"));
+        if (maximumReportedRejections < 0)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be greater than or equal to 0.", "maximumReportedRejections"));
+
+        newTaskDtoReader = objectMapper.readerFor(NewTaskDto.class);
+        newTaskDtoValidator = new NewTaskDtoValidator();
+        this.batchSize = batchSize;
+        this.maximumReportedRejections = maximumReportedRejections;
+    }
+
+    /**
+     * Imports the tasks in the specified input.
+     * <p>
+     * Records which fail validation are rejected and the import continues.  If a record cannot be parsed the import stops, and tasks from preceding records remain imported.
+     * 
+     * @param input The input containing the NDJSON records.
+     * @param taskManager The task manager to create the tasks in.
+     * @return The outcome of the import.
+     * @throws IllegalArgumentException If a record could not be parsed.
+     * @throws IOException If an error occurs reading the input.
+     */
+    public TaskImportResponse importTasks(InputStream input, TaskManager taskManager) throws IOException {
+
+        var state = new ImportState(batchSize);
+        try (JsonParser parser = newTaskDtoReader.createParser(input)) {
+            long recordNumber = 0;
+            while (true) {
+                NewTaskDto newTaskDto;
+                try {
+                    if (parser.nextToken() == null) {
+                        break;
+                    }
+                    recordNumber++;
+                    if (parser.currentToken() == JsonToken.VALUE_NULL) {
+                        newTaskDto = null;
+                    }
+                    else {
+                        newTaskDto = newTaskDtoReader.readValue(parser);
+                    }
+                }
+                catch (JsonProcessingException e) {
+                    CreateBatch(taskManager, state);
+                    throw new IllegalArgumentException(String.format("Failed to parse record %d.  %d tasks were imported before the failure.  %s", recordNumber, state.importedCount, e.getOriginalMessage()), e);
+                }
+                if (newTaskDto == null) {
+                    Reject(recordNumber, IllegalArgumentException.class.getSimpleName(), "The record cannot be null.", state);
+                    continue;
+                }
+                ValidationResult validationResult = newTaskDtoValidator.validate(newTaskDto);
+                if (validationResult.getIsValid() == false) {
+                    Reject(recordNumber, IllegalArgumentException.class.getSimpleName(), validationResult.getValidationError(), state);
+                    continue;
+                }
+                state.batchRecordNumbers[state.batch.size()] = recordNumber;
+                state.batch.add(newTaskDto);
+                if (state.batch.size() == batchSize) {
+                    CreateBatch(taskManager, state);
+                }
+            }
+        }
+        CreateBatch(taskManager, state);
+
+        return new TaskImportResponse(state.importedCount, state.rejectedCount, state.rejections);
+    }
+
+    /**
+     * Creates the tasks in the current batch, and starts a new batch.
+     * 
+     * @param taskManager The task manager to create the tasks in.
+     * @param state The state of the import to update.
+     */
+    protected void CreateBatch(TaskManager taskManager, ImportState state) {
+
+        if (state.batch.isEmpty() == true)
+            return;
+
+        // A new list is used for each batch rather than clearing the current one, in case the task manager holds a reference to it
+        List<TaskBatchItemResult> results = taskManager.createTasks(state.batch);
+        for (int i = 0; i < results.size(); i++) {
+            TaskBatchItemResult currentResult = results.get(i);
+            if (currentResult.getSuccess() == true) {
+                state.importedCount++;
+            }
+            else {
+                Exception exception = currentResult.getException();
+                Reject(state.batchRecordNumbers[i], exception.getClass().getSimpleName(), exception.getMessage(), state);
+            }
+        }
+        state.batch = new ArrayList<NewTaskDto>(batchSize);
+    }
+
+    protected void Reject(long recordNumber, String code, String message, ImportState state) {
+
+        state.rejectedCount++;
+        if (state.rejections.size() < maximumReportedRejections) {
+            var attributes = new ArrayList<Map.Entry<String, String>>();
+            attributes.add(new AbstractMap.SimpleEntry<String, String>("Record", Long.toString(recordNumber)));
+            state.rejections.add(new HttpErrorResponse(code, message, attributes));
+        }
+    }
+
+    /**
+     * The current batch and running totals of an import.
+     */
+    protected static class ImportState {
+
+        /** The validated records not yet passed to the task manager. */
+        protected List<NewTaskDto> batch;
+        /** The record number of each element of the 'batch' field. */
+        protected long[] batchRecordNumbers;
+        protected long importedCount;
+        protected long rejectedCount;
+        protected List<HttpErrorResponse> rejections;
+
+        protected ImportState(int batchSize) {
+            batch = new ArrayList<NewTaskDto>(batchSize);
+            batchRecordNumbers = new long[batchSize];
+            importedCount = 0;
+            rejectedCount = 0;
+            rejections = new ArrayList<HttpErrorResponse>();
+        }
+    }
+}
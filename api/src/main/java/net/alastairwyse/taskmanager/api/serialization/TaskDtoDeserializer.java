@@ -0,0 +1,240 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.api.serialization;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import net.alastairwyse.taskmanager.models.dtos.DateOnlyDto;
+import net.alastairwyse.taskmanager.models.dtos.NewTaskDto;
+import net.alastairwyse.taskmanager.models.dtos.TaskDto;
+
+/**
+ * Deserializes {@link NewTaskDto} and {@link TaskDto} objects, accepting the same JSON as Jackson's default bean deserialization (with the 'Jdk8Module' registered).
+ * <p>
+ * Matches property names directly rather than via the property map and reflection based setters of the default deserializer, and reads the optional due date without creating deserializers for the {@link Optional} and {@link DateOnlyDto}.  Values other than strings and integers, as well as unknown properties, are handled by the same deserializers and {@link DeserializationContext} methods as the default deserialization, so coercion, null handling and errors are unchanged.
+ * 
+ * @param <T> The type of DTO to deserialize.
+ */
+public class TaskDtoDeserializer<T extends NewTaskDto> extends StdDeserializer<T> implements ContextualDeserializer {
+
+    private static final long serialVersionUID = 1L;
+
+    // The factory and value deserializers aren't serializable, and (as with Jackson's own deserializers) a deserializer is never serialized in practice, so they're transient
+
+    /** Creates the DTOs to deserialize into. */
+    protected final transient Supplier<T> dtoFactory;
+    /** Deserializes non-string values of the 'title' and 'detail' properties. */
+    protected final transient JsonDeserializer<Object> stringDeserializer;
+    /** Deserializes values of the 'id' property. */
+    protected final transient JsonDeserializer<Object> uuidDeserializer;
+    /** Deserializes non-integer values of the due date properties. */
+    protected final transient JsonDeserializer<Object> intDeserializer;
+
+    /**
+     * Constructs a TaskDtoDeserializer.
+     * 
+     * @param dtoClass The class of DTO to deserialize.
+     * @param dtoFactory Creates the DTOs to deserialize into.
+     */
+    public TaskDtoDeserializer(Class<T> dtoClass, Supplier<T> dtoFactory) {
+        this(dtoClass, dtoFactory, null, null, null);
+    }
+
+    /**
+     * Constructs a TaskDtoDeserializer.
+     * 
+     * @param dtoClass The class of DTO to deserialize.
+     * @param dtoFactory Creates the DTOs to deserialize into.
+     * @param stringDeserializer Deserializes non-string values of the 'title' and 'detail' properties.
+     * @param uuidDeserializer Deserializes values of the 'id' property.
+     * @param intDeserializer Deserializes non-integer values of the due date properties.
+     */
+    protected TaskDtoDeserializer(Class<T> dtoClass, Supplier<T> dtoFactory, JsonDeserializer<Object> stringDeserializer, JsonDeserializer<Object> uuidDeserializer, JsonDeserializer<Object> intDeserializer) {
+        super(dtoClass);
+        this.dtoFactory = dtoFactory;
+        this.stringDeserializer = stringDeserializer;
+        this.uuidDeserializer = uuidDeserializer;
+        this.intDeserializer = intDeserializer;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public JsonDeserializer<?> createContextual(DeserializationContext context, BeanProperty property) throws JsonMappingException {
+
+        // The value deserializers are resolved once per context, so that they reflect the configuration of the mapper the DTO deserializer is registered with
+        return new TaskDtoDeserializer<T>(
+            (Class<T>)handledType(), 
+            dtoFactory, 
+            context.findContextualValueDeserializer(context.constructType(String.class), property), 
+            context.findContextualValueDeserializer(context.constructType(UUID.class), property), 
+            context.findContextualValueDeserializer(context.constructType(Integer.TYPE), property)
+        );
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            token = parser.nextToken();
+        }
+        else if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+            return (T)context.handleUnexpectedToken(handledType(), parser);
+        }
+        T dto = dtoFactory.get();
+        while (token == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            parser.nextToken();
+            boolean propertyKnown = true;
+            try {
+                if (name.equals("title")) {
+                    dto.setTitle(ReadString(parser, context));
+                }
+                else if (name.equals("detail")) {
+                    dto.setDetail(ReadString(parser, context));
+                }
+                else if (name.equals("dueDate")) {
+                    dto.setDueDate(ReadDueDate(parser, context));
+                }
+                else if (name.equals("id") && dto instanceof TaskDto) {
+                    ((TaskDto)dto).setId((UUID)ReadValue(parser, context, uuidDeserializer));
+                }
+                else {
+                    propertyKnown = false;
+                }
+            }
+            catch (JsonMappingException e) {
+                throw JsonMappingException.wrapWithPath(e, dto, name);
+            }
+            if (propertyKnown == false) {
+                // Any exception thrown for an unknown property already includes the property in its path
+                handleUnknownProperty(parser, context, dto, name);
+            }
+            token = parser.nextToken();
+        }
+
+        return dto;
+    }
+
+    /**
+     * Reads the optional due date at the current token of the specified parser.
+     * 
+     * @param parser The parser.
+     * @param context The context of the deserialization.
+     * @return The due date.
+     * @throws IOException If an error occurs reading from the parser, or the due date is invalid.
+     */
+    protected Optional<DateOnlyDto> ReadDueDate(JsonParser parser, DeserializationContext context) throws IOException {
+
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL)
+            return Optional.empty();
+        if (token != JsonToken.START_OBJECT)
+            return Optional.ofNullable((DateOnlyDto)context.handleUnexpectedToken(DateOnlyDto.class, parser));
+
+        var dueDate = new DateOnlyDto();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            parser.nextToken();
+            boolean propertyKnown = true;
+            try {
+                if (name.equals("year")) {
+                    dueDate.setYear(ReadInt(parser, context));
+                }
+                else if (name.equals("month")) {
+                    dueDate.setMonth(ReadInt(parser, context));
+                }
+                else if (name.equals("day")) {
+                    dueDate.setDay(ReadInt(parser, context));
+                }
+                else {
+                    propertyKnown = false;
+                }
+            }
+            catch (JsonMappingException e) {
+                throw JsonMappingException.wrapWithPath(e, dueDate, name);
+            }
+            if (propertyKnown == false) {
+                handleUnknownProperty(parser, context, dueDate, name);
+            }
+        }
+
+        return Optional.of(dueDate);
+    }
+
+    /**
+     * Reads the string at the current token of the specified parser.
+     * 
+     * @param parser The parser.
+     * @param context The context of the deserialization.
+     * @return The string.
+     * @throws IOException If an error occurs reading from the parser, or the value can't be converted to a string.
+     */
+    protected String ReadString(JsonParser parser, DeserializationContext context) throws IOException {
+
+        if (parser.currentToken() == JsonToken.VALUE_STRING)
+            return parser.getText();
+
+        return (String)ReadValue(parser, context, stringDeserializer);
+    }
+
+    /**
+     * Reads the integer at the current token of the specified parser.
+     * 
+     * @param parser The parser.
+     * @param context The context of the deserialization.
+     * @return The integer.
+     * @throws IOException If an error occurs reading from the parser, or the value can't be converted to an integer.
+     */
+    protected int ReadInt(JsonParser parser, DeserializationContext context) throws IOException {
+
+        if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT && parser.getNumberType() == JsonParser.NumberType.INT)
+            return parser.getIntValue();
+
+        return (Integer)ReadValue(parser, context, intDeserializer);
+    }
+
+    /**
+     * Reads the value at the current token of the specified parser using the specified deserializer, or the deserializer's null value if the token is a null.
+     * 
+     * @param parser The parser.
+     * @param context The context of the deserialization.
+     * @param deserializer The deserializer.
+     * @return The value.
+     * @throws IOException If an error occurs reading from the parser, or deserializing the value.
+     */
+    protected Object ReadValue(JsonParser parser, DeserializationContext context, JsonDeserializer<Object> deserializer) throws IOException {
+
+        if (parser.currentToken() == JsonToken.VALUE_NULL)
+            return deserializer.getNullValue(context);
+
+        return deserializer.deserialize(parser, context);
+    }
+}
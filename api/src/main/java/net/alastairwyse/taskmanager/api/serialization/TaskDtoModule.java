@@ -0,0 +1,55 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.api.serialization;
+
+import com.fasterxml.jackson.databind.module.SimpleDeserializers;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.module.SimpleSerializers;
+
+import net.alastairwyse.taskmanager.models.dtos.NewTaskDto;
+import net.alastairwyse.taskmanager.models.dtos.TaskDto;
+
+/**
+ * Jackson module which registers the hand-written {@link TaskDtoSerializer} and {@link TaskDtoDeserializer} for {@link NewTaskDto} and {@link TaskDto}, in place of the default reflection based bean serialization.
+ */
+public class TaskDtoModule extends SimpleModule {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructs a TaskDtoModule.
+     */
+    public TaskDtoModule() {
+        super(TaskDtoModule.class.getSimpleName());
+    }
+
+    @Override
+    public void setupModule(SetupContext context) {
+
+        // The serializers are registered here rather than in the constructor, so that the constructor doesn't call overridable methods on a partially constructed module
+        var serializers = new SimpleSerializers();
+        var serializer = new TaskDtoSerializer();
+        serializers.addSerializer(NewTaskDto.class, serializer);
+        serializers.addSerializer(TaskDto.class, serializer);
+        context.addSerializers(serializers);
+        var deserializers = new SimpleDeserializers();
+        deserializers.addDeserializer(NewTaskDto.class, new TaskDtoDeserializer<NewTaskDto>(NewTaskDto.class, NewTaskDto::new));
+        deserializers.addDeserializer(TaskDto.class, new TaskDtoDeserializer<TaskDto>(TaskDto.class, TaskDto::new));
+        context.addDeserializers(deserializers);
+        super.setupModule(context);
+    }
+}
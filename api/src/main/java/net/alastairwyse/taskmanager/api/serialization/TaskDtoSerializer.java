@@ -0,0 +1,65 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.api.serialization;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import net.alastairwyse.taskmanager.models.dtos.DateOnlyDto;
+import net.alastairwyse.taskmanager.models.dtos.NewTaskDto;
+import net.alastairwyse.taskmanager.models.dtos.TaskDto;
+
+/**
+ * Serializes {@link NewTaskDto} and {@link TaskDto} objects, producing the same JSON as Jackson's default bean serialization (with the 'Jdk8Module' registered).
+ * <p>
+ * Writes the properties directly via the field level methods of {@link TaskJsonWriter} rather than via the reflection based property writers of the default serializer, and writes the optional due date without looking up serializers for the {@link java.util.Optional} and {@link DateOnlyDto}.
+ */
+public class TaskDtoSerializer extends StdSerializer<NewTaskDto> {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Writes the fields of the DTOs (stateless, so shared by all instances). */
+    protected static final TaskJsonWriter TASK_JSON_WRITER = new TaskJsonWriter();
+
+    /**
+     * Constructs a TaskDtoSerializer.
+     */
+    public TaskDtoSerializer() {
+        super(NewTaskDto.class);
+    }
+
+    @Override
+    public void serialize(NewTaskDto value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+
+        generator.writeStartObject(value);
+        TASK_JSON_WRITER.writeTitleAndDetailFields(generator, value.getTitle(), value.getDetail());
+        if (value.getDueDate() != null && value.getDueDate().isPresent() == true) {
+            DateOnlyDto dueDate = value.getDueDate().get();
+            TASK_JSON_WRITER.writeDueDateField(generator, dueDate.getYear(), dueDate.getMonth(), dueDate.getDay());
+        }
+        else {
+            TASK_JSON_WRITER.writeNullDueDateField(generator);
+        }
+        if (value instanceof TaskDto) {
+            TASK_JSON_WRITER.writeIdField(generator, ((TaskDto)value).getId());
+        }
+        generator.writeEndObject();
+    }
+}
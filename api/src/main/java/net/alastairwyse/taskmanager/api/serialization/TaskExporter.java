@@ -0,0 +1,217 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.api.serialization;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import net.alastairwyse.taskmanager.models.Task;
+
+/**
+ * Exports tasks in an {@link ExportFormat} to a {@link WritableByteChannel}.
+ * <p>
+ * The tasks are divided into chunks of a fixed number of tasks, and the chunks are encoded in parallel in a {@link ForkJoinPool}.  Encoded chunks are written to the channel in the original order of the tasks.  At most a fixed number of chunks (twice the parallelism of the pool) are encoded or waiting to be written at once, so memory use doesn't grow with the number of tasks, and reading of further tasks waits for the channel when it is slower than the encoding.
+ */
+public class TaskExporter {
+
+    /** The header row written before tasks exported as CSV. */
+    protected static final byte[] CSV_HEADER = "id,title,detail,dueDate\r\n".getBytes(StandardCharsets.UTF_8);
+
+    /** Used to create generators which write tasks exported as NDJSON. */
+    protected JsonFactory jsonFactory;
+    /** Writes tasks exported as NDJSON. */
+    protected TaskJsonWriter taskJsonWriter;
+    /** The pool which encodes chunks. */
+    protected ForkJoinPool pool;
+    /** The number of tasks in each chunk. */
+    protected int chunkSize;
+    /** The maximum number of chunks being encoded or waiting to be written at once. */
+    protected int maximumChunksInFlight;
+
+    /**
+     * Constructs a TaskExporter.
+     * 
+     * @param jsonFactory Used to create generators which write tasks exported as NDJSON.
+     * @param pool The pool which encodes chunks.
+     * @param chunkSize The number of tasks in each chunk.
+     */
+    public TaskExporter(JsonFactory jsonFactory, ForkJoinPool pool, int chunkSize) {
+
+        if (chunkSize < 1)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be greater than 0.", "chunkSize"));
+
+        this.jsonFactory = jsonFactory;
+        this.taskJsonWriter = new TaskJsonWriter();
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.maximumChunksInFlight = pool.getParallelism() * 2;
+    }
+
+    /**
+     * Exports the specified tasks.
+     * 
+     * @param tasks The tasks to export.
+     * @param format The format to export the tasks in.
+     * @param channel The channel to write the exported tasks to.
+     * @throws IOException If an error occurs encoding the tasks or writing to the channel.
+     */
+    public void export(Iterator<Task> tasks, ExportFormat format, WritableByteChannel channel) throws IOException {
+
+        if (format == ExportFormat.CSV) {
+            WriteFully(ByteBuffer.wrap(CSV_HEADER), channel);
+        }
+        var inFlightChunks = new ArrayDeque<ForkJoinTask<byte[]>>(maximumChunksInFlight);
+        try {
+            while (tasks.hasNext() == true) {
+                var chunk = new Task[chunkSize];
+                int chunkLength = 0;
+                while (chunkLength < chunkSize && tasks.hasNext() == true) {
+                    chunk[chunkLength] = tasks.next();
+                    chunkLength++;
+                }
+                final int finalChunkLength = chunkLength;
+                inFlightChunks.add(pool.submit(() -> EncodeChunk(chunk, finalChunkLength, format)));
+                if (inFlightChunks.size() == maximumChunksInFlight) {
+                    WriteChunk(inFlightChunks.remove(), channel);
+                }
+            }
+            while (inFlightChunks.isEmpty() == false) {
+                WriteChunk(inFlightChunks.remove(), channel);
+            }
+        }
+        finally {
+            for (ForkJoinTask<byte[]> currentChunk : inFlightChunks) {
+                currentChunk.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Encodes the specified chunk of tasks.
+     * 
+     * @param chunk The array containing the tasks.
+     * @param chunkLength The number of tasks at the start of the array to encode.
+     * @param format The format to encode the tasks in.
+     * @return The encoded tasks.
+     * @throws IOException If an error occurs encoding the tasks.
+     */
+    protected byte[] EncodeChunk(Task[] chunk, int chunkLength, ExportFormat format) throws IOException {
+
+        if (format == ExportFormat.NDJSON) {
+            var outputStream = new ByteArrayOutputStream(chunkLength * 128);
+            try (JsonGenerator generator = jsonFactory.createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                for (int i = 0; i < chunkLength; i++) {
+                    taskJsonWriter.writeTask(generator, chunk[i]);
+                    generator.writeRaw('\n');
+                }
+            }
+
+            return outputStream.toByteArray();
+        }
+        else {
+            var builder = new StringBuilder(chunkLength * 128);
+            for (int i = 0; i < chunkLength; i++) {
+                Task currentTask = chunk[i];
+                builder.append(currentTask.getId().toString()).append(',');
+                AppendCsvField(builder, currentTask.getTitle());
+                builder.append(',');
+                AppendCsvField(builder, currentTask.getDetail());
+                builder.append(',');
+                if (currentTask.getDueDate().isPresent() == true) {
+                    builder.append(currentTask.getDueDate().get().toString());
+                }
+                builder.append("\r\n");
+            }
+
+            return builder.toString().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Appends the specified value as a CSV field, enclosing it in double quotes if it contains a comma, double quote, or line break.
+     * 
+     * @param builder The builder to append to.
+     * @param value The value to append (null is appended as an empty field).
+     */
+    protected void AppendCsvField(StringBuilder builder, String value) {
+
+        if (value == null)
+            return;
+
+        boolean requiresQuotes = false;
+        for (int i = 0; i < value.length() && requiresQuotes == false; i++) {
+            char currentCharacter = value.charAt(i);
+            requiresQuotes = currentCharacter == ',' || currentCharacter == '"' || currentCharacter == '\r' || currentCharacter == '\n';
+        }
+        if (requiresQuotes == true) {
+            builder.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+        else {
+            builder.append(value);
+        }
+    }
+
+    /**
+     * Waits for the specified chunk to be encoded, and writes it to the channel.
+     */
+    protected void WriteChunk(ForkJoinTask<byte[]> chunk, WritableByteChannel channel) throws IOException {
+
+        byte[] encodedChunk;
+        try {
+            encodedChunk = chunk.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a chunk of tasks to be encoded.");
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            // Depending on how the pool adapts the encoding callable, a checked exception may be wrapped in a RuntimeException
+            if (cause instanceof RuntimeException && cause.getCause() instanceof IOException) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            throw new IOException("Failed to encode a chunk of tasks.", cause);
+        }
+        WriteFully(ByteBuffer.wrap(encodedChunk), channel);
+    }
+
+    protected void WriteFully(ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+
+        while (buffer.hasRemaining() == true) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.api.serialization;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import net.alastairwyse.taskmanager.TaskManager;
+import net.alastairwyse.taskmanager.models.Task;
+
+/**
+ * Caches the JSON representation of tasks (as written by {@link TaskJsonWriter}) as UTF-8 encoded bytes, so that tasks which haven't changed are written to responses without being serialized again.
+ * <p>
+ * Each entry records the version of the task it was encoded from (see {@link Task#getVersion()}), and is only used for a task with the same id and version.  Hence an entry is replaced as soon as a newer version of its task is encoded, and {@link #remove(UUID)} only needs to be called to free the entries of deleted (or updated) tasks promptly.  Tasks which haven't been stored in a {@link TaskManager} (i.e. whose version is 0) are never cached.
+ * <p>
+ * Entries are distributed across stripes by task id, each holding an equal share of the maximum number of entries, and guarded by its own lock.  Once a stripe is full, adding an entry evicts the least recently used entry in the stripe.  Arrays of more tasks than the maximum number of entries bypass the cache (see {@link #writeJsonArray(OutputStream, Iterator, int, int)}).
+ */
+public class TaskJsonCache {
+
+    protected static final byte[] ARRAY_START = new byte[] { '[' };
+    protected static final byte[] ARRAY_SEPARATOR = new byte[] { ',' };
+    protected static final byte[] ARRAY_END = new byte[] { ']' };
+    /** The number of stripes used when one isn't specified. */
+    protected static final int DEFAULT_STRIPE_COUNT = 16;
+
+    /** Creates the generators tasks are encoded with. */
+    protected final JsonFactory jsonFactory;
+    /** Writes tasks to the generators. */
+    protected final TaskJsonWriter taskJsonWriter;
+    /** The maximum number of entries held in the cache. */
+    protected final int maximumSize;
+    /** The stripes the entries are distributed across. */
+    protected final Stripe[] stripes;
+
+    /**
+     * Constructs a TaskJsonCache.
+     * 
+     * @param jsonFactory Creates the generators tasks are encoded with.
+     * @param maximumSize The maximum number of entries held in the cache, or 0 to disable caching.
+     */
+    public TaskJsonCache(JsonFactory jsonFactory, int maximumSize) {
+        this(jsonFactory, maximumSize, DEFAULT_STRIPE_COUNT);
+    }
+
+    /**
+     * Constructs a TaskJsonCache.
+     * 
+     * @param jsonFactory Creates the generators tasks are encoded with.
+     * @param maximumSize The maximum number of entries held in the cache, or 0 to disable caching.
+     * @param stripeCount The number of stripes to distribute the entries across, i.e. the number of entries which can be read or added concurrently.
+     */
+    public TaskJsonCache(JsonFactory jsonFactory, int maximumSize, int stripeCount) {
+
+        if (jsonFactory == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null.", "jsonFactory"));
+        if (maximumSize < 0)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be greater than or equal to 0.", "maximumSize"));
+        if (stripeCount < 1)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be greater than 0.", "stripeCount"));
+
+        this.jsonFactory = jsonFactory;
+        this.taskJsonWriter = new TaskJsonWriter();
+        this.maximumSize = maximumSize;
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            // Share out the remainder so the capacities of the stripes add up to the maximum size
+            int capacity = maximumSize / stripeCount + (i < maximumSize % stripeCount ? 1 : 0);
+            stripes[i] = new Stripe(capacity);
+        }
+    }
+
+    /**
+     * @return The maximum number of entries held in the cache.
+     */
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * @return The number of entries in the cache.
+     */
+    public int getSize() {
+
+        int size = 0;
+        for (Stripe currentStripe : stripes) {
+            synchronized (currentStripe) {
+                size += currentStripe.size();
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * Returns the JSON representation of the specified task, from the cache if it holds an entry for the task's current version, or otherwise by encoding (and caching) it.
+     * 
+     * @param task The task.
+     * @return The UTF-8 encoded JSON object.  Must not be modified.
+     * @throws IOException If an error occurs encoding the task.
+     */
+    public byte[] getJson(Task task) throws IOException {
+
+        long version = task.getVersion();
+        if (version == 0)
+            return Encode(task);
+
+        Stripe stripe = getStripe(task.getId());
+        Entry entry;
+        synchronized (stripe) {
+            // Also marks the entry as most recently used
+            entry = stripe.get(task.getId());
+        }
+        if (entry != null && entry.version == version)
+            return entry.json;
+
+        // Encode outside the lock so that readers of other tasks in the stripe aren't blocked
+        byte[] json = Encode(task);
+        if (stripe.capacity > 0) {
+            synchronized (stripe) {
+                // If concurrent callers encode different versions of the task, keep the latest
+                Entry existingEntry = stripe.get(task.getId());
+                if (existingEntry == null || existingEntry.version < version) {
+                    stripe.put(task.getId(), new Entry(version, json));
+                }
+            }
+        }
+
+        return json;
+    }
+
+    /**
+     * Writes the specified tasks as a JSON array by concatenating their cached JSON representations, flushing the output after every 'flushInterval' tasks.
+     * 
+     * @param outputStream The stream to write to.
+     * @param tasks The tasks to write.
+     * @param flushInterval The number of tasks to write between each flush.
+     * @throws IOException If an error occurs encoding a task or writing to the stream.
+     */
+    public void writeJsonArray(OutputStream outputStream, Iterator<Task> tasks, int flushInterval) throws IOException {
+
+        if (flushInterval < 1)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be greater than 0.", "flushInterval"));
+
+        outputStream.write(ARRAY_START);
+        int unflushedCount = 0;
+        boolean first = true;
+        while (tasks.hasNext() == true) {
+            if (first == false) {
+                outputStream.write(ARRAY_SEPARATOR);
+            }
+            outputStream.write(getJson(tasks.next()));
+            first = false;
+            unflushedCount++;
+            if (unflushedCount == flushInterval) {
+                outputStream.flush();
+                unflushedCount = 0;
+            }
+        }
+        outputStream.write(ARRAY_END);
+        outputStream.flush();
+    }
+
+    /**
+     * Writes the specified tasks as a JSON array, flushing the output after every 'flushInterval' tasks.  If there are no more tasks than the maximum number of entries in the cache, the tasks are written from their cached JSON representations (as per {@link #writeJsonArray(OutputStream, Iterator, int)}).  Otherwise they are encoded straight to the stream without reading or adding entries, since caching them would evict every entry in the cache (including those of the first tasks written) before any of them could be reused.
+     * 
+     * @param outputStream The stream to write to.  Not closed once the array is written.
+     * @param tasks The tasks to write.
+     * @param taskCount The number of tasks in 'tasks'.
+     * @param flushInterval The number of tasks to write between each flush.
+     * @throws IOException If an error occurs encoding a task or writing to the stream.
+     */
+    public void writeJsonArray(OutputStream outputStream, Iterator<Task> tasks, int taskCount, int flushInterval) throws IOException {
+
+        if (taskCount <= maximumSize) {
+            writeJsonArray(outputStream, tasks, flushInterval);
+        }
+        else {
+            try (JsonGenerator generator = jsonFactory.createGenerator(outputStream).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+                taskJsonWriter.writeTaskArray(generator, tasks, flushInterval);
+            }
+        }
+    }
+
+    /**
+     * Removes the entry for the task with the specified id, if one exists.
+     * 
+     * @param id The id of the task.
+     */
+    public void remove(UUID id) {
+
+        Stripe stripe = getStripe(id);
+        synchronized (stripe) {
+            stripe.remove(id);
+        }
+    }
+
+    /**
+     * Encodes the specified task as JSON.
+     * 
+     * @param task The task.
+     * @return The UTF-8 encoded JSON object.
+     * @throws IOException If an error occurs encoding the task.
+     */
+    protected byte[] Encode(Task task) throws IOException {
+
+        var outputStream = new ByteArrayOutputStream(128);
+        try (JsonGenerator generator = jsonFactory.createGenerator(outputStream)) {
+            taskJsonWriter.writeTask(generator, task);
+        }
+
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Returns the stripe which holds the entry for the task with the specified id.
+     * 
+     * @param id The id of the task.
+     * @return The stripe.
+     */
+    protected Stripe getStripe(UUID id) {
+
+        int hash = id.hashCode();
+        hash = hash ^ (hash >>> 16);
+
+        return stripes[Math.floorMod(hash, stripes.length)];
+    }
+
+    /**
+     * A subset of the cached entries, indexed by the id of the task, and ordered from least to most recently used.  Must only be accessed while synchronized on the stripe.
+     */
+    @SuppressWarnings("serial")
+    protected static class Stripe extends LinkedHashMap<UUID, Entry> {
+
+        /** The maximum number of entries held in the stripe. */
+        protected final int capacity;
+
+        protected Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+            return size() > capacity;
+        }
+    }
+
+    /**
+     * The JSON representation of a version of a task.
+     */
+    protected static class Entry {
+
+        protected final long version;
+        protected final byte[] json;
+
+        protected Entry(long version, byte[] json) {
+            this.version = version;
+            this.json = json;
+        }
+    }
+}
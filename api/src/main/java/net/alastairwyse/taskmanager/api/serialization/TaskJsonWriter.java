@@ -0,0 +1,147 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.api.serialization;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.UUID;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.dtos.DateOnlyDto;
+import net.alastairwyse.taskmanager.models.dtos.TaskDto;
+
+/**
+ * Writes tasks as JSON directly to a {@link JsonGenerator}, in the same format as Jackson's serialization of {@link TaskDto}.
+ * <p>
+ * Unlike serializing via {@link TaskDto}, no {@link TaskDto} or {@link DateOnlyDto} is created per task, so tasks can be streamed to a response using memory which doesn't grow with the number of tasks.  The field level methods are also used by {@link TaskDtoSerializer}, so that tasks and task DTOs are written in a single format.
+ */
+
+public class TaskJsonWriter {
+
+    /**
+     * Writes the specified task as a JSON object.
+     * 
+     * @param generator The generator to write to.
+     * @param task The task to write.
+     * @throws IOException If an error occurs writing to the generator.
+     */
+    public void writeTask(JsonGenerator generator, Task task) throws IOException {
+
+        generator.writeStartObject();
+        writeTitleAndDetailFields(generator, task.getTitle(), task.getDetail());
+        if (task.getDueDate().isPresent() == true) {
+            LocalDate dueDate = task.getDueDate().get();
+            writeDueDateField(generator, dueDate.getYear(), dueDate.getMonthValue(), dueDate.getDayOfMonth());
+        }
+        else {
+            writeNullDueDateField(generator);
+        }
+        writeIdField(generator, task.getId());
+        generator.writeEndObject();
+    }
+
+    /**
+     * Writes the 'title' and 'detail' fields of a task to the current JSON object.
+     * 
+     * @param generator The generator to write to.
+     * @param title The title of the task.
+     * @param detail The detail of the task.
+     * @throws IOException If an error occurs writing to the generator.
+     */
+    public void writeTitleAndDetailFields(JsonGenerator generator, String title, String detail) throws IOException {
+
+        generator.writeStringField("title", title);
+        generator.writeStringField("detail", detail);
+    }
+
+    /**
+     * Writes the 'dueDate' field of a task to the current JSON object.
+     * 
+     * @param generator The generator to write to.
+     * @param year The year of the due date.
+     * @param month The month of the due date.
+     * @param day The day of the due date.
+     * @throws IOException If an error occurs writing to the generator.
+     */
+    public void writeDueDateField(JsonGenerator generator, int year, int month, int day) throws IOException {
+
+        generator.writeFieldName("dueDate");
+        generator.writeStartObject();
+        generator.writeNumberField("year", year);
+        generator.writeNumberField("month", month);
+        generator.writeNumberField("day", day);
+        generator.writeEndObject();
+    }
+
+    /**
+     * Writes a null 'dueDate' field for a task without a due date to the current JSON object.
+     * 
+     * @param generator The generator to write to.
+     * @throws IOException If an error occurs writing to the generator.
+     */
+    public void writeNullDueDateField(JsonGenerator generator) throws IOException {
+
+        generator.writeNullField("dueDate");
+    }
+
+    /**
+     * Writes the 'id' field of a task to the current JSON object.
+     * 
+     * @param generator The generator to write to.
+     * @param id The id of the task, or null to write a null field.
+     * @throws IOException If an error occurs writing to the generator.
+     */
+    public void writeIdField(JsonGenerator generator, UUID id) throws IOException {
+
+        if (id != null) {
+            generator.writeStringField("id", id.toString());
+        }
+        else {
+            generator.writeNullField("id");
+        }
+    }
+
+    /**
+     * Writes the specified tasks as a JSON array, flushing the generator (and hence its underlying output) after every 'flushInterval' tasks.
+     * 
+     * @param generator The generator to write to.
+     * @param tasks The tasks to write.
+     * @param flushInterval The number of tasks to write between each flush.
+     * @throws IOException If an error occurs writing to the generator.
+     */
+    public void writeTaskArray(JsonGenerator generator, Iterator<Task> tasks, int flushInterval) throws IOException {
+
+        if (flushInterval < 1)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be greater than 0.", "flushInterval"));
+
+        generator.writeStartArray();
+        int unflushedCount = 0;
+        while (tasks.hasNext() == true) {
+            writeTask(generator, tasks.next());
+            unflushedCount++;
+            if (unflushedCount == flushInterval) {
+                generator.flush();
+                unflushedCount = 0;
+            }
+        }
+        generator.writeEndArray();
+        generator.flush();
+    }
+}
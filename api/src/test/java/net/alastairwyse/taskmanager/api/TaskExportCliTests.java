@@ -0,0 +1,166 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.api;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.sun.net.httpserver.HttpServer;
+
+import net.alastairwyse.taskmanager.api.serialization.ExportFormat;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link TaskExportCli} class.
+ */
+public class TaskExportCliTests {
+
+    private static final String EXPORT_CONTENT = "id,title,detail,dueDate\r\n5d0ec7ff-7d3c-4a5b-9bd7-8b1f5bd7f2c1,Apply for leave,,\r\n";
+
+    private HttpServer server;
+    private boolean compressResponse;
+    private String requestedQuery;
+    private Path outputFile;
+
+    @Before
+    public void setUp() throws Exception {
+
+        compressResponse = true;
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/v1/task/export", (exchange) -> {
+            requestedQuery = exchange.getRequestURI().getQuery();
+            byte[] body = EXPORT_CONTENT.getBytes(StandardCharsets.UTF_8);
+            if (compressResponse == true) {
+                body = Compress(body);
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(body);
+            }
+        });
+        server.createContext("/missing/api/v1/task/export", (exchange) -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.start();
+        outputFile = Files.createTempFile("TaskExportCliTests", ".csv");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+
+        server.stop(0);
+        Files.deleteIfExists(outputFile);
+    }
+
+    @Test
+    public void export_CompressedResponseDecompressed() throws Exception {
+
+        long result = TaskExportCli.export(HttpClient.newHttpClient(), GetBaseUri(), ExportFormat.CSV, outputFile, false);
+
+        assertEquals("format=csv", requestedQuery);
+        assertEquals(EXPORT_CONTENT, Files.readString(outputFile, StandardCharsets.UTF_8));
+        assertEquals(Files.size(outputFile), result);
+    }
+
+    @Test
+    public void export_CompressedResponseWrittenAsReceived() throws Exception {
+
+        TaskExportCli.export(HttpClient.newHttpClient(), GetBaseUri(), ExportFormat.NDJSON, outputFile, true);
+
+        assertEquals("format=ndjson", requestedQuery);
+        assertEquals(EXPORT_CONTENT, Decompress(Files.readAllBytes(outputFile)));
+    }
+
+    @Test
+    public void export_UncompressedResponseCompressed() throws Exception {
+
+        compressResponse = false;
+
+        TaskExportCli.export(HttpClient.newHttpClient(), GetBaseUri(), ExportFormat.CSV, outputFile, true);
+
+        assertEquals(EXPORT_CONTENT, Decompress(Files.readAllBytes(outputFile)));
+    }
+
+    @Test
+    public void export_ErrorStatus() throws Exception {
+
+        URI baseUri = URI.create(String.format("http://localhost:%d/missing", server.getAddress().getPort()));
+
+        IOException e = assertThrows(IOException.class, () -> 
+        {
+            TaskExportCli.export(HttpClient.newHttpClient(), baseUri, ExportFormat.CSV, outputFile, false);
+        });
+
+        assertTrue(e.getMessage().startsWith("Received status 404"), e.getMessage());
+    }
+
+    @Test
+    public void run_MissingArguments() {
+
+        var errorOutput = new ByteArrayOutputStream();
+
+        int result = TaskExportCli.run(new String[] { "--gzip" }, new PrintStream(errorOutput, true, StandardCharsets.UTF_8));
+
+        assertEquals(2, result);
+        assertTrue(errorOutput.toString(StandardCharsets.UTF_8).startsWith("A base URL and an output file must be specified."));
+    }
+
+    //#region Private/Protected Methods
+
+    private URI GetBaseUri() {
+
+        return URI.create(String.format("http://localhost:%d/", server.getAddress().getPort()));
+    }
+
+    private byte[] Compress(byte[] data) throws IOException {
+
+        var outputStream = new ByteArrayOutputStream();
+        try (var compressedOutputStream = new GZIPOutputStream(outputStream)) {
+            compressedOutputStream.write(data);
+        }
+
+        return outputStream.toByteArray();
+    }
+
+    private String Decompress(byte[] data) throws IOException {
+
+        try (var inputStream = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    //#endregion
+}
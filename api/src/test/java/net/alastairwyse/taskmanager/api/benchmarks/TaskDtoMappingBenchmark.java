@@ -0,0 +1,91 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.api.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+
+import net.alastairwyse.taskmanager.api.serialization.TaskDtoModule;
+import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.dtos.NewTaskDto;
+import net.alastairwyse.taskmanager.models.dtos.TaskDto;
+
+/**
+ * Compares the time and heap allocated per operation when mapping task DTOs with Jackson's default bean serialization and with the {@link TaskDtoModule}.
+ * <p>
+ * Each operation reads a {@link NewTaskDto} from a request body and writes a {@link TaskDto} as a response body, as when creating a task via the API.  Allocation is measured with the per-thread allocation counter of the HotSpot JVM.  Run with a fixed heap size (e.g. '-Xms1g -Xmx1g') so that the measurements aren't distorted by heap resizing.
+ * <p>
+ * This is an informal harness (a single fork with hand-rolled warmup, and no control over dead code elimination beyond {@link #resultHash}), so its timings are only a rough indication of the relative cost of the two paths, and differences of less than the run to run variation shouldn't be relied on.  The bytes per operation figures are more stable, but any claim about the relative performance of the two paths should be checked with a JMH benchmark.
+ */
+public class TaskDtoMappingBenchmark {
+
+    /** Consumes the results of each operation, to prevent the JIT compiler removing them. */
+    protected static long resultHash;
+
+    public static void main(String[] args) throws Exception {
+
+        int operationCount = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        var taskDto = new TaskDto(new Task(UUID.randomUUID(), "Do Christmas Shopping", "Turkey, crackers, prawns, presents", Optional.of(LocalDate.of(2023, 12, 18))));
+        var newTaskDto = new NewTaskDto();
+        newTaskDto.setTitle(taskDto.getTitle());
+        newTaskDto.setDetail(taskDto.getDetail());
+        newTaskDto.setDueDate(taskDto.getDueDate());
+        byte[] requestBody = new ObjectMapper().registerModule(new Jdk8Module()).writeValueAsBytes(newTaskDto);
+        var defaultObjectMapper = new ObjectMapper().registerModule(new Jdk8Module());
+        var moduleObjectMapper = new ObjectMapper().registerModule(new Jdk8Module()).registerModule(new TaskDtoModule());
+
+        // The first runs allow the JIT compiler to optimize both paths before they're measured
+        for (int i = 0; i < 3; i++) {
+            run(defaultObjectMapper, requestBody, taskDto, operationCount);
+            run(moduleObjectMapper, requestBody, taskDto, operationCount);
+        }
+        double[] defaultResult = run(defaultObjectMapper, requestBody, taskDto, operationCount);
+        double[] moduleResult = run(moduleObjectMapper, requestBody, taskDto, operationCount);
+        System.out.println(String.format("Default mapping: %,.1f ns/op, %,.1f bytes/op", defaultResult[0], defaultResult[1]));
+        System.out.println(String.format("TaskDtoModule:   %,.1f ns/op, %,.1f bytes/op", moduleResult[0], moduleResult[1]));
+    }
+
+    /**
+     * Reads and writes the DTOs the specified number of times.
+     * 
+     * @return The mean nanoseconds and bytes allocated per operation.
+     */
+    protected static double[] run(ObjectMapper objectMapper, byte[] requestBody, TaskDto taskDto, int operationCount) throws Exception {
+
+        ObjectReader reader = objectMapper.readerFor(NewTaskDto.class);
+        ObjectWriter writer = objectMapper.writerFor(TaskDto.class);
+        var threadMXBean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        long startBytes = threadMXBean.getCurrentThreadAllocatedBytes();
+        long startTime = System.nanoTime();
+        for (int i = 0; i < operationCount; i++) {
+            NewTaskDto newTaskDto = reader.readValue(requestBody);
+            byte[] responseBody = writer.writeValueAsBytes(taskDto);
+            resultHash += newTaskDto.getTitle().length() + responseBody.length;
+        }
+        long elapsedTime = System.nanoTime() - startTime;
+        long allocatedBytes = threadMXBean.getCurrentThreadAllocatedBytes() - startBytes;
+
+        return new double[] { (double)elapsedTime / operationCount, (double)allocatedBytes / operationCount };
+    }
+}
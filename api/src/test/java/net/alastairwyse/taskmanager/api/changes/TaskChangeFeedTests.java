@@ -0,0 +1,426 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.api.changes;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import net.alastairwyse.taskmanager.DefaultTaskManager;
+import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.dtos.NewTaskDto;
+import net.alastairwyse.taskmanager.models.dtos.TaskDto;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link TaskChangeFeed} class.
+ */
+public class TaskChangeFeedTests {
+
+    private static final Pattern EVENT_ID_PATTERN = Pattern.compile("id:(\\S+)");
+
+    private ObjectMapper objectMapper;
+    private DefaultTaskManager taskManager;
+    private TaskChangeFeedWithRecordingEmitters testTaskChangeFeed;
+
+    @Before
+    public void setUp() {
+
+        objectMapper = new ObjectMapper().registerModule(new Jdk8Module());
+        taskManager = new DefaultTaskManager();
+        testTaskChangeFeed = new TaskChangeFeedWithRecordingEmitters(taskManager, objectMapper, 3, 2, 2, 0);
+    }
+
+    @After
+    public void tearDown() {
+
+        testTaskChangeFeed.close();
+    }
+
+    @Test
+    public void constructor_TaskManagerParameterNull() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+        {
+            new TaskChangeFeed(null, objectMapper.getFactory(), 3, 2, 0);
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'taskManager' cannot be null."));
+    }
+
+    @Test
+    public void constructor_TimeoutParameterLessThan0() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+        {
+            new TaskChangeFeed(taskManager, objectMapper.getFactory(), 3, 2, -1);
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'timeout' must be greater than or equal to 0."));
+    }
+
+    @Test
+    public void constructor_SubscriberQueueCapacityParameterLessThan1() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+        {
+            new TaskChangeFeed(taskManager, objectMapper.getFactory(), 3, 0, 0);
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'subscriberQueueCapacity' must be greater than 0."));
+    }
+
+    @Test
+    public void constructor_SenderThreadCountParameterLessThan1() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+        {
+            new TaskChangeFeed(taskManager, objectMapper.getFactory(), 3, 2, 0, 0, 0);
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'senderThreadCount' must be greater than 0."));
+    }
+
+    @Test
+    public void constructor_SendStallTimeoutParameterLessThan0() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+        {
+            new TaskChangeFeed(taskManager, objectMapper.getFactory(), 3, 2, 0, 1, -1);
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'sendStallTimeout' must be greater than or equal to 0."));
+    }
+
+    @Test
+    public void subscribe() throws Exception {
+
+        RecordingSseEmitter emitter = (RecordingSseEmitter)testTaskChangeFeed.subscribe(null);
+        var newTaskDto = new NewTaskDto();
+        newTaskDto.setTitle("Do Christmas Shopping");
+        Task createdTask = taskManager.createTask(newTaskDto);
+        var updatedTask = new Task(createdTask.getId(), "Do Christmas Shopping", "Turkey, crackers, prawns, presents", Optional.empty());
+        taskManager.updateTask(updatedTask);
+        taskManager.deleteTask(updatedTask);
+
+        String events = emitter.waitForEventCount(3);
+
+        assertEquals(1, testTaskChangeFeed.getSubscriberCount());
+        String[] eventArray = events.split("\n\n");
+        assertEquals(3, eventArray.length);
+        JsonNode createdEvent = ReadEventData(eventArray[0]);
+        assertEquals("CREATED", createdEvent.get("type").asText());
+        assertEquals(createdTask.getId().toString(), createdEvent.get("id").asText());
+        assertEquals(createdTask.getVersion(), createdEvent.get("version").asLong());
+        assertEquals(objectMapper.readTree(objectMapper.writeValueAsString(new TaskDto(createdTask))), createdEvent.get("task"));
+        JsonNode updatedEvent = ReadEventData(eventArray[1]);
+        assertEquals("UPDATED", updatedEvent.get("type").asText());
+        assertEquals(createdTask.getVersion() + 1, updatedEvent.get("version").asLong());
+        assertEquals("Turkey, crackers, prawns, presents", updatedEvent.get("task").get("detail").asText());
+        JsonNode deletedEvent = ReadEventData(eventArray[2]);
+        assertEquals("DELETED", deletedEvent.get("type").asText());
+        assertEquals(createdTask.getId().toString(), deletedEvent.get("id").asText());
+        assertEquals(taskManager.getVersion(), deletedEvent.get("version").asLong());
+        assertFalse(deletedEvent.has("task"));
+        assertTrue(ReadEventId(eventArray[0]).endsWith("-1"));
+        assertTrue(ReadEventId(eventArray[2]).endsWith("-3"));
+    }
+
+    @Test
+    public void subscribe_SlowSubscriberDoesntDelayOthers() throws Exception {
+
+        var slowEmitter = new BlockingSseEmitter();
+        testTaskChangeFeed.nextEmitter = slowEmitter;
+        testTaskChangeFeed.subscribe(null);
+        RecordingSseEmitter emitter = (RecordingSseEmitter)testTaskChangeFeed.subscribe(null);
+        var newTaskDto = new NewTaskDto();
+        newTaskDto.setTitle("Do Christmas Shopping");
+
+        for (int i = 0; i < 3; i++) {
+            taskManager.createTask(newTaskDto);
+        }
+
+        // The slow subscriber's sender is blocked sending the first event, but the other subscriber is sent all the changes
+        String[] eventArray = emitter.waitForEventCount(3).split("\n\n");
+        assertTrue(ReadEventId(eventArray[2]).endsWith("-3"));
+        slowEmitter.release.countDown();
+        String[] slowEventArray = slowEmitter.waitForEventCount(3).split("\n\n");
+        assertTrue(ReadEventId(slowEventArray[0]).endsWith("-1"));
+        assertTrue(ReadEventId(slowEventArray[2]).endsWith("-3"));
+    }
+
+    @Test
+    public void subscribe_SlowSubscriberFallsBehindLog() throws Exception {
+
+        var slowEmitter = new BlockingSseEmitter();
+        testTaskChangeFeed.nextEmitter = slowEmitter;
+        testTaskChangeFeed.subscribe(null);
+        var newTaskDto = new NewTaskDto();
+        newTaskDto.setTitle("Do Christmas Shopping");
+
+        taskManager.createTask(newTaskDto);
+        slowEmitter.sending.await();
+        // The next 2 changes fill the slow subscriber's queue, and the rest overflow the log
+        taskManager.createTask(newTaskDto);
+        taskManager.createTask(newTaskDto);
+        TaskChangeFeed.Subscriber subscriber = testTaskChangeFeed.subscribers.get(0);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (subscriber.queue.remainingCapacity() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        for (int i = 0; i < 4; i++) {
+            taskManager.createTask(newTaskDto);
+        }
+        slowEmitter.release.countDown();
+
+        String[] eventArray = slowEmitter.waitForEventCount(4).split("\n\n");
+        assertTrue(ReadEventId(eventArray[0]).endsWith("-1"));
+        assertTrue(ReadEventId(eventArray[2]).endsWith("-3"));
+        assertTrue(eventArray[3].contains("event:reset"));
+        assertTrue(ReadEventId(eventArray[3]).endsWith("-7"));
+        taskManager.createTask(newTaskDto);
+        eventArray = slowEmitter.waitForEventCount(5).split("\n\n");
+        assertTrue(ReadEventId(eventArray[4]).endsWith("-8"));
+    }
+
+    @Test
+    public void subscribe_SendYieldsAfterBatch() throws Exception {
+
+        testTaskChangeFeed.close();
+        // A single sender thread, and queues which hold more events than are sent per send
+        testTaskChangeFeed = new TaskChangeFeedWithRecordingEmitters(taskManager, objectMapper, 1000, 500, 1, 0);
+        RecordingSseEmitter firstEmitter = (RecordingSseEmitter)testTaskChangeFeed.subscribe(null);
+        RecordingSseEmitter secondEmitter = (RecordingSseEmitter)testTaskChangeFeed.subscribe(null);
+        var newTaskDto = new NewTaskDto();
+        newTaskDto.setTitle("Do Christmas Shopping");
+
+        for (int i = 0; i < 250; i++) {
+            taskManager.createTask(newTaskDto);
+        }
+
+        String[] firstEventArray = firstEmitter.waitForEventCount(250).split("\n\n");
+        String[] secondEventArray = secondEmitter.waitForEventCount(250).split("\n\n");
+        assertTrue(ReadEventId(firstEventArray[249]).endsWith("-250"));
+        assertTrue(ReadEventId(secondEventArray[249]).endsWith("-250"));
+    }
+
+    @Test
+    public void subscribe_StalledSubscriberDropped() throws Exception {
+
+        testTaskChangeFeed.close();
+        testTaskChangeFeed = new TaskChangeFeedWithRecordingEmitters(taskManager, objectMapper, 3, 2, 1, 100);
+        var slowEmitter = new BlockingSseEmitter();
+        testTaskChangeFeed.nextEmitter = slowEmitter;
+        testTaskChangeFeed.subscribe(null);
+        var newTaskDto = new NewTaskDto();
+        newTaskDto.setTitle("Do Christmas Shopping");
+
+        taskManager.createTask(newTaskDto);
+        slowEmitter.sending.await();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (testTaskChangeFeed.getSubscriberCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // The stalled subscriber is dropped, and the only sender thread is free to serve other subscribers while the stalled write is still blocked
+        assertEquals(0, testTaskChangeFeed.getSubscriberCount());
+        RecordingSseEmitter emitter = (RecordingSseEmitter)testTaskChangeFeed.subscribe(null);
+        taskManager.createTask(newTaskDto);
+        String[] eventArray = emitter.waitForEventCount(1).split("\n\n");
+        assertTrue(ReadEventId(eventArray[0]).endsWith("-2"));
+        slowEmitter.release.countDown();
+        slowEmitter.waitForEventCount(1);
+        taskManager.createTask(newTaskDto);
+        emitter.waitForEventCount(2);
+        assertEquals(1, slowEmitter.getEvents().split("\n\n").length);
+    }
+
+    @Test
+    public void subscribe_LastEventId() throws Exception {
+
+        RecordingSseEmitter firstEmitter = (RecordingSseEmitter)testTaskChangeFeed.subscribe(null);
+        var newTaskDto = new NewTaskDto();
+        newTaskDto.setTitle("Do Christmas Shopping");
+        taskManager.createTask(newTaskDto);
+        String firstEventId = ReadEventId(firstEmitter.waitForEventCount(1));
+        newTaskDto.setTitle("Apply for leave");
+        Task secondCreatedTask = taskManager.createTask(newTaskDto);
+        firstEmitter.waitForEventCount(2);
+
+        RecordingSseEmitter secondEmitter = (RecordingSseEmitter)testTaskChangeFeed.subscribe(firstEventId);
+
+        String[] eventArray = secondEmitter.waitForEventCount(1).split("\n\n");
+        assertEquals(1, eventArray.length);
+        assertEquals(secondCreatedTask.getId().toString(), ReadEventData(eventArray[0]).get("id").asText());
+        assertTrue(ReadEventId(eventArray[0]).endsWith("-2"));
+    }
+
+    @Test
+    public void subscribe_UnknownLastEventId() throws Exception {
+
+        RecordingSseEmitter emitter = (RecordingSseEmitter)testTaskChangeFeed.subscribe("0123abcd-5");
+        var newTaskDto = new NewTaskDto();
+        newTaskDto.setTitle("Do Christmas Shopping");
+        Task createdTask = taskManager.createTask(newTaskDto);
+
+        String[] eventArray = emitter.waitForEventCount(2).split("\n\n");
+
+        assertTrue(eventArray[0].contains("event:reset"));
+        assertEquals(createdTask.getId().toString(), ReadEventData(eventArray[1]).get("id").asText());
+    }
+
+    @Test
+    public void subscribe_LastEventIdNoLongerRetained() throws Exception {
+
+        RecordingSseEmitter firstEmitter = (RecordingSseEmitter)testTaskChangeFeed.subscribe(null);
+        var newTaskDto = new NewTaskDto();
+        newTaskDto.setTitle("Do Christmas Shopping");
+        taskManager.createTask(newTaskDto);
+        String firstEventId = ReadEventId(firstEmitter.waitForEventCount(1));
+        for (int i = 0; i < 4; i++) {
+            taskManager.createTask(newTaskDto);
+        }
+
+        RecordingSseEmitter secondEmitter = (RecordingSseEmitter)testTaskChangeFeed.subscribe(firstEventId);
+        taskManager.createTask(newTaskDto);
+
+        String[] eventArray = secondEmitter.waitForEventCount(2).split("\n\n");
+        assertTrue(eventArray[0].contains("event:reset"));
+        assertTrue(ReadEventId(eventArray[1]).endsWith("-6"));
+    }
+
+    @Test
+    public void close() throws Exception {
+
+        RecordingSseEmitter emitter = (RecordingSseEmitter)testTaskChangeFeed.subscribe(null);
+
+        testTaskChangeFeed.close();
+        var newTaskDto = new NewTaskDto();
+        newTaskDto.setTitle("Do Christmas Shopping");
+        taskManager.createTask(newTaskDto);
+
+        assertEquals(0, testTaskChangeFeed.getSubscriberCount());
+        assertFalse(taskManager.removeChangeListener(testTaskChangeFeed.listener));
+        assertEquals("", emitter.getEvents());
+    }
+
+    private String ReadEventId(String event) {
+
+        Matcher matcher = EVENT_ID_PATTERN.matcher(event);
+        assertTrue(matcher.find());
+
+        return matcher.group(1);
+    }
+
+    private JsonNode ReadEventData(String event) throws IOException {
+
+        int dataIndex = event.indexOf("data:");
+        assertTrue(dataIndex >= 0);
+
+        return objectMapper.readTree(event.substring(dataIndex + "data:".length()).trim());
+    }
+
+    /**
+     * Version of {@link TaskChangeFeed} which creates {@link RecordingSseEmitter} instances.
+     */
+    private class TaskChangeFeedWithRecordingEmitters extends TaskChangeFeed {
+
+        /** If set, the emitter returned for the next subscription, rather than a new {@link RecordingSseEmitter}. */
+        public volatile SseEmitter nextEmitter;
+
+        public TaskChangeFeedWithRecordingEmitters(DefaultTaskManager taskManager, ObjectMapper objectMapper, int capacity, int subscriberQueueCapacity, int senderThreadCount, long sendStallTimeout) {
+            super(taskManager, objectMapper.getFactory(), capacity, subscriberQueueCapacity, 0, senderThreadCount, sendStallTimeout);
+        }
+
+        @Override
+        protected SseEmitter CreateEmitter() {
+            if (nextEmitter != null) {
+                SseEmitter returnEmitter = nextEmitter;
+                nextEmitter = null;
+                return returnEmitter;
+            }
+            return new RecordingSseEmitter();
+        }
+    }
+
+    /**
+     * Version of {@link SseEmitter} which records the events sent, rather than writing them to a response.
+     */
+    private class RecordingSseEmitter extends SseEmitter {
+
+        private final StringBuilder events = new StringBuilder();
+        private int eventCount = 0;
+
+        @Override
+        public synchronized void send(SseEventBuilder builder) throws IOException {
+            for (DataWithMediaType currentData : builder.build()) {
+                events.append(currentData.getData());
+            }
+            eventCount++;
+            notifyAll();
+        }
+
+        public synchronized String getEvents() {
+            return events.toString();
+        }
+
+        public synchronized String waitForEventCount(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (eventCount < count && System.currentTimeMillis() < deadline) {
+                wait(100);
+            }
+            assertEquals(count, eventCount);
+
+            return events.toString();
+        }
+    }
+
+    /**
+     * Version of {@link RecordingSseEmitter} whose first send blocks until released, simulating a slow client.
+     */
+    private class BlockingSseEmitter extends RecordingSseEmitter {
+
+        public final CountDownLatch sending = new CountDownLatch(1);
+        public final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            try {
+                release.await();
+            }
+            catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            super.send(builder);
+        }
+    }
+}
@@ -79,7 +79,7 @@ public class MiddlewareIntegrationTests extends IntegrationTestsBase {
             .andReturn();
 
         JsonNode jsonResult = objectMapper.readTree(result.getResponse().getContentAsString());
-        AssertJsonNodeContainsHttpErrorResponse(jsonResult, "ContentTypeNotAcceptable", "'Accept' header did not contain an acceptable content type.  Acceptable values are '*/*, application/json'.");
+        AssertJsonNodeContainsHttpErrorResponse(jsonResult, "ContentTypeNotAcceptable", "'Accept' header did not contain an acceptable content type.  Acceptable values are '*/*, application/json, application/x-ndjson, text/csv, text/event-stream'.");
     }
 
     @Test
@@ -16,10 +16,14 @@
 
 package net.alastairwyse.taskmanager.api.controllers;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.zip.GZIPInputStream;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
@@ -28,6 +32,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
@@ -41,13 +46,24 @@ import net.alastairwyse.taskmanager.models.dtos.DateOnlyDto;
 import net.alastairwyse.taskmanager.models.dtos.NewTaskDto;
 import net.alastairwyse.taskmanager.models.dtos.TaskDto;
 import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.TaskBatchItemResult;
+import net.alastairwyse.taskmanager.models.TaskDelta;
 import net.alastairwyse.taskmanager.models.TaskDoesntExistException;
+import net.alastairwyse.taskmanager.models.TaskLookupResult;
+import net.alastairwyse.taskmanager.models.TaskPage;
+import net.alastairwyse.taskmanager.models.TaskSnapshot;
 
 import org.junit.Before;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import org.junit.runner.*;
@@ -73,6 +89,8 @@ public class TaskControllerIntegrationTests extends IntegrationTestsBase {
     @Captor
     private ArgumentCaptor<TaskDto> taskDtoCaptor;
     @Captor
+    private ArgumentCaptor<List<NewTaskDto>> newTaskDtosCaptor;
+    @Captor
     private ArgumentCaptor<Task> taskCaptor;
 
     private NewTaskDto testNewTaskDto;
@@ -129,6 +147,7 @@ public class TaskControllerIntegrationTests extends IntegrationTestsBase {
     public void updateTask() throws Exception {
 
         JsonNode taskDtoJson = ConvertTaskDtoToJson(testTaskDto);
+        Mockito.when(mockTaskManager.tryUpdateTask(any(Task.class))).thenReturn(true);
 
         mvc.perform(put("/api/v1/task")
                 .accept(MediaType.APPLICATION_JSON)
@@ -136,7 +155,7 @@ public class TaskControllerIntegrationTests extends IntegrationTestsBase {
                 .content(taskDtoJson.toString()))
             .andExpect(status().isOk());
 
-        verify(mockTaskManager, times(1)).updateTask(taskCaptor.capture());
+        verify(mockTaskManager, times(1)).tryUpdateTask(taskCaptor.capture());
         assertEquals(testTaskDto.getId(), taskCaptor.getValue().getId());
         assertEquals(testTaskDto.getTitle(), taskCaptor.getValue().getTitle());
         assertEquals(testTaskDto.getDetail(), taskCaptor.getValue().getDetail());
@@ -149,9 +168,7 @@ public class TaskControllerIntegrationTests extends IntegrationTestsBase {
     public void updateTask_TaskWithIdDoesntExist() throws Exception {
 
         JsonNode taskDtoJson = ConvertTaskDtoToJson(testTaskDto);
-        String mockExceptionMessage = String.format("Task with id '%s' doesn't exist.", testTaskDto.getId().toString());
-        var mockException = new TaskDoesntExistException(mockExceptionMessage);
-        doThrow(mockException).when(mockTaskManager).updateTask(any(Task.class));
+        Mockito.when(mockTaskManager.tryUpdateTask(any(Task.class))).thenReturn(false);
 
         MvcResult result = mvc.perform(put("/api/v1/task")
                 .accept(MediaType.APPLICATION_JSON)
@@ -160,9 +177,10 @@ public class TaskControllerIntegrationTests extends IntegrationTestsBase {
             .andExpect(status().isNotFound())
             .andReturn();
 
-        verify(mockTaskManager, times(1)).updateTask(any(Task.class));
+        verify(mockTaskManager, times(1)).tryUpdateTask(any(Task.class));
+        verify(mockTaskManager, never()).updateTask(any(Task.class));
         JsonNode jsonResult = objectMapper.readTree(result.getResponse().getContentAsString());
-        AssertJsonNodeContainsHttpErrorResponse(jsonResult, TaskDoesntExistException.class.getSimpleName(), mockExceptionMessage);
+        AssertJsonNodeContainsHttpErrorResponse(jsonResult, TaskDoesntExistException.class.getSimpleName(), String.format("A task with id '%s' does not exist in the task manager.", testTaskDto.getId()));
     }
 
     @Test
@@ -171,22 +189,460 @@ public class TaskControllerIntegrationTests extends IntegrationTestsBase {
         var testTasks = new ArrayList<Task>();
         testTasks.add(testTask1);
         testTasks.add(testTask2);
-        Mockito.when(mockTaskManager.getAllTasks()).thenReturn(testTasks);
+        Mockito.when(mockTaskManager.getSnapshot()).thenReturn(new TaskSnapshot(3, testTasks));
 
-        MvcResult result = mvc.perform(get("/api/v1/task")
+        MvcResult asyncResult = mvc.perform(get("/api/v1/task")
                 .accept(MediaType.APPLICATION_JSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        MvcResult result = mvc.perform(asyncDispatch(asyncResult))
             .andExpect(status().isOk())
             .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
             .andReturn();
     
-        verify(mockTaskManager, times(1)).getAllTasks();
+        verify(mockTaskManager, times(1)).getSnapshot();
+        assertTrue(result.getResponse().getHeader(HttpHeaders.ETAG).endsWith("3\""));
+        JsonNode jsonResult = objectMapper.readTree(result.getResponse().getContentAsString());
+        ArrayNode jsonResultArray = (ArrayNode)jsonResult;
+        assertEquals(2, jsonResultArray.size());
+        AssertJsonNodeContainsTask(jsonResultArray.get(0), testTask1.getId(), testTask1.getTitle(), testTask1.getDetail(), testTask1.getDueDate());
+        AssertJsonNodeContainsTask(jsonResultArray.get(1), testTask2.getId(), testTask2.getTitle(), testTask2.getDetail(), testTask2.getDueDate());
+    }
+
+    @Test
+    public void getTasks_IfNoneMatch() throws Exception {
+
+        Mockito.when(mockTaskManager.getVersion()).thenReturn(5L);
+        Mockito.when(mockTaskManager.getSnapshot()).thenReturn(new TaskSnapshot(5, List.of(testTask1)));
+
+        MvcResult asyncResult = mvc.perform(get("/api/v1/task")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        mvc.perform(asyncDispatch(asyncResult))
+            .andExpect(status().isOk());
+        String entityTag = asyncResult.getResponse().getHeader(HttpHeaders.ETAG);
+
+        MvcResult result = mvc.perform(get("/api/v1/task")
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_NONE_MATCH, entityTag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, entityTag))
+            .andReturn();
+
+        verify(mockTaskManager, times(1)).getSnapshot();
+        assertTrue(entityTag.startsWith("\"") && entityTag.endsWith("5\""));
+        assertEquals(0, result.getResponse().getContentLength());
+
+        Mockito.when(mockTaskManager.getVersion()).thenReturn(6L);
+        Mockito.when(mockTaskManager.getSnapshot()).thenReturn(new TaskSnapshot(6, List.of(testTask1)));
+
+        asyncResult = mvc.perform(get("/api/v1/task")
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_NONE_MATCH, entityTag))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        mvc.perform(asyncDispatch(asyncResult))
+            .andExpect(status().isOk());
+
+        verify(mockTaskManager, times(2)).getSnapshot();
+        assertNotEquals(entityTag, asyncResult.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void getTasks_DueDateRangeVersionChangedWhileReading() throws Exception {
+
+        Mockito.when(mockTaskManager.getVersion()).thenReturn(5L, 6L);
+        Mockito.when(mockTaskManager.getTasksDueBetween(LocalDate.of(2023, 12, 1), LocalDate.of(2023, 12, 31))).thenReturn(List.of(testTask1));
+
+        MvcResult asyncResult = mvc.perform(get("/api/v1/task")
+                .param("dueFrom", "2023-12-01")
+                .param("dueTo", "2023-12-31")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        MvcResult result = mvc.perform(asyncDispatch(asyncResult))
+            .andExpect(status().isOk())
+            .andReturn();
+
+        assertNull(result.getResponse().getHeader(HttpHeaders.ETAG));
+        JsonNode jsonResult = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertEquals(1, ((ArrayNode)jsonResult).size());
+    }
+
+    @Test
+    public void getTasks_DueDateRange() throws Exception {
+
+        var testTasks = new ArrayList<Task>();
+        testTasks.add(testTask1);
+        Mockito.when(mockTaskManager.getTasksDueBetween(LocalDate.of(2023, 12, 1), LocalDate.of(2023, 12, 31))).thenReturn(testTasks);
+
+        MvcResult asyncResult = mvc.perform(get("/api/v1/task")
+                .param("dueFrom", "2023-12-01")
+                .param("dueTo", "2023-12-31")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        MvcResult result = mvc.perform(asyncDispatch(asyncResult))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+            .andReturn();
+
+        verify(mockTaskManager, times(1)).getTasksDueBetween(LocalDate.of(2023, 12, 1), LocalDate.of(2023, 12, 31));
+        verify(mockTaskManager, times(0)).getSnapshot();
+        JsonNode jsonResult = objectMapper.readTree(result.getResponse().getContentAsString());
+        ArrayNode jsonResultArray = (ArrayNode)jsonResult;
+        assertEquals(1, jsonResultArray.size());
+        AssertJsonNodeContainsTask(jsonResultArray.get(0), testTask1.getId(), testTask1.getTitle(), testTask1.getDetail(), testTask1.getDueDate());
+    }
+
+    @Test
+    public void getTasks_DueFromOnly() throws Exception {
+
+        Mockito.when(mockTaskManager.getTasksDueBetween(LocalDate.of(2023, 12, 1), null)).thenReturn(new ArrayList<Task>());
+
+        MvcResult asyncResult = mvc.perform(get("/api/v1/task")
+                .param("dueFrom", "2023-12-01")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        MvcResult result = mvc.perform(asyncDispatch(asyncResult))
+            .andExpect(status().isOk())
+            .andReturn();
+
+        verify(mockTaskManager, times(1)).getTasksDueBetween(LocalDate.of(2023, 12, 1), null);
+        JsonNode jsonResult = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertEquals(0, ((ArrayNode)jsonResult).size());
+    }
+
+    @Test
+    public void getTasks_DueFromAfterDueTo() throws Exception {
+
+        MvcResult asyncResult = mvc.perform(get("/api/v1/task")
+                .param("dueFrom", "2023-12-31")
+                .param("dueTo", "2023-12-01")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        MvcResult result = mvc.perform(asyncDispatch(asyncResult))
+            .andExpect(status().isBadRequest())
+            .andReturn();
+
+        verify(mockTaskManager, times(0)).getTasksDueBetween(any(LocalDate.class), any(LocalDate.class));
+        JsonNode jsonResult = objectMapper.readTree(result.getResponse().getContentAsString());
+        AssertJsonNodeContainsHttpErrorResponse(jsonResult, IllegalArgumentException.class.getSimpleName(), "Parameter 'dueFrom' with value '2023-12-31' must be less than or equal to parameter 'dueTo' with value '2023-12-01'.");
+    }
+
+    @Test
+    public void getTasks_DueFromInvalidFormat() throws Exception {
+
+        mvc.perform(get("/api/v1/task")
+                .param("dueFrom", "18/12/2023")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest());
+
+        verify(mockTaskManager, times(0)).getTasksDueBetween(any(), any());
+    }
+
+    @Test
+    public void exportTasks() throws Exception {
+
+        Mockito.when(mockTaskManager.getSnapshot()).thenReturn(new TaskSnapshot(1, List.of(testTask1, testTask2)));
+
+        MvcResult asyncResult = mvc.perform(get("/api/v1/task/export")
+                .accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        MvcResult result = mvc.perform(asyncDispatch(asyncResult))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+            .andExpect(header().string("Content-Disposition", "attachment; filename=\"tasks.ndjson\""))
+            .andExpect(header().doesNotExist("Content-Encoding"))
+            .andReturn();
+
+        verify(mockTaskManager, times(1)).getSnapshot();
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        AssertJsonNodeContainsTask(objectMapper.readTree(lines[0]), testTask1.getId(), testTask1.getTitle(), testTask1.getDetail(), testTask1.getDueDate());
+        AssertJsonNodeContainsTask(objectMapper.readTree(lines[1]), testTask2.getId(), testTask2.getTitle(), testTask2.getDetail(), testTask2.getDueDate());
+    }
+
+    @Test
+    public void exportTasks_CsvCompressed() throws Exception {
+
+        Mockito.when(mockTaskManager.getSnapshot()).thenReturn(new TaskSnapshot(1, List.of(testTask2)));
+
+        MvcResult asyncResult = mvc.perform(get("/api/v1/task/export")
+                .param("format", "csv")
+                .header("Accept-Encoding", "gzip, deflate")
+                .accept("text/csv"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        MvcResult result = mvc.perform(asyncDispatch(asyncResult))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("text/csv"))
+            .andExpect(header().string("Content-Encoding", "gzip"))
+            .andReturn();
+
+        String content;
+        try (var inputStream = new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+            content = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertEquals(String.format("id,title,detail,dueDate\r\n%s,Apply for leave,First week of January,\r\n", testTask2.getId()), content);
+    }
+
+    @Test
+    public void exportTasks_UnsupportedFormat() throws Exception {
+
+        MvcResult asyncResult = mvc.perform(get("/api/v1/task/export")
+                .param("format", "xml")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        MvcResult result = mvc.perform(asyncDispatch(asyncResult))
+            .andExpect(status().isBadRequest())
+            .andReturn();
+
+        verify(mockTaskManager, times(0)).getSnapshot();
+        JsonNode jsonResult = objectMapper.readTree(result.getResponse().getContentAsString());
+        AssertJsonNodeContainsHttpErrorResponse(jsonResult, IllegalArgumentException.class.getSimpleName(), "Parameter 'format' contains unsupported value 'xml'.");
+    }
+
+    @Test
+    public void getTaskPage() throws Exception {
+
+        var testTasks = new ArrayList<Task>();
+        testTasks.add(testTask1);
+        testTasks.add(testTask2);
+        String testCursor = TaskPage.encodeCursor(UUID.randomUUID());
+        var testTaskPage = new TaskPage(testTasks, true);
+        Mockito.when(mockTaskManager.getTaskPage(testCursor, 2)).thenReturn(testTaskPage);
+
+        MvcResult result = mvc.perform(get("/api/v1/task/page")
+                .param("cursor", testCursor)
+                .param("limit", "2")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+            .andReturn();
+
+        verify(mockTaskManager, times(1)).getTaskPage(testCursor, 2);
+        JsonNode jsonResult = objectMapper.readTree(result.getResponse().getContentAsString());
+        ArrayNode jsonTasks = (ArrayNode)jsonResult.get("tasks");
+        assertEquals(2, jsonTasks.size());
+        AssertJsonNodeContainsTask(jsonTasks.get(0), testTask1.getId(), testTask1.getTitle(), testTask1.getDetail(), testTask1.getDueDate());
+        AssertJsonNodeContainsTask(jsonTasks.get(1), testTask2.getId(), testTask2.getTitle(), testTask2.getDetail(), testTask2.getDueDate());
+        AssertJsonNodeContainsStringField(jsonResult, "nextCursor", testTaskPage.getNextCursor());
+    }
+
+    @Test
+    public void getTaskPage_FirstPage() throws Exception {
+
+        Mockito.when(mockTaskManager.getTaskPage(null, 100)).thenReturn(new TaskPage(new ArrayList<Task>(), false));
+
+        MvcResult result = mvc.perform(get("/api/v1/task/page")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andReturn();
+
+        verify(mockTaskManager, times(1)).getTaskPage(null, 100);
+        JsonNode jsonResult = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertEquals(0, jsonResult.get("tasks").size());
+        assertTrue(jsonResult.get("nextCursor") instanceof NullNode);
+    }
+
+    @Test
+    public void getTaskPage_InvalidCursor() throws Exception {
+
+        MvcResult result = mvc.perform(get("/api/v1/task/page")
+                .param("cursor", "invalid")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest())
+            .andReturn();
+
+        verify(mockTaskManager, times(0)).getTaskPage(any(), anyInt());
+        JsonNode jsonResult = objectMapper.readTree(result.getResponse().getContentAsString());
+        AssertJsonNodeContainsHttpErrorResponse(jsonResult, IllegalArgumentException.class.getSimpleName(), "Parameter 'cursor' with value 'invalid' is not a valid cursor.");
+    }
+
+    @Test
+    public void getTaskPage_LimitOutOfRange() throws Exception {
+
+        MvcResult result = mvc.perform(get("/api/v1/task/page")
+                .param("limit", "0")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest())
+            .andReturn();
+
+        verify(mockTaskManager, times(0)).getTaskPage(any(), anyInt());
+        JsonNode jsonResult = objectMapper.readTree(result.getResponse().getContentAsString());
+        AssertJsonNodeContainsHttpErrorResponse(jsonResult, IllegalArgumentException.class.getSimpleName(), "Parameter 'limit' with value 0 must be between 1 and 1000.");
+    }
+
+    @Test
+    public void searchTasks() throws Exception {
+
+        var testTasks = new ArrayList<Task>();
+        testTasks.add(testTask1);
+        testTasks.add(testTask2);
+        Mockito.when(mockTaskManager.searchTasks("leave shopping")).thenReturn(testTasks);
+
+        MvcResult asyncResult = mvc.perform(get("/api/v1/task/search")
+                .param("q", "leave shopping")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        MvcResult result = mvc.perform(asyncDispatch(asyncResult))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+            .andReturn();
+
+        verify(mockTaskManager, times(1)).searchTasks("leave shopping");
+        JsonNode jsonResult = objectMapper.readTree(result.getResponse().getContentAsString());
+        ArrayNode jsonResultArray = (ArrayNode)jsonResult;
+        assertEquals(2, jsonResultArray.size());
+        AssertJsonNodeContainsTask(jsonResultArray.get(0), testTask1.getId(), testTask1.getTitle(), testTask1.getDetail(), testTask1.getDueDate());
+        AssertJsonNodeContainsTask(jsonResultArray.get(1), testTask2.getId(), testTask2.getTitle(), testTask2.getDetail(), testTask2.getDueDate());
+    }
+
+    @Test
+    public void searchTasks_QueryParameterMissing() throws Exception {
+
+        MvcResult result = mvc.perform(get("/api/v1/task/search")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest())
+            .andReturn();
+
+        verify(mockTaskManager, times(0)).searchTasks(any());
+        JsonNode jsonResult = objectMapper.readTree(result.getResponse().getContentAsString());
+        AssertJsonNodeContainsHttpErrorResponse(jsonResult, "MissingServletRequestParameterException", "Required request parameter 'q' for method parameter type String is not present");
+        assertEquals("q", jsonResult.get("attributes").get(0).get("ParameterName").asText());
+    }
+
+    @Test
+    public void suggestTasks() throws Exception {
+
+        var testTasks = new ArrayList<Task>();
+        testTasks.add(testTask2);
+        Mockito.when(mockTaskManager.suggestTasks("app", 5)).thenReturn(testTasks);
+
+        MvcResult asyncResult = mvc.perform(get("/api/v1/task/suggest")
+                .param("prefix", "app")
+                .param("limit", "5")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        MvcResult result = mvc.perform(asyncDispatch(asyncResult))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+            .andReturn();
+
+        verify(mockTaskManager, times(1)).suggestTasks("app", 5);
         JsonNode jsonResult = objectMapper.readTree(result.getResponse().getContentAsString());
         ArrayNode jsonResultArray = (ArrayNode)jsonResult;
+        assertEquals(1, jsonResultArray.size());
+        AssertJsonNodeContainsTask(jsonResultArray.get(0), testTask2.getId(), testTask2.getTitle(), testTask2.getDetail(), testTask2.getDueDate());
+    }
+
+    @Test
+    public void getChanges_UnknownLastEventId() throws Exception {
+
+        MvcResult asyncResult = mvc.perform(get("/api/v1/task/changes")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header("Last-Event-ID", "0123abcd-5"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // Events are sent by the feed's dispatcher thread after the request returns
+        long deadline = System.currentTimeMillis() + 5000;
+        while (asyncResult.getResponse().getContentAsString().contains("event:reset") == false && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(asyncResult.getResponse().getContentAsString().contains("event:reset"));
+        assertTrue(MediaType.TEXT_EVENT_STREAM.isCompatibleWith(MediaType.parseMediaType(asyncResult.getResponse().getContentType())));
+    }
+
+    @Test
+    public void getTaskDelta() throws Exception {
+
+        UUID deletedId = UUID.fromString("287acea2-21ff-4a42-b379-af6830bd2066");
+        Mockito.when(mockTaskManager.getChangesSince(5)).thenReturn(new TaskDelta(9, List.of(testTask1, testTask2), List.of(deletedId)));
+
+        MvcResult asyncResult = mvc.perform(get("/api/v1/task/delta")
+                .param("since", "5")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        MvcResult result = mvc.perform(asyncDispatch(asyncResult))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+            .andReturn();
+
+        verify(mockTaskManager, times(1)).getChangesSince(5);
+        JsonNode jsonResult = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertEquals(9, jsonResult.get("version").asLong());
+        assertFalse(jsonResult.get("fullSnapshot").asBoolean());
+        assertEquals(1, jsonResult.get("deletedIds").size());
+        assertEquals(deletedId.toString(), jsonResult.get("deletedIds").get(0).asText());
+        ArrayNode jsonResultArray = (ArrayNode)jsonResult.get("tasks");
         assertEquals(2, jsonResultArray.size());
         AssertJsonNodeContainsTask(jsonResultArray.get(0), testTask1.getId(), testTask1.getTitle(), testTask1.getDetail(), testTask1.getDueDate());
         AssertJsonNodeContainsTask(jsonResultArray.get(1), testTask2.getId(), testTask2.getTitle(), testTask2.getDetail(), testTask2.getDueDate());
     }
 
+    @Test
+    public void getTaskDelta_SinceParameterLessThan0() throws Exception {
+
+        MvcResult asyncResult = mvc.perform(get("/api/v1/task/delta")
+                .param("since", "-1")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        MvcResult result = mvc.perform(asyncDispatch(asyncResult))
+            .andExpect(status().isBadRequest())
+            .andReturn();
+
+        verify(mockTaskManager, times(0)).getChangesSince(anyLong());
+        JsonNode jsonResult = objectMapper.readTree(result.getResponse().getContentAsString());
+        AssertJsonNodeContainsHttpErrorResponse(jsonResult, IllegalArgumentException.class.getSimpleName(), "Parameter 'since' with value -1 must be greater than or equal to 0.");
+    }
+
+    @Test
+    public void suggestTasks_DefaultLimit() throws Exception {
+
+        Mockito.when(mockTaskManager.suggestTasks("app", 10)).thenReturn(new ArrayList<Task>());
+
+        MvcResult asyncResult = mvc.perform(get("/api/v1/task/suggest")
+                .param("prefix", "app")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        MvcResult result = mvc.perform(asyncDispatch(asyncResult))
+            .andExpect(status().isOk())
+            .andReturn();
+
+        verify(mockTaskManager, times(1)).suggestTasks("app", 10);
+        assertEquals("[]", result.getResponse().getContentAsString());
+    }
+
+    @Test
+    public void suggestTasks_LimitOutOfRange() throws Exception {
+
+        MvcResult asyncResult = mvc.perform(get("/api/v1/task/suggest")
+                .param("prefix", "app")
+                .param("limit", "101")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        MvcResult result = mvc.perform(asyncDispatch(asyncResult))
+            .andExpect(status().isBadRequest())
+            .andReturn();
+
+        verify(mockTaskManager, times(0)).suggestTasks(any(), anyInt());
+        JsonNode jsonResult = objectMapper.readTree(result.getResponse().getContentAsString());
+        AssertJsonNodeContainsHttpErrorResponse(jsonResult, IllegalArgumentException.class.getSimpleName(), "Parameter 'limit' with value 101 must be between 1 and 100.");
+    }
+
     @Test
     public void deleteTask() throws Exception {
         
@@ -227,10 +683,236 @@ public class TaskControllerIntegrationTests extends IntegrationTestsBase {
         AssertJsonNodeContainsHttpErrorResponse(jsonResult, TaskDoesntExistException.class.getSimpleName(), mockExceptionMessage);
     }
 
+    @Test
+    public void deleteTask_ById() throws Exception {
+
+        Mockito.when(mockTaskManager.tryDeleteTask(testTask1.getId())).thenReturn(true);
+
+        mvc.perform(delete("/api/v1/task/" + testTask1.getId().toString())
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk());
+
+        verify(mockTaskManager, times(1)).tryDeleteTask(testTask1.getId());
+    }
+
+    @Test
+    public void deleteTask_ByIdTaskWithIdDoesntExist() throws Exception {
+
+        Mockito.when(mockTaskManager.tryDeleteTask(testTask1.getId())).thenReturn(false);
+
+        MvcResult result = mvc.perform(delete("/api/v1/task/" + testTask1.getId().toString())
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isNotFound())
+            .andReturn();
+
+        verify(mockTaskManager, times(1)).tryDeleteTask(testTask1.getId());
+        JsonNode jsonResult = objectMapper.readTree(result.getResponse().getContentAsString());
+        AssertJsonNodeContainsHttpErrorResponse(jsonResult, TaskDoesntExistException.class.getSimpleName(), String.format("A task with id '%s' does not exist in the task manager.", testTask1.getId()));
+    }
+
+    @Test
+    public void createTasks() throws Exception {
+
+        ArrayNode newTaskDtosJson = objectMapper.createArrayNode();
+        newTaskDtosJson.add(ConvertNewTaskDtoToJson(testNewTaskDto));
+        newTaskDtosJson.add(ConvertNewTaskDtoToJson(testNewTaskDto));
+        var mockException = new IllegalArgumentException("Failed to create Task instance.  The Title cannot be blank.");
+        Mockito.when(mockTaskManager.createTasks(any())).thenReturn(List.of(new TaskBatchItemResult(testTask1, null), new TaskBatchItemResult(null, mockException)));
+
+        MvcResult result = mvc.perform(post("/api/v1/task/batch")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(newTaskDtosJson.toString()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+            .andReturn();
+
+        verify(mockTaskManager, times(1)).createTasks(any());
+        JsonNode jsonResult = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertEquals(2, jsonResult.size());
+        AssertJsonNodeContainsIntegerField(jsonResult.get(0), "status", 201);
+        AssertJsonNodeContainsTask(jsonResult.get(0).get("task"), testTask1.getId(), testTask1.getTitle(), testTask1.getDetail(), testTask1.getDueDate());
+        assertTrue(jsonResult.get(0).get("error") instanceof NullNode);
+        AssertJsonNodeContainsIntegerField(jsonResult.get(1), "status", 400);
+        assertTrue(jsonResult.get(1).get("task") instanceof NullNode);
+        AssertJsonNodeContainsHttpErrorResponse(jsonResult.get(1).get("error"), IllegalArgumentException.class.getSimpleName(), mockException.getMessage());
+    }
+
+    @Test
+    public void createTasks_BatchTooLarge() throws Exception {
+
+        ArrayNode newTaskDtosJson = objectMapper.createArrayNode();
+        JsonNode newTaskDtoJson = ConvertNewTaskDtoToJson(testNewTaskDto);
+        for (int i = 0; i < 10001; i++) {
+            newTaskDtosJson.add(newTaskDtoJson);
+        }
+
+        MvcResult result = mvc.perform(post("/api/v1/task/batch")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(newTaskDtosJson.toString()))
+            .andExpect(status().isBadRequest())
+            .andReturn();
+
+        verify(mockTaskManager, times(0)).createTasks(any());
+        JsonNode jsonResult = objectMapper.readTree(result.getResponse().getContentAsString());
+        AssertJsonNodeContainsHttpErrorResponse(jsonResult, IllegalArgumentException.class.getSimpleName(), "The request body contains more than the maximum of 10000 items.");
+    }
+
+    @Test
+    public void updateTasks() throws Exception {
+
+        var invalidTaskDto = new TaskDto(testTask2);
+        invalidTaskDto.setTitle(" ");
+        ArrayNode taskDtosJson = objectMapper.createArrayNode();
+        taskDtosJson.add(ConvertTaskDtoToJson(testTaskDto));
+        taskDtosJson.add(ConvertTaskDtoToJson(invalidTaskDto));
+        taskDtosJson.add(ConvertNewTaskDtoToJson(testNewTaskDto).putNull("id"));
+        taskDtosJson.add(ConvertTaskDtoToJson(new TaskDto(testTask2)));
+        String mockExceptionMessage = String.format("Task with id '%s' doesn't exist.", testTask2.getId().toString());
+        var mockException = new TaskDoesntExistException(mockExceptionMessage);
+        Mockito.when(mockTaskManager.updateTasks(any())).thenReturn(List.of(new TaskBatchItemResult(testTask1, null), new TaskBatchItemResult(testTask2, mockException)));
+
+        MvcResult result = mvc.perform(put("/api/v1/task/batch")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(taskDtosJson.toString()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+        // Only the valid tasks should be passed to the manager
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Task>> tasksCaptor = ArgumentCaptor.forClass(List.class);
+        verify(mockTaskManager, times(1)).updateTasks(tasksCaptor.capture());
+        assertEquals(2, tasksCaptor.getValue().size());
+        assertEquals(testTask1.getId(), tasksCaptor.getValue().get(0).getId());
+        assertEquals(testTask2.getId(), tasksCaptor.getValue().get(1).getId());
+        JsonNode jsonResult = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertEquals(4, jsonResult.size());
+        AssertJsonNodeContainsIntegerField(jsonResult.get(0), "status", 200);
+        AssertJsonNodeContainsTask(jsonResult.get(0).get("task"), testTask1.getId(), testTask1.getTitle(), testTask1.getDetail(), testTask1.getDueDate());
+        AssertJsonNodeContainsIntegerField(jsonResult.get(1), "status", 400);
+        AssertJsonNodeContainsHttpErrorResponse(jsonResult.get(1).get("error"), IllegalArgumentException.class.getSimpleName(), "Failed to create Task instance.  The Title cannot be blank.");
+        AssertJsonNodeContainsIntegerField(jsonResult.get(2), "status", 400);
+        AssertJsonNodeContainsHttpErrorResponse(jsonResult.get(2).get("error"), IllegalArgumentException.class.getSimpleName(), "Element 2 of the request body must have an 'id'.");
+        AssertJsonNodeContainsIntegerField(jsonResult.get(3), "status", 404);
+        AssertJsonNodeContainsHttpErrorResponse(jsonResult.get(3).get("error"), TaskDoesntExistException.class.getSimpleName(), mockExceptionMessage);
+    }
+
+    @Test
+    public void deleteTasks() throws Exception {
+
+        ArrayNode taskDtosJson = objectMapper.createArrayNode();
+        taskDtosJson.add(ConvertTaskDtoToJson(testTaskDto));
+        taskDtosJson.add(NullNode.getInstance());
+        Mockito.when(mockTaskManager.deleteTasks(any())).thenReturn(List.of(new TaskBatchItemResult(testTask1, null)));
+
+        MvcResult result = mvc.perform(delete("/api/v1/task/batch")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(taskDtosJson.toString()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+        verify(mockTaskManager, times(1)).deleteTasks(any());
+        JsonNode jsonResult = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertEquals(2, jsonResult.size());
+        AssertJsonNodeContainsIntegerField(jsonResult.get(0), "status", 200);
+        AssertJsonNodeContainsTask(jsonResult.get(0).get("task"), testTask1.getId(), testTask1.getTitle(), testTask1.getDetail(), testTask1.getDueDate());
+        AssertJsonNodeContainsIntegerField(jsonResult.get(1), "status", 400);
+        AssertJsonNodeContainsHttpErrorResponse(jsonResult.get(1).get("error"), IllegalArgumentException.class.getSimpleName(), "Element 1 of the request body cannot be null.");
+    }
+
+    @Test
+    public void getTasks_ByIds() throws Exception {
+
+        UUID missingId = UUID.fromString("287acea2-21ff-4a42-b379-af6830bd2066");
+        ArrayNode idsJson = objectMapper.createArrayNode();
+        idsJson.add(testTask2.getId().toString());
+        idsJson.add(missingId.toString());
+        idsJson.add(testTask1.getId().toString());
+        Mockito.when(mockTaskManager.getTasks(List.of(testTask2.getId(), missingId, testTask1.getId()))).thenReturn(new TaskLookupResult(List.of(testTask2, testTask1), List.of(missingId)));
+
+        MvcResult result = mvc.perform(post("/api/v1/task/batchGet")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(idsJson.toString()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+            .andReturn();
+
+        verify(mockTaskManager, times(1)).getTasks(any());
+        JsonNode jsonResult = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertEquals(2, jsonResult.get("tasks").size());
+        AssertJsonNodeContainsTask(jsonResult.get("tasks").get(0), testTask2.getId(), testTask2.getTitle(), testTask2.getDetail(), testTask2.getDueDate());
+        AssertJsonNodeContainsTask(jsonResult.get("tasks").get(1), testTask1.getId(), testTask1.getTitle(), testTask1.getDetail(), testTask1.getDueDate());
+        assertEquals(1, jsonResult.get("missingIds").size());
+        assertEquals(missingId.toString(), jsonResult.get("missingIds").get(0).asText());
+    }
+
+    @Test
+    public void getTasks_ByIdsNullId() throws Exception {
+
+        ArrayNode idsJson = objectMapper.createArrayNode();
+        idsJson.add(testTask1.getId().toString());
+        idsJson.addNull();
+
+        MvcResult result = mvc.perform(post("/api/v1/task/batchGet")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(idsJson.toString()))
+            .andExpect(status().isBadRequest())
+            .andReturn();
+
+        verify(mockTaskManager, times(0)).getTasks(any());
+        JsonNode jsonResult = objectMapper.readTree(result.getResponse().getContentAsString());
+        AssertJsonNodeContainsHttpErrorResponse(jsonResult, IllegalArgumentException.class.getSimpleName(), "Element 1 of the request body cannot be null.");
+    }
+
+    @Test
+    public void importTasks() throws Exception {
+
+        String records = ConvertNewTaskDtoToJson(testNewTaskDto).toString() + "\n" + "{\"title\":\"\",\"detail\":\"\",\"dueDate\":null}\n";
+        Mockito.when(mockTaskManager.createTasks(any())).thenReturn(List.of(new TaskBatchItemResult(testTask1, null)));
+
+        MvcResult result = mvc.perform(post("/api/v1/task/import")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(records))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+            .andReturn();
+
+        verify(mockTaskManager).createTasks(newTaskDtosCaptor.capture());
+        assertEquals(1, newTaskDtosCaptor.getValue().size());
+        assertEquals(testNewTaskDto.getTitle(), newTaskDtosCaptor.getValue().get(0).getTitle());
+        JsonNode jsonResult = objectMapper.readTree(result.getResponse().getContentAsString());
+        AssertJsonNodeContainsIntegerField(jsonResult, "importedCount", 1);
+        AssertJsonNodeContainsIntegerField(jsonResult, "rejectedCount", 1);
+        assertEquals(1, jsonResult.get("rejections").size());
+        assertEquals("The Title cannot be blank.", jsonResult.get("rejections").get(0).get("message").asText());
+    }
+
+    @Test
+    public void importTasks_RecordCannotBeParsed() throws Exception {
+
+        MvcResult result = mvc.perform(post("/api/v1/task/import")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("{\"title\":\n"))
+            .andExpect(status().isBadRequest())
+            .andReturn();
+
+        verify(mockTaskManager, times(0)).createTasks(any());
+        JsonNode jsonResult = objectMapper.readTree(result.getResponse().getContentAsString());
+        AssertJsonNodeContainsStringField(jsonResult, "code", IllegalArgumentException.class.getSimpleName());
+        assertTrue(jsonResult.get("message").asText().startsWith("Failed to parse record 1.  0 tasks were imported before the failure."));
+    }
+
     @Test
     public void getTask() throws Exception {
         
-        Mockito.when(mockTaskManager.getTask(testTask1.getId())).thenReturn(testTask1);
+        Mockito.when(mockTaskManager.findTask(testTask1.getId())).thenReturn(Optional.of(testTask1));
 
         MvcResult result = mvc.perform(get("/api/v1/task/" + testTask1.getId().toString())
                 .accept(MediaType.APPLICATION_JSON))
@@ -238,7 +920,40 @@ public class TaskControllerIntegrationTests extends IntegrationTestsBase {
             .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
             .andReturn();
 
-        verify(mockTaskManager, times(1)).getTask(testTask1.getId());
+        verify(mockTaskManager, times(1)).findTask(testTask1.getId());
+        JsonNode jsonResult = objectMapper.readTree(result.getResponse().getContentAsString());
+        AssertJsonNodeContainsTask(jsonResult, testTask1.getId(), testTask1.getTitle(), testTask1.getDetail(), testTask1.getDueDate());
+    }
+
+    @Test
+    public void getTask_IfNoneMatch() throws Exception {
+
+        testTask1 = testTask1.withVersion(3);
+        Mockito.when(mockTaskManager.findTask(testTask1.getId())).thenReturn(Optional.of(testTask1));
+
+        MvcResult result = mvc.perform(get("/api/v1/task/" + testTask1.getId().toString())
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andReturn();
+        String entityTag = result.getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(get("/api/v1/task/" + testTask1.getId().toString())
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"other\", W/" + entityTag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, entityTag))
+            .andExpect(content().string(""));
+
+        testTask1 = testTask1.withVersion(4);
+        Mockito.when(mockTaskManager.findTask(testTask1.getId())).thenReturn(Optional.of(testTask1));
+
+        result = mvc.perform(get("/api/v1/task/" + testTask1.getId().toString())
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_NONE_MATCH, entityTag))
+            .andExpect(status().isOk())
+            .andReturn();
+
+        assertNotEquals(entityTag, result.getResponse().getHeader(HttpHeaders.ETAG));
         JsonNode jsonResult = objectMapper.readTree(result.getResponse().getContentAsString());
         AssertJsonNodeContainsTask(jsonResult, testTask1.getId(), testTask1.getTitle(), testTask1.getDetail(), testTask1.getDueDate());
     }
@@ -246,18 +961,16 @@ public class TaskControllerIntegrationTests extends IntegrationTestsBase {
     @Test
     public void getTask_TaskWithIdDoesntExist() throws Exception {
 
-        String mockExceptionMessage = String.format("Task with id '%s' doesn't exist.", testTaskDto.getId().toString());
-        var mockException = new TaskDoesntExistException(mockExceptionMessage);
-        doThrow(mockException).when(mockTaskManager).getTask(testTask1.getId());
+        Mockito.when(mockTaskManager.findTask(testTask1.getId())).thenReturn(Optional.empty());
 
         MvcResult result = mvc.perform(get("/api/v1/task/" + testTask1.getId().toString())
                 .accept(MediaType.APPLICATION_JSON))
             .andExpect(status().isNotFound())
             .andReturn();
 
-        verify(mockTaskManager, times(1)).getTask(testTask1.getId());
+        verify(mockTaskManager, times(1)).findTask(testTask1.getId());
         JsonNode jsonResult = objectMapper.readTree(result.getResponse().getContentAsString());
-        AssertJsonNodeContainsHttpErrorResponse(jsonResult, TaskDoesntExistException.class.getSimpleName(), mockExceptionMessage);
+        AssertJsonNodeContainsHttpErrorResponse(jsonResult, TaskDoesntExistException.class.getSimpleName(), String.format("A task with id '%s' does not exist in the task manager.", testTask1.getId()));
     }
 
     //#region Private/Protected Methods
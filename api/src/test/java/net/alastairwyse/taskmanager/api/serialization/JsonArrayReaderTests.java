@@ -0,0 +1,157 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.api.serialization;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+
+import net.alastairwyse.taskmanager.models.dtos.NewTaskDto;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link JsonArrayReader} class.
+ */
+public class JsonArrayReaderTests {
+
+    private ObjectMapper objectMapper;
+    private JsonArrayReader testJsonArrayReader;
+
+    @Before
+    public void setUp() {
+
+        objectMapper = new ObjectMapper().registerModule(new Jdk8Module());
+        testJsonArrayReader = new JsonArrayReader(objectMapper, 3);
+    }
+
+    @Test
+    public void constructor_MaximumSizeParameterLessThan1() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> 
+        {
+            new JsonArrayReader(objectMapper, 0);
+        });
+
+        assertEquals("Parameter 'maximumSize' must be greater than 0.", e.getMessage());
+    }
+
+    @Test
+    public void read_NotAnArray() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> 
+        {
+            testJsonArrayReader.read(CreateInputStream("{\"title\":\"Task 1\"}"), NewTaskDto.class);
+        });
+
+        assertEquals("The request body must contain a JSON array.", e.getMessage());
+    }
+
+    @Test
+    public void read_EmptyInput() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> 
+        {
+            testJsonArrayReader.read(CreateInputStream(""), NewTaskDto.class);
+        });
+
+        assertEquals("The request body must contain a JSON array.", e.getMessage());
+    }
+
+    @Test
+    public void read_MoreThanMaximumSize() {
+
+        // The fourth element is invalid, so the exception confirms reading stopped before it was parsed
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> 
+        {
+            testJsonArrayReader.read(CreateInputStream("[{\"title\":\"Task 1\"},{\"title\":\"Task 2\"},{\"title\":\"Task 3\"},{\"title\":1"), NewTaskDto.class);
+        });
+
+        assertEquals("The request body contains more than the maximum of 3 items.", e.getMessage());
+    }
+
+    @Test
+    public void read_InvalidElement() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> 
+        {
+            testJsonArrayReader.read(CreateInputStream("[\"" + UUID.randomUUID().toString() + "\",\"invalid\"]"), UUID.class);
+        });
+
+        assertTrue(e.getMessage().startsWith("Failed to parse element 1 of the request body."));
+    }
+
+    @Test
+    public void read_UnterminatedArray() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> 
+        {
+            testJsonArrayReader.read(CreateInputStream("[{\"title\":\"Task 1\"}"), NewTaskDto.class);
+        });
+
+        assertTrue(e.getMessage().startsWith("Failed to parse element 1 of the request body."));
+    }
+
+    @Test
+    public void read() throws Exception {
+
+        List<NewTaskDto> result = testJsonArrayReader.read(CreateInputStream("[{\"title\":\"Task 1\",\"dueDate\":{\"year\":2023,\"month\":12,\"day\":1}},null,{\"title\":\"Task 3\"}]"), NewTaskDto.class);
+
+        assertEquals(3, result.size());
+        assertEquals("Task 1", result.get(0).getTitle());
+        assertEquals(2023, result.get(0).getDueDate().get().getYear());
+        assertEquals(12, result.get(0).getDueDate().get().getMonth());
+        assertEquals(1, result.get(0).getDueDate().get().getDay());
+        assertNull(result.get(1));
+        assertEquals("Task 3", result.get(2).getTitle());
+    }
+
+    @Test
+    public void read_MaximumSize() throws Exception {
+
+        UUID firstId = UUID.randomUUID();
+        UUID secondId = UUID.randomUUID();
+        UUID thirdId = UUID.randomUUID();
+
+        List<UUID> result = testJsonArrayReader.read(CreateInputStream(String.format("[\"%s\",\"%s\",\"%s\"]", firstId, secondId, thirdId)), UUID.class);
+
+        assertEquals(List.of(firstId, secondId, thirdId), result);
+    }
+
+    @Test
+    public void read_EmptyArray() throws Exception {
+
+        List<UUID> result = testJsonArrayReader.read(CreateInputStream("[]"), UUID.class);
+
+        assertTrue(result.isEmpty());
+    }
+
+    private InputStream CreateInputStream(String content) {
+
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.api.serialization;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+
+import net.alastairwyse.taskmanager.DefaultTaskManager;
+import net.alastairwyse.taskmanager.api.models.TaskImportResponse;
+import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.TaskBatchItemResult;
+import net.alastairwyse.taskmanager.models.dtos.NewTaskDto;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link NdjsonTaskImporter} class.
+ */
+public class NdjsonTaskImporterTests {
+
+    private ObjectMapper objectMapper;
+    private BatchRecordingTaskManager taskManager;
+    private NdjsonTaskImporter testNdjsonTaskImporter;
+
+    @Before
+    public void setUp() {
+
+        objectMapper = new ObjectMapper().registerModule(new Jdk8Module());
+        taskManager = new BatchRecordingTaskManager();
+        testNdjsonTaskImporter = new NdjsonTaskImporter(objectMapper, 3, 2);
+    }
+
+    @Test
+    public void constructor_BatchSizeParameterLessThan1() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> 
+        {
+            new NdjsonTaskImporter(objectMapper, 0, 2);
+        });
+
+        assertEquals("Parameter 'batchSize' must be greater than 0.", e.getMessage());
+    }
+
+    @Test
+    public void importTasks() throws Exception {
+
+        var records = new StringBuilder();
+        for (int i = 1; i <= 7; i++) {
+            records.append(String.format("{\"title\":\"Task %d\",\"detail\":\"Detail %d\",\"dueDate\":{\"year\":2023,\"month\":12,\"day\":%d}}\n", i, i, i));
+        }
+
+        TaskImportResponse result = testNdjsonTaskImporter.importTasks(CreateInputStream(records.toString()), taskManager);
+
+        assertEquals(7, result.getImportedCount());
+        assertEquals(0, result.getRejectedCount());
+        assertTrue(result.getRejections().isEmpty());
+        assertEquals(List.of(3, 3, 1), taskManager.batchSizes);
+        List<String> titles = taskManager.streamTasks().map(Task::getTitle).sorted().toList();
+        assertEquals(List.of("Task 1", "Task 2", "Task 3", "Task 4", "Task 5", "Task 6", "Task 7"), titles);
+    }
+
+    @Test
+    public void importTasks_InvalidRecordsRejected() throws Exception {
+
+        String records = 
+            "{\"title\":\"Task 1\",\"detail\":\"\",\"dueDate\":null}\n" + 
+            "{\"title\":\" \",\"detail\":\"\",\"dueDate\":null}\n" + 
+            "\n" + 
+            "null\n" + 
+            "{\"title\":\"Task 4\",\"detail\":\"\",\"dueDate\":{\"year\":2023,\"month\":2,\"day\":30}}\n" + 
+            "{\"title\":\"Task 5\",\"detail\":\"\",\"dueDate\":null}";
+
+        TaskImportResponse result = testNdjsonTaskImporter.importTasks(CreateInputStream(records), taskManager);
+
+        assertEquals(2, result.getImportedCount());
+        assertEquals(3, result.getRejectedCount());
+        // Only the first 2 rejections are reported
+        assertEquals(2, result.getRejections().size());
+        assertEquals(IllegalArgumentException.class.getSimpleName(), result.getRejections().get(0).getCode());
+        assertEquals("The Title cannot be blank.", result.getRejections().get(0).getMessage());
+        assertEquals("Record", result.getRejections().get(0).getAttributes().get(0).getKey());
+        assertEquals("2", result.getRejections().get(0).getAttributes().get(0).getValue());
+        assertEquals("The record cannot be null.", result.getRejections().get(1).getMessage());
+        assertEquals("3", result.getRejections().get(1).getAttributes().get(0).getValue());
+        assertEquals(List.of(2), taskManager.batchSizes);
+    }
+
+    @Test
+    public void importTasks_RecordCannotBeParsed() throws Exception {
+
+        String records = 
+            "{\"title\":\"Task 1\",\"detail\":\"\",\"dueDate\":null}\n" + 
+            "{\"title\":\"Task 2\",\"detail\":\"\",\"dueDate\":null}\n" + 
+            "{\"title\":\"Task 3\",\"detail\":\n" + 
+            "{\"title\":\"Task 4\",\"detail\":\"\",\"dueDate\":null}\n";
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> 
+        {
+            testNdjsonTaskImporter.importTasks(CreateInputStream(records), taskManager);
+        });
+
+        assertTrue(e.getMessage().startsWith("Failed to parse record 3.  2 tasks were imported before the failure."), e.getMessage());
+        // Tasks from records preceding the failure should have been imported
+        assertEquals(List.of(2), taskManager.batchSizes);
+    }
+
+    //#region Private/Protected Methods
+
+    private InputStream CreateInputStream(String content) {
+
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    //#endregion
+
+    /**
+     * {@link DefaultTaskManager} which records the size of each batch passed to {@link DefaultTaskManager#createTasks(List)}.
+     */
+    private static class BatchRecordingTaskManager extends DefaultTaskManager {
+
+        public List<Integer> batchSizes = new ArrayList<Integer>();
+
+        @Override
+        public List<TaskBatchItemResult> createTasks(List<NewTaskDto> newTaskDtos) {
+
+            batchSizes.add(newTaskDtos.size());
+
+            return super.createTasks(newTaskDtos);
+        }
+    }
+}
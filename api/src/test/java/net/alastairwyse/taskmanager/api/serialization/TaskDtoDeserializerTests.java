@@ -0,0 +1,170 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.api.serialization;
+
+import java.util.Optional;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+
+import net.alastairwyse.taskmanager.models.dtos.DateOnlyDto;
+import net.alastairwyse.taskmanager.models.dtos.NewTaskDto;
+import net.alastairwyse.taskmanager.models.dtos.TaskDto;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link TaskDtoDeserializer} class.
+ */
+public class TaskDtoDeserializerTests {
+
+    private ObjectMapper defaultObjectMapper;
+    private ObjectMapper testObjectMapper;
+
+    @Before
+    public void setUp() {
+
+        defaultObjectMapper = new ObjectMapper().registerModule(new Jdk8Module());
+        testObjectMapper = new ObjectMapper().registerModule(new Jdk8Module()).registerModule(new TaskDtoModule());
+    }
+
+    @Test
+    public void deserialize_TaskDto() throws Exception {
+
+        String json = "{\"title\":\"Do Christmas Shopping\",\"detail\":\"Turkey, crackers, prawns, presents\",\"dueDate\":{\"year\":2023,\"month\":12,\"day\":18},\"id\":\"287acea2-21ff-4a42-b379-af6830bd2066\"}";
+
+        TaskDto result = testObjectMapper.readValue(json, TaskDto.class);
+
+        AssertDtosEqual(defaultObjectMapper.readValue(json, TaskDto.class), result);
+    }
+
+    @Test
+    public void deserialize_TaskDtoNullAndMissingProperties() throws Exception {
+
+        String json = "{\"title\":null,\"dueDate\":null}";
+
+        TaskDto result = testObjectMapper.readValue(json, TaskDto.class);
+
+        TaskDto expected = defaultObjectMapper.readValue(json, TaskDto.class);
+        assertEquals(expected.getTitle(), result.getTitle());
+        assertEquals(expected.getDetail(), result.getDetail());
+        assertEquals(Optional.empty(), result.getDueDate());
+        // Like the default deserialization, a random id is assigned when the 'id' property is missing
+        assertNotNull(result.getId());
+    }
+
+    @Test
+    public void deserialize_UnknownPropertiesAndCoercedValues() throws Exception {
+
+        String json = "{\"priority\":{\"level\":[1,2]},\"title\":123,\"detail\":true,\"dueDate\":{\"year\":\"2024\",\"month\":1.0,\"day\":null,\"era\":\"CE\"},\"id\":\"287acea2-21ff-4a42-b379-af6830bd2066\"}";
+
+        defaultObjectMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        testObjectMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+        TaskDto result = testObjectMapper.readValue(json, TaskDto.class);
+
+        AssertDtosEqual(defaultObjectMapper.readValue(json, TaskDto.class), result);
+    }
+
+    @Test
+    public void deserialize_NewTaskDto() throws Exception {
+
+        String json = "{\"title\":\"Apply for leave\",\"detail\":\"First week of January\",\"dueDate\":{\"year\":2024,\"month\":1,\"day\":2},\"id\":\"287acea2-21ff-4a42-b379-af6830bd2066\"}";
+        defaultObjectMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        testObjectMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+        NewTaskDto result = testObjectMapper.readValue(json, NewTaskDto.class);
+
+        NewTaskDto expected = defaultObjectMapper.readValue(json, NewTaskDto.class);
+        assertEquals(NewTaskDto.class, result.getClass());
+        assertEquals(expected.getTitle(), result.getTitle());
+        assertEquals(expected.getDetail(), result.getDetail());
+        AssertDueDatesEqual(expected.getDueDate(), result.getDueDate());
+    }
+
+    @Test
+    public void deserialize_UnknownPropertyWhenFailOnUnknownPropertiesEnabled() throws Exception {
+
+        String json = "{\"title\":\"Apply for leave\",\"priority\":1}";
+
+        JsonMappingException e = assertThrows(JsonMappingException.class, () ->
+        {
+            testObjectMapper.readValue(json, TaskDto.class);
+        });
+
+        JsonMappingException expected = assertThrows(JsonMappingException.class, () ->
+        {
+            defaultObjectMapper.readValue(json, TaskDto.class);
+        });
+        assertEquals(expected.getClass(), e.getClass());
+        assertEquals(expected.getPathReference(), e.getPathReference());
+    }
+
+    @Test
+    public void deserialize_InvalidId() throws Exception {
+
+        String json = "{\"title\":\"Apply for leave\",\"id\":\"not-a-uuid\"}";
+
+        JsonMappingException e = assertThrows(JsonMappingException.class, () ->
+        {
+            testObjectMapper.readValue(json, TaskDto.class);
+        });
+
+        JsonMappingException expected = assertThrows(JsonMappingException.class, () ->
+        {
+            defaultObjectMapper.readValue(json, TaskDto.class);
+        });
+        assertEquals(expected.getClass(), e.getClass());
+        assertEquals(expected.getMessage(), e.getMessage());
+    }
+
+    @Test
+    public void deserialize_NotAnObject() throws Exception {
+
+        JsonMappingException e = assertThrows(JsonMappingException.class, () ->
+        {
+            testObjectMapper.readValue("[1]", TaskDto.class);
+        });
+
+        assertTrue(e.getMessage().contains(TaskDto.class.getName()));
+    }
+
+    private void AssertDtosEqual(TaskDto expected, TaskDto actual) {
+
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertEquals(expected.getDetail(), actual.getDetail());
+        AssertDueDatesEqual(expected.getDueDate(), actual.getDueDate());
+    }
+
+    private void AssertDueDatesEqual(Optional<DateOnlyDto> expected, Optional<DateOnlyDto> actual) {
+
+        assertEquals(expected.isPresent(), actual.isPresent());
+        if (expected.isPresent() == true) {
+            assertEquals(expected.get().getYear(), actual.get().getYear());
+            assertEquals(expected.get().getMonth(), actual.get().getMonth());
+            assertEquals(expected.get().getDay(), actual.get().getDay());
+        }
+    }
+}
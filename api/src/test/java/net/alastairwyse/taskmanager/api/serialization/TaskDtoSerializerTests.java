@@ -0,0 +1,102 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.api.serialization;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+
+import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.TaskPage;
+import net.alastairwyse.taskmanager.models.dtos.DateOnlyDto;
+import net.alastairwyse.taskmanager.models.dtos.NewTaskDto;
+import net.alastairwyse.taskmanager.models.dtos.TaskDto;
+import net.alastairwyse.taskmanager.models.dtos.TaskPageDto;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for the {@link TaskDtoSerializer} class.
+ */
+public class TaskDtoSerializerTests {
+
+    private ObjectMapper defaultObjectMapper;
+    private ObjectMapper testObjectMapper;
+
+    @Before
+    public void setUp() {
+
+        defaultObjectMapper = new ObjectMapper().registerModule(new Jdk8Module());
+        testObjectMapper = new ObjectMapper().registerModule(new Jdk8Module()).registerModule(new TaskDtoModule());
+    }
+
+    @Test
+    public void serialize_TaskDto() throws Exception {
+
+        var taskDto = new TaskDto(new Task(UUID.randomUUID(), "Do Christmas Shopping", "Turkey, crackers, prawns, \"presents\"", Optional.of(LocalDate.of(2023, 12, 18))));
+
+        String result = testObjectMapper.writeValueAsString(taskDto);
+
+        assertEquals(defaultObjectMapper.writeValueAsString(taskDto), result);
+    }
+
+    @Test
+    public void serialize_TaskDtoNullProperties() throws Exception {
+
+        var taskDto = new TaskDto();
+        taskDto.setId(null);
+        taskDto.setTitle(null);
+        taskDto.setDetail(null);
+
+        String result = testObjectMapper.writeValueAsString(taskDto);
+
+        assertEquals(defaultObjectMapper.writeValueAsString(taskDto), result);
+    }
+
+    @Test
+    public void serialize_NewTaskDto() throws Exception {
+
+        var newTaskDto = new NewTaskDto();
+        newTaskDto.setTitle("Apply for leave");
+        newTaskDto.setDetail("First week of January");
+        newTaskDto.setDueDate(Optional.of(new DateOnlyDto(2024, 1, 2)));
+
+        String result = testObjectMapper.writeValueAsString(newTaskDto);
+
+        assertEquals(defaultObjectMapper.writeValueAsString(newTaskDto), result);
+    }
+
+    @Test
+    public void serialize_ContainedInOtherObjects() throws Exception {
+
+        var tasks = List.of(
+            new Task(UUID.randomUUID(), "Task 1", "Detail 1", Optional.of(LocalDate.of(2023, 12, 18))),
+            new Task(UUID.randomUUID(), "Task 2", null, Optional.empty())
+        );
+        var taskDtos = tasks.stream().map(TaskDto::new).toList();
+        var taskPage = new TaskPage(tasks, true);
+
+        assertEquals(defaultObjectMapper.writeValueAsString(taskDtos), testObjectMapper.writeValueAsString(taskDtos));
+        assertEquals(defaultObjectMapper.writeValueAsString(new TaskPageDto(taskPage)), testObjectMapper.writeValueAsString(new TaskPageDto(taskPage)));
+    }
+}
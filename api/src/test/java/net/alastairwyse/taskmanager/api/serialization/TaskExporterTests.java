@@ -0,0 +1,132 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.api.serialization;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+
+import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.dtos.TaskDto;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for the {@link TaskExporter} class.
+ */
+public class TaskExporterTests {
+
+    private ObjectMapper objectMapper;
+    private ForkJoinPool pool;
+    private TaskExporter testTaskExporter;
+
+    @Before
+    public void setUp() {
+
+        objectMapper = new ObjectMapper().registerModule(new Jdk8Module());
+        pool = new ForkJoinPool(4);
+        testTaskExporter = new TaskExporter(objectMapper.getFactory(), pool, 7);
+    }
+
+    @After
+    public void tearDown() {
+
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void constructor_ChunkSizeParameterLessThan1() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> 
+        {
+            new TaskExporter(objectMapper.getFactory(), pool, 0);
+        });
+
+        assertEquals("Parameter 'chunkSize' must be greater than 0.", e.getMessage());
+    }
+
+    @Test
+    public void export_Ndjson() throws Exception {
+
+        var tasks = new ArrayList<Task>();
+        for (int i = 0; i < 1000; i++) {
+            Optional<LocalDate> dueDate = i % 3 == 0 ? Optional.empty() : Optional.of(LocalDate.of(2024, 1, 1).plusDays(i));
+            tasks.add(new Task(UUID.randomUUID(), String.format("Task %d", i), String.format("Detail \"%d\"", i), dueDate));
+        }
+
+        String result = Export(tasks, ExportFormat.NDJSON);
+
+        // Tasks should be written in their original order, regardless of the order chunks finish encoding
+        var expected = new StringBuilder();
+        for (Task currentTask : tasks) {
+            expected.append(objectMapper.writeValueAsString(new TaskDto(currentTask))).append('\n');
+        }
+        assertEquals(expected.toString(), result);
+    }
+
+    @Test
+    public void export_Csv() throws Exception {
+
+        UUID id1 = UUID.fromString("5d0ec7ff-7d3c-4a5b-9bd7-8b1f5bd7f2c1");
+        UUID id2 = UUID.fromString("0b6d8a38-5a0e-4ab8-9f5e-1c2d3e4f5a6b");
+        var tasks = List.of(
+            new Task(id1, "Do Christmas Shopping", "Turkey, \"crackers\", prawns\npresents", Optional.of(LocalDate.of(2023, 12, 18))), 
+            new Task(id2, "Apply for leave", null, Optional.empty())
+        );
+
+        String result = Export(tasks, ExportFormat.CSV);
+
+        assertEquals(
+            "id,title,detail,dueDate\r\n" + 
+            "5d0ec7ff-7d3c-4a5b-9bd7-8b1f5bd7f2c1,Do Christmas Shopping,\"Turkey, \"\"crackers\"\", prawns\npresents\",2023-12-18\r\n" + 
+            "0b6d8a38-5a0e-4ab8-9f5e-1c2d3e4f5a6b,Apply for leave,,\r\n", 
+            result
+        );
+    }
+
+    @Test
+    public void export_NoTasks() throws Exception {
+
+        assertEquals("", Export(List.of(), ExportFormat.NDJSON));
+        assertEquals("id,title,detail,dueDate\r\n", Export(List.of(), ExportFormat.CSV));
+    }
+
+    //#region Private/Protected Methods
+
+    private String Export(List<Task> tasks, ExportFormat format) throws Exception {
+
+        var outputStream = new ByteArrayOutputStream();
+        testTaskExporter.export(tasks.iterator(), format, Channels.newChannel(outputStream));
+
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+
+    //#endregion
+}
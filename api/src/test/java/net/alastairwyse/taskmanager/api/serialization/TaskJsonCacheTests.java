@@ -0,0 +1,253 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.api.serialization;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+
+import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.dtos.TaskDto;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link TaskJsonCache} class.
+ */
+public class TaskJsonCacheTests {
+
+    private ObjectMapper objectMapper;
+    private TaskJsonCache testTaskJsonCache;
+
+    @Before
+    public void setUp() {
+
+        objectMapper = new ObjectMapper().registerModule(new Jdk8Module());
+        testTaskJsonCache = new TaskJsonCache(objectMapper.getFactory(), 2, 1);
+    }
+
+    @Test
+    public void constructor_MaximumSizeParameterLessThan0() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+        {
+            new TaskJsonCache(objectMapper.getFactory(), -1);
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'maximumSize' must be greater than or equal to 0."));
+    }
+
+    @Test
+    public void constructor_StripeCountParameterLessThan1() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+        {
+            new TaskJsonCache(objectMapper.getFactory(), 2, 0);
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'stripeCount' must be greater than 0."));
+    }
+
+    @Test
+    public void getJson() throws Exception {
+
+        var task = new Task(UUID.randomUUID(), "Do Christmas Shopping", "Turkey, crackers, prawns, presents", Optional.of(LocalDate.of(2023, 12, 18)), 1);
+
+        byte[] result = testTaskJsonCache.getJson(task);
+
+        assertEquals(objectMapper.writeValueAsString(new TaskDto(task)), new String(result, StandardCharsets.UTF_8));
+        assertSame(result, testTaskJsonCache.getJson(task));
+        assertEquals(1, testTaskJsonCache.getSize());
+    }
+
+    @Test
+    public void getJson_TaskVersionChanged() throws Exception {
+
+        var task = new Task(UUID.randomUUID(), "Do Christmas Shopping", null, Optional.empty(), 1);
+        byte[] originalJson = testTaskJsonCache.getJson(task);
+        var updatedTask = new Task(task.getId(), "Do New Year Shopping", "Champagne", Optional.empty(), 2);
+
+        byte[] result = testTaskJsonCache.getJson(updatedTask);
+
+        assertNotSame(originalJson, result);
+        assertEquals(objectMapper.writeValueAsString(new TaskDto(updatedTask)), new String(result, StandardCharsets.UTF_8));
+        assertSame(result, testTaskJsonCache.getJson(updatedTask));
+        assertEquals(1, testTaskJsonCache.getSize());
+    }
+
+    @Test
+    public void getJson_TaskNotStored() throws Exception {
+
+        var task = new Task(UUID.randomUUID(), "Do Christmas Shopping", null, Optional.empty());
+
+        byte[] result = testTaskJsonCache.getJson(task);
+
+        assertEquals(objectMapper.writeValueAsString(new TaskDto(task)), new String(result, StandardCharsets.UTF_8));
+        assertNotSame(result, testTaskJsonCache.getJson(task));
+        assertEquals(0, testTaskJsonCache.getSize());
+    }
+
+    @Test
+    public void getJson_MaximumSizeReached() throws Exception {
+
+        var firstTask = new Task(UUID.randomUUID(), "Task 1", null, Optional.empty(), 1);
+        var secondTask = new Task(UUID.randomUUID(), "Task 2", null, Optional.empty(), 2);
+        var thirdTask = new Task(UUID.randomUUID(), "Task 3", null, Optional.empty(), 3);
+        byte[] firstJson = testTaskJsonCache.getJson(firstTask);
+        byte[] secondJson = testTaskJsonCache.getJson(secondTask);
+        // Makes the second task the least recently used
+        testTaskJsonCache.getJson(firstTask);
+
+        byte[] thirdJson = testTaskJsonCache.getJson(thirdTask);
+
+        assertEquals(2, testTaskJsonCache.getSize());
+        assertSame(firstJson, testTaskJsonCache.getJson(firstTask));
+        assertSame(thirdJson, testTaskJsonCache.getJson(thirdTask));
+        assertNotSame(secondJson, testTaskJsonCache.getJson(secondTask));
+    }
+
+    @Test
+    public void getJson_MultipleStripes() throws Exception {
+
+        testTaskJsonCache = new TaskJsonCache(objectMapper.getFactory(), 10, 4);
+        var tasks = new ArrayList<Task>();
+        for (int i = 0; i < 100; i++) {
+            var task = new Task(UUID.randomUUID(), "Task " + i, null, Optional.empty(), i + 1);
+            tasks.add(task);
+            testTaskJsonCache.getJson(task);
+        }
+
+        assertTrue(testTaskJsonCache.getSize() <= 10);
+        // The last task encoded is always the most recently used in its stripe
+        Task lastTask = tasks.get(tasks.size() - 1);
+        assertSame(testTaskJsonCache.getJson(lastTask), testTaskJsonCache.getJson(lastTask));
+    }
+
+    @Test
+    public void getJson_MaximumSize0() throws Exception {
+
+        testTaskJsonCache = new TaskJsonCache(objectMapper.getFactory(), 0);
+        var task = new Task(UUID.randomUUID(), "Do Christmas Shopping", null, Optional.empty(), 1);
+
+        byte[] result = testTaskJsonCache.getJson(task);
+
+        assertNotSame(result, testTaskJsonCache.getJson(task));
+        assertEquals(0, testTaskJsonCache.getSize());
+    }
+
+    @Test
+    public void remove() throws Exception {
+
+        var task = new Task(UUID.randomUUID(), "Do Christmas Shopping", null, Optional.empty(), 1);
+        byte[] originalJson = testTaskJsonCache.getJson(task);
+
+        testTaskJsonCache.remove(task.getId());
+
+        assertEquals(0, testTaskJsonCache.getSize());
+        assertNotSame(originalJson, testTaskJsonCache.getJson(task));
+    }
+
+    @Test
+    public void writeJsonArray() throws Exception {
+
+        var tasks = List.of(
+            new Task(UUID.randomUUID(), "Task 1", "Detail 1", Optional.of(LocalDate.of(2023, 12, 18)), 1),
+            new Task(UUID.randomUUID(), "Task 2", null, Optional.empty(), 2),
+            new Task(UUID.randomUUID(), "Task 3", "Detail 3", Optional.empty())
+        );
+        var flushCount = new int[1];
+        var outputStream = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushCount[0]++;
+            }
+        };
+
+        testTaskJsonCache.writeJsonArray(outputStream, tasks.iterator(), 2);
+
+        var expectedJson = objectMapper.writeValueAsString(tasks.stream().map(TaskDto::new).toList());
+        assertEquals(expectedJson, outputStream.toString(StandardCharsets.UTF_8));
+        // Flushed once after the first 2 tasks, and once at the end of the array
+        assertEquals(2, flushCount[0]);
+        assertEquals(2, testTaskJsonCache.getSize());
+    }
+
+    @Test
+    public void writeJsonArray_NoTasks() throws Exception {
+
+        var outputStream = new ByteArrayOutputStream();
+
+        testTaskJsonCache.writeJsonArray(outputStream, List.<Task>of().iterator(), 2);
+
+        assertEquals("[]", outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void writeJsonArray_TaskCountWithinMaximumSize() throws Exception {
+
+        var tasks = List.of(
+            new Task(UUID.randomUUID(), "Task 1", "Detail 1", Optional.of(LocalDate.of(2023, 12, 18)), 1),
+            new Task(UUID.randomUUID(), "Task 2", null, Optional.empty(), 2)
+        );
+        var outputStream = new ByteArrayOutputStream();
+
+        testTaskJsonCache.writeJsonArray(outputStream, tasks.iterator(), tasks.size(), 2);
+
+        var expectedJson = objectMapper.writeValueAsString(tasks.stream().map(TaskDto::new).toList());
+        assertEquals(expectedJson, outputStream.toString(StandardCharsets.UTF_8));
+        assertEquals(2, testTaskJsonCache.getSize());
+    }
+
+    @Test
+    public void writeJsonArray_TaskCountExceedsMaximumSize() throws Exception {
+
+        var tasks = List.of(
+            new Task(UUID.randomUUID(), "Task 1", "Detail 1", Optional.of(LocalDate.of(2023, 12, 18)), 1),
+            new Task(UUID.randomUUID(), "Task 2", null, Optional.empty(), 2),
+            new Task(UUID.randomUUID(), "Task 3", "Detail 3", Optional.empty(), 3)
+        );
+        var closed = new boolean[1];
+        var outputStream = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+
+        testTaskJsonCache.writeJsonArray(outputStream, tasks.iterator(), tasks.size(), 2);
+
+        var expectedJson = objectMapper.writeValueAsString(tasks.stream().map(TaskDto::new).toList());
+        assertEquals(expectedJson, outputStream.toString(StandardCharsets.UTF_8));
+        // The tasks are written without being cached, and the stream is left open
+        assertEquals(0, testTaskJsonCache.getSize());
+        assertFalse(closed[0]);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.api.serialization;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+
+import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.dtos.TaskDto;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link TaskJsonWriter} class.
+ */
+public class TaskJsonWriterTests {
+
+    private ObjectMapper objectMapper;
+    private TaskJsonWriter testTaskJsonWriter;
+
+    @Before
+    public void setUp() {
+
+        objectMapper = new ObjectMapper().registerModule(new Jdk8Module());
+        testTaskJsonWriter = new TaskJsonWriter();
+    }
+
+    @Test
+    public void writeTask_MatchesTaskDtoSerialization() throws Exception {
+
+        var tasks = List.of(
+            new Task(UUID.randomUUID(), "Do Christmas Shopping", "Turkey, \"crackers\", prawns\npresents", Optional.of(LocalDate.of(2023, 12, 18))), 
+            new Task(UUID.randomUUID(), "Apply for leave", null, Optional.empty())
+        );
+
+        for (Task currentTask : tasks) {
+            var outputStream = new ByteArrayOutputStream();
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                testTaskJsonWriter.writeTask(generator, currentTask);
+            }
+
+            assertEquals(objectMapper.writeValueAsString(new TaskDto(currentTask)), outputStream.toString(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void writeTaskArray_FlushIntervalParameterLessThan1() throws Exception {
+
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(new ByteArrayOutputStream());
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> 
+        {
+            testTaskJsonWriter.writeTaskArray(generator, List.<Task>of().iterator(), 0);
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'flushInterval' must be greater than 0."));
+    }
+
+    @Test
+    public void writeTaskArray() throws Exception {
+
+        var tasks = List.of(
+            new Task(UUID.randomUUID(), "Task 1", "Detail 1", Optional.of(LocalDate.of(2023, 12, 18))), 
+            new Task(UUID.randomUUID(), "Task 2", null, Optional.empty()), 
+            new Task(UUID.randomUUID(), "Task 3", "Detail 3", Optional.empty())
+        );
+        var flushCount = new int[1];
+        var outputStream = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushCount[0]++;
+            }
+        };
+
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+        testTaskJsonWriter.writeTaskArray(generator, tasks.iterator(), 2);
+
+        var expectedJson = objectMapper.writeValueAsString(tasks.stream().map(TaskDto::new).toList());
+        assertEquals(expectedJson, outputStream.toString(StandardCharsets.UTF_8));
+        // Flushed once after the first 2 tasks, and once at the end of the array
+        assertEquals(2, flushCount[0]);
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import net.alastairwyse.taskmanager.changes.TaskChangeIndex;
+import net.alastairwyse.taskmanager.changes.TaskChangeListener;
+import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.TaskBatchItemResult;
+import net.alastairwyse.taskmanager.models.TaskDelta;
+import net.alastairwyse.taskmanager.models.TaskDoesntExistException;
+import net.alastairwyse.taskmanager.models.TaskLookupResult;
+import net.alastairwyse.taskmanager.models.TaskPage;
+import net.alastairwyse.taskmanager.models.TaskSnapshot;
+import net.alastairwyse.taskmanager.models.dtos.NewTaskDto;
+
+/**
+ * Decorator for a {@link TaskManager} which registers a {@link TaskChangeIndex} with the decorated manager, and answers {@link TaskManager#getChangesSince(long)} from the index rather than with a full snapshot.
+ * <p>
+ * Engines don't maintain a change index themselves, so that the cost of indexing changes is only paid by applications which serve deltas.  All other methods are forwarded to the decorated manager unchanged.
+ */
+public class ChangeTrackingTaskManager implements TaskManager {
+
+    /** The decorated task manager. */
+    protected TaskManager taskManager;
+    /** The index of changes to the tasks in the decorated manager. */
+    protected TaskChangeIndex changeIndex;
+
+    /**
+     * Constructs a ChangeTrackingTaskManager which indexes changes with a {@link TaskChangeIndex} with the default settings.
+     * 
+     * @param taskManager The task manager to decorate.
+     */
+    public ChangeTrackingTaskManager(TaskManager taskManager) {
+        this(taskManager, new TaskChangeIndex());
+    }
+
+    /**
+     * Constructs a ChangeTrackingTaskManager.
+     * 
+     * @param taskManager The task manager to decorate.
+     * @param changeIndex The index to register with the decorated manager (which shouldn't be registered with any other manager).
+     */
+    public ChangeTrackingTaskManager(TaskManager taskManager, TaskChangeIndex changeIndex) {
+
+        if (taskManager == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null.", "taskManager"));
+        if (changeIndex == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null.", "changeIndex"));
+
+        this.taskManager = taskManager;
+        this.changeIndex = changeIndex;
+        taskManager.addChangeListener(changeIndex);
+    }
+
+    @Override
+    public TaskDelta getChangesSince(long version) {
+
+        return changeIndex.getChangesSince(version, this);
+    }
+
+    @Override
+    public Iterable<Task> getAllTasks() {
+
+        return taskManager.getAllTasks();
+    }
+
+    @Override
+    public TaskSnapshot getSnapshot() {
+
+        return taskManager.getSnapshot();
+    }
+
+    @Override
+    public long getVersion() {
+
+        return taskManager.getVersion();
+    }
+
+    @Override
+    public void addChangeListener(TaskChangeListener listener) {
+
+        taskManager.addChangeListener(listener);
+    }
+
+    @Override
+    public boolean removeChangeListener(TaskChangeListener listener) {
+
+        return taskManager.removeChangeListener(listener);
+    }
+
+    @Override
+    public Stream<Task> streamTasks() {
+
+        return taskManager.streamTasks();
+    }
+
+    @Override
+    public Task createTask(NewTaskDto newTaskDto) {
+
+        return taskManager.createTask(newTaskDto);
+    }
+
+    @Override
+    public void restoreTask(Task task) {
+
+        taskManager.restoreTask(task);
+    }
+
+    @Override
+    public List<TaskBatchItemResult> createTasks(List<NewTaskDto> newTaskDtos) {
+
+        return taskManager.createTasks(newTaskDtos);
+    }
+
+    @Override
+    public void updateTask(Task task) throws TaskDoesntExistException {
+
+        taskManager.updateTask(task);
+    }
+
+    @Override
+    public boolean tryUpdateTask(Task task) {
+
+        return taskManager.tryUpdateTask(task);
+    }
+
+    @Override
+    public List<TaskBatchItemResult> updateTasks(List<Task> tasks) {
+
+        return taskManager.updateTasks(tasks);
+    }
+
+    @Override
+    public void deleteTask(Task task) throws TaskDoesntExistException {
+
+        taskManager.deleteTask(task);
+    }
+
+    @Override
+    public boolean tryDeleteTask(UUID id) {
+
+        return taskManager.tryDeleteTask(id);
+    }
+
+    @Override
+    public List<TaskBatchItemResult> deleteTasks(List<Task> tasks) {
+
+        return taskManager.deleteTasks(tasks);
+    }
+
+    @Override
+    public Task getTask(UUID id) throws TaskDoesntExistException {
+
+        return taskManager.getTask(id);
+    }
+
+    @Override
+    public Optional<Task> findTask(UUID id) {
+
+        return taskManager.findTask(id);
+    }
+
+    @Override
+    public TaskLookupResult getTasks(Collection<UUID> ids) {
+
+        return taskManager.getTasks(ids);
+    }
+
+    @Override
+    public TaskPage getTaskPage(String cursor, int limit) {
+
+        return taskManager.getTaskPage(cursor, limit);
+    }
+
+    @Override
+    public List<Task> getTasksDueBetween(LocalDate dueFrom, LocalDate dueTo) {
+
+        return taskManager.getTasksDueBetween(dueFrom, dueTo);
+    }
+
+    @Override
+    public List<Task> searchTasks(String query) {
+
+        return taskManager.searchTasks(query);
+    }
+
+    @Override
+    public List<Task> suggestTasks(String prefix, int limit) {
+
+        return taskManager.suggestTasks(prefix, limit);
+    }
+}
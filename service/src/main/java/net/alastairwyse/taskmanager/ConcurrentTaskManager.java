@@ -0,0 +1,545 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+
+import net.alastairwyse.taskmanager.PersistentTaskManager.State;
+import net.alastairwyse.taskmanager.changes.TaskChangeListener;
+import net.alastairwyse.taskmanager.changes.TaskChangeNotifier;
+import net.alastairwyse.taskmanager.collections.PersistentUuidMap;
+import net.alastairwyse.taskmanager.indexes.DueDateIndex;
+import net.alastairwyse.taskmanager.indexes.FullTextIndex;
+import net.alastairwyse.taskmanager.indexes.IdOrderIndex;
+import net.alastairwyse.taskmanager.indexes.TitlePrefixIndex;
+import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.TaskBatchItemResult;
+import net.alastairwyse.taskmanager.models.TaskChangeType;
+import net.alastairwyse.taskmanager.models.TaskDoesntExistException;
+import net.alastairwyse.taskmanager.models.TaskLookupResult;
+import net.alastairwyse.taskmanager.models.TaskPage;
+import net.alastairwyse.taskmanager.models.TaskSnapshot;
+import net.alastairwyse.taskmanager.models.dtos.NewTaskDto;
+
+/**
+ * Implementation of {@link TaskManager} which stores tasks in a {@link ConcurrentHashMap}.
+ * <p>
+ * Reads of single tasks never acquire a lock, and each change to a task is a single atomic operation on the task's entry in the map ({@link ConcurrentHashMap#compute}, {@link ConcurrentHashMap#computeIfPresent} etc), so writers operating on tasks with different ids don't block each other.  The version is incremented within that operation, so changes to the same task are stored with increasing versions.  Single-task writers share the read side of a read/write lock, whose write side is held by batch operations, so a batch is applied to the map without interleaving with other writers (see {@link #batchLock}).
+ * <p>
+ * Snapshots are maintained separately from the map, as an immutable {@link PersistentUuidMap} which is published by compare-and-set.  Each writer, once its change to the map is made, adds its changes (keyed by the version it allocated) to a set of pending versions, and then applies any pending versions which follow the published snapshot, in order of version, to a new snapshot which it publishes.  A writer whose version follows one still being written by another writer leaves its changes to be published by that writer, and doesn't return until they have been, so a snapshot includes every change made before it was requested.  Readers of snapshots (and of single tasks) never lock, wait or apply changes, and a snapshot is built in O(k log n) for the k changes made since the previous one, without copying the map.
+ * <p>
+ * The cost is that the tasks are held twice, once in the map and once in the structurally shared snapshot (the task objects themselves are shared).  {@code IndexMemoryBenchmark} measures the heap used per task by this class against {@link DefaultTaskManager} (which holds only a {@link PersistentUuidMap}, but serializes writers) and {@link PersistentTaskManager} (which holds only a {@link PersistentUuidMap}, but whose writers contend on a single compare-and-set).
+ * <p>
+ * Tasks are additionally indexed by due date in a {@link DueDateIndex}, by title in a {@link TitlePrefixIndex}, by the terms in their title and detail in a {@link FullTextIndex} and by id in an {@link IdOrderIndex} for paging, all of which are updated within the atomic operation on the task's entry, so concurrent changes to the same task are applied to the indexes in the same order as to the map.  The indexes are queried without locking, and as they add the new version of a changed task before removing the old, a query concurrent with a change may see both versions, in which case only the later is returned.
+ */
+public class ConcurrentTaskManager implements TaskManager {
+
+    /** The number of times a writer spins waiting for its version to be published before yielding. */
+    protected static final int PUBLISH_SPIN_COUNT = 100;
+
+    /** Stores all tasks indexed by the id of each task. */
+    protected ConcurrentHashMap<UUID, Task> idToTaskMap;
+    /** The highest version allocated to a change to the 'idToTaskMap' field. */
+    protected AtomicLong version;
+    /** Lock whose read side is shared by writers to single tasks, and whose write side is held by batch operations, so that a batch is stored with a single version without a concurrent change to one of its tasks being stored in between with a later version. */
+    protected ReentrantReadWriteLock batchLock;
+    /** Changes made by writers which have been allocated a version but not yet published in the snapshot, keyed by version. */
+    protected ConcurrentHashMap<Long, PendingVersion> pendingVersions;
+    /** The tasks and version of the current snapshot, i.e. the contents of the 'idToTaskMap' field up to the highest version all of whose changes have been published.  Replaced by compare-and-set. */
+    protected AtomicReference<State> snapshotState;
+    /** Index of the tasks in the 'idToTaskMap' field by due date. */
+    protected DueDateIndex dueDateIndex;
+    /** Index of the tasks in the 'idToTaskMap' field by title, for prefix queries. */
+    protected TitlePrefixIndex titlePrefixIndex;
+    /** Index of the terms in the title and detail of the tasks. */
+    protected FullTextIndex fullTextIndex;
+    /** Index of the tasks in the 'idToTaskMap' field ordered by id, for paging. */
+    protected IdOrderIndex idOrderIndex;
+    /** Notifies registered listeners of changes, after the changes have been published in the snapshot.  Concurrent writers may hence notify listeners out of order of version. */
+    protected TaskChangeNotifier changeNotifier;
+
+    /**
+     * Constructs a ConcurrentTaskManager.
+     */
+    public ConcurrentTaskManager() {
+        idToTaskMap = new ConcurrentHashMap<UUID, Task>();
+        version = new AtomicLong(0);
+        batchLock = new ReentrantReadWriteLock();
+        pendingVersions = new ConcurrentHashMap<Long, PendingVersion>();
+        snapshotState = new AtomicReference<State>(new State(PersistentUuidMap.<Task>empty(), 0));
+        dueDateIndex = new DueDateIndex();
+        titlePrefixIndex = new TitlePrefixIndex();
+        // Striped so writers to different tasks don't contend on the full text index
+        fullTextIndex = new FullTextIndex(Runtime.getRuntime().availableProcessors());
+        idOrderIndex = new IdOrderIndex();
+        changeNotifier = new TaskChangeNotifier();
+    }
+
+    @Override
+    public Task createTask(NewTaskDto newTaskDto) {
+
+        var task = new Task(newTaskDto);
+        var pendingVersion = new PendingVersion();
+        batchLock.readLock().lock();
+        try {
+            task = idToTaskMap.compute(task.getId(), StoreFunction(task, pendingVersion, null));
+        }
+        finally {
+            batchLock.readLock().unlock();
+            PublishPendingVersion(pendingVersion);
+        }
+        changeNotifier.notifyStored(task.getVersion(), task, false);
+
+        return task;
+    }
+
+    @Override
+    public void restoreTask(Task task) {
+
+        var pendingVersion = new PendingVersion();
+        var existed = new boolean[1];
+        Task storedTask;
+        batchLock.readLock().lock();
+        try {
+            storedTask = idToTaskMap.compute(task.getId(), StoreFunction(task, pendingVersion, existed));
+        }
+        finally {
+            batchLock.readLock().unlock();
+            PublishPendingVersion(pendingVersion);
+        }
+        changeNotifier.notifyStored(storedTask.getVersion(), storedTask, existed[0]);
+    }
+
+    @Override
+    public void deleteTask(Task task) throws TaskDoesntExistException {
+
+        if (tryDeleteTask(task.getId()) == false)
+            throw TaskDoesntExistException.createWithId(task.getId());
+    }
+
+    @Override
+    public boolean tryDeleteTask(UUID id) {
+
+        var pendingVersion = new PendingVersion();
+        batchLock.readLock().lock();
+        try {
+            idToTaskMap.computeIfPresent(id, RemoveFunction(pendingVersion));
+        }
+        finally {
+            batchLock.readLock().unlock();
+            PublishPendingVersion(pendingVersion);
+        }
+        if (pendingVersion.version == 0)
+            return false;
+        changeNotifier.notifyDeleted(pendingVersion.version, id);
+
+        return true;
+    }
+
+    @Override
+    public Iterable<Task> getAllTasks() {
+
+        return getSnapshot();
+    }
+
+    @Override
+    public TaskSnapshot getSnapshot() {
+
+        State state = snapshotState.get();
+
+        return new TaskSnapshot(state.version, state.idToTaskMap.values());
+    }
+
+    @Override
+    public long getVersion() {
+
+        return version.get();
+    }
+
+    @Override
+    public void addChangeListener(TaskChangeListener listener) {
+
+        changeNotifier.addListener(listener);
+    }
+
+    @Override
+    public boolean removeChangeListener(TaskChangeListener listener) {
+
+        return changeNotifier.removeListener(listener);
+    }
+
+    @Override
+    public Task getTask(UUID id) throws TaskDoesntExistException {
+
+        Task task = idToTaskMap.get(id);
+        if (task == null)
+            throw TaskDoesntExistException.createWithId(id);
+
+        return task;
+    }
+
+    @Override
+    public Optional<Task> findTask(UUID id) {
+
+        return Optional.ofNullable(idToTaskMap.get(id));
+    }
+
+    @Override
+    public TaskLookupResult getTasks(Collection<UUID> ids) {
+
+        // All ids are resolved against the same snapshot
+        PersistentUuidMap<Task> snapshotIdToTaskMap = snapshotState.get().idToTaskMap;
+        var tasks = new ArrayList<Task>(ids.size());
+        var missingIds = new ArrayList<UUID>();
+        for (UUID currentId : ids) {
+            Task task = snapshotIdToTaskMap.get(currentId);
+            if (task == null) {
+                missingIds.add(currentId);
+            }
+            else {
+                tasks.add(task);
+            }
+        }
+
+        return new TaskLookupResult(tasks, missingIds);
+    }
+
+    @Override
+    public void updateTask(Task task) throws TaskDoesntExistException {
+
+        if (tryUpdateTask(task) == false)
+            throw TaskDoesntExistException.createWithId(task.getId());
+    }
+
+    @Override
+    public boolean tryUpdateTask(Task task) {
+
+        var pendingVersion = new PendingVersion();
+        Task storedTask;
+        batchLock.readLock().lock();
+        try {
+            storedTask = idToTaskMap.computeIfPresent(task.getId(), StoreFunction(task, pendingVersion, null));
+        }
+        finally {
+            batchLock.readLock().unlock();
+            PublishPendingVersion(pendingVersion);
+        }
+        if (storedTask == null)
+            return false;
+        changeNotifier.notifyStored(storedTask.getVersion(), storedTask, true);
+
+        return true;
+    }
+
+    @Override
+    public List<TaskBatchItemResult> createTasks(List<NewTaskDto> newTaskDtos) {
+
+        List<TaskBatchItemResult> results = TaskBatchItemResult.createTasks(newTaskDtos);
+        var pendingVersion = new PendingVersion();
+        batchLock.writeLock().lock();
+        try {
+            for (int i = 0; i < results.size(); i++) {
+                if (results.get(i).getSuccess() == true) {
+                    Task task = idToTaskMap.compute(results.get(i).getTask().getId(), StoreFunction(results.get(i).getTask(), pendingVersion, null));
+                    results.set(i, new TaskBatchItemResult(task, null));
+                }
+            }
+        }
+        finally {
+            batchLock.writeLock().unlock();
+            PublishPendingVersion(pendingVersion);
+        }
+        if (pendingVersion.version != 0) {
+            changeNotifier.notifyBatch(pendingVersion.version, TaskChangeType.CREATED, results);
+            }
+
+        return results;
+    }
+
+    @Override
+    public List<TaskBatchItemResult> updateTasks(List<Task> tasks) {
+
+        var results = new ArrayList<TaskBatchItemResult>(tasks.size());
+        var pendingVersion = new PendingVersion();
+        batchLock.writeLock().lock();
+        try {
+            for (Task currentTask : tasks) {
+                Task storedTask = idToTaskMap.computeIfPresent(currentTask.getId(), StoreFunction(currentTask, pendingVersion, null));
+                if (storedTask == null) {
+                    results.add(new TaskBatchItemResult(currentTask, TaskDoesntExistException.createForBatchItem(currentTask.getId())));
+                }
+                else {
+                    results.add(new TaskBatchItemResult(storedTask, null));
+                }
+            }
+        }
+        finally {
+            batchLock.writeLock().unlock();
+            PublishPendingVersion(pendingVersion);
+        }
+        if (pendingVersion.version != 0) {
+            changeNotifier.notifyBatch(pendingVersion.version, TaskChangeType.UPDATED, results);
+            }
+
+        return results;
+    }
+
+    @Override
+    public List<TaskBatchItemResult> deleteTasks(List<Task> tasks) {
+
+        var results = new ArrayList<TaskBatchItemResult>(tasks.size());
+        var pendingVersion = new PendingVersion();
+        batchLock.writeLock().lock();
+        try {
+            for (Task currentTask : tasks) {
+                int pendingChangeCount = pendingVersion.ids.size();
+                idToTaskMap.computeIfPresent(currentTask.getId(), RemoveFunction(pendingVersion));
+                if (pendingVersion.ids.size() == pendingChangeCount) {
+                    results.add(new TaskBatchItemResult(currentTask, TaskDoesntExistException.createForBatchItem(currentTask.getId())));
+                }
+                else {
+                    results.add(new TaskBatchItemResult(currentTask, null));
+                }
+            }
+        }
+        finally {
+            batchLock.writeLock().unlock();
+            PublishPendingVersion(pendingVersion);
+        }
+        if (pendingVersion.version != 0) {
+            changeNotifier.notifyBatch(pendingVersion.version, TaskChangeType.DELETED, results);
+            }
+
+        return results;
+    }
+
+    @Override
+    public List<Task> getTasksDueBetween(LocalDate dueFrom, LocalDate dueTo) {
+
+        return RemoveSupersededVersions(dueDateIndex.getTasks(dueFrom, dueTo));
+    }
+
+    @Override
+    public List<Task> suggestTasks(String prefix, int limit) {
+
+        return RemoveSupersededVersions(titlePrefixIndex.getTasks(prefix, limit));
+    }
+
+    @Override
+    public TaskPage getTaskPage(String cursor, int limit) {
+
+        return idOrderIndex.getPage(cursor, limit);
+    }
+
+    @Override
+    public List<Task> searchTasks(String query) {
+
+        return fullTextIndex.search(query);
+    }
+
+    /**
+     * Returns a function for {@link ConcurrentHashMap#compute} or {@link ConcurrentHashMap#computeIfPresent} which stores a task with a newly allocated version (or the version already allocated to a batch), and records the change.
+     * 
+     * @param task The task to store.
+     * @param pendingVersion The changes made by the operation, to which the stored task is added.
+     * @param existed Single element array in which to record whether the task replaced an existing task, or null if not required.
+     * @return The function.
+     */
+    protected BiFunction<UUID, Task, Task> StoreFunction(Task task, PendingVersion pendingVersion, boolean[] existed) {
+
+        return (UUID id, Task oldTask) -> 
+        {
+            Task newTask = task.withVersion(AllocateVersion(pendingVersion));
+            UpdateIndexes(oldTask, newTask);
+            if (existed != null)
+                existed[0] = oldTask != null;
+            pendingVersion.add(id, newTask);
+            return newTask;
+        };
+    }
+
+    /**
+     * Returns a function for {@link ConcurrentHashMap#computeIfPresent} which removes a task, allocating a new version (or using the version already allocated to a batch), and records the change.
+     * 
+     * @param pendingVersion The changes made by the operation, to which the removal is added.
+     * @return The function.
+     */
+    protected BiFunction<UUID, Task, Task> RemoveFunction(PendingVersion pendingVersion) {
+
+        return (UUID id, Task oldTask) -> 
+        {
+            AllocateVersion(pendingVersion);
+            UpdateIndexes(oldTask, null);
+            pendingVersion.add(id, null);
+            return null;
+        };
+    }
+
+    /**
+     * Allocates a new version to the specified changes, if one hasn't been allocated already.  Must be called within the atomic operation on the entry in field 'idToTaskMap' which makes the first change.
+     * 
+     * @param pendingVersion The changes.
+     * @return The version allocated to the changes.
+     */
+    protected long AllocateVersion(PendingVersion pendingVersion) {
+
+        if (pendingVersion.version == 0) {
+            pendingVersion.version = version.incrementAndGet();
+        }
+
+        return pendingVersion.version;
+    }
+
+    /**
+     * Adds the specified changes to the pending versions (if a version was allocated to them), publishes any pending versions which follow the current snapshot, and waits until the snapshot includes the version of the changes.  Called in a finally block by every writer, so an allocated version is published (possibly without all of its changes) even if the operation fails, and writers of later versions don't wait forever.
+     * <p>
+     * If the version of the changes follows one whose writer hasn't yet added its changes, that writer publishes both, so waiting is bounded by the time taken by the writes in progress.
+     * 
+     * @param pendingVersion The changes.
+     */
+    protected void PublishPendingVersion(PendingVersion pendingVersion) {
+
+        if (pendingVersion.version == 0)
+            return;
+
+        pendingVersions.put(pendingVersion.version, pendingVersion);
+        int spinCount = 0;
+        while (ApplyPendingVersions().version < pendingVersion.version) {
+            if (spinCount < PUBLISH_SPIN_COUNT) {
+                spinCount++;
+                Thread.onSpinWait();
+            }
+            else {
+                Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * Applies pending versions to the snapshot, in order of version, up to the highest version all of whose lower versions are pending or published, and publishes the resulting snapshot.  May be called concurrently by any number of writers, as the snapshot is published by compare-and-set, and retried against the snapshot which was published instead if that fails.
+     * 
+     * @return The state of the snapshot.
+     */
+    protected State ApplyPendingVersions() {
+
+        while (true) {
+            State state = snapshotState.get();
+            PendingVersion nextPendingVersion = pendingVersions.get(state.version + 1);
+            if (nextPendingVersion == null)
+                return state;
+
+            PersistentUuidMap<Task> newIdToTaskMap = state.idToTaskMap;
+            long newVersion = state.version;
+            while (nextPendingVersion != null) {
+                for (int i = 0; i < nextPendingVersion.ids.size(); i++) {
+                    UUID id = nextPendingVersion.ids.get(i);
+                    Task newTask = nextPendingVersion.tasks.get(i);
+                    newIdToTaskMap = newTask == null ? newIdToTaskMap.remove(id) : newIdToTaskMap.put(id, newTask);
+                }
+                newVersion = nextPendingVersion.version;
+                nextPendingVersion = pendingVersions.get(newVersion + 1);
+            }
+            if (snapshotState.compareAndSet(state, new State(newIdToTaskMap, newVersion)) == true) {
+                for (long i = state.version + 1; i <= newVersion; i++) {
+                    pendingVersions.remove(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all but the latest version of any task which appears more than once in the specified results of an index query.  The indexes add the new version of a changed task before removing the old, so a query made concurrently with the change can see both.
+     * 
+     * @param tasks The results of the query.
+     * @return The results, containing only the latest version of each task, in the same order.
+     */
+    protected static List<Task> RemoveSupersededVersions(List<Task> tasks) {
+
+        if (tasks.size() < 2)
+            return tasks;
+
+        HashMap<UUID, Long> idToLatestVersionMap = HashMap.newHashMap(tasks.size());
+        boolean superseded = false;
+        for (Task currentTask : tasks) {
+            Long otherVersion = idToLatestVersionMap.put(currentTask.getId(), currentTask.getVersion());
+            if (otherVersion != null) {
+                superseded = true;
+                if (otherVersion > currentTask.getVersion())
+                    idToLatestVersionMap.put(currentTask.getId(), otherVersion);
+            }
+        }
+        if (superseded == false)
+            return tasks;
+
+        var latestTasks = new ArrayList<Task>(idToLatestVersionMap.size());
+        for (Task currentTask : tasks) {
+            if (idToLatestVersionMap.remove(currentTask.getId(), currentTask.getVersion()) == true)
+                latestTasks.add(currentTask);
+        }
+
+        return latestTasks;
+    }
+
+    /**
+     * Applies a change to a task to all indexes.  Must be called from within the atomic operation on the task's entry in field 'idToTaskMap'.
+     * 
+     * @param oldTask The version of the task before the change, or null if the task is being added.
+     * @param newTask The version of the task after the change, or null if the task is being removed.
+     */
+    protected void UpdateIndexes(Task oldTask, Task newTask) {
+
+        dueDateIndex.replace(oldTask, newTask);
+        titlePrefixIndex.replace(oldTask, newTask);
+        fullTextIndex.replace(oldTask, newTask);
+        idOrderIndex.replace(oldTask, newTask);
+    }
+
+    /**
+     * The changes made by a single operation (i.e. a single version), waiting to be published in the snapshot.
+     */
+    protected static class PendingVersion {
+
+        /** The version allocated to the operation, or 0 if the operation hasn't made a change yet. */
+        protected long version;
+        /** The ids of the changed tasks, in the order they were changed. */
+        protected final ArrayList<UUID> ids;
+        /** The changed tasks, each at the same position as its id in field 'ids', or null where the task was removed. */
+        protected final ArrayList<Task> tasks;
+
+        protected PendingVersion() {
+            version = 0;
+            ids = new ArrayList<UUID>(1);
+            tasks = new ArrayList<Task>(1);
+        }
+
+        protected void add(UUID id, Task task) {
+            ids.add(id);
+            tasks.add(task);
+        }
+    }
+}
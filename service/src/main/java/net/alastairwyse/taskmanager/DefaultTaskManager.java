@@ -16,27 +16,85 @@
 
 package net.alastairwyse.taskmanager;
 
-import java.util.HashMap;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import net.alastairwyse.taskmanager.changes.TaskChangeListener;
+import net.alastairwyse.taskmanager.changes.TaskChangeNotifier;
+import net.alastairwyse.taskmanager.collections.PersistentUuidMap;
+import net.alastairwyse.taskmanager.indexes.DueDateIndex;
+import net.alastairwyse.taskmanager.indexes.FullTextIndex;
+import net.alastairwyse.taskmanager.indexes.IdOrderIndex;
+import net.alastairwyse.taskmanager.indexes.TitlePrefixIndex;
 import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.TaskBatchItemResult;
+import net.alastairwyse.taskmanager.models.TaskChangeType;
 import net.alastairwyse.taskmanager.models.TaskDoesntExistException;
+import net.alastairwyse.taskmanager.models.TaskLookupResult;
+import net.alastairwyse.taskmanager.models.TaskPage;
+import net.alastairwyse.taskmanager.models.TaskSnapshot;
 import net.alastairwyse.taskmanager.models.dtos.NewTaskDto;
 
 /**
  * Default implementation of {@link TaskManager}.
+ * <p>
+ * Tasks are stored in an immutable {@link PersistentUuidMap}, which each change replaces with a new map sharing all but O(log32 n) of its structure with the previous one.  A snapshot hence just wraps the current map, so {@link #getSnapshot()} costs O(1) regardless of the number of tasks, rather than copying all tasks after every change.  Snapshots are built on the first request after a change, and then shared by all subsequent requests until the next change.  Tasks are additionally indexed by due date in a {@link DueDateIndex}, by the terms in their title and detail in a {@link FullTextIndex}, by title in a {@link TitlePrefixIndex}, and by id in an {@link IdOrderIndex} for paging, all of which are updated under the same lock as the tasks.
+ * <p>
+ * Subclasses can store tasks in a different structure by overriding {@link #LookupTask(UUID)}, {@link #StoreTask(Task)}, {@link #ReplaceTask(Task)}, {@link #RemoveTask(UUID)} and {@link #SnapshotTasks()}, and can disable the secondary indexes to save memory, in which case queries fall back to scanning a snapshot (see the default methods of {@link TaskManager}).
  */
 public class DefaultTaskManager implements TaskManager {
 
-    /** Stores all tasks indexed by the id of each task. */
-    protected HashMap<UUID, Task> idToTaskMap;
+    /** Stores all tasks indexed by the id of each task, or null in subclasses which store tasks in a different structure.  Replaced (rather than modified) on every change while holding the write lock in field 'idToTaskMapLock'. */
+    protected PersistentUuidMap<Task> idToTaskMap;
     /** A mutliple reader, single writer lock object for the 'idToTaskMap' field. */
     protected ReentrantReadWriteLock idToTaskMapLock;
+    /** The version of the contents of the 'idToTaskMap' field, incremented on every change.  Protected by the 'idToTaskMapLock' field. */
+    protected long version;
+    /** Snapshot of the contents of the 'idToTaskMap' field at the current version, or null if one hasn't been built since the last change. */
+    protected volatile TaskSnapshot currentSnapshot;
+    /** Index of the tasks in the 'idToTaskMap' field by due date, or null if indexes are disabled.  Updated while holding the write lock in field 'idToTaskMapLock'. */
+    protected DueDateIndex dueDateIndex;
+    /** Index of the terms in the title and detail of the tasks, or null if indexes are disabled. */
+    protected FullTextIndex fullTextIndex;
+    /** Index of the tasks in the 'idToTaskMap' field by title, for prefix queries, or null if indexes are disabled. */
+    protected TitlePrefixIndex titlePrefixIndex;
+    /** Index of the tasks in the 'idToTaskMap' field ordered by id, for paging, or null if indexes are disabled. */
+    protected IdOrderIndex idOrderIndex;
+    /** Notifies registered listeners of changes, after the write lock in field 'idToTaskMapLock' is released.  Writers may hence notify listeners out of order of version. */
+    protected TaskChangeNotifier changeNotifier;
 
     public DefaultTaskManager() {
-        idToTaskMap = new HashMap<UUID, Task>();
+        this(true);
+    }
+
+    /**
+     * Constructs a DefaultTaskManager.
+     * 
+     * @param indexesEnabled Whether tasks are indexed by due date, terms, title and id.  If false, the corresponding queries scan a snapshot of all tasks.
+     */
+    protected DefaultTaskManager(boolean indexesEnabled) {
+        idToTaskMap = PersistentUuidMap.empty();
         idToTaskMapLock = new ReentrantReadWriteLock();
+        version = 0;
+        currentSnapshot = null;
+        if (indexesEnabled == true) {
+            dueDateIndex = new DueDateIndex();
+            fullTextIndex = new FullTextIndex();
+            titlePrefixIndex = new TitlePrefixIndex();
+            idOrderIndex = new IdOrderIndex();
+        }
+        else {
+            dueDateIndex = null;
+            fullTextIndex = null;
+            titlePrefixIndex = null;
+            idOrderIndex = null;
+        }
+        changeNotifier = new TaskChangeNotifier();
     }
 
     @Override
@@ -45,41 +103,117 @@ public class DefaultTaskManager implements TaskManager {
         var task = new Task(newTaskDto);
         idToTaskMapLock.writeLock().lock();
         try {
-            idToTaskMap.put(task.getId(), task);
+            task = task.withVersion(version + 1);
+            StoreTask(task);
+            UpdateIndexes(null, task);
+            IncrementVersion();
         }
         finally {
             idToTaskMapLock.writeLock().unlock();
         }
+        changeNotifier.notifyStored(task.getVersion(), task, false);
 
         return task;
     }
 
     @Override
-    public void deleteTask(Task task) throws TaskDoesntExistException {
-        
+    public void restoreTask(Task task) {
+
+        Task storedTask;
+        Task oldTask;
         idToTaskMapLock.writeLock().lock();
         try {
-            ThrowExceptionIfTaskWithIdDoesntExist(task.getId());
+            storedTask = task.withVersion(version + 1);
+            oldTask = StoreTask(storedTask);
+            UpdateIndexes(oldTask, storedTask);
+            IncrementVersion();
+        }
+        finally {
+            idToTaskMapLock.writeLock().unlock();
+        }
+        changeNotifier.notifyStored(storedTask.getVersion(), storedTask, oldTask != null);
+    }
+
+    @Override
+    public void deleteTask(Task task) throws TaskDoesntExistException {
 
-            idToTaskMap.remove(task.getId());
+        if (tryDeleteTask(task.getId()) == false)
+            throw TaskDoesntExistException.createWithId(task.getId());
+    }
+
+    @Override
+    public boolean tryDeleteTask(UUID id) {
+
+        long deletedVersion;
+        idToTaskMapLock.writeLock().lock();
+        try {
+            Task oldTask = RemoveTask(id);
+            if (oldTask == null)
+                return false;
+            UpdateIndexes(oldTask, null);
+            IncrementVersion();
+            deletedVersion = version;
         }
         finally {
             idToTaskMapLock.writeLock().unlock();
         }
+        changeNotifier.notifyDeleted(deletedVersion, id);
+
+        return true;
     }
 
     @Override
     public Iterable<Task> getAllTasks() {
 
+        return getSnapshot();
+    }
+
+    @Override
+    public TaskSnapshot getSnapshot() {
+
+        TaskSnapshot snapshot = currentSnapshot;
+        if (snapshot != null)
+            return snapshot;
+
+        idToTaskMapLock.readLock().lock();
+        try {
+            snapshot = currentSnapshot;
+            if (snapshot == null) {
+                snapshot = new TaskSnapshot(version, SnapshotTasks());
+                currentSnapshot = snapshot;
+            }
+
+            return snapshot;
+        }
+        finally {
+            idToTaskMapLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long getVersion() {
+
         idToTaskMapLock.readLock().lock();
         try {
-            return idToTaskMap.values();
+            return version;
         }
         finally {
             idToTaskMapLock.readLock().unlock();
         }
     }
 
+    @Override
+    public void addChangeListener(TaskChangeListener listener) {
+
+        changeNotifier.addListener(listener);
+    }
+
+    @Override
+    public boolean removeChangeListener(TaskChangeListener listener) {
+
+        return changeNotifier.removeListener(listener);
+    }
+
     @Override
     public Task getTask(UUID id) throws TaskDoesntExistException {
         
@@ -87,31 +221,316 @@ public class DefaultTaskManager implements TaskManager {
         try {
             ThrowExceptionIfTaskWithIdDoesntExist(id);
 
-            return idToTaskMap.get(id);
+            return LookupTask(id);
         }
         finally {
             idToTaskMapLock.readLock().unlock();
         }
     }
     
+    @Override
+    public Optional<Task> findTask(UUID id) {
+
+        idToTaskMapLock.readLock().lock();
+        try {
+            return Optional.ofNullable(LookupTask(id));
+        }
+        finally {
+            idToTaskMapLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public TaskLookupResult getTasks(Collection<UUID> ids) {
+
+        var tasks = new ArrayList<Task>(ids.size());
+        var missingIds = new ArrayList<UUID>();
+        idToTaskMapLock.readLock().lock();
+        try {
+            for (UUID currentId : ids) {
+                Task task = LookupTask(currentId);
+                if (task == null) {
+                    missingIds.add(currentId);
+                }
+                else {
+                    tasks.add(task);
+                }
+            }
+        }
+        finally {
+            idToTaskMapLock.readLock().unlock();
+        }
+
+        return new TaskLookupResult(tasks, missingIds);
+    }
+
     @Override
     public void updateTask(Task task) throws TaskDoesntExistException {
 
+        if (tryUpdateTask(task) == false)
+            throw TaskDoesntExistException.createWithId(task.getId());
+    }
+
+    @Override
+    public boolean tryUpdateTask(Task task) {
+
+        Task storedTask;
+        idToTaskMapLock.writeLock().lock();
+        try {
+            storedTask = task.withVersion(version + 1);
+            Task oldTask = ReplaceTask(storedTask);
+            if (oldTask == null)
+                return false;
+            UpdateIndexes(oldTask, storedTask);
+            IncrementVersion();
+        }
+        finally {
+            idToTaskMapLock.writeLock().unlock();
+        }
+        changeNotifier.notifyStored(storedTask.getVersion(), storedTask, true);
+
+        return true;
+    }
+
+    @Override
+    public List<TaskBatchItemResult> createTasks(List<NewTaskDto> newTaskDtos) {
+
+        // Validate before acquiring the lock, so the lock is only held while storing the valid tasks
+        List<TaskBatchItemResult> results = TaskBatchItemResult.createTasks(newTaskDtos);
+        // The version of the batch, or 0 if no items succeeded
+        long batchVersion = 0;
+        idToTaskMapLock.writeLock().lock();
+        try {
+            boolean changed = false;
+            for (int i = 0; i < results.size(); i++) {
+                if (results.get(i).getSuccess() == true) {
+                    Task task = results.get(i).getTask().withVersion(version + 1);
+                    StoreTask(task);
+                    UpdateIndexes(null, task);
+                    results.set(i, new TaskBatchItemResult(task, null));
+                    changed = true;
+                }
+            }
+            if (changed == true) {
+                IncrementVersion();
+                batchVersion = version;
+            }
+        }
+        finally {
+            idToTaskMapLock.writeLock().unlock();
+        }
+        if (batchVersion != 0)
+            changeNotifier.notifyBatch(batchVersion, TaskChangeType.CREATED, results);
+
+        return results;
+    }
+
+    @Override
+    public List<TaskBatchItemResult> updateTasks(List<Task> tasks) {
+
+        var results = new ArrayList<TaskBatchItemResult>(tasks.size());
+        long batchVersion = 0;
         idToTaskMapLock.writeLock().lock();
         try {
-            ThrowExceptionIfTaskWithIdDoesntExist(task.getId());
+            boolean changed = false;
+            for (Task currentTask : tasks) {
+                Task storedTask = currentTask.withVersion(version + 1);
+                Task oldTask = ReplaceTask(storedTask);
+                if (oldTask == null) {
+                    results.add(new TaskBatchItemResult(currentTask, TaskDoesntExistException.createForBatchItem(currentTask.getId())));
+                }
+                else {
+                    UpdateIndexes(oldTask, storedTask);
+                    results.add(new TaskBatchItemResult(storedTask, null));
+                    changed = true;
+                }
+            }
+            if (changed == true) {
+                IncrementVersion();
+                batchVersion = version;
+            }
+        }
+        finally {
+            idToTaskMapLock.writeLock().unlock();
+        }
+        if (batchVersion != 0)
+            changeNotifier.notifyBatch(batchVersion, TaskChangeType.UPDATED, results);
+
+        return results;
+    }
 
-            idToTaskMap.remove(task.getId());
-            idToTaskMap.put(task.getId(), task);
+    @Override
+    public List<TaskBatchItemResult> deleteTasks(List<Task> tasks) {
+
+        var results = new ArrayList<TaskBatchItemResult>(tasks.size());
+        long batchVersion = 0;
+        idToTaskMapLock.writeLock().lock();
+        try {
+            boolean changed = false;
+            for (Task currentTask : tasks) {
+                Task oldTask = RemoveTask(currentTask.getId());
+                if (oldTask == null) {
+                    results.add(new TaskBatchItemResult(currentTask, TaskDoesntExistException.createForBatchItem(currentTask.getId())));
+                }
+                else {
+                    UpdateIndexes(oldTask, null);
+                    results.add(new TaskBatchItemResult(currentTask, null));
+                    changed = true;
+                }
+            }
+            if (changed == true) {
+                IncrementVersion();
+                batchVersion = version;
+            }
         }
         finally {
             idToTaskMapLock.writeLock().unlock();
         }
+        if (batchVersion != 0)
+            changeNotifier.notifyBatch(batchVersion, TaskChangeType.DELETED, results);
+
+        return results;
+    }
+
+    @Override
+    public List<Task> getTasksDueBetween(LocalDate dueFrom, LocalDate dueTo) {
+
+        if (dueDateIndex == null)
+            return TaskManager.super.getTasksDueBetween(dueFrom, dueTo);
+        idToTaskMapLock.readLock().lock();
+        try {
+            return dueDateIndex.getTasks(dueFrom, dueTo);
+        }
+        finally {
+            idToTaskMapLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Task> suggestTasks(String prefix, int limit) {
+
+        if (titlePrefixIndex == null)
+            return TaskManager.super.suggestTasks(prefix, limit);
+        idToTaskMapLock.readLock().lock();
+        try {
+            return titlePrefixIndex.getTasks(prefix, limit);
+        }
+        finally {
+            idToTaskMapLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public TaskPage getTaskPage(String cursor, int limit) {
+
+        if (idOrderIndex == null)
+            return TaskManager.super.getTaskPage(cursor, limit);
+
+        return idOrderIndex.getPage(cursor, limit);
+    }
+
+    @Override
+    public List<Task> searchTasks(String query) {
+
+        if (fullTextIndex == null)
+            return TaskManager.super.searchTasks(query);
+
+        return fullTextIndex.search(query);
+    }
+
+    /**
+     * Returns the task with the specified id.  Must be called while holding a lock in field 'idToTaskMapLock'.
+     * 
+     * @param id The id of the task.
+     * @return The task, or null if no task with the id exists.
+     */
+    protected Task LookupTask(UUID id) {
+
+        return idToTaskMap.get(id);
+    }
+
+    /**
+     * Stores the specified task, replacing any existing task with the same id.  Must be called while holding the write lock in field 'idToTaskMapLock'.
+     * 
+     * @param task The task.
+     * @return The task replaced, or null if no task with the id existed.
+     */
+    protected Task StoreTask(Task task) {
+
+        Task oldTask = idToTaskMap.get(task.getId());
+        idToTaskMap = idToTaskMap.put(task.getId(), task);
+
+        return oldTask;
+    }
+
+    /**
+     * Stores the specified task only if a task with the same id exists.  Must be called while holding the write lock in field 'idToTaskMapLock'.
+     * 
+     * @param task The task.
+     * @return The task replaced, or null if no task with the id exists (in which case the task isn't stored).
+     */
+    protected Task ReplaceTask(Task task) {
+
+        Task oldTask = idToTaskMap.get(task.getId());
+        if (oldTask != null)
+            idToTaskMap = idToTaskMap.put(task.getId(), task);
+
+        return oldTask;
+    }
+
+    /**
+     * Removes the task with the specified id.  Must be called while holding the write lock in field 'idToTaskMapLock'.
+     * 
+     * @param id The id of the task.
+     * @return The task removed, or null if no task with the id existed.
+     */
+    protected Task RemoveTask(UUID id) {
+
+        Task oldTask = idToTaskMap.get(id);
+        if (oldTask != null)
+            idToTaskMap = idToTaskMap.remove(id);
+
+        return oldTask;
+    }
+
+    /**
+     * Returns all stored tasks as a collection which isn't modified by subsequent changes, for a snapshot.  Must be called while holding a lock in field 'idToTaskMapLock'.
+     * 
+     * @return The tasks, which aren't modified after being returned.
+     */
+    protected Collection<Task> SnapshotTasks() {
+
+        return idToTaskMap.values();
+    }
+
+    /**
+     * Applies a change to a task to all indexes (if enabled).  Must be called while holding the write lock in field 'idToTaskMapLock'.
+     * 
+     * @param oldTask The version of the task before the change, or null if the task is being added.
+     * @param newTask The version of the task after the change, or null if the task is being removed.
+     */
+    protected void UpdateIndexes(Task oldTask, Task newTask) {
+
+        if (dueDateIndex == null)
+            return;
+        dueDateIndex.replace(oldTask, newTask);
+        fullTextIndex.replace(oldTask, newTask);
+        titlePrefixIndex.replace(oldTask, newTask);
+        idOrderIndex.replace(oldTask, newTask);
+    }
+
+    /**
+     * Increments the version and discards the snapshot of the previous version.  Must be called while holding the write lock in field 'idToTaskMapLock'.
+     */
+    protected void IncrementVersion() {
+
+        version++;
+        currentSnapshot = null;
     }
 
     protected void ThrowExceptionIfTaskWithIdDoesntExist(UUID id) throws TaskDoesntExistException {
         
-        if (idToTaskMap.containsKey(id) == false)
-            throw new TaskDoesntExistException(String.format("A task with id '%s' does not exist in the task manager.", id));
+        if (LookupTask(id) == null)
+            throw TaskDoesntExistException.createWithId(id);
     }
 }
@@ -0,0 +1,757 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import net.alastairwyse.taskmanager.changes.TaskChangeListener;
+import net.alastairwyse.taskmanager.changes.TaskChangeNotifier;
+import net.alastairwyse.taskmanager.collections.UuidLongOpenAddressingMap;
+import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.TaskBatchItemResult;
+import net.alastairwyse.taskmanager.models.TaskChangeType;
+import net.alastairwyse.taskmanager.models.TaskDoesntExistException;
+import net.alastairwyse.taskmanager.models.TaskLookupResult;
+import net.alastairwyse.taskmanager.models.TaskSnapshot;
+import net.alastairwyse.taskmanager.models.dtos.NewTaskDto;
+import net.alastairwyse.taskmanager.offheap.SlabAllocator;
+
+/**
+ * Implementation of {@link TaskManager} which stores the data of each task in a compact binary record outside of the Java heap.
+ * <p>
+ * Records are allocated from direct memory slabs by a {@link SlabAllocator}, and indexed by a {@link UuidLongOpenAddressingMap} mapping task id to record handle.  The Java heap hence holds only the index (two primitive arrays of longs per slot) regardless of the size of the tasks, and the garbage collector has no per-task objects to trace.  {@link Task} objects are materialized from records when read, so the instances returned by the methods of this class are copies rather than the instances passed in.
+ * <p>
+ * An update whose record fits in the block already allocated to the task is rewritten in place.  Blocks of deleted tasks (and of tasks whose record outgrew its block) are returned to the allocator's free lists for reuse.
+ * <p>
+ * Snapshots are taken on each call and not cached.  Taking a snapshot copies the records of all tasks (without decoding them) into chunks of direct memory while holding the read lock, and {@link Task} objects are materialized from the copied records only as the snapshot is iterated, so heap usage remains independent of the number of tasks, and the read lock is held only for the time taken to copy the bytes.
+ */
+public class OffHeapTaskManager implements TaskManager {
+
+    // Record layout (all offsets relative to the start of the record's block)
+    //   0  long  Most significant bits of the id
+    //   8  long  Least significant bits of the id
+    //   16 long  Epoch day of the due date, or Long.MIN_VALUE if the task has no due date
+    //   24 int   Length of the UTF-8 encoded title
+    //   28 int   Length of the UTF-8 encoded detail, or -1 if the detail is null
+    //   32 long  Version of the manager at which the task was stored
+    //   40       UTF-8 encoded title followed by UTF-8 encoded detail
+
+    protected static final int ID_MSB_OFFSET = 0;
+    protected static final int ID_LSB_OFFSET = 8;
+    protected static final int DUE_DATE_OFFSET = 16;
+    protected static final int TITLE_LENGTH_OFFSET = 24;
+    protected static final int DETAIL_LENGTH_OFFSET = 28;
+    protected static final int VERSION_OFFSET = 32;
+    protected static final int HEADER_SIZE = 40;
+    protected static final long NO_DUE_DATE = Long.MIN_VALUE;
+    protected static final int NULL_DETAIL_LENGTH = -1;
+    /** The maximum size in bytes of each chunk of direct memory that records are copied into when taking a snapshot (a chunk holding a single larger record excepted). */
+    protected static final int SNAPSHOT_CHUNK_SIZE = 4 * 1024 * 1024;
+    /** The maximum number of records in each segment of a snapshot, the unit at which snapshots are split for parallel iteration. */
+    protected static final int SNAPSHOT_SEGMENT_SIZE = 128;
+
+    /** Allocates the memory blocks which hold the task records.  Protected by the 'lock' field. */
+    protected SlabAllocator allocator;
+    /** Maps the id of each task to the handle of the block holding its record. */
+    protected UuidLongOpenAddressingMap idToHandleMap;
+    /** A multiple reader, single writer lock object for the 'allocator' and 'idToHandleMap' fields. */
+    protected ReentrantReadWriteLock lock;
+    /** The version of the tasks, incremented on every change.  Protected by the 'lock' field. */
+    protected long version;
+    /** Notifies registered listeners of changes, after the write lock in field 'lock' is released (so writers may notify listeners out of order of version).  Listeners receive the task instances passed to the manager rather than copies materialized from records. */
+    protected TaskChangeNotifier changeNotifier;
+
+    /**
+     * Constructs an OffHeapTaskManager.
+     */
+    public OffHeapTaskManager() {
+        this(new SlabAllocator());
+    }
+
+    /**
+     * Constructs an OffHeapTaskManager.
+     * 
+     * @param allocator The allocator to allocate task records from.
+     */
+    public OffHeapTaskManager(SlabAllocator allocator) {
+
+        if (allocator == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null.", "allocator"));
+
+        this.allocator = allocator;
+        idToHandleMap = new UuidLongOpenAddressingMap();
+        lock = new ReentrantReadWriteLock();
+        version = 0;
+        changeNotifier = new TaskChangeNotifier();
+    }
+
+    /**
+     * @return The total size in bytes of the memory blocks holding task records.
+     */
+    public long getAllocatedBytes() {
+
+        lock.readLock().lock();
+        try {
+            return allocator.getAllocatedBytes();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The total size in bytes of memory reserved outside of the Java heap to hold task records.
+     */
+    public long getReservedBytes() {
+
+        lock.readLock().lock();
+        try {
+            return allocator.getReservedBytes();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Task createTask(NewTaskDto newTaskDto) {
+
+        var task = new Task(newTaskDto);
+        var record = new EncodedTask(task);
+        lock.writeLock().lock();
+        try {
+            record.version = version + 1;
+            long handle = allocator.allocate(record.getSize());
+            record.writeTo(allocator.getSlab(handle), allocator.getOffset(handle));
+            idToHandleMap.put(task.getId(), handle);
+            version++;
+            task = task.withVersion(version);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+        changeNotifier.notifyStored(task.getVersion(), task, false);
+
+        return task;
+    }
+
+    @Override
+    public void restoreTask(Task task) {
+
+        var record = new EncodedTask(task);
+        boolean existed;
+        lock.writeLock().lock();
+        try {
+            record.version = version + 1;
+            long handle = idToHandleMap.get(task.getId());
+            existed = handle != 0;
+            if (handle == 0) {
+                handle = allocator.allocate(record.getSize());
+                record.writeTo(allocator.getSlab(handle), allocator.getOffset(handle));
+                idToHandleMap.put(task.getId(), handle);
+            }
+            else {
+                writeRecord(task.getId(), handle, record);
+            }
+            version++;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+        changeNotifier.notifyStored(record.version, task.withVersion(record.version), existed);
+    }
+
+    @Override
+    public void deleteTask(Task task) throws TaskDoesntExistException {
+
+        if (tryDeleteTask(task.getId()) == false)
+            throw TaskDoesntExistException.createWithId(task.getId());
+    }
+
+    @Override
+    public boolean tryDeleteTask(UUID id) {
+
+        long deletedVersion;
+        lock.writeLock().lock();
+        try {
+            long handle = idToHandleMap.remove(id);
+            if (handle == 0)
+                return false;
+            allocator.free(handle);
+            version++;
+            deletedVersion = version;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+        changeNotifier.notifyDeleted(deletedVersion, id);
+
+        return true;
+    }
+
+    @Override
+    public Iterable<Task> getAllTasks() {
+
+        return getSnapshot();
+    }
+
+    @Override
+    public TaskSnapshot getSnapshot() {
+
+        lock.readLock().lock();
+        try {
+            var records = new CopiedRecords(allocator.getAllocatedBytes());
+            idToHandleMap.forEachValue((long handle) -> 
+            {
+                records.copy(allocator.getSlab(handle), allocator.getOffset(handle), allocator.getCapacity(handle));
+            });
+
+            return new TaskSnapshot(version, records);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long getVersion() {
+
+        lock.readLock().lock();
+        try {
+            return version;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void addChangeListener(TaskChangeListener listener) {
+
+        changeNotifier.addListener(listener);
+    }
+
+    @Override
+    public boolean removeChangeListener(TaskChangeListener listener) {
+
+        return changeNotifier.removeListener(listener);
+    }
+
+    @Override
+    public Task getTask(UUID id) throws TaskDoesntExistException {
+
+        lock.readLock().lock();
+        try {
+            long handle = idToHandleMap.get(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            if (handle == 0)
+                throw TaskDoesntExistException.createWithId(id);
+
+            return readTask(handle);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Task> findTask(UUID id) {
+
+        lock.readLock().lock();
+        try {
+            long handle = idToHandleMap.get(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            if (handle == 0)
+                return Optional.empty();
+
+            return Optional.of(readTask(handle));
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public TaskLookupResult getTasks(Collection<UUID> ids) {
+
+        var tasks = new ArrayList<Task>(ids.size());
+        var missingIds = new ArrayList<UUID>();
+        lock.readLock().lock();
+        try {
+            for (UUID currentId : ids) {
+                long handle = idToHandleMap.get(currentId.getMostSignificantBits(), currentId.getLeastSignificantBits());
+                if (handle == 0) {
+                    missingIds.add(currentId);
+                }
+                else {
+                    tasks.add(readTask(handle));
+                }
+            }
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+
+        return new TaskLookupResult(tasks, missingIds);
+    }
+
+    @Override
+    public void updateTask(Task task) throws TaskDoesntExistException {
+
+        if (tryUpdateTask(task) == false)
+            throw TaskDoesntExistException.createWithId(task.getId());
+    }
+
+    @Override
+    public boolean tryUpdateTask(Task task) {
+
+        var record = new EncodedTask(task);
+        lock.writeLock().lock();
+        try {
+            long handle = idToHandleMap.get(task.getId());
+            if (handle == 0)
+                return false;
+            record.version = version + 1;
+            writeRecord(task.getId(), handle, record);
+            version++;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+        changeNotifier.notifyStored(record.version, task.withVersion(record.version), true);
+
+        return true;
+    }
+
+    @Override
+    public List<TaskBatchItemResult> createTasks(List<NewTaskDto> newTaskDtos) {
+
+        // Validate and encode before acquiring the lock, so the lock is only held while storing the valid tasks
+        List<TaskBatchItemResult> results = TaskBatchItemResult.createTasks(newTaskDtos);
+        var records = new ArrayList<EncodedTask>(results.size());
+        for (TaskBatchItemResult currentResult : results) {
+            if (currentResult.getSuccess() == true) {
+                records.add(new EncodedTask(currentResult.getTask()));
+            }
+        }
+        long batchVersion;
+        lock.writeLock().lock();
+        try {
+            batchVersion = version + 1;
+            for (EncodedTask currentRecord : records) {
+                currentRecord.version = batchVersion;
+                long handle = allocator.allocate(currentRecord.getSize());
+                currentRecord.writeTo(allocator.getSlab(handle), allocator.getOffset(handle));
+                idToHandleMap.put(currentRecord.id, handle);
+            }
+            if (records.isEmpty() == false) {
+                version++;
+                for (int i = 0; i < results.size(); i++) {
+                    if (results.get(i).getSuccess() == true) {
+                        results.set(i, new TaskBatchItemResult(results.get(i).getTask().withVersion(batchVersion), null));
+                    }
+                }
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+        if (records.isEmpty() == false)
+            changeNotifier.notifyBatch(batchVersion, TaskChangeType.CREATED, results);
+
+        return results;
+    }
+
+    @Override
+    public List<TaskBatchItemResult> updateTasks(List<Task> tasks) {
+
+        var records = new ArrayList<EncodedTask>(tasks.size());
+        for (Task currentTask : tasks) {
+            records.add(new EncodedTask(currentTask));
+        }
+        var results = new ArrayList<TaskBatchItemResult>(tasks.size());
+        // The version of the batch, or 0 if no items succeeded
+        long batchVersion = 0;
+        lock.writeLock().lock();
+        try {
+            boolean changed = false;
+            for (int i = 0; i < tasks.size(); i++) {
+                Task currentTask = tasks.get(i);
+                long handle = idToHandleMap.get(currentTask.getId());
+                if (handle == 0) {
+                    results.add(new TaskBatchItemResult(currentTask, TaskDoesntExistException.createForBatchItem(currentTask.getId())));
+                }
+                else {
+                    records.get(i).version = version + 1;
+                    writeRecord(currentTask.getId(), handle, records.get(i));
+                    results.add(new TaskBatchItemResult(currentTask.withVersion(version + 1), null));
+                    changed = true;
+                }
+            }
+            if (changed == true) {
+                version++;
+                batchVersion = version;
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+        if (batchVersion != 0)
+            changeNotifier.notifyBatch(batchVersion, TaskChangeType.UPDATED, results);
+
+        return results;
+    }
+
+    @Override
+    public List<TaskBatchItemResult> deleteTasks(List<Task> tasks) {
+
+        var results = new ArrayList<TaskBatchItemResult>(tasks.size());
+        // The version of the batch, or 0 if no items succeeded
+        long batchVersion = 0;
+        lock.writeLock().lock();
+        try {
+            boolean changed = false;
+            for (Task currentTask : tasks) {
+                long handle = idToHandleMap.remove(currentTask.getId());
+                if (handle == 0) {
+                    results.add(new TaskBatchItemResult(currentTask, TaskDoesntExistException.createForBatchItem(currentTask.getId())));
+                }
+                else {
+                    allocator.free(handle);
+                    results.add(new TaskBatchItemResult(currentTask, null));
+                    changed = true;
+                }
+            }
+            if (changed == true) {
+                version++;
+                batchVersion = version;
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+        if (batchVersion != 0)
+            changeNotifier.notifyBatch(batchVersion, TaskChangeType.DELETED, results);
+
+        return results;
+    }
+
+    /**
+     * Writes the specified record over the existing record of a task, in place if it fits within the task's current block, or otherwise to a newly allocated block.  Must be called while holding the write lock in field 'lock'.
+     * 
+     * @param id The id of the task.
+     * @param handle The handle of the block holding the task's existing record.
+     * @param record The record to write.
+     */
+    protected void writeRecord(UUID id, long handle, EncodedTask record) {
+
+        if (record.getSize() > allocator.getCapacity(handle)) {
+            long newHandle = allocator.allocate(record.getSize());
+            record.writeTo(allocator.getSlab(newHandle), allocator.getOffset(newHandle));
+            idToHandleMap.replace(id, newHandle);
+            allocator.free(handle);
+        }
+        else {
+            record.writeTo(allocator.getSlab(handle), allocator.getOffset(handle));
+        }
+    }
+
+    /**
+     * Materializes the task stored in the block with the specified handle.  Must be called while holding the read or write lock in field 'lock'.
+     * 
+     * @param handle The handle of the block.
+     * @return The task.
+     */
+    protected Task readTask(long handle) {
+
+        return readTask(allocator.getSlab(handle), allocator.getOffset(handle));
+    }
+
+    /**
+     * Materializes the task stored in the record at the specified offset of the specified buffer.
+     * 
+     * @param slab The buffer holding the record.
+     * @param offset The offset of the record within the buffer.
+     * @return The task.
+     */
+    protected static Task readTask(ByteBuffer slab, int offset) {
+
+        var id = new UUID(slab.getLong(offset + ID_MSB_OFFSET), slab.getLong(offset + ID_LSB_OFFSET));
+        long dueDateEpochDay = slab.getLong(offset + DUE_DATE_OFFSET);
+        Optional<LocalDate> dueDate = dueDateEpochDay == NO_DUE_DATE ? Optional.empty() : Optional.of(LocalDate.ofEpochDay(dueDateEpochDay));
+        int titleLength = slab.getInt(offset + TITLE_LENGTH_OFFSET);
+        int detailLength = slab.getInt(offset + DETAIL_LENGTH_OFFSET);
+        var titleBytes = new byte[titleLength];
+        slab.get(offset + HEADER_SIZE, titleBytes);
+        String detail = null;
+        if (detailLength != NULL_DETAIL_LENGTH) {
+            var detailBytes = new byte[detailLength];
+            slab.get(offset + HEADER_SIZE + titleLength, detailBytes);
+            detail = new String(detailBytes, StandardCharsets.UTF_8);
+        }
+
+        return new Task(id, new String(titleBytes, StandardCharsets.UTF_8), detail, dueDate, slab.getLong(offset + VERSION_OFFSET));
+    }
+
+    /**
+     * Returns the size in bytes of the record at the specified offset of the specified buffer.
+     * 
+     * @param slab The buffer holding the record.
+     * @param offset The offset of the record within the buffer.
+     * @return The size of the record.
+     */
+    protected static int getRecordSize(ByteBuffer slab, int offset) {
+
+        int detailLength = slab.getInt(offset + DETAIL_LENGTH_OFFSET);
+
+        return HEADER_SIZE + slab.getInt(offset + TITLE_LENGTH_OFFSET) + (detailLength == NULL_DETAIL_LENGTH ? 0 : detailLength);
+    }
+
+    /**
+     * A task encoded in the record format, prior to being written to a block.  Encoding happens before the write lock is acquired, so the time the lock is held isn't extended by string encoding.
+     */
+    protected static class EncodedTask {
+
+        protected final UUID id;
+        protected final long dueDateEpochDay;
+        protected final byte[] titleBytes;
+        protected final byte[] detailBytes;
+        /** The version of the manager at which the task is stored.  Set while holding the write lock, immediately before the record is written. */
+        protected long version;
+
+        protected EncodedTask(Task task) {
+            id = task.getId();
+            dueDateEpochDay = task.getDueDate().isPresent() ? task.getDueDate().get().toEpochDay() : NO_DUE_DATE;
+            titleBytes = task.getTitle().getBytes(StandardCharsets.UTF_8);
+            detailBytes = task.getDetail() == null ? null : task.getDetail().getBytes(StandardCharsets.UTF_8);
+        }
+
+        /**
+         * @return The size of the encoded record in bytes.
+         */
+        protected int getSize() {
+            return HEADER_SIZE + titleBytes.length + (detailBytes == null ? 0 : detailBytes.length);
+        }
+
+        /**
+         * Writes the record to the specified slab at the specified offset.
+         */
+        protected void writeTo(ByteBuffer slab, int offset) {
+            slab.putLong(offset + ID_MSB_OFFSET, id.getMostSignificantBits());
+            slab.putLong(offset + ID_LSB_OFFSET, id.getLeastSignificantBits());
+            slab.putLong(offset + DUE_DATE_OFFSET, dueDateEpochDay);
+            slab.putInt(offset + TITLE_LENGTH_OFFSET, titleBytes.length);
+            slab.putInt(offset + DETAIL_LENGTH_OFFSET, detailBytes == null ? NULL_DETAIL_LENGTH : detailBytes.length);
+            slab.putLong(offset + VERSION_OFFSET, version);
+            slab.put(offset + HEADER_SIZE, titleBytes);
+            if (detailBytes != null) {
+                slab.put(offset + HEADER_SIZE + titleBytes.length, detailBytes);
+            }
+        }
+    }
+
+    /**
+     * The records of the tasks in a snapshot, copied contiguously into chunks of direct memory, and decoded into {@link Task} objects as they're iterated.  Records are only appended (by {@link #copy(ByteBuffer, int, int)}) while the snapshot is being taken, after which the chunks are read using absolute get methods only, so the collection can be iterated by multiple threads at once.
+     * <p>
+     * Records are grouped into segments of up to {@link #SNAPSHOT_SEGMENT_SIZE} consecutive records within a chunk, and the offset of the first record of each segment is kept, so that the collection's spliterator can be split at segment boundaries.
+     */
+    protected static class CopiedRecords extends AbstractCollection<Task> {
+
+        /** The chunks holding the records.  The limit of each chunk is the end of the last record it holds. */
+        protected final ArrayList<ByteBuffer> chunks;
+        /** The index within 'chunks' of the chunk holding each segment. */
+        protected int[] segmentChunkIndexes;
+        /** The offset within its chunk of the first record of each segment. */
+        protected int[] segmentOffsets;
+        /** The number of records preceding each segment. */
+        protected int[] segmentFirstRecords;
+        /** The number of segments. */
+        protected int segmentCount;
+        /** The number of records copied. */
+        protected int size;
+        /** An upper bound on the total size in bytes of the records still to be copied (the total size of the blocks not yet copied from), used to avoid allocating chunks larger than required. */
+        protected long remainingBytes;
+
+        /**
+         * Constructs a CopiedRecords.
+         * 
+         * @param allocatedBytes The total size in bytes of the blocks holding the records which will be copied.
+         */
+        protected CopiedRecords(long allocatedBytes) {
+            chunks = new ArrayList<ByteBuffer>(1 + (int)(allocatedBytes / SNAPSHOT_CHUNK_SIZE));
+            segmentChunkIndexes = new int[16];
+            segmentOffsets = new int[16];
+            segmentFirstRecords = new int[16];
+            segmentCount = 0;
+            size = 0;
+            remainingBytes = allocatedBytes;
+        }
+
+        /**
+         * Appends a copy of the record in the specified block.
+         * 
+         * @param slab The slab containing the block.
+         * @param offset The offset of the block within the slab.
+         * @param capacity The size of the block in bytes.
+         */
+        protected void copy(ByteBuffer slab, int offset, int capacity) {
+
+            int recordSize = getRecordSize(slab, offset);
+            ByteBuffer chunk = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+            boolean newChunk = chunk == null || chunk.capacity() - chunk.limit() < recordSize;
+            if (newChunk == true) {
+                chunk = ByteBuffer.allocateDirect((int)Math.max(recordSize, Math.min(SNAPSHOT_CHUNK_SIZE, remainingBytes)));
+                chunk.limit(0);
+                chunks.add(chunk);
+            }
+            int chunkOffset = chunk.limit();
+            if (newChunk == true || size - segmentFirstRecords[segmentCount - 1] == SNAPSHOT_SEGMENT_SIZE) {
+                if (segmentCount == segmentOffsets.length) {
+                    segmentChunkIndexes = Arrays.copyOf(segmentChunkIndexes, segmentCount * 2);
+                    segmentOffsets = Arrays.copyOf(segmentOffsets, segmentCount * 2);
+                    segmentFirstRecords = Arrays.copyOf(segmentFirstRecords, segmentCount * 2);
+                }
+                segmentChunkIndexes[segmentCount] = chunks.size() - 1;
+                segmentOffsets[segmentCount] = chunkOffset;
+                segmentFirstRecords[segmentCount] = size;
+                segmentCount++;
+            }
+            chunk.limit(chunkOffset + recordSize);
+            chunk.put(chunkOffset, slab, offset, recordSize);
+            size++;
+            remainingBytes -= capacity;
+        }
+
+        /**
+         * Returns the number of records in the specified range of segments.
+         * 
+         * @param fromSegment The index of the first segment in the range.
+         * @param toSegment One past the index of the last segment in the range.
+         * @return The number of records.
+         */
+        protected int getRecordCount(int fromSegment, int toSegment) {
+
+            int fromRecord = fromSegment < segmentCount ? segmentFirstRecords[fromSegment] : size;
+            int toRecord = toSegment < segmentCount ? segmentFirstRecords[toSegment] : size;
+
+            return toRecord - fromRecord;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Iterator<Task> iterator() {
+            return Spliterators.iterator(spliterator());
+        }
+
+        @Override
+        public Spliterator<Task> spliterator() {
+            return new CopiedRecordsSpliterator(this, 0, segmentCount);
+        }
+    }
+
+    /**
+     * {@link Spliterator} over a contiguous range of the segments in a {@link CopiedRecords}.  Splits by halving the range of segments not yet started, and reports exact sizes for both halves of a split.
+     */
+    protected static class CopiedRecordsSpliterator implements Spliterator<Task> {
+
+        protected final CopiedRecords records;
+        /** The index of the segment currently being traversed. */
+        protected int segmentIndex;
+        /** One past the index of the last segment to visit. */
+        protected int fence;
+        /** The offset within its chunk of the next record of the current segment. */
+        protected int offset;
+        /** The number of records remaining in the current segment. */
+        protected int remainingInSegment;
+
+        protected CopiedRecordsSpliterator(CopiedRecords records, int segmentIndex, int fence) {
+            this.records = records;
+            this.segmentIndex = segmentIndex;
+            this.fence = fence;
+            if (segmentIndex < fence) {
+                offset = records.segmentOffsets[segmentIndex];
+                remainingInSegment = records.getRecordCount(segmentIndex, segmentIndex + 1);
+            }
+            else {
+                offset = 0;
+                remainingInSegment = 0;
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Task> action) {
+
+            while (remainingInSegment == 0) {
+                if (segmentIndex + 1 >= fence)
+                    return false;
+                segmentIndex++;
+                offset = records.segmentOffsets[segmentIndex];
+                remainingInSegment = records.getRecordCount(segmentIndex, segmentIndex + 1);
+            }
+            ByteBuffer chunk = records.chunks.get(records.segmentChunkIndexes[segmentIndex]);
+            Task task = readTask(chunk, offset);
+            offset += getRecordSize(chunk, offset);
+            remainingInSegment--;
+            action.accept(task);
+
+            return true;
+        }
+
+        @Override
+        public Spliterator<Task> trySplit() {
+
+            if (fence - segmentIndex < 2)
+                return null;
+
+            int middle = (segmentIndex + fence + 1) >>> 1;
+            var suffix = new CopiedRecordsSpliterator(records, middle, fence);
+            fence = middle;
+
+            return suffix;
+        }
+
+        @Override
+        public long estimateSize() {
+
+            if (segmentIndex + 1 >= fence)
+                return remainingInSegment;
+
+            return remainingInSegment + records.getRecordCount(segmentIndex + 1, fence);
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.UUID;
+
+import net.alastairwyse.taskmanager.collections.UuidOpenAddressingMap;
+import net.alastairwyse.taskmanager.models.Task;
+
+/**
+ * Implementation of {@link TaskManager} which indexes tasks in a {@link UuidOpenAddressingMap}, for use with very large numbers of tasks.
+ * <p>
+ * The index allocates no object per task (compared with the trie nodes in the {@link net.alastairwyse.taskmanager.collections.PersistentUuidMap} used by {@link DefaultTaskManager}), which reduces the memory used by the index and the number of objects the garbage collector has to trace.  By default the secondary indexes (by due date, terms, title and id) are also disabled, as they cost several objects per task, so queries by due date, terms and title, and paging, scan a snapshot of all tasks.  Locking is otherwise the same as {@link DefaultTaskManager}, which this class extends, overriding only the storage of tasks.  As the map is modified in place, the first snapshot after a change copies all tasks (while holding the read lock), rather than wrapping an immutable map as {@link DefaultTaskManager} does.
+ */
+public class OpenAddressingTaskManager extends DefaultTaskManager {
+
+    /** Stores all tasks indexed by the id of each task.  Protected by the 'idToTaskMapLock' field. */
+    protected UuidOpenAddressingMap<Task> openAddressingIdToTaskMap;
+
+    /**
+     * Constructs an OpenAddressingTaskManager with the secondary indexes disabled.
+     */
+    public OpenAddressingTaskManager() {
+        this(false);
+    }
+
+    /**
+     * Constructs an OpenAddressingTaskManager.
+     * 
+     * @param indexesEnabled Whether tasks are indexed by due date, terms, title and id.  If false, the corresponding queries scan a snapshot of all tasks.
+     */
+    public OpenAddressingTaskManager(boolean indexesEnabled) {
+        super(indexesEnabled);
+        idToTaskMap = null;
+        openAddressingIdToTaskMap = new UuidOpenAddressingMap<Task>();
+    }
+
+    @Override
+    protected Task LookupTask(UUID id) {
+
+        return openAddressingIdToTaskMap.get(id.getMostSignificantBits(), id.getLeastSignificantBits());
+    }
+
+    @Override
+    protected Task StoreTask(Task task) {
+
+        return openAddressingIdToTaskMap.put(task.getId(), task);
+    }
+
+    @Override
+    protected Task ReplaceTask(Task task) {
+
+        return openAddressingIdToTaskMap.replace(task.getId(), task);
+    }
+
+    @Override
+    protected Task RemoveTask(UUID id) {
+
+        return openAddressingIdToTaskMap.remove(id);
+    }
+
+    @Override
+    protected Collection<Task> SnapshotTasks() {
+
+        var tasks = new ArrayList<Task>(openAddressingIdToTaskMap.size());
+        openAddressingIdToTaskMap.forEachValue(tasks::add);
+
+        return tasks;
+    }
+}
@@ -0,0 +1,740 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager;
+
+import java.time.LocalDate;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+import net.alastairwyse.taskmanager.changes.TaskChangeListener;
+import net.alastairwyse.taskmanager.changes.TaskChangeNotifier;
+import net.alastairwyse.taskmanager.indexes.DueDateIndex;
+import net.alastairwyse.taskmanager.indexes.FullTextIndex;
+import net.alastairwyse.taskmanager.indexes.IdOrderIndex;
+import net.alastairwyse.taskmanager.indexes.TitlePrefixIndex;
+import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.TaskBatchItemResult;
+import net.alastairwyse.taskmanager.models.TaskChangeType;
+import net.alastairwyse.taskmanager.models.TaskDoesntExistException;
+import net.alastairwyse.taskmanager.models.TaskLookupResult;
+import net.alastairwyse.taskmanager.models.TaskPage;
+import net.alastairwyse.taskmanager.models.TaskSnapshot;
+import net.alastairwyse.taskmanager.models.dtos.NewTaskDto;
+
+/**
+ * Implementation of {@link TaskManager} which distributes tasks across a number of independent partitions by the hash of their id.
+ * <p>
+ * Each partition has its own map and lock, so writers to different partitions never contend, and write throughput scales with the number of partitions rather than being limited by a single lock.  Snapshots are taken by briefly holding the read locks of all partitions to capture each partition's own (cached) snapshot, which are then merged lazily as the returned snapshot is iterated.
+ * <p>
+ * All partitions share a single concurrent {@link DueDateIndex}, {@link TitlePrefixIndex} and {@link IdOrderIndex}, so queries don't need to merge results across partitions.  These are skip list based and don't lock on update.  The {@link FullTextIndex} has one lock stripe per partition, so its updates don't serialize writers to different partitions either.  Changes to a task are applied to the indexes while holding the write lock of the task's partition, so changes to the same task are applied in order.  The indexes are queried without locking any partition, and as they add the new version of a changed task before removing the old, a query concurrent with a change may see both versions, in which case only the later is returned.  Listeners are notified after the partition's write lock is released.
+ */
+public class PartitionedTaskManager implements TaskManager {
+
+    /** The partitions. */
+    protected Partition[] partitions;
+    /** The version of the tasks in all partitions, incremented on every change (before the changed tasks are stored with the incremented version, while holding the write lock of the changed partition). */
+    protected AtomicLong version;
+    /** Index of the tasks in all partitions by due date. */
+    protected DueDateIndex dueDateIndex;
+    /** Index of the terms in the title and detail of the tasks in all partitions. */
+    protected FullTextIndex fullTextIndex;
+    /** Index of the tasks in all partitions by title, for prefix queries. */
+    protected TitlePrefixIndex titlePrefixIndex;
+    /** Index of the tasks in all partitions ordered by id, for paging. */
+    protected IdOrderIndex idOrderIndex;
+    /** Notifies registered listeners of changes, after the write lock of the changed partition is released.  Writers may hence notify listeners out of order of version. */
+    protected TaskChangeNotifier changeNotifier;
+
+    /**
+     * Constructs a PartitionedTaskManager with one partition per available processor.
+     */
+    public PartitionedTaskManager() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a PartitionedTaskManager.
+     * 
+     * @param partitionCount The number of partitions to distribute tasks across.
+     */
+    public PartitionedTaskManager(int partitionCount) {
+
+        if (partitionCount < 1)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be greater than 0.", "partitionCount"));
+
+        partitions = new Partition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new Partition();
+        }
+        version = new AtomicLong(0);
+        dueDateIndex = new DueDateIndex();
+        // Striped to match the partitions, so writers to different partitions don't contend on the full text index
+        fullTextIndex = new FullTextIndex(partitionCount);
+        titlePrefixIndex = new TitlePrefixIndex();
+        idOrderIndex = new IdOrderIndex();
+        changeNotifier = new TaskChangeNotifier();
+    }
+
+    /**
+     * @return The number of partitions tasks are distributed across.
+     */
+    public int getPartitionCount() {
+        return partitions.length;
+    }
+
+    /**
+     * Returns the number of tasks in each partition.
+     * 
+     * @return The number of tasks in each partition, in partition order.
+     */
+    public List<Integer> getPartitionSizes() {
+
+        var sizes = new ArrayList<Integer>(partitions.length);
+        for (Partition currentPartition : partitions) {
+            currentPartition.lock.readLock().lock();
+            try {
+                sizes.add(currentPartition.idToTaskMap.size());
+            }
+            finally {
+                currentPartition.lock.readLock().unlock();
+            }
+        }
+
+        return sizes;
+    }
+
+    @Override
+    public Task createTask(NewTaskDto newTaskDto) {
+
+        var task = new Task(newTaskDto);
+        Partition partition = getPartition(task.getId());
+        partition.lock.writeLock().lock();
+        try {
+            partition.incrementVersion();
+            long newVersion = version.incrementAndGet();
+            task = task.withVersion(newVersion);
+            partition.idToTaskMap.put(task.getId(), task);
+            UpdateIndexes(null, task);
+        }
+        finally {
+            partition.lock.writeLock().unlock();
+        }
+        changeNotifier.notifyStored(task.getVersion(), task, false);
+
+        return task;
+    }
+
+    @Override
+    public void restoreTask(Task task) {
+
+        Partition partition = getPartition(task.getId());
+        Task storedTask;
+        Task oldTask;
+        partition.lock.writeLock().lock();
+        try {
+            partition.incrementVersion();
+            storedTask = task.withVersion(version.incrementAndGet());
+            oldTask = partition.idToTaskMap.put(storedTask.getId(), storedTask);
+            UpdateIndexes(oldTask, storedTask);
+        }
+        finally {
+            partition.lock.writeLock().unlock();
+        }
+        changeNotifier.notifyStored(storedTask.getVersion(), storedTask, oldTask != null);
+    }
+
+    @Override
+    public void deleteTask(Task task) throws TaskDoesntExistException {
+
+        if (tryDeleteTask(task.getId()) == false)
+            throw TaskDoesntExistException.createWithId(task.getId());
+    }
+
+    @Override
+    public boolean tryDeleteTask(UUID id) {
+
+        Partition partition = getPartition(id);
+        long deletedVersion;
+        partition.lock.writeLock().lock();
+        try {
+            Task oldTask = partition.idToTaskMap.remove(id);
+            if (oldTask == null)
+                return false;
+            UpdateIndexes(oldTask, null);
+            partition.incrementVersion();
+            deletedVersion = version.incrementAndGet();
+        }
+        finally {
+            partition.lock.writeLock().unlock();
+        }
+        changeNotifier.notifyDeleted(deletedVersion, id);
+
+        return true;
+    }
+
+    @Override
+    public Iterable<Task> getAllTasks() {
+
+        return getSnapshot();
+    }
+
+    @Override
+    public TaskSnapshot getSnapshot() {
+
+        // Locks are always acquired in partition order, so concurrent callers can't deadlock
+        var partitionSnapshots = new ArrayList<TaskSnapshot>(partitions.length);
+        long snapshotVersion = 0;
+        int lockedCount = 0;
+        try {
+            for (Partition currentPartition : partitions) {
+                currentPartition.lock.readLock().lock();
+                lockedCount++;
+            }
+            for (Partition currentPartition : partitions) {
+                partitionSnapshots.add(currentPartition.getSnapshot());
+            }
+            // Holding the read locks of all partitions excludes writers, so the version matches the partition snapshots
+            snapshotVersion = version.get();
+        }
+        finally {
+            for (int i = 0; i < lockedCount; i++) {
+                partitions[i].lock.readLock().unlock();
+            }
+        }
+
+        return new TaskSnapshot(snapshotVersion, new ConcatenatedCollection(partitionSnapshots));
+    }
+
+    @Override
+    public long getVersion() {
+
+        return version.get();
+    }
+
+    @Override
+    public void addChangeListener(TaskChangeListener listener) {
+
+        changeNotifier.addListener(listener);
+    }
+
+    @Override
+    public boolean removeChangeListener(TaskChangeListener listener) {
+
+        return changeNotifier.removeListener(listener);
+    }
+
+    @Override
+    public Task getTask(UUID id) throws TaskDoesntExistException {
+
+        Partition partition = getPartition(id);
+        partition.lock.readLock().lock();
+        try {
+            Task task = partition.idToTaskMap.get(id);
+            if (task == null)
+                throw TaskDoesntExistException.createWithId(id);
+
+            return task;
+        }
+        finally {
+            partition.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Task> findTask(UUID id) {
+
+        Partition partition = getPartition(id);
+        partition.lock.readLock().lock();
+        try {
+            return Optional.ofNullable(partition.idToTaskMap.get(id));
+        }
+        finally {
+            partition.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public TaskLookupResult getTasks(Collection<UUID> ids) {
+
+        var tasks = new ArrayList<Task>(ids.size());
+        var missingIds = new ArrayList<UUID>();
+        // The partitions containing the ids are all locked at once so the ids are resolved against the same state, and locks are always acquired in partition order, so concurrent callers can't deadlock
+        var partitionContainsId = new boolean[partitions.length];
+        for (UUID currentId : ids) {
+            partitionContainsId[getPartitionIndex(currentId)] = true;
+        }
+        int lockedCount = 0;
+        try {
+            for (; lockedCount < partitions.length; lockedCount++) {
+                if (partitionContainsId[lockedCount] == true) {
+                    partitions[lockedCount].lock.readLock().lock();
+                }
+            }
+            for (UUID currentId : ids) {
+                Task task = partitions[getPartitionIndex(currentId)].idToTaskMap.get(currentId);
+                if (task == null) {
+                    missingIds.add(currentId);
+                }
+                else {
+                    tasks.add(task);
+                }
+            }
+        }
+        finally {
+            for (int i = 0; i < lockedCount; i++) {
+                if (partitionContainsId[i] == true) {
+                    partitions[i].lock.readLock().unlock();
+                }
+            }
+        }
+
+        return new TaskLookupResult(tasks, missingIds);
+    }
+
+    @Override
+    public void updateTask(Task task) throws TaskDoesntExistException {
+
+        if (tryUpdateTask(task) == false)
+            throw TaskDoesntExistException.createWithId(task.getId());
+    }
+
+    @Override
+    public boolean tryUpdateTask(Task task) {
+
+        Partition partition = getPartition(task.getId());
+        Task storedTask;
+        partition.lock.writeLock().lock();
+        try {
+            if (partition.idToTaskMap.containsKey(task.getId()) == false)
+                return false;
+            partition.incrementVersion();
+            storedTask = task.withVersion(version.incrementAndGet());
+            Task oldTask = partition.idToTaskMap.put(storedTask.getId(), storedTask);
+            UpdateIndexes(oldTask, storedTask);
+        }
+        finally {
+            partition.lock.writeLock().unlock();
+        }
+        changeNotifier.notifyStored(storedTask.getVersion(), storedTask, true);
+
+        return true;
+    }
+
+    @Override
+    public List<TaskBatchItemResult> createTasks(List<NewTaskDto> newTaskDtos) {
+
+        // Validate before acquiring any locks, so locks are only held while storing the valid tasks
+        List<TaskBatchItemResult> results = TaskBatchItemResult.createTasks(newTaskDtos);
+        var tasks = new ArrayList<Task>(results.size());
+        for (TaskBatchItemResult currentResult : results) {
+            if (currentResult.getSuccess() == true) {
+                tasks.add(currentResult.getTask());
+            }
+        }
+        List<TaskBatchItemResult> storedResults = ApplyBatch(tasks, TaskChangeType.CREATED, (Partition partition, Task task, LongSupplier batchVersion) -> 
+        {
+            Task storedTask = task.withVersion(batchVersion.getAsLong());
+            partition.idToTaskMap.put(storedTask.getId(), storedTask);
+            UpdateIndexes(null, storedTask);
+            return new TaskBatchItemResult(storedTask, null);
+        });
+        // Replace the successful results with those holding the stored tasks
+        int storedIndex = 0;
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).getSuccess() == true) {
+                results.set(i, storedResults.get(storedIndex++));
+            }
+        }
+
+        return results;
+    }
+
+    @Override
+    public List<TaskBatchItemResult> updateTasks(List<Task> tasks) {
+
+        return ApplyBatch(tasks, TaskChangeType.UPDATED, (Partition partition, Task task, LongSupplier batchVersion) -> 
+        {
+            if (partition.idToTaskMap.containsKey(task.getId()) == false)
+                return new TaskBatchItemResult(task, TaskDoesntExistException.createForBatchItem(task.getId()));
+            Task storedTask = task.withVersion(batchVersion.getAsLong());
+            Task oldTask = partition.idToTaskMap.put(storedTask.getId(), storedTask);
+            UpdateIndexes(oldTask, storedTask);
+            return new TaskBatchItemResult(storedTask, null);
+        });
+    }
+
+    @Override
+    public List<TaskBatchItemResult> deleteTasks(List<Task> tasks) {
+
+        return ApplyBatch(tasks, TaskChangeType.DELETED, (Partition partition, Task task, LongSupplier batchVersion) -> 
+        {
+            Task oldTask = partition.idToTaskMap.remove(task.getId());
+            if (oldTask == null)
+                return new TaskBatchItemResult(task, TaskDoesntExistException.createForBatchItem(task.getId()));
+            UpdateIndexes(oldTask, null);
+            batchVersion.getAsLong();
+            return new TaskBatchItemResult(task, null);
+        });
+    }
+
+    @Override
+    public List<Task> getTasksDueBetween(LocalDate dueFrom, LocalDate dueTo) {
+
+        return ConcurrentTaskManager.RemoveSupersededVersions(dueDateIndex.getTasks(dueFrom, dueTo));
+    }
+
+    @Override
+    public List<Task> suggestTasks(String prefix, int limit) {
+
+        return ConcurrentTaskManager.RemoveSupersededVersions(titlePrefixIndex.getTasks(prefix, limit));
+    }
+
+    @Override
+    public TaskPage getTaskPage(String cursor, int limit) {
+
+        return idOrderIndex.getPage(cursor, limit);
+    }
+
+    @Override
+    public List<Task> searchTasks(String query) {
+
+        return fullTextIndex.search(query);
+    }
+
+    /**
+     * Applies a change to a task to all indexes.  Must be called while holding the write lock of the task's partition.
+     * 
+     * @param oldTask The version of the task before the change, or null if the task is being added.
+     * @param newTask The version of the task after the change, or null if the task is being removed.
+     */
+    protected void UpdateIndexes(Task oldTask, Task newTask) {
+
+        dueDateIndex.replace(oldTask, newTask);
+        fullTextIndex.replace(oldTask, newTask);
+        titlePrefixIndex.replace(oldTask, newTask);
+        idOrderIndex.replace(oldTask, newTask);
+    }
+
+    /**
+     * Applies an operation to each of the specified tasks, grouping the tasks by partition so the write lock of each partition is acquired only once.  Tasks in the same partition (and hence multiple occurrences of the same task) are applied in the order they appear.
+     * 
+     * @param tasks The tasks to apply the operation to.
+     * @param changeType The type of change the operation makes to a task, which listeners are notified of for each successful task.
+     * @param operation The operation, which is called with the write lock of the task's partition held, and returns the result for the task.  The operation must call the supplier passed to it (which increments the version on its first call for the partition) for each task it changes.
+     * @return The result for each task, in the same order as the tasks.
+     */
+    protected List<TaskBatchItemResult> ApplyBatch(List<Task> tasks, TaskChangeType changeType, BatchOperation operation) {
+
+        var partitionTaskIndices = new ArrayList<ArrayList<Integer>>(partitions.length);
+        for (int i = 0; i < partitions.length; i++) {
+            partitionTaskIndices.add(new ArrayList<Integer>());
+        }
+        for (int i = 0; i < tasks.size(); i++) {
+            partitionTaskIndices.get(getPartitionIndex(tasks.get(i).getId())).add(i);
+        }
+        var results = new TaskBatchItemResult[tasks.size()];
+        for (int i = 0; i < partitions.length; i++) {
+            if (partitionTaskIndices.get(i).isEmpty() == true) {
+                continue;
+            }
+            Partition partition = partitions[i];
+            // The version is incremented when the first task in the partition is changed, and all changed tasks in the partition are stored with the same version
+            var batchVersion = new long[] { -1 };
+            partition.lock.writeLock().lock();
+            try {
+                LongSupplier batchVersionSupplier = () -> 
+                {
+                    if (batchVersion[0] == -1) {
+                        partition.incrementVersion();
+                        batchVersion[0] = version.incrementAndGet();
+                    }
+                    return batchVersion[0];
+                };
+                for (int currentTaskIndex : partitionTaskIndices.get(i)) {
+                    results[currentTaskIndex] = operation.apply(partition, tasks.get(currentTaskIndex), batchVersionSupplier);
+                }
+            }
+            finally {
+                partition.lock.writeLock().unlock();
+            }
+            if (batchVersion[0] != -1 && changeNotifier.hasListeners() == true) {
+                var partitionResults = new ArrayList<TaskBatchItemResult>(partitionTaskIndices.get(i).size());
+                for (int currentTaskIndex : partitionTaskIndices.get(i)) {
+                    partitionResults.add(results[currentTaskIndex]);
+                }
+                changeNotifier.notifyBatch(batchVersion[0], changeType, partitionResults);
+            }
+        }
+
+        return List.of(results);
+    }
+
+    /**
+     * Returns the partition which holds the task with the specified id.
+     * 
+     * @param id The id of the task.
+     * @return The partition.
+     */
+    protected Partition getPartition(UUID id) {
+
+        return partitions[getPartitionIndex(id)];
+    }
+
+    /**
+     * Returns the index of the partition which holds the task with the specified id.
+     * 
+     * @param id The id of the task.
+     * @return The index of the partition.
+     */
+    protected int getPartitionIndex(UUID id) {
+
+        int hash = id.hashCode();
+        hash = hash ^ (hash >>> 16);
+
+        return Math.floorMod(hash, partitions.length);
+    }
+
+    /**
+     * An operation applied to a single task in a batch by {@link PartitionedTaskManager#ApplyBatch(List, TaskChangeType, BatchOperation)}.
+     */
+    @FunctionalInterface
+    protected interface BatchOperation {
+
+        /**
+         * Applies the operation to a task.
+         * 
+         * @param partition The partition of the task, whose write lock is held.
+         * @param task The task.
+         * @param batchVersion Supplies the version of the batch in the partition, which must be called if the task is changed.
+         * @return The result for the task.
+         */
+        TaskBatchItemResult apply(Partition partition, Task task, LongSupplier batchVersion);
+    }
+
+    /**
+     * A single partition of the tasks.
+     */
+    protected static class Partition {
+
+        /** Stores the tasks in the partition indexed by the id of each task. */
+        protected final HashMap<UUID, Task> idToTaskMap;
+        /** A multiple reader, single writer lock object for the partition. */
+        protected final ReentrantReadWriteLock lock;
+        /** The version of the partition, incremented on every change.  Protected by the 'lock' field. */
+        protected long version;
+        /** Snapshot of the partition at the current version, or null if one hasn't been built since the last change. */
+        protected volatile TaskSnapshot currentSnapshot;
+
+        protected Partition() {
+            idToTaskMap = new HashMap<UUID, Task>();
+            lock = new ReentrantReadWriteLock();
+            version = 0;
+            currentSnapshot = null;
+        }
+
+        /**
+         * Increments the version and discards the snapshot of the previous version.  Must be called while holding the write lock.
+         */
+        protected void incrementVersion() {
+            version++;
+            currentSnapshot = null;
+        }
+
+        /**
+         * Returns a snapshot of the partition.  Must be called while holding the read lock.
+         */
+        protected TaskSnapshot getSnapshot() {
+
+            TaskSnapshot snapshot = currentSnapshot;
+            if (snapshot == null) {
+                snapshot = new TaskSnapshot(version, List.copyOf(idToTaskMap.values()));
+                currentSnapshot = snapshot;
+            }
+
+            return snapshot;
+        }
+    }
+
+    /**
+     * Read-only collection which presents the tasks in a list of snapshots as a single collection, without copying them.
+     */
+    protected static class ConcatenatedCollection extends AbstractCollection<Task> {
+
+        protected final List<TaskSnapshot> collections;
+        protected final int size;
+
+        protected ConcatenatedCollection(List<TaskSnapshot> collections) {
+            this.collections = collections;
+            int totalSize = 0;
+            for (TaskSnapshot currentCollection : collections) {
+                totalSize += currentCollection.getSize();
+            }
+            size = totalSize;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Iterator<Task> iterator() {
+
+            return new Iterator<Task>() {
+
+                protected int collectionIndex = 0;
+                protected Iterator<Task> currentIterator = collections.isEmpty() ? null : collections.get(0).iterator();
+
+                @Override
+                public boolean hasNext() {
+
+                    while (currentIterator != null && currentIterator.hasNext() == false) {
+                        collectionIndex++;
+                        currentIterator = collectionIndex < collections.size() ? collections.get(collectionIndex).iterator() : null;
+                    }
+
+                    return currentIterator != null;
+                }
+
+                @Override
+                public Task next() {
+
+                    if (hasNext() == false)
+                        throw new NoSuchElementException();
+
+                    return currentIterator.next();
+                }
+            };
+        }
+
+        @Override
+        public Spliterator<Task> spliterator() {
+            return new ConcatenatedSpliterator(collections, 0, collections.size(), size);
+        }
+    }
+
+    /**
+     * {@link Spliterator} over a contiguous range of the collections in a {@link ConcatenatedCollection}.
+     * <p>
+     * Splits by halving the range of collections, and once the range contains a single collection delegates to (and splits) that collection's own spliterator.  Since the size of each collection is known, both halves of a split report exact sizes.
+     */
+    protected static class ConcatenatedSpliterator implements Spliterator<Task> {
+
+        protected final List<TaskSnapshot> collections;
+        /** The index of the next collection to visit. */
+        protected int index;
+        /** One past the index of the last collection to visit. */
+        protected final int fence;
+        /** The number of tasks remaining. */
+        protected long remainingSize;
+        /** Spliterator over the collection currently being traversed, or null if no collection is being traversed. */
+        protected Spliterator<Task> currentSpliterator;
+
+        protected ConcatenatedSpliterator(List<TaskSnapshot> collections, int index, int fence, long remainingSize) {
+            this.collections = collections;
+            this.index = index;
+            this.fence = fence;
+            this.remainingSize = remainingSize;
+            this.currentSpliterator = null;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Task> action) {
+
+            while (true) {
+                if (currentSpliterator != null) {
+                    if (currentSpliterator.tryAdvance(action) == true) {
+                        remainingSize--;
+                        return true;
+                    }
+                    currentSpliterator = null;
+                }
+                if (index >= fence) {
+                    return false;
+                }
+                currentSpliterator = collections.get(index++).spliterator();
+            }
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Task> action) {
+
+            if (currentSpliterator != null) {
+                currentSpliterator.forEachRemaining(action);
+                currentSpliterator = null;
+            }
+            while (index < fence) {
+                collections.get(index++).spliterator().forEachRemaining(action);
+            }
+            remainingSize = 0;
+        }
+
+        @Override
+        public Spliterator<Task> trySplit() {
+
+            if (currentSpliterator == null && fence - index == 1) {
+                // Switch to the spliterator of the single remaining collection, so it can be split further
+                currentSpliterator = collections.get(index++).spliterator();
+            }
+            if (currentSpliterator != null) {
+                if (index < fence) {
+                    return null;
+                }
+                Spliterator<Task> prefix = currentSpliterator.trySplit();
+                if (prefix != null) {
+                    remainingSize -= prefix.estimateSize();
+                }
+                return prefix;
+            }
+            if (fence - index < 2) {
+                return null;
+            }
+            int middle = (index + fence) >>> 1;
+            long prefixSize = 0;
+            for (int i = index; i < middle; i++) {
+                prefixSize += collections.get(i).getSize();
+            }
+            var prefix = new ConcatenatedSpliterator(collections, index, middle, prefixSize);
+            index = middle;
+            remainingSize -= prefixSize;
+
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return remainingSize;
+        }
+
+        @Override
+        public int characteristics() {
+            return IMMUTABLE | NONNULL | SIZED | SUBSIZED;
+        }
+    }
+}
@@ -0,0 +1,315 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import net.alastairwyse.taskmanager.changes.TaskChangeListener;
+import net.alastairwyse.taskmanager.changes.TaskChangeNotifier;
+import net.alastairwyse.taskmanager.collections.PersistentUuidMap;
+import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.TaskBatchItemResult;
+import net.alastairwyse.taskmanager.models.TaskChangeType;
+import net.alastairwyse.taskmanager.models.TaskDoesntExistException;
+import net.alastairwyse.taskmanager.models.TaskLookupResult;
+import net.alastairwyse.taskmanager.models.TaskSnapshot;
+import net.alastairwyse.taskmanager.models.dtos.NewTaskDto;
+
+/**
+ * Implementation of {@link TaskManager} which stores tasks in an immutable {@link PersistentUuidMap}, suited to read-dominated workloads.
+ * <p>
+ * Writers build a new version of the map (sharing structure with the current version) and publish it with a single compare-and-set, retrying if another writer published first.  Readers just dereference the current version, so reads never block or wait for writers, and snapshots are free.
+ * <p>
+ * Batch operations are built the same way, applying all of their items to a private new version of the map, which is published with a single compare-and-set so that the whole batch gets a single version.  If another writer publishes first, the batch is rebuilt against the version that writer published.  No writer takes a lock, so a batch never blocks writers of single tasks, at the cost that a large batch may be rebuilt several times while single-task writes are published ahead of it.
+ */
+public class PersistentTaskManager implements TaskManager {
+
+    /** The current version of the tasks, indexed by the id of each task. */
+    protected AtomicReference<State> currentState;
+    /** Notifies registered listeners of changes, after the state containing the change has been published.  Concurrent writers may hence notify listeners out of order of version. */
+    protected TaskChangeNotifier changeNotifier;
+
+    /**
+     * Constructs a PersistentTaskManager.
+     */
+    public PersistentTaskManager() {
+        currentState = new AtomicReference<State>(new State(PersistentUuidMap.<Task>empty(), 0));
+        changeNotifier = new TaskChangeNotifier();
+    }
+
+    @Override
+    public Task createTask(NewTaskDto newTaskDto) {
+
+        var newTask = new Task(newTaskDto);
+        State state;
+        Task task;
+        do {
+            state = currentState.get();
+            task = newTask.withVersion(state.version + 1);
+        }
+        while (currentState.compareAndSet(state, state.next(state.idToTaskMap.put(task.getId(), task))) == false);
+        changeNotifier.notifyStored(state.version + 1, task, false);
+
+        return task;
+    }
+
+    @Override
+    public void restoreTask(Task task) {
+
+        State state;
+        boolean existed;
+        Task storedTask;
+        do {
+            state = currentState.get();
+            existed = state.idToTaskMap.containsKey(task.getId());
+            storedTask = task.withVersion(state.version + 1);
+        }
+        while (currentState.compareAndSet(state, state.next(state.idToTaskMap.put(storedTask.getId(), storedTask))) == false);
+        changeNotifier.notifyStored(state.version + 1, storedTask, existed);
+    }
+
+    @Override
+    public void deleteTask(Task task) throws TaskDoesntExistException {
+
+        if (tryDeleteTask(task.getId()) == false)
+            throw TaskDoesntExistException.createWithId(task.getId());
+    }
+
+    @Override
+    public boolean tryDeleteTask(UUID id) {
+
+        State state;
+        PersistentUuidMap<Task> newIdToTaskMap;
+        do {
+            state = currentState.get();
+            newIdToTaskMap = state.idToTaskMap.remove(id);
+            if (newIdToTaskMap == state.idToTaskMap)
+                return false;
+        }
+        while (currentState.compareAndSet(state, state.next(newIdToTaskMap)) == false);
+        changeNotifier.notifyDeleted(state.version + 1, id);
+
+        return true;
+    }
+
+    @Override
+    public Iterable<Task> getAllTasks() {
+
+        return getSnapshot();
+    }
+
+    @Override
+    public TaskSnapshot getSnapshot() {
+
+        State state = currentState.get();
+
+        return new TaskSnapshot(state.version, state.idToTaskMap.values());
+    }
+
+    @Override
+    public long getVersion() {
+
+        return currentState.get().version;
+    }
+
+    @Override
+    public void addChangeListener(TaskChangeListener listener) {
+
+        changeNotifier.addListener(listener);
+    }
+
+    @Override
+    public boolean removeChangeListener(TaskChangeListener listener) {
+
+        return changeNotifier.removeListener(listener);
+    }
+
+    @Override
+    public Task getTask(UUID id) throws TaskDoesntExistException {
+
+        Task task = currentState.get().idToTaskMap.get(id);
+        if (task == null)
+            throw TaskDoesntExistException.createWithId(id);
+
+        return task;
+    }
+
+    @Override
+    public Optional<Task> findTask(UUID id) {
+
+        return Optional.ofNullable(currentState.get().idToTaskMap.get(id));
+    }
+
+    @Override
+    public TaskLookupResult getTasks(Collection<UUID> ids) {
+
+        PersistentUuidMap<Task> idToTaskMap = currentState.get().idToTaskMap;
+        var tasks = new ArrayList<Task>(ids.size());
+        var missingIds = new ArrayList<UUID>();
+        for (UUID currentId : ids) {
+            Task task = idToTaskMap.get(currentId);
+            if (task == null) {
+                missingIds.add(currentId);
+            }
+            else {
+                tasks.add(task);
+            }
+        }
+
+        return new TaskLookupResult(tasks, missingIds);
+    }
+
+    @Override
+    public void updateTask(Task task) throws TaskDoesntExistException {
+
+        if (tryUpdateTask(task) == false)
+            throw TaskDoesntExistException.createWithId(task.getId());
+    }
+
+    @Override
+    public boolean tryUpdateTask(Task task) {
+
+        State state;
+        Task storedTask;
+        do {
+            state = currentState.get();
+            if (state.idToTaskMap.containsKey(task.getId()) == false)
+                return false;
+            storedTask = task.withVersion(state.version + 1);
+        }
+        while (currentState.compareAndSet(state, state.next(state.idToTaskMap.put(storedTask.getId(), storedTask))) == false);
+        changeNotifier.notifyStored(state.version + 1, storedTask, true);
+
+        return true;
+    }
+
+    @Override
+    public List<TaskBatchItemResult> createTasks(List<NewTaskDto> newTaskDtos) {
+
+        // The whole batch is built on a private version of the map and published as a single new state, and rebuilt against the new state if another writer published first
+        List<TaskBatchItemResult> newResults = TaskBatchItemResult.createTasks(newTaskDtos);
+        ArrayList<TaskBatchItemResult> results;
+        State state;
+        PersistentUuidMap<Task> newIdToTaskMap;
+        do {
+            state = currentState.get();
+            results = new ArrayList<TaskBatchItemResult>(newResults.size());
+            newIdToTaskMap = state.idToTaskMap;
+            for (TaskBatchItemResult currentResult : newResults) {
+                if (currentResult.getSuccess() == true) {
+                    Task storedTask = currentResult.getTask().withVersion(state.version + 1);
+                    newIdToTaskMap = newIdToTaskMap.put(storedTask.getId(), storedTask);
+                    results.add(new TaskBatchItemResult(storedTask, null));
+                }
+                else {
+                    results.add(currentResult);
+                }
+            }
+        }
+        while (newIdToTaskMap != state.idToTaskMap && currentState.compareAndSet(state, state.next(newIdToTaskMap)) == false);
+        if (newIdToTaskMap != state.idToTaskMap)
+            changeNotifier.notifyBatch(state.version + 1, TaskChangeType.CREATED, results);
+
+        return results;
+    }
+
+    @Override
+    public List<TaskBatchItemResult> updateTasks(List<Task> tasks) {
+
+        // The whole batch is built on a private version of the map and published as a single new state, and rebuilt against the new state if another writer published first
+        ArrayList<TaskBatchItemResult> results;
+        State state;
+        PersistentUuidMap<Task> newIdToTaskMap;
+        do {
+            state = currentState.get();
+            results = new ArrayList<TaskBatchItemResult>(tasks.size());
+            newIdToTaskMap = state.idToTaskMap;
+            for (Task currentTask : tasks) {
+                if (newIdToTaskMap.containsKey(currentTask.getId()) == false) {
+                    results.add(new TaskBatchItemResult(currentTask, TaskDoesntExistException.createForBatchItem(currentTask.getId())));
+                }
+                else {
+                    Task storedTask = currentTask.withVersion(state.version + 1);
+                    newIdToTaskMap = newIdToTaskMap.put(storedTask.getId(), storedTask);
+                    results.add(new TaskBatchItemResult(storedTask, null));
+                }
+            }
+        }
+        while (newIdToTaskMap != state.idToTaskMap && currentState.compareAndSet(state, state.next(newIdToTaskMap)) == false);
+        if (newIdToTaskMap != state.idToTaskMap)
+            changeNotifier.notifyBatch(state.version + 1, TaskChangeType.UPDATED, results);
+
+        return results;
+    }
+
+    @Override
+    public List<TaskBatchItemResult> deleteTasks(List<Task> tasks) {
+
+        // The whole batch is built on a private version of the map and published as a single new state, and rebuilt against the new state if another writer published first
+        ArrayList<TaskBatchItemResult> results;
+        State state;
+        PersistentUuidMap<Task> newIdToTaskMap;
+        do {
+            state = currentState.get();
+            results = new ArrayList<TaskBatchItemResult>(tasks.size());
+            newIdToTaskMap = state.idToTaskMap;
+            for (Task currentTask : tasks) {
+                PersistentUuidMap<Task> removedIdToTaskMap = newIdToTaskMap.remove(currentTask.getId());
+                if (removedIdToTaskMap == newIdToTaskMap) {
+                    results.add(new TaskBatchItemResult(currentTask, TaskDoesntExistException.createForBatchItem(currentTask.getId())));
+                }
+                else {
+                    newIdToTaskMap = removedIdToTaskMap;
+                    results.add(new TaskBatchItemResult(currentTask, null));
+                }
+            }
+        }
+        while (newIdToTaskMap != state.idToTaskMap && currentState.compareAndSet(state, state.next(newIdToTaskMap)) == false);
+        if (newIdToTaskMap != state.idToTaskMap)
+            changeNotifier.notifyBatch(state.version + 1, TaskChangeType.DELETED, results);
+
+        return results;
+    }
+
+    /**
+     * An immutable version of the tasks in the manager.
+     */
+    protected static class State {
+
+        /** The tasks, indexed by the id of each task. */
+        protected final PersistentUuidMap<Task> idToTaskMap;
+        /** The version number, incremented on every change. */
+        protected final long version;
+
+        protected State(PersistentUuidMap<Task> idToTaskMap, long version) {
+            this.idToTaskMap = idToTaskMap;
+            this.version = version;
+        }
+
+        /**
+         * Returns the state following this one, containing the specified tasks.
+         */
+        protected State next(PersistentUuidMap<Task> idToTaskMap) {
+            return new State(idToTaskMap, version + 1);
+        }
+    }
+}
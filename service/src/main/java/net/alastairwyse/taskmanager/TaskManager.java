@@ -18,10 +18,29 @@ package net.alastairwyse.taskmanager;
 
 import net.alastairwyse.taskmanager.models.dtos.NewTaskDto;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+import net.alastairwyse.taskmanager.changes.TaskChangeIndex;
+import net.alastairwyse.taskmanager.changes.TaskChangeListener;
+import net.alastairwyse.taskmanager.indexes.DueDateIndex;
+import net.alastairwyse.taskmanager.indexes.FullTextIndex;
+import net.alastairwyse.taskmanager.indexes.IdOrderIndex;
+import net.alastairwyse.taskmanager.indexes.TitlePrefixIndex;
+import net.alastairwyse.taskmanager.indexes.Tokenizer;
 import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.TaskBatchItemResult;
+import net.alastairwyse.taskmanager.models.TaskDelta;
 import net.alastairwyse.taskmanager.models.TaskDoesntExistException;
+import net.alastairwyse.taskmanager.models.TaskLookupResult;
+import net.alastairwyse.taskmanager.models.TaskPage;
+import net.alastairwyse.taskmanager.models.TaskSnapshot;
 
 /**
  * Defines methods for a class which manages a set of tasks.
@@ -31,10 +50,72 @@ public interface TaskManager {
     /**
      * Returns all tasks in the manager.
      * 
-     * @return All tasks.
+     * @return All tasks.  The returned tasks are a consistent, point-in-time view which is not affected by subsequent changes to the manager.
      */
     Iterable<Task> getAllTasks();
 
+    /**
+     * Returns an immutable, point-in-time snapshot of all tasks in the manager.
+     * 
+     * @return The snapshot.
+     */
+    TaskSnapshot getSnapshot();
+
+    /**
+     * Returns the current version of the manager.
+     * <p>
+     * The version increases on every change to the tasks, and each stored task records the version at which it was last changed (see {@link Task#getVersion()}).  Hence if the version hasn't changed, neither have any of the tasks.  The default implementation returns the version of a snapshot, and implementations override it to read the version without taking a snapshot.
+     * 
+     * @return The version.
+     */
+    default long getVersion() {
+
+        return getSnapshot().getVersion();
+    }
+
+    /**
+     * Registers a listener to be notified of every subsequent change to the tasks in the manager.  Implementations notify listeners from their write paths (see {@link TaskChangeListener} for the ordering guarantees).
+     * 
+     * @param listener The listener.
+     */
+    void addChangeListener(TaskChangeListener listener);
+
+    /**
+     * Deregisters a listener previously registered with {@link #addChangeListener(TaskChangeListener)}.
+     * 
+     * @param listener The listener.
+     * @return Whether the listener was registered.
+     */
+    boolean removeChangeListener(TaskChangeListener listener);
+
+    /**
+     * Returns the changes to the tasks after the specified version, as the tasks created or updated and the ids of the tasks deleted.
+     * <p>
+     * The default implementation returns a full snapshot.  Engines don't index changes themselves; decorating a manager with a {@link ChangeTrackingTaskManager} registers a {@link TaskChangeIndex} with it and returns only the changes, falling back to a full snapshot if the changes since the version are no longer retained.
+     * 
+     * @param version The version to return the changes after, i.e. the version of the previous {@link TaskDelta} or {@link TaskSnapshot} the caller holds.
+     * @return The changes.
+     */
+    default TaskDelta getChangesSince(long version) {
+
+        if (version < 0)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be greater than or equal to 0.", "version"));
+
+        return new TaskDelta(getSnapshot());
+    }
+
+    /**
+     * Returns a stream over an immutable, point-in-time snapshot of all tasks in the manager.
+     * <p>
+     * The stream is sequential, but its spliterator is sized and splits efficiently, so the stream can be made parallel (via {@link Stream#parallel()}) to process large numbers of tasks.
+     * 
+     * @return The stream.
+     */
+    default Stream<Task> streamTasks() {
+
+        return getSnapshot().stream();
+    }
+
     /**
      * Creates a task from the specified {@link NewTaskDto}.
      * 
@@ -43,6 +124,13 @@ public interface TaskManager {
      */
     Task createTask(NewTaskDto newTaskDto);
 
+    /**
+     * Adds the specified task to the manager with its existing id, replacing any task with the same id.  Intended for restoring tasks from persistent storage.
+     * 
+     * @param task The {@link Task} to restore.
+     */
+    void restoreTask(Task task);
+
     /**
      * Updates the specified task in the manager.
      * 
@@ -51,6 +139,26 @@ public interface TaskManager {
      */
     void updateTask(Task task) throws TaskDoesntExistException;
 
+    /**
+     * Updates the specified task in the manager, if it exists.
+     * <p>
+     * Unlike {@link #updateTask(Task)}, a task which doesn't exist is reported by the return value rather than an exception.  The default implementation calls {@link #updateTask(Task)} and catches the exception, and implementations override it to avoid creating the exception.
+     * 
+     * @param task The updated task.
+     * @return True if the task was updated, or false if it doesn't exist in the manager.
+     */
+    default boolean tryUpdateTask(Task task) {
+
+        try {
+            updateTask(task);
+
+            return true;
+        }
+        catch (TaskDoesntExistException e) {
+            return false;
+        }
+    }
+
     /**
      * Deletes the specified task from the manager.
      * 
@@ -59,6 +167,98 @@ public interface TaskManager {
      */
     void deleteTask(Task task) throws TaskDoesntExistException;
 
+    /**
+     * Deletes the task with the specified id from the manager, if it exists.
+     * <p>
+     * Unlike {@link #deleteTask(Task)}, a task which doesn't exist is reported by the return value rather than an exception, so the miss path doesn't create an exception and its stack trace.  The default implementation looks up the task with {@link #findTask(UUID)} and deletes it with {@link #deleteTask(Task)} (which only throws if the task is deleted concurrently in between), and implementations override it to delete by id with a single lookup.
+     * 
+     * @param id The id of the task to delete.
+     * @return True if the task was deleted, or false if it doesn't exist in the manager.
+     */
+    default boolean tryDeleteTask(UUID id) {
+
+        Optional<Task> task = findTask(id);
+        if (task.isPresent() == false)
+            return false;
+        try {
+            deleteTask(task.get());
+
+            return true;
+        }
+        catch (TaskDoesntExistException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates a task from each of the specified {@link NewTaskDto} objects.
+     * <p>
+     * Each {@link NewTaskDto} succeeds or fails independently of the others.  The default implementation validates all the items first, and then stores each valid one by calling {@link #restoreTask(Task)}.  Implementations override this to store the valid items while acquiring their lock(s) only once.
+     * 
+     * @param newTaskDtos The {@link NewTaskDto} objects to create the tasks from.
+     * @return The result for each {@link NewTaskDto}, in the same order.  A successful result contains the created task, and a failed result the {@link IllegalArgumentException} describing why the {@link NewTaskDto} was invalid.
+     */
+    default List<TaskBatchItemResult> createTasks(List<NewTaskDto> newTaskDtos) {
+
+        var results = new ArrayList<TaskBatchItemResult>(newTaskDtos.size());
+        for (TaskBatchItemResult currentResult : TaskBatchItemResult.createTasks(newTaskDtos)) {
+            if (currentResult.getSuccess() == true) {
+                restoreTask(currentResult.getTask());
+            }
+            results.add(currentResult);
+        }
+
+        return results;
+    }
+
+    /**
+     * Updates each of the specified tasks in the manager.
+     * <p>
+     * Each task succeeds or fails independently of the others, and tasks are applied in order (so if a task appears more than once, the last version is kept).  The default implementation calls {@link #updateTask(Task)} for each task.  Implementations override this to update all the tasks while acquiring their lock(s) only once.
+     * 
+     * @param tasks The tasks to update.
+     * @return The result for each task, in the same order.  A failed result contains the {@link TaskDoesntExistException} thrown if the task doesn't exist in the manager.
+     */
+    default List<TaskBatchItemResult> updateTasks(List<Task> tasks) {
+
+        var results = new ArrayList<TaskBatchItemResult>(tasks.size());
+        for (Task currentTask : tasks) {
+            try {
+                updateTask(currentTask);
+                results.add(new TaskBatchItemResult(currentTask, null));
+            }
+            catch (TaskDoesntExistException e) {
+                results.add(new TaskBatchItemResult(currentTask, e));
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Deletes each of the specified tasks from the manager.
+     * <p>
+     * Each task succeeds or fails independently of the others, and tasks are applied in order (so if a task appears more than once, all but the first fail).  The default implementation calls {@link #deleteTask(Task)} for each task.  Implementations override this to delete all the tasks while acquiring their lock(s) only once.
+     * 
+     * @param tasks The tasks to delete.
+     * @return The result for each task, in the same order.  A failed result contains the {@link TaskDoesntExistException} thrown if the task doesn't exist in the manager.
+     */
+    default List<TaskBatchItemResult> deleteTasks(List<Task> tasks) {
+
+        var results = new ArrayList<TaskBatchItemResult>(tasks.size());
+        for (Task currentTask : tasks) {
+            try {
+                deleteTask(currentTask);
+                results.add(new TaskBatchItemResult(currentTask, null));
+            }
+            catch (TaskDoesntExistException e) {
+                results.add(new TaskBatchItemResult(currentTask, e));
+            }
+        }
+
+        return results;
+    }
+
     /**
      * Retrieves the task with the specified id from the manager.
      * 
@@ -67,4 +267,145 @@ public interface TaskManager {
      * @return The task.
      */
     Task getTask(UUID id) throws TaskDoesntExistException;
+
+    /**
+     * Retrieves the task with the specified id from the manager, if it exists.
+     * <p>
+     * Unlike {@link #getTask(UUID)}, a task which doesn't exist is reported by an empty result rather than an exception.  The default implementation calls {@link #getTask(UUID)} and catches the exception, and implementations override it to avoid creating the exception.
+     * 
+     * @param id The id of the task to retrieve.
+     * @return The task, or an empty {@link Optional} if it doesn't exist in the manager.
+     */
+    default Optional<Task> findTask(UUID id) {
+
+        try {
+            return Optional.of(getTask(id));
+        }
+        catch (TaskDoesntExistException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Retrieves the tasks with the specified ids from the manager.
+     * <p>
+     * Ids which don't exist in the manager are returned in the result rather than causing an exception.  The default implementation calls {@link #getTask(UUID)} for each id.  Implementations override this to resolve all the ids against the same state of the manager, while acquiring their lock(s) only once and without creating an exception for each missing id.
+     * 
+     * @param ids The ids of the tasks to retrieve.
+     * @return The tasks which were found and the ids which weren't, each in the same order as the ids.
+     */
+    default TaskLookupResult getTasks(Collection<UUID> ids) {
+
+        var tasks = new ArrayList<Task>(ids.size());
+        var missingIds = new ArrayList<UUID>();
+        for (UUID currentId : ids) {
+            try {
+                tasks.add(getTask(currentId));
+            }
+            catch (TaskDoesntExistException e) {
+                missingIds.add(currentId);
+            }
+        }
+
+        return new TaskLookupResult(tasks, missingIds);
+    }
+
+    /**
+     * Returns a page of tasks, in order of task id.
+     * <p>
+     * The default implementation scans and sorts a snapshot of all tasks.  Implementations which maintain an {@link IdOrderIndex} override this to query the index instead, which costs O(log n + limit).
+     * 
+     * @param cursor The cursor returned with the previous page (see {@link TaskPage#getNextCursor()}), or null to return the first page.
+     * @param limit The maximum number of tasks to return.
+     * @return The page.
+     * @throws IllegalArgumentException If the cursor is not valid.
+     */
+    default TaskPage getTaskPage(String cursor, int limit) {
+
+        IdOrderIndex.ThrowExceptionIfLimitInvalid(limit);
+        UUID lastId = TaskPage.decodeCursor(cursor);
+
+        var tasks = new ArrayList<Task>();
+        for (Task currentTask : getSnapshot()) {
+            if (lastId == null || currentTask.getId().compareTo(lastId) > 0) {
+                tasks.add(currentTask);
+            }
+        }
+        tasks.sort((Task first, Task second) -> first.getId().compareTo(second.getId()));
+        boolean hasNextPage = tasks.size() > limit;
+
+        return new TaskPage(hasNextPage == true ? new ArrayList<Task>(tasks.subList(0, limit)) : tasks, hasNextPage);
+    }
+
+    /**
+     * Returns the tasks due within the specified range of dates.
+     * <p>
+     * The default implementation scans a snapshot of all tasks.  Implementations which maintain a {@link DueDateIndex} override this to query the index instead.
+     * 
+     * @param dueFrom The earliest due date to include, or null to include all tasks due up to 'dueTo'.
+     * @param dueTo The latest due date to include, or null to include all tasks due from 'dueFrom'.
+     * @return The tasks, ordered by due date then id.  Tasks without a due date are not included.
+     */
+    default List<Task> getTasksDueBetween(LocalDate dueFrom, LocalDate dueTo) {
+
+        DueDateIndex.ThrowExceptionIfRangeInvalid(dueFrom, dueTo);
+
+        var tasks = new ArrayList<Task>();
+        for (Task currentTask : getSnapshot()) {
+            if (DueDateIndex.isDueBetween(currentTask, dueFrom, dueTo) == true) {
+                tasks.add(currentTask);
+            }
+        }
+        tasks.sort(DueDateIndex.DUE_DATE_ORDER);
+
+        return tasks;
+    }
+
+    /**
+     * Returns the tasks containing all the terms in the specified query.
+     * <p>
+     * The default implementation scans a snapshot of all tasks.  Implementations which maintain a {@link FullTextIndex} override this to query the index instead.
+     * 
+     * @param query The query.  Split into terms using {@link Tokenizer}, and matched case-insensitively against the terms in the title and detail of each task.
+     * @return The tasks containing every term in the query, in no particular order.  Empty if the query contains no terms.
+     */
+    default List<Task> searchTasks(String query) {
+
+        var tasks = new ArrayList<Task>();
+        Set<String> queryTerms = Tokenizer.tokenize(query);
+        if (queryTerms.isEmpty() == true) {
+            return tasks;
+        }
+        for (Task currentTask : getSnapshot()) {
+            if (FullTextIndex.getTerms(currentTask).containsAll(queryTerms) == true) {
+                tasks.add(currentTask);
+            }
+        }
+
+        return tasks;
+    }
+
+    /**
+     * Returns the tasks whose title starts with the specified prefix, for example to suggest tasks as a user types.
+     * <p>
+     * The default implementation scans a snapshot of all tasks.  Implementations which maintain a {@link TitlePrefixIndex} override this to query the index instead.
+     * 
+     * @param prefix The prefix.  Matched case-insensitively.
+     * @param limit The maximum number of tasks to return.
+     * @return The first 'limit' matching tasks, ordered by title (case-insensitively) then id.
+     */
+    default List<Task> suggestTasks(String prefix, int limit) {
+
+        TitlePrefixIndex.ThrowExceptionIfParametersInvalid(prefix, limit);
+
+        var tasks = new ArrayList<Task>();
+        for (Task currentTask : getSnapshot()) {
+            if (TitlePrefixIndex.titleStartsWith(currentTask, prefix) == true) {
+                tasks.add(currentTask);
+            }
+        }
+        tasks.sort(TitlePrefixIndex.TITLE_ORDER);
+
+        return tasks.size() > limit ? new ArrayList<Task>(tasks.subList(0, limit)) : tasks;
+    }
 }
@@ -0,0 +1,714 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import net.alastairwyse.taskmanager.changes.TaskChangeListener;
+import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.TaskBatchItemResult;
+import net.alastairwyse.taskmanager.models.TaskDelta;
+import net.alastairwyse.taskmanager.models.TaskDoesntExistException;
+import net.alastairwyse.taskmanager.models.TaskLookupResult;
+import net.alastairwyse.taskmanager.models.TaskPage;
+import net.alastairwyse.taskmanager.models.TaskSnapshot;
+import net.alastairwyse.taskmanager.models.dtos.NewTaskDto;
+import net.alastairwyse.taskmanager.persistence.CompactionResult;
+import net.alastairwyse.taskmanager.persistence.LogCompactor;
+import net.alastairwyse.taskmanager.persistence.LogRecord;
+import net.alastairwyse.taskmanager.persistence.SnapshotStore;
+import net.alastairwyse.taskmanager.persistence.WriteAheadLog;
+
+/**
+ * Decorator for a {@link TaskManager} which records every change to tasks in a {@link WriteAheadLog}, so that the tasks survive a restart.
+ * <p>
+ * On construction the most recent snapshot (if a {@link SnapshotStore} is provided) is loaded into the decorated manager (which should be empty), followed by the log records which follow the snapshot.  Each change is appended to the log, committed, and only then applied to the decorated manager, while holding one of a fixed number of locks striped by task id, so that the records for each task are in the order its changes are applied, while changes to tasks in different stripes are appended, committed and applied concurrently.  Whether an update or deletion applies (i.e. whether the task exists) is checked against the decorated manager before the record is appended, and can't change before the record is applied since all changes to the task hold the same lock.  Changes waiting for their records to be committed by the log's group commit thread share the cost of writing and forcing the log with concurrent changes in other stripes.  Readers of the decorated manager (including its change listeners) hence never see a change which isn't committed to the log.
+ * <p>
+ * Once the log fails to write or force records, changes waiting for their records to be committed throw an exception without being applied to the decorated manager, and subsequent changes throw before their records are appended.
+ * <p>
+ * Snapshots are captured from the decorated manager's {@link TaskManager#getSnapshot()} together with the sequence number of the last log record, while briefly holding all the locks striped by task id, so that every appended record has been applied to the decorated manager.  The snapshot is written to the store after the locks are released.
+ */
+public class WriteAheadLogTaskManager implements TaskManager, Closeable {
+
+    /** The number of locks tasks are striped across by id.  Must be a power of 2. */
+    protected static final int ID_LOCK_COUNT = 64;
+
+    /** The decorated task manager. */
+    protected TaskManager taskManager;
+    /** The log changes are recorded in. */
+    protected WriteAheadLog log;
+    /** Stores snapshots of the tasks, or null if snapshots aren't used. */
+    protected SnapshotStore snapshotStore;
+    /** Locks striped by task id, held while applying a change to a task whose id maps to the lock and appending it to the log. */
+    protected ReentrantLock[] idLocks;
+    /** The log sequence number of the last log record reflected in the most recent snapshot.  Protected by the 'snapshotLock' field. */
+    protected long snapshotLsn;
+    /** Lock which serializes the writing of snapshots. */
+    protected ReentrantLock snapshotLock;
+    /** Executes periodic snapshots and compactions on a single background thread (so they never overlap), or null if neither has been started. */
+    protected ScheduledExecutorService backgroundExecutor;
+    /** Whether periodic snapshots have been started. */
+    protected boolean periodicSnapshotsStarted;
+    /** Whether periodic compaction has been started. */
+    protected boolean periodicCompactionStarted;
+    /** The exception thrown by the most recent periodic snapshot, or null if it succeeded. */
+    protected volatile IOException lastSnapshotException;
+    /** The exception thrown by the most recent periodic compaction, or null if it succeeded. */
+    protected volatile IOException lastCompactionException;
+
+    /**
+     * Constructs a WriteAheadLogTaskManager, replaying any existing records in the log into the decorated manager.
+     * 
+     * @param taskManager The task manager to decorate (which should be empty).
+     * @param log The log to record changes in (which shouldn't have been opened).
+     * @throws IOException If an error occurs reading the log.
+     */
+    public WriteAheadLogTaskManager(TaskManager taskManager, WriteAheadLog log) throws IOException {
+
+        if (taskManager == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null.", "taskManager"));
+        if (log == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null.", "log"));
+
+        this.taskManager = taskManager;
+        this.log = log;
+        this.snapshotStore = null;
+        idLocks = CreateIdLocks();
+        snapshotLsn = 0;
+        snapshotLock = new ReentrantLock();
+        backgroundExecutor = null;
+        periodicSnapshotsStarted = false;
+        periodicCompactionStarted = false;
+        lastSnapshotException = null;
+        lastCompactionException = null;
+        log.open((LogRecord record) -> ApplyRecord(taskManager, record));
+    }
+
+    /**
+     * Constructs a WriteAheadLogTaskManager, loading the most recent snapshot and then replaying the log records which follow it into the decorated manager.
+     * 
+     * @param taskManager The task manager to decorate (which should be empty).
+     * @param log The log to record changes in (which shouldn't have been opened).
+     * @param snapshotStore The store to load and write snapshots from and to.
+     * @throws IOException If an error occurs reading the snapshot or log.
+     */
+    public WriteAheadLogTaskManager(TaskManager taskManager, WriteAheadLog log, SnapshotStore snapshotStore) throws IOException {
+
+        if (taskManager == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null.", "taskManager"));
+        if (log == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null.", "log"));
+        if (snapshotStore == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null.", "snapshotStore"));
+
+        this.taskManager = taskManager;
+        this.log = log;
+        this.snapshotStore = snapshotStore;
+        idLocks = CreateIdLocks();
+        snapshotLock = new ReentrantLock();
+        backgroundExecutor = null;
+        periodicSnapshotsStarted = false;
+        periodicCompactionStarted = false;
+        lastSnapshotException = null;
+        lastCompactionException = null;
+        snapshotLsn = snapshotStore.load(taskManager::restoreTask);
+        log.open(snapshotLsn, (LogRecord record) -> ApplyRecord(taskManager, record));
+    }
+
+    /**
+     * @return The exception thrown by the most recent periodic snapshot, or null if it succeeded (or no periodic snapshot has been taken).
+     */
+    public IOException getLastSnapshotException() {
+        return lastSnapshotException;
+    }
+
+    /**
+     * @return The exception thrown by the most recent periodic compaction, or null if it succeeded (or no periodic compaction has run).
+     */
+    public IOException getLastCompactionException() {
+        return lastCompactionException;
+    }
+
+    /**
+     * Writes a snapshot of the current tasks to the snapshot store.
+     * 
+     * @return The log sequence number of the last log record reflected in the snapshot.
+     * @throws IOException If an error occurs writing the snapshot.
+     */
+    public long writeSnapshot() throws IOException {
+
+        if (snapshotStore == null)
+            throw new IllegalStateException("The task manager was not constructed with a snapshot store.");
+
+        snapshotLock.lock();
+        try {
+            // Holding all the id locks ensures every record up to the sequence number has been applied to the decorated manager
+            long lsn;
+            TaskSnapshot snapshot;
+            var allIdLocks = new boolean[idLocks.length];
+            Arrays.fill(allIdLocks, true);
+            LockIds(allIdLocks);
+            try {
+                lsn = log.getLastLsn();
+                snapshot = taskManager.getSnapshot();
+            }
+            finally {
+                UnlockIds(allIdLocks);
+            }
+            if (lsn != snapshotLsn) {
+                snapshotStore.write(snapshot, lsn);
+                snapshotLsn = lsn;
+            }
+
+            return lsn;
+        }
+        finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /**
+     * Starts writing snapshots periodically (when changes have been made since the previous snapshot) on a background thread.  Failures are available from {@link #getLastSnapshotException()}.
+     * 
+     * @param interval The interval between snapshots in milliseconds.
+     */
+    public void startPeriodicSnapshots(long interval) {
+
+        if (interval < 1)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be greater than 0.", "interval"));
+        if (snapshotStore == null)
+            throw new IllegalStateException("The task manager was not constructed with a snapshot store.");
+        if (periodicSnapshotsStarted == true)
+            throw new IllegalStateException("Periodic snapshots have already been started.");
+
+        periodicSnapshotsStarted = true;
+        getBackgroundExecutor().scheduleWithFixedDelay(() -> 
+        {
+            try {
+                writeSnapshot();
+                lastSnapshotException = null;
+            }
+            catch (IOException e) {
+                lastSnapshotException = e;
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Removes dead records from the sealed segments of the log.  Tombstones are removed once they precede the most recent snapshot, or immediately if the manager doesn't use snapshots (since replay then always starts from an empty manager).
+     * 
+     * @param compactor The compactor to compact the log with, which must have been constructed with this manager's log.
+     * @return The outcome of the compaction.
+     * @throws IOException If an error occurs reading or writing the log.
+     */
+    public CompactionResult compactLog(LogCompactor compactor) throws IOException {
+
+        if (compactor == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null.", "compactor"));
+
+        long tombstoneLsn;
+        if (snapshotStore == null) {
+            tombstoneLsn = Long.MAX_VALUE;
+        }
+        else {
+            snapshotLock.lock();
+            try {
+                tombstoneLsn = snapshotLsn;
+            }
+            finally {
+                snapshotLock.unlock();
+            }
+        }
+
+        return compactor.compact(tombstoneLsn);
+    }
+
+    /**
+     * Starts compacting the log periodically on a background thread.  Failures are available from {@link #getLastCompactionException()}.
+     * 
+     * @param compactor The compactor to compact the log with, which must have been constructed with this manager's log.
+     * @param interval The interval between compactions in milliseconds.
+     */
+    public void startPeriodicCompaction(LogCompactor compactor, long interval) {
+
+        if (compactor == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null.", "compactor"));
+        if (interval < 1)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be greater than 0.", "interval"));
+        if (periodicCompactionStarted == true)
+            throw new IllegalStateException("Periodic compaction has already been started.");
+
+        periodicCompactionStarted = true;
+        getBackgroundExecutor().scheduleWithFixedDelay(() -> 
+        {
+            try {
+                compactLog(compactor);
+                lastCompactionException = null;
+            }
+            catch (IOException e) {
+                lastCompactionException = e;
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Task createTask(NewTaskDto newTaskDto) {
+
+        var task = new Task(newTaskDto);
+        ReentrantLock idLock = GetIdLock(task.getId());
+        idLock.lock();
+        try {
+            log.awaitCommit(log.appendPut(task));
+
+            return StoreTask(task);
+        }
+        finally {
+            idLock.unlock();
+        }
+    }
+
+    @Override
+    public void restoreTask(Task task) {
+
+        ReentrantLock idLock = GetIdLock(task.getId());
+        idLock.lock();
+        try {
+            log.awaitCommit(log.appendPut(task));
+            taskManager.restoreTask(task);
+        }
+        finally {
+            idLock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteTask(Task task) throws TaskDoesntExistException {
+
+        ReentrantLock idLock = GetIdLock(task.getId());
+        idLock.lock();
+        try {
+            if (taskManager.findTask(task.getId()).isPresent() == false)
+                throw TaskDoesntExistException.createWithId(task.getId());
+            log.awaitCommit(log.appendDelete(task.getId()));
+            taskManager.deleteTask(task);
+        }
+        finally {
+            idLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean tryDeleteTask(UUID id) {
+
+        ReentrantLock idLock = GetIdLock(id);
+        idLock.lock();
+        try {
+            if (taskManager.findTask(id).isPresent() == false)
+                return false;
+            log.awaitCommit(log.appendDelete(id));
+
+            return taskManager.tryDeleteTask(id);
+        }
+        finally {
+            idLock.unlock();
+        }
+    }
+
+    /**
+     * Creates a task from each of the specified {@link NewTaskDto} objects.
+     * <p>
+     * As with {@link #createTask(NewTaskDto)}, the tasks are created with their ids and then stored individually once their records are committed, while holding the locks for those ids, so unlike the decorated manager's own implementation the batch may not be applied as a single change.
+     */
+    @Override
+    public List<TaskBatchItemResult> createTasks(List<NewTaskDto> newTaskDtos) {
+
+        List<TaskBatchItemResult> newResults = TaskBatchItemResult.createTasks(newTaskDtos);
+        var results = new ArrayList<TaskBatchItemResult>(newResults.size());
+        var ids = new ArrayList<UUID>(newResults.size());
+        for (TaskBatchItemResult currentResult : newResults) {
+            if (currentResult.getSuccess() == true) {
+                ids.add(currentResult.getTask().getId());
+            }
+        }
+        // Log sequence number 0 is always committed, so is waited on if no records are appended
+        long lsn = 0;
+        boolean[] lockedIdLocks = LockIds(ids);
+        try {
+            log.ThrowExceptionIfFailed();
+            for (TaskBatchItemResult currentResult : newResults) {
+                if (currentResult.getSuccess() == true) {
+                    lsn = log.appendPut(currentResult.getTask());
+                }
+            }
+            // The records are committed in order, so waiting for the last commits the whole batch
+            log.awaitCommit(lsn);
+            for (TaskBatchItemResult currentResult : newResults) {
+                if (currentResult.getSuccess() == true) {
+                    results.add(new TaskBatchItemResult(StoreTask(currentResult.getTask()), null));
+                }
+                else {
+                    results.add(currentResult);
+                }
+            }
+        }
+        finally {
+            UnlockIds(lockedIdLocks);
+        }
+
+        return results;
+    }
+
+    @Override
+    public List<TaskBatchItemResult> updateTasks(List<Task> tasks) {
+
+        long lsn = 0;
+        boolean[] lockedIdLocks = LockIds(GetIds(tasks));
+        try {
+            log.ThrowExceptionIfFailed();
+            for (Task currentTask : tasks) {
+                if (currentTask != null && taskManager.findTask(currentTask.getId()).isPresent() == true) {
+                    lsn = log.appendPut(currentTask);
+                }
+            }
+            log.awaitCommit(lsn);
+
+            return taskManager.updateTasks(tasks);
+        }
+        finally {
+            UnlockIds(lockedIdLocks);
+        }
+    }
+
+    @Override
+    public List<TaskBatchItemResult> deleteTasks(List<Task> tasks) {
+
+        long lsn = 0;
+        boolean[] lockedIdLocks = LockIds(GetIds(tasks));
+        try {
+            log.ThrowExceptionIfFailed();
+            for (Task currentTask : tasks) {
+                if (currentTask != null && taskManager.findTask(currentTask.getId()).isPresent() == true) {
+                    lsn = log.appendDelete(currentTask.getId());
+                }
+            }
+            log.awaitCommit(lsn);
+
+            return taskManager.deleteTasks(tasks);
+        }
+        finally {
+            UnlockIds(lockedIdLocks);
+        }
+    }
+
+    @Override
+    public Iterable<Task> getAllTasks() {
+
+        return taskManager.getAllTasks();
+    }
+
+    @Override
+    public TaskSnapshot getSnapshot() {
+
+        return taskManager.getSnapshot();
+    }
+
+    @Override
+    public long getVersion() {
+
+        return taskManager.getVersion();
+    }
+
+    @Override
+    public void addChangeListener(TaskChangeListener listener) {
+
+        taskManager.addChangeListener(listener);
+    }
+
+    @Override
+    public boolean removeChangeListener(TaskChangeListener listener) {
+
+        return taskManager.removeChangeListener(listener);
+    }
+
+    @Override
+    public TaskDelta getChangesSince(long version) {
+
+        return taskManager.getChangesSince(version);
+    }
+
+    @Override
+    public Stream<Task> streamTasks() {
+
+        return taskManager.streamTasks();
+    }
+
+    @Override
+    public Task getTask(UUID id) throws TaskDoesntExistException {
+
+        return taskManager.getTask(id);
+    }
+
+    @Override
+    public Optional<Task> findTask(UUID id) {
+
+        return taskManager.findTask(id);
+    }
+
+    @Override
+    public TaskLookupResult getTasks(Collection<UUID> ids) {
+
+        return taskManager.getTasks(ids);
+    }
+
+    @Override
+    public TaskPage getTaskPage(String cursor, int limit) {
+
+        return taskManager.getTaskPage(cursor, limit);
+    }
+
+    @Override
+    public List<Task> getTasksDueBetween(LocalDate dueFrom, LocalDate dueTo) {
+
+        return taskManager.getTasksDueBetween(dueFrom, dueTo);
+    }
+
+    @Override
+    public List<Task> searchTasks(String query) {
+
+        return taskManager.searchTasks(query);
+    }
+
+    @Override
+    public List<Task> suggestTasks(String prefix, int limit) {
+
+        return taskManager.suggestTasks(prefix, limit);
+    }
+
+    @Override
+    public void updateTask(Task task) throws TaskDoesntExistException {
+
+        ReentrantLock idLock = GetIdLock(task.getId());
+        idLock.lock();
+        try {
+            if (taskManager.findTask(task.getId()).isPresent() == false)
+                throw TaskDoesntExistException.createWithId(task.getId());
+            log.awaitCommit(log.appendPut(task));
+            taskManager.updateTask(task);
+        }
+        finally {
+            idLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean tryUpdateTask(Task task) {
+
+        ReentrantLock idLock = GetIdLock(task.getId());
+        idLock.lock();
+        try {
+            if (taskManager.findTask(task.getId()).isPresent() == false)
+                return false;
+            log.awaitCommit(log.appendPut(task));
+
+            return taskManager.tryUpdateTask(task);
+        }
+        finally {
+            idLock.unlock();
+        }
+    }
+
+    /**
+     * Stops periodic snapshots and compaction, writes and forces any outstanding log records, and closes the log.
+     * 
+     * @throws IOException If an error occurs writing to or closing the log.
+     */
+    @Override
+    public void close() throws IOException {
+
+        if (backgroundExecutor != null) {
+            backgroundExecutor.shutdown();
+            try {
+                backgroundExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        log.close();
+    }
+
+    /**
+     * Returns the executor for periodic snapshots and compactions, creating it if it doesn't exist.
+     */
+    protected synchronized ScheduledExecutorService getBackgroundExecutor() {
+
+        if (backgroundExecutor == null) {
+            backgroundExecutor = Executors.newSingleThreadScheduledExecutor((Runnable runnable) -> 
+            {
+                var thread = new Thread(runnable, "WriteAheadLogMaintenanceThread");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        return backgroundExecutor;
+    }
+
+    /**
+     * Applies a record replayed from the log to a decorated manager.
+     * 
+     * @param taskManager The decorated manager.
+     * @param record The record.
+     */
+    protected static void ApplyRecord(TaskManager taskManager, LogRecord record) {
+
+        if (record.getType() == LogRecord.Type.PUT) {
+            taskManager.restoreTask(record.getTask());
+        }
+        else {
+            // The task may already be absent (e.g. its earlier records have been removed from the log), which is the state the record describes
+            taskManager.tryDeleteTask(record.getId());
+        }
+    }
+
+    /**
+     * Stores a new task in the decorated manager with its existing id, once its record is committed.  Must be called while holding the lock of the task's id.
+     * 
+     * @param task The task.
+     * @return The task as stored by the decorated manager (e.g. with the decorated manager's version).
+     */
+    protected Task StoreTask(Task task) {
+
+        taskManager.restoreTask(task);
+
+        return taskManager.findTask(task.getId()).orElseThrow();
+    }
+
+    /**
+     * Returns the ids of the specified tasks, skipping null elements (which the decorated manager reports as failed results).
+     * 
+     * @param tasks The tasks.
+     * @return The ids.
+     */
+    protected List<UUID> GetIds(List<Task> tasks) {
+
+        var ids = new ArrayList<UUID>(tasks.size());
+        for (Task currentTask : tasks) {
+            if (currentTask != null) {
+                ids.add(currentTask.getId());
+            }
+        }
+
+        return ids;
+    }
+
+    /**
+     * Creates the locks tasks are striped across by id.
+     */
+    protected static ReentrantLock[] CreateIdLocks() {
+
+        var idLocks = new ReentrantLock[ID_LOCK_COUNT];
+        for (int i = 0; i < idLocks.length; i++) {
+            idLocks[i] = new ReentrantLock();
+        }
+
+        return idLocks;
+    }
+
+    /**
+     * Returns the lock for the specified task id.
+     * 
+     * @param id The id of the task.
+     * @return The lock.
+     */
+    protected ReentrantLock GetIdLock(UUID id) {
+
+        return idLocks[GetIdLockIndex(id)];
+    }
+
+    /**
+     * Returns the index of the lock for the specified task id.
+     * 
+     * @param id The id of the task.
+     * @return The index of the lock.
+     */
+    protected int GetIdLockIndex(UUID id) {
+
+        int hash = id.hashCode();
+        hash = hash ^ (hash >>> 16);
+
+        return hash & (idLocks.length - 1);
+    }
+
+    /**
+     * Acquires the locks for all the specified task ids.  Locks are always acquired in index order, so concurrent callers can't deadlock.
+     * 
+     * @param ids The ids of the tasks.
+     * @return Flags indicating which locks were acquired, to pass to {@link #UnlockIds(boolean[])}.
+     */
+    protected boolean[] LockIds(List<UUID> ids) {
+
+        var lockedIdLocks = new boolean[idLocks.length];
+        for (UUID currentId : ids) {
+            lockedIdLocks[GetIdLockIndex(currentId)] = true;
+        }
+        LockIds(lockedIdLocks);
+
+        return lockedIdLocks;
+    }
+
+    /**
+     * Acquires the specified locks, in index order.
+     * 
+     * @param lockedIdLocks Flags indicating which locks to acquire.
+     */
+    protected void LockIds(boolean[] lockedIdLocks) {
+
+        for (int i = 0; i < idLocks.length; i++) {
+            if (lockedIdLocks[i] == true) {
+                idLocks[i].lock();
+            }
+        }
+    }
+
+    /**
+     * Releases the locks acquired by {@link #LockIds(List)}.
+     * 
+     * @param lockedIdLocks Flags indicating which locks were acquired.
+     */
+    protected void UnlockIds(boolean[] lockedIdLocks) {
+
+        for (int i = 0; i < idLocks.length; i++) {
+            if (lockedIdLocks[i] == true) {
+                idLocks[i].unlock();
+            }
+        }
+    }
+}
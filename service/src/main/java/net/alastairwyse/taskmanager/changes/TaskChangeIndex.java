@@ -0,0 +1,224 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.changes;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.alastairwyse.taskmanager.TaskManager;
+import net.alastairwyse.taskmanager.models.TaskChange;
+import net.alastairwyse.taskmanager.models.TaskDelta;
+import net.alastairwyse.taskmanager.models.TaskLookupResult;
+
+/**
+ * Implementation of {@link TaskChangeListener} which logs the ids of the tasks changed at each version of a {@link TaskManager}, to answer {@link TaskManager#getChangesSince(long)} in O(log n + k) time for k changes.
+ * <p>
+ * The log is a concurrent skip list keyed by version and is appended to without locking, so notifying the index doesn't serialize concurrent writers to the manager.  Memory is bounded by the number of changes retained rather than the number of tasks in the manager: once more than a maximum number of changed ids are retained, the oldest versions are discarded, and requests for changes since a version older than the newest discarded one are answered with a full snapshot.  The index is opt-in, and is only registered with managers which serve deltas (see {@link net.alastairwyse.taskmanager.ChangeTrackingTaskManager}).
+ * <p>
+ * Changes may be notified out of order of version by managers which allow concurrent writers.  The index hence tracks the highest version up to which all changes have been notified, and only returns changes up to that version.  A version which is still missing after a timeout, while later versions have been notified, is assumed to have been abandoned (e.g. its writer threw before notifying) and is skipped.  If the skipped version is notified after all, deltas already returned may have missed its changes, so changes since any version up to the current complete version are answered with a full snapshot.
+ * <p>
+ * The log records ids rather than tasks, and the tasks for a delta are read from the manager when the delta is requested, so a delta always contains the current state of each changed task (which may include changes made after the delta's version, in which case they're also included in the next delta).
+ */
+public class TaskChangeIndex implements TaskChangeListener {
+
+    /** The default maximum number of changed ids retained. */
+    public static final int DEFAULT_MAXIMUM_CHANGE_COUNT = 100000;
+    /** The default time in milliseconds after which a missing version is skipped. */
+    public static final long DEFAULT_ABANDONED_VERSION_TIMEOUT = 1000;
+
+    /** The maximum number of changed ids retained. */
+    protected final int maximumChangeCount;
+    /** The time in nanoseconds after which a missing version is skipped. */
+    protected final long abandonedVersionTimeout;
+    /** The ids of the tasks changed at each retained version. */
+    protected final ConcurrentSkipListMap<Long, UUID[]> versionToIdsMap;
+    /** The number of changed ids retained in 'versionToIdsMap'. */
+    protected final AtomicInteger changeCount;
+    /** The highest version up to which all changes have been notified (or skipped). */
+    protected final AtomicLong completeVersion;
+    /** Changes since a version lower than this are no longer fully retained. */
+    protected final AtomicLong discardedVersion;
+    /** Versions higher than 'discardedVersion' which were skipped as abandoned and haven't since been notified. */
+    protected final ConcurrentSkipListSet<Long> skippedVersions;
+    /** The first version found missing after 'completeVersion', or null if none is. */
+    protected volatile Gap gap;
+
+    /**
+     * Constructs a TaskChangeIndex which retains the default maximum number of changes, and skips missing versions after the default timeout.
+     */
+    public TaskChangeIndex() {
+        this(DEFAULT_MAXIMUM_CHANGE_COUNT, DEFAULT_ABANDONED_VERSION_TIMEOUT);
+    }
+
+    /**
+     * Constructs a TaskChangeIndex.
+     * 
+     * @param maximumChangeCount The maximum number of changed ids retained.
+     * @param abandonedVersionTimeout The time in milliseconds after which a missing version is skipped.
+     */
+    public TaskChangeIndex(int maximumChangeCount, long abandonedVersionTimeout) {
+
+        if (maximumChangeCount < 0)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be greater than or equal to 0.", "maximumChangeCount"));
+        if (abandonedVersionTimeout < 0)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be greater than or equal to 0.", "abandonedVersionTimeout"));
+
+        this.maximumChangeCount = maximumChangeCount;
+        this.abandonedVersionTimeout = TimeUnit.MILLISECONDS.toNanos(abandonedVersionTimeout);
+        versionToIdsMap = new ConcurrentSkipListMap<Long, UUID[]>();
+        changeCount = new AtomicInteger(0);
+        completeVersion = new AtomicLong(0);
+        discardedVersion = new AtomicLong(0);
+        skippedVersions = new ConcurrentSkipListSet<Long>();
+        gap = null;
+    }
+
+    /**
+     * @return The highest version up to which all changes have been notified (or skipped).
+     */
+    public long getCompleteVersion() {
+
+        return AdvanceCompleteVersion();
+    }
+
+    /**
+     * @return The number of changed ids retained.
+     */
+    public int getChangeCount() {
+
+        return changeCount.get();
+    }
+
+    @Override
+    public void tasksChanged(long version, List<TaskChange> changes) {
+
+        // The complete version can't pass a version before it's notified unless the version is skipped, and the discarded version never exceeds the complete version + 1, so a version lower than the discarded version must have been skipped
+        boolean skipped = version < discardedVersion.get();
+        if (skipped == false) {
+            var ids = new UUID[changes.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = changes.get(i).getId();
+            }
+            versionToIdsMap.put(version, ids);
+            changeCount.addAndGet(ids.length);
+            skipped = skippedVersions.remove(version);
+        }
+        if (skipped == true) {
+            // Deltas up to the complete version may have missed the changes in the skipped version
+            discardedVersion.accumulateAndGet(completeVersion.get() + 1, Math::max);
+        }
+        AdvanceCompleteVersion();
+        DiscardOldestChanges();
+    }
+
+    /**
+     * Returns the changes to the tasks in the specified manager after the specified version.
+     * 
+     * @param version The version to return the changes after.
+     * @param taskManager The manager the index is registered with, from which the changed tasks (or a full snapshot) are read.
+     * @return The changes, or a full snapshot if the changes since the version are no longer retained, or if the version is higher than any the index has been notified of (e.g. because it was issued before the application restarted).
+     */
+    public TaskDelta getChangesSince(long version, TaskManager taskManager) {
+
+        if (version < 0)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be greater than or equal to 0.", "version"));
+
+        long deltaVersion = AdvanceCompleteVersion();
+        if (version < discardedVersion.get() || version > deltaVersion)
+            return new TaskDelta(taskManager.getSnapshot());
+        var changedIds = new LinkedHashSet<UUID>();
+        for (UUID[] currentIds : versionToIdsMap.subMap(version, false, deltaVersion, true).values()) {
+            for (UUID currentId : currentIds) {
+                changedIds.add(currentId);
+            }
+        }
+        if (version < discardedVersion.get())
+            // Versions were discarded while reading the log
+            return new TaskDelta(taskManager.getSnapshot());
+        TaskLookupResult lookupResult = taskManager.getTasks(changedIds);
+
+        return new TaskDelta(deltaVersion, lookupResult.getTasks(), lookupResult.getMissingIds());
+    }
+
+    /**
+     * Advances the complete version past each following version which has been notified, or which has been missing for longer than the abandoned version timeout.
+     * 
+     * @return The complete version.
+     */
+    protected long AdvanceCompleteVersion() {
+
+        while (true) {
+            long current = completeVersion.get();
+            long next = current + 1;
+            if (versionToIdsMap.containsKey(next) == false) {
+                if (versionToIdsMap.higherKey(next) == null)
+                    // No later versions have been notified, so 'next' may just not have been written yet
+                    return current;
+                Gap currentGap = gap;
+                long now = System.nanoTime();
+                if (currentGap == null || currentGap.version != next) {
+                    gap = new Gap(next, now);
+                    return current;
+                }
+                if (now - currentGap.startTime < abandonedVersionTimeout)
+                    return current;
+                skippedVersions.add(next);
+            }
+            completeVersion.compareAndSet(current, next);
+        }
+    }
+
+    /**
+     * Discards the oldest complete versions while more than the maximum number of changed ids are retained.
+     */
+    protected void DiscardOldestChanges() {
+
+        while (changeCount.get() > maximumChangeCount) {
+            Map.Entry<Long, UUID[]> oldestEntry = versionToIdsMap.firstEntry();
+            if (oldestEntry == null || oldestEntry.getKey() > completeVersion.get())
+                // Versions after the complete version are retained so that it can advance past them
+                return;
+            if (versionToIdsMap.remove(oldestEntry.getKey(), oldestEntry.getValue()) == true) {
+                changeCount.addAndGet(-oldestEntry.getValue().length);
+                discardedVersion.accumulateAndGet(oldestEntry.getKey(), Math::max);
+                skippedVersions.headSet(oldestEntry.getKey()).clear();
+            }
+        }
+    }
+
+    /**
+     * A version found missing after the complete version, and when it was first found missing.
+     */
+    protected static class Gap {
+
+        protected final long version;
+        /** The value of {@link System#nanoTime()} when the version was first found missing. */
+        protected final long startTime;
+
+        protected Gap(long version, long startTime) {
+            this.version = version;
+            this.startTime = startTime;
+        }
+    }
+}
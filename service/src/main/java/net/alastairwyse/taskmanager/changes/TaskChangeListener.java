@@ -0,0 +1,40 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.changes;
+
+import java.util.List;
+
+import net.alastairwyse.taskmanager.TaskManager;
+import net.alastairwyse.taskmanager.models.TaskChange;
+
+/**
+ * Receives notification of changes to the tasks in a {@link TaskManager}.  Registered with {@link TaskManager#addChangeListener(TaskChangeListener)}.
+ * <p>
+ * Listeners are called synchronously by the thread making the change, after the manager has applied the change and released any locks, so implementations must be thread-safe and should return quickly (as the call to the manager doesn't return until all listeners have been notified).  Work such as serializing or sending the changes should be handed off to another thread.  An exception thrown by a listener is passed to the uncaught exception handler of the thread making the change, and doesn't prevent other listeners being notified.
+ */
+public interface TaskChangeListener {
+
+    /**
+     * Called after each operation which changes the tasks in the manager.
+     * <p>
+     * Each increment of the manager's version is notified by exactly one call, containing all the changes made by the operation (e.g. all the successful items of a batch).  As listeners are called after the manager's locks are released, concurrent writers may call listeners concurrently and out of order of version.  Listeners which need to order changes should hence use the version rather than the order of the calls.
+     * 
+     * @param version The version of the manager resulting from the operation.
+     * @param changes The changes made by the operation, in the order they were made.
+     */
+    void tasksChanged(long version, List<TaskChange> changes);
+}
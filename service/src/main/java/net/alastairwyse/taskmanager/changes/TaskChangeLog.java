@@ -0,0 +1,123 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.changes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import net.alastairwyse.taskmanager.TaskManager;
+import net.alastairwyse.taskmanager.models.TaskChange;
+
+/**
+ * Implementation of {@link TaskChangeListener} which retains the most recent changes to the tasks in a {@link TaskManager} in a bounded ring buffer, so that consumers can read the changes made since a given point, and resume reading after a disconnection.
+ * <p>
+ * Each change is assigned a sequence number as it's appended, starting at 1 and increasing by 1 for each change.  Sequence numbers reflect the order changes were notified in, which (unlike the manager's version) is always contiguous, so a consumer which records the sequence number of the last change it read can't miss a change as long as it resumes before that change is overwritten.
+ */
+public class TaskChangeLog implements TaskChangeListener {
+
+    /** The retained changes.  The change with sequence number 's' is stored at index 's % capacity'. */
+    protected final TaskChange[] buffer;
+    /** The sequence number of the most recently appended change, or 0 if no changes have been appended.  Protected by the 'lock' field. */
+    protected long lastSequence;
+    /** A multiple reader, single writer lock object for the 'buffer' and 'lastSequence' fields. */
+    protected final ReentrantReadWriteLock lock;
+
+    /**
+     * Constructs a TaskChangeLog.
+     * 
+     * @param capacity The maximum number of changes to retain.
+     */
+    public TaskChangeLog(int capacity) {
+
+        if (capacity < 1)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be greater than 0.", "capacity"));
+
+        buffer = new TaskChange[capacity];
+        lastSequence = 0;
+        lock = new ReentrantReadWriteLock();
+    }
+
+    /**
+     * @return The maximum number of changes retained.
+     */
+    public int getCapacity() {
+        return buffer.length;
+    }
+
+    /**
+     * @return The sequence number of the most recently appended change, or 0 if no changes have been appended.
+     */
+    public long getLastSequence() {
+
+        lock.readLock().lock();
+        try {
+            return lastSequence;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void tasksChanged(long version, List<TaskChange> changes) {
+
+        lock.writeLock().lock();
+        try {
+            for (TaskChange currentChange : changes) {
+                lastSequence++;
+                buffer[(int)(lastSequence % buffer.length)] = currentChange;
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the changes appended after the change with the specified sequence number.
+     * 
+     * @param sequence The sequence number of the last change already read, or 0 to read from the first change.
+     * @param maximumCount The maximum number of changes to return.
+     * @return The changes, in order of sequence number (i.e. the change at index 'i' has sequence number 'sequence + 1 + i'), or an empty result if the sequence number is greater than that of the most recent change (e.g. because it was issued by a different log), or if some of the changes after it are no longer retained.
+     */
+    public Optional<List<TaskChange>> getChangesAfter(long sequence, int maximumCount) {
+
+        if (sequence < 0)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be greater than or equal to 0.", "sequence"));
+        if (maximumCount < 1)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be greater than 0.", "maximumCount"));
+
+        lock.readLock().lock();
+        try {
+            if (sequence > lastSequence || sequence < lastSequence - buffer.length)
+                return Optional.empty();
+
+            int count = (int)Math.min(lastSequence - sequence, maximumCount);
+            var changes = new ArrayList<TaskChange>(count);
+            for (long i = sequence + 1; i <= sequence + count; i++) {
+                changes.add(buffer[(int)(i % buffer.length)]);
+            }
+
+            return Optional.of(changes);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.changes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import net.alastairwyse.taskmanager.TaskManager;
+import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.TaskBatchItemResult;
+import net.alastairwyse.taskmanager.models.TaskChange;
+import net.alastairwyse.taskmanager.models.TaskChangeType;
+
+/**
+ * Holds the {@link TaskChangeListener} objects registered with a {@link TaskManager}, and notifies them of changes.
+ * <p>
+ * The notify methods return without creating any {@link TaskChange} objects if no listeners are registered, so they can be called unconditionally from a manager's write paths.
+ */
+public class TaskChangeNotifier {
+
+    /** The registered listeners. */
+    protected final CopyOnWriteArrayList<TaskChangeListener> listeners;
+
+    /**
+     * Constructs a TaskChangeNotifier.
+     */
+    public TaskChangeNotifier() {
+        listeners = new CopyOnWriteArrayList<TaskChangeListener>();
+    }
+
+    /**
+     * Registers a listener.
+     * 
+     * @param listener The listener to register.
+     */
+    public void addListener(TaskChangeListener listener) {
+
+        if (listener == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null.", "listener"));
+
+        listeners.add(listener);
+    }
+
+    /**
+     * Deregisters a listener.
+     * 
+     * @param listener The listener to deregister.
+     * @return Whether the listener was registered.
+     */
+    public boolean removeListener(TaskChangeListener listener) {
+
+        return listeners.remove(listener);
+    }
+
+    /**
+     * @return Whether any listeners are registered.
+     */
+    public boolean hasListeners() {
+        return listeners.isEmpty() == false;
+    }
+
+    /**
+     * Notifies the listeners of a change to a single task which was stored in the manager.
+     * 
+     * @param version The version of the manager resulting from the change.
+     * @param task The task which was stored.
+     * @param existed Whether the task replaced an existing task with the same id.
+     */
+    public void notifyStored(long version, Task task, boolean existed) {
+
+        if (listeners.isEmpty() == true)
+            return;
+
+        NotifyListeners(version, List.of(new TaskChange(existed == true ? TaskChangeType.UPDATED : TaskChangeType.CREATED, task.getId(), task, version)));
+    }
+
+    /**
+     * Notifies the listeners of the deletion of a single task.
+     * 
+     * @param version The version of the manager resulting from the deletion.
+     * @param id The id of the deleted task.
+     */
+    public void notifyDeleted(long version, UUID id) {
+
+        if (listeners.isEmpty() == true)
+            return;
+
+        NotifyListeners(version, List.of(new TaskChange(TaskChangeType.DELETED, id, null, version)));
+    }
+
+    /**
+     * Notifies the listeners of the successful items of a batch operation.
+     * 
+     * @param version The version of the manager resulting from the batch.
+     * @param type The type of change made by the batch.
+     * @param results The results of the items in the batch.  Changes are notified for the successful results only.
+     */
+    public void notifyBatch(long version, TaskChangeType type, Iterable<TaskBatchItemResult> results) {
+
+        if (listeners.isEmpty() == true)
+            return;
+
+        var changes = new ArrayList<TaskChange>();
+        for (TaskBatchItemResult currentResult : results) {
+            if (currentResult.getSuccess() == true) {
+                Task task = currentResult.getTask();
+                changes.add(new TaskChange(type, task.getId(), task, version));
+            }
+        }
+        if (changes.isEmpty() == false)
+            NotifyListeners(version, changes);
+    }
+
+    /**
+     * Passes the specified changes to each listener.  An exception thrown by a listener is passed to the uncaught exception handler of the current thread rather than propagated, so it neither prevents the remaining listeners being notified, nor fails the change (which has already been applied to the manager).
+     * 
+     * @param version The version of the manager resulting from the changes.
+     * @param changes The changes.
+     */
+    protected void NotifyListeners(long version, List<TaskChange> changes) {
+
+        for (TaskChangeListener currentListener : listeners) {
+            try {
+                currentListener.tasksChanged(version, changes);
+            }
+            catch (RuntimeException e) {
+                Thread currentThread = Thread.currentThread();
+                currentThread.getUncaughtExceptionHandler().uncaughtException(currentThread, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.collections;
+
+import java.util.UUID;
+import java.util.function.IntFunction;
+
+// References
+//   https://en.wikipedia.org/wiki/Linear_probing#Deletion
+
+/**
+ * Base for maps keyed by {@link UUID}, which store each key inline as its two 64 bit halves in parallel primitive arrays, using open addressing with linear probing.
+ * <p>
+ * Unlike {@link java.util.HashMap} no object is allocated per entry, and lookups by most and least significant bits compare primitive values in adjacent array slots rather than following pointers to entry and key objects.  Entries are removed using backward shift deletion, so lookup cost doesn't degrade with the number of removals.
+ * <p>
+ * This class holds the keys and implements probing, deletion and growth.  Subclasses hold the values in an array of type 'A' (e.g. an array of objects, or of primitives so values don't require an object per entry either), in which a designated value marks an empty slot.
+ * <p>
+ * Instances are not thread safe.
+ * 
+ * @param <A> The type of the array holding the values.
+ */
+public abstract class AbstractUuidOpenAddressingMap<A> {
+
+    /** The default initial number of slots. */
+    protected static final int DEFAULT_INITIAL_CAPACITY = 16;
+    /** The maximum ratio of entries to slots before the arrays are grown. */
+    protected static final double MAXIMUM_LOAD_FACTOR = 0.75;
+
+    /** The most significant bits of the key in each slot. */
+    protected long[] mostSignificantBits;
+    /** The least significant bits of the key in each slot. */
+    protected long[] leastSignificantBits;
+    /** The value in each slot. */
+    protected A values;
+    /** The number of entries in the map. */
+    protected int size;
+    /** The number of entries at which the arrays are grown. */
+    protected int resizeThreshold;
+    /** Creates the array holding the values, given the number of slots. */
+    private final IntFunction<A> valuesAllocator;
+
+    /**
+     * Constructs an AbstractUuidOpenAddressingMap.
+     * 
+     * @param initialCapacity The minimum number of entries the map should be able to hold before growing.
+     * @param valuesAllocator Creates the array holding the values, given the number of slots (e.g. 'long[]::new').  All elements of a new array must mark an empty slot.
+     */
+    protected AbstractUuidOpenAddressingMap(int initialCapacity, IntFunction<A> valuesAllocator) {
+
+        if (initialCapacity < 1)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be greater than 0.", "initialCapacity"));
+
+        this.valuesAllocator = valuesAllocator;
+        // Round the required number of slots up to a power of 2
+        long requiredSlotCount = (long)Math.ceil(initialCapacity / MAXIMUM_LOAD_FACTOR) + 1;
+        int slotCount = (int)Math.min(Long.highestOneBit(requiredSlotCount - 1) << 1, 1 << 30);
+        allocate(slotCount);
+        size = 0;
+    }
+
+    /**
+     * @return The number of entries in the map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether the map contains the specified key.
+     * 
+     * @param key The key.
+     * @return True if the map contains the key.
+     */
+    public boolean containsKey(UUID key) {
+        return findSlot(key.getMostSignificantBits(), key.getLeastSignificantBits()) >= 0;
+    }
+
+    /**
+     * Returns whether the specified slot of a values array is empty.
+     */
+    protected abstract boolean isEmpty(A values, int slot);
+
+    /**
+     * Copies the value in a slot of one values array to a slot of another (or the same) values array.
+     */
+    protected abstract void copyValue(A sourceValues, int sourceSlot, A destinationValues, int destinationSlot);
+
+    /**
+     * Marks the specified slot of a values array as empty.
+     */
+    protected abstract void clearValue(A values, int slot);
+
+    /**
+     * Returns the slot containing the key with the specified most and least significant bits, or -1 if the map doesn't contain the key.
+     */
+    protected final int findSlot(long msb, long lsb) {
+
+        int slot = findSlotForInsert(msb, lsb);
+
+        return slot >= 0 ? slot : -1;
+    }
+
+    /**
+     * Returns the slot containing the key with the specified most and least significant bits or, if the map doesn't contain the key, the empty slot at which it should be inserted encoded as -(slot + 1).
+     */
+    protected final int findSlotForInsert(long msb, long lsb) {
+
+        int mask = mostSignificantBits.length - 1;
+        int slot = hash(msb, lsb) & mask;
+        while (isEmpty(values, slot) == false) {
+            if (mostSignificantBits[slot] == msb && leastSignificantBits[slot] == lsb) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return -(slot + 1);
+    }
+
+    /**
+     * Stores a new key in the specified slot, returned by {@link #findSlotForInsert(long, long)}, once the subclass has stored its value there.  Grows the arrays if the number of entries has reached the threshold.
+     */
+    protected final void insertKey(int slot, long msb, long lsb) {
+
+        mostSignificantBits[slot] = msb;
+        leastSignificantBits[slot] = lsb;
+        size++;
+        if (size > resizeThreshold) {
+            grow();
+        }
+    }
+
+    /**
+     * Removes the entry in the specified slot, shifting back any subsequent entries in the same probe sequence which would otherwise become unreachable.
+     */
+    protected final void removeSlot(int slot) {
+
+        int mask = mostSignificantBits.length - 1;
+        int emptySlot = slot;
+        int currentSlot = (slot + 1) & mask;
+        while (isEmpty(values, currentSlot) == false) {
+            int idealSlot = hash(mostSignificantBits[currentSlot], leastSignificantBits[currentSlot]) & mask;
+            if (((currentSlot - idealSlot) & mask) >= ((currentSlot - emptySlot) & mask)) {
+                mostSignificantBits[emptySlot] = mostSignificantBits[currentSlot];
+                leastSignificantBits[emptySlot] = leastSignificantBits[currentSlot];
+                copyValue(values, currentSlot, values, emptySlot);
+                emptySlot = currentSlot;
+            }
+            currentSlot = (currentSlot + 1) & mask;
+        }
+        clearValue(values, emptySlot);
+        size--;
+    }
+
+    /**
+     * Doubles the number of slots, re-inserting all existing entries.
+     */
+    private void grow() {
+
+        long[] oldMostSignificantBits = mostSignificantBits;
+        long[] oldLeastSignificantBits = leastSignificantBits;
+        A oldValues = values;
+        int oldSlotCount = oldMostSignificantBits.length;
+        allocate(oldSlotCount * 2);
+        int mask = mostSignificantBits.length - 1;
+        for (int i = 0; i < oldSlotCount; i++) {
+            if (isEmpty(oldValues, i) == false) {
+                int slot = hash(oldMostSignificantBits[i], oldLeastSignificantBits[i]) & mask;
+                while (isEmpty(values, slot) == false) {
+                    slot = (slot + 1) & mask;
+                }
+                mostSignificantBits[slot] = oldMostSignificantBits[i];
+                leastSignificantBits[slot] = oldLeastSignificantBits[i];
+                copyValue(oldValues, i, values, slot);
+            }
+        }
+    }
+
+    private void allocate(int slotCount) {
+
+        mostSignificantBits = new long[slotCount];
+        leastSignificantBits = new long[slotCount];
+        values = valuesAllocator.apply(slotCount);
+        resizeThreshold = (int)(slotCount * MAXIMUM_LOAD_FACTOR);
+    }
+
+    /**
+     * Mixes the bits of a key into a hash suitable for indexing the slots.
+     */
+    protected static int hash(long msb, long lsb) {
+
+        long mixed = (msb ^ Long.rotateLeft(lsb, 32)) * 0x9E3779B97F4A7C15L;
+
+        return (int)(mixed ^ (mixed >>> 32));
+    }
+}
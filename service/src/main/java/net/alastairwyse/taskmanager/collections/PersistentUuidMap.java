@@ -0,0 +1,647 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.collections;
+
+import java.util.AbstractCollection;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+// References
+//   https://lampwww.epfl.ch/papers/idealhashtrees.pdf
+
+/**
+ * An immutable map keyed by {@link UUID}, implemented as a hash array mapped trie (HAMT).
+ * <p>
+ * Methods which modify the map return a new map, leaving the original unchanged.  The new map shares all of its structure with the original except the nodes on the path to the modified entry, so a modification costs O(log32 n) time and space.  Since instances never change, they can be read from any number of threads without synchronization.
+ * 
+ * @param <V> The type of values in the map.
+ */
+public class PersistentUuidMap<V> {
+
+    /** The number of bits of the key hash consumed at each level of the trie. */
+    protected static final int BITS_PER_LEVEL = 5;
+    /** Mask to extract the bits of the key hash for a single level of the trie. */
+    protected static final int LEVEL_MASK = (1 << BITS_PER_LEVEL) - 1;
+
+    /** The empty map. */
+    @SuppressWarnings("rawtypes")
+    protected static final PersistentUuidMap EMPTY = new PersistentUuidMap<>(BitmapIndexedNode.EMPTY, 0);
+
+    /** The root node of the trie. */
+    protected final BitmapIndexedNode root;
+    /** The number of entries in the map. */
+    protected final int size;
+
+    /**
+     * Returns an empty map.
+     * 
+     * @param <V> The type of values in the map.
+     * @return The empty map.
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> PersistentUuidMap<V> empty() {
+        return (PersistentUuidMap<V>)EMPTY;
+    }
+
+    /**
+     * @return The number of entries in the map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the value associated with the specified key.
+     * 
+     * @param key The key.
+     * @return The value associated with the key, or null if the map doesn't contain the key.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(UUID key) {
+        return (V)root.get(key.hashCode(), 0, key);
+    }
+
+    /**
+     * Returns whether the map contains the specified key.
+     * 
+     * @param key The key.
+     * @return True if the map contains the key.
+     */
+    public boolean containsKey(UUID key) {
+        return root.get(key.hashCode(), 0, key) != null;
+    }
+
+    /**
+     * Returns a map which contains the entries of this map plus the specified key and value.
+     * 
+     * @param key The key.
+     * @param value The value to associate with the key (cannot be null).  Replaces any existing value associated with the key.
+     * @return The new map, or this map if the key is already associated with the same value instance.
+     */
+    public PersistentUuidMap<V> put(UUID key, V value) {
+
+        if (value == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null.", "value"));
+
+        var addedLeaf = new boolean[1];
+        BitmapIndexedNode newRoot = root.put(key.hashCode(), 0, new Leaf(key.hashCode(), key, value), addedLeaf);
+        if (newRoot == root) {
+            return this;
+        }
+
+        return new PersistentUuidMap<V>(newRoot, addedLeaf[0] == true ? size + 1 : size);
+    }
+
+    /**
+     * Returns a map which contains the entries of this map except the specified key.
+     * 
+     * @param key The key to remove.
+     * @return The new map, or this map if the map doesn't contain the key.
+     */
+    public PersistentUuidMap<V> remove(UUID key) {
+
+        Object newRoot = root.remove(key.hashCode(), 0, key);
+        if (newRoot == root) {
+            return this;
+        }
+        if (newRoot == null) {
+            return empty();
+        }
+        if (newRoot instanceof Leaf) {
+            newRoot = BitmapIndexedNode.EMPTY.put(((Leaf)newRoot).hash, 0, (Leaf)newRoot, new boolean[1]);
+        }
+
+        return new PersistentUuidMap<V>((BitmapIndexedNode)newRoot, size - 1);
+    }
+
+    /**
+     * Returns a read-only view of the values in the map.  Since the map is immutable, the view never changes.
+     * <p>
+     * The view's {@link Collection#spliterator() spliterator} splits by dividing the children of the trie's nodes, so the values can be efficiently processed by a parallel stream.
+     * 
+     * @return The values.
+     */
+    public Collection<V> values() {
+
+        return new AbstractCollection<V>() {
+
+            @Override
+            public Iterator<V> iterator() {
+                return new ValueIterator<V>(root);
+            }
+
+            @Override
+            public Spliterator<V> spliterator() {
+                return new ValueSpliterator<V>(root.children, 0, root.children.length, size, true);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Constructs a PersistentUuidMap.
+     * 
+     * @param root The root node of the trie.
+     * @param size The number of entries in the map.
+     */
+    protected PersistentUuidMap(BitmapIndexedNode root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Returns the index of the child at the specified level of the trie for the specified key hash.
+     */
+    protected static int levelIndex(int hash, int shift) {
+        return (hash >>> shift) & LEVEL_MASK;
+    }
+
+    /**
+     * A single key/value entry in the trie.
+     */
+    protected static class Leaf {
+
+        protected final int hash;
+        protected final UUID key;
+        protected final Object value;
+
+        protected Leaf(int hash, UUID key, Object value) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Base for interior nodes of the trie.
+     */
+    protected static abstract class Node {
+
+        /**
+         * Returns the value associated with the specified key, or null if the key doesn't exist below this node.
+         */
+        protected abstract Object get(int hash, int shift, UUID key);
+
+        /**
+         * Returns a copy of this node with the specified leaf added, or this node if it already contains an identical leaf.  Sets element 0 of 'addedLeaf' to true if the key did not previously exist.
+         */
+        protected abstract Node put(int hash, int shift, Leaf leaf, boolean[] addedLeaf);
+
+        /**
+         * Returns a copy of this node with the specified key removed, or this node if the key doesn't exist.  Returns a {@link Leaf} if only a single entry remains below this node, or null if no entries remain.
+         */
+        protected abstract Object remove(int hash, int shift, UUID key);
+    }
+
+    /**
+     * Interior node holding up to 32 children (each either a {@link Leaf} or a {@link Node}), stored compactly and located using a bitmap.
+     */
+    protected static class BitmapIndexedNode extends Node {
+
+        protected static final BitmapIndexedNode EMPTY = new BitmapIndexedNode(0, new Object[0]);
+
+        /** Bit n is set if the child at level index n exists. */
+        protected final int bitmap;
+        /** The children, ordered by level index. */
+        protected final Object[] children;
+
+        protected BitmapIndexedNode(int bitmap, Object[] children) {
+            this.bitmap = bitmap;
+            this.children = children;
+        }
+
+        @Override
+        protected Object get(int hash, int shift, UUID key) {
+
+            int bit = 1 << levelIndex(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            Object child = children[Integer.bitCount(bitmap & (bit - 1))];
+            if (child instanceof Leaf) {
+                Leaf leaf = (Leaf)child;
+                return leaf.key.equals(key) ? leaf.value : null;
+            }
+
+            return ((Node)child).get(hash, shift + BITS_PER_LEVEL, key);
+        }
+
+        @Override
+        protected BitmapIndexedNode put(int hash, int shift, Leaf leaf, boolean[] addedLeaf) {
+
+            int bit = 1 << levelIndex(hash, shift);
+            int index = Integer.bitCount(bitmap & (bit - 1));
+            if ((bitmap & bit) == 0) {
+                var newChildren = new Object[children.length + 1];
+                System.arraycopy(children, 0, newChildren, 0, index);
+                newChildren[index] = leaf;
+                System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+                addedLeaf[0] = true;
+
+                return new BitmapIndexedNode(bitmap | bit, newChildren);
+            }
+
+            Object child = children[index];
+            Object newChild;
+            if (child instanceof Leaf) {
+                Leaf existingLeaf = (Leaf)child;
+                if (existingLeaf.key.equals(leaf.key)) {
+                    if (existingLeaf.value == leaf.value) {
+                        return this;
+                    }
+                    newChild = leaf;
+                }
+                else {
+                    newChild = merge(existingLeaf, leaf, shift + BITS_PER_LEVEL);
+                    addedLeaf[0] = true;
+                }
+            }
+            else {
+                newChild = ((Node)child).put(hash, shift + BITS_PER_LEVEL, leaf, addedLeaf);
+                if (newChild == child) {
+                    return this;
+                }
+            }
+
+            return new BitmapIndexedNode(bitmap, replaceChild(index, newChild));
+        }
+
+        @Override
+        protected Object remove(int hash, int shift, UUID key) {
+
+            int bit = 1 << levelIndex(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int index = Integer.bitCount(bitmap & (bit - 1));
+            Object child = children[index];
+            Object newChild;
+            if (child instanceof Leaf) {
+                if (((Leaf)child).key.equals(key) == false) {
+                    return this;
+                }
+                newChild = null;
+            }
+            else {
+                newChild = ((Node)child).remove(hash, shift + BITS_PER_LEVEL, key);
+                if (newChild == child) {
+                    return this;
+                }
+            }
+
+            if (newChild != null) {
+                if (children.length == 1 && newChild instanceof Leaf && shift > 0) {
+                    // Collapse this node into its parent
+                    return newChild;
+                }
+                return new BitmapIndexedNode(bitmap, replaceChild(index, newChild));
+            }
+            if (children.length == 1) {
+                return null;
+            }
+            if (children.length == 2 && shift > 0) {
+                Object remainingChild = children[index == 0 ? 1 : 0];
+                if (remainingChild instanceof Leaf) {
+                    // Collapse this node into its parent
+                    return remainingChild;
+                }
+            }
+            var newChildren = new Object[children.length - 1];
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+
+            return new BitmapIndexedNode(bitmap ^ bit, newChildren);
+        }
+
+        protected Object[] replaceChild(int index, Object newChild) {
+
+            Object[] newChildren = children.clone();
+            newChildren[index] = newChild;
+
+            return newChildren;
+        }
+
+        /**
+         * Creates a node containing two leaves with different keys, located at the specified level.
+         */
+        protected static Node merge(Leaf leaf1, Leaf leaf2, int shift) {
+
+            if (leaf1.hash == leaf2.hash) {
+                return new CollisionNode(leaf1.hash, new Leaf[] { leaf1, leaf2 });
+            }
+            int index1 = levelIndex(leaf1.hash, shift);
+            int index2 = levelIndex(leaf2.hash, shift);
+            if (index1 == index2) {
+                return new BitmapIndexedNode(1 << index1, new Object[] { merge(leaf1, leaf2, shift + BITS_PER_LEVEL) });
+            }
+            if (index1 < index2) {
+                return new BitmapIndexedNode((1 << index1) | (1 << index2), new Object[] { leaf1, leaf2 });
+            }
+            else {
+                return new BitmapIndexedNode((1 << index1) | (1 << index2), new Object[] { leaf2, leaf1 });
+            }
+        }
+    }
+
+    /**
+     * Node holding leaves whose keys have identical hashes.
+     */
+    protected static class CollisionNode extends Node {
+
+        protected final int hash;
+        protected final Leaf[] leaves;
+
+        protected CollisionNode(int hash, Leaf[] leaves) {
+            this.hash = hash;
+            this.leaves = leaves;
+        }
+
+        @Override
+        protected Object get(int hash, int shift, UUID key) {
+
+            int index = findIndex(key);
+
+            return index == -1 ? null : leaves[index].value;
+        }
+
+        @Override
+        protected Node put(int hash, int shift, Leaf leaf, boolean[] addedLeaf) {
+
+            if (hash != this.hash) {
+                // Nest this node beneath a new bitmap node which separates it from the new leaf
+                var node = new BitmapIndexedNode(1 << levelIndex(this.hash, shift), new Object[] { this });
+                return node.put(hash, shift, leaf, addedLeaf);
+            }
+            int index = findIndex(leaf.key);
+            if (index != -1) {
+                if (leaves[index].value == leaf.value) {
+                    return this;
+                }
+                Leaf[] newLeaves = leaves.clone();
+                newLeaves[index] = leaf;
+                return new CollisionNode(hash, newLeaves);
+            }
+            var newLeaves = new Leaf[leaves.length + 1];
+            System.arraycopy(leaves, 0, newLeaves, 0, leaves.length);
+            newLeaves[leaves.length] = leaf;
+            addedLeaf[0] = true;
+
+            return new CollisionNode(hash, newLeaves);
+        }
+
+        @Override
+        protected Object remove(int hash, int shift, UUID key) {
+
+            int index = findIndex(key);
+            if (index == -1) {
+                return this;
+            }
+            if (leaves.length == 2) {
+                return leaves[index == 0 ? 1 : 0];
+            }
+            var newLeaves = new Leaf[leaves.length - 1];
+            System.arraycopy(leaves, 0, newLeaves, 0, index);
+            System.arraycopy(leaves, index + 1, newLeaves, index, leaves.length - index - 1);
+
+            return new CollisionNode(hash, newLeaves);
+        }
+
+        protected int findIndex(UUID key) {
+
+            for (int i = 0; i < leaves.length; i++) {
+                if (leaves[i].key.equals(key)) {
+                    return i;
+                }
+            }
+
+            return -1;
+        }
+    }
+
+    /**
+     * Returns the children of the specified {@link BitmapIndexedNode}, or leaves of the specified {@link CollisionNode}.
+     */
+    protected static Object[] childrenOf(Object node) {
+
+        if (node instanceof BitmapIndexedNode) {
+            return ((BitmapIndexedNode)node).children;
+        }
+        else {
+            return ((CollisionNode)node).leaves;
+        }
+    }
+
+    /**
+     * Performs the specified action for each value in the specified child of a node (either a {@link Leaf} or a {@link Node}), depth first.
+     */
+    @SuppressWarnings("unchecked")
+    protected static <V> void forEachValue(Object child, Consumer<? super V> action) {
+
+        if (child instanceof Leaf) {
+            action.accept((V)((Leaf)child).value);
+        }
+        else {
+            for (Object currentChild : childrenOf(child)) {
+                forEachValue(currentChild, action);
+            }
+        }
+    }
+
+    /**
+     * Iterates over the values beneath a node, depth first.
+     * 
+     * @param <V> The type of values in the map.
+     */
+    protected static class ValueIterator<V> implements Iterator<V> {
+
+        /** The arrays of children (or leaves) currently being traversed, from the root downwards. */
+        protected final ArrayDeque<Object[]> arrayStack;
+        /** The index of the next child to visit within each array in 'arrayStack'. */
+        protected final ArrayDeque<Integer> indexStack;
+        /** The next leaf to return, or null if iteration is complete. */
+        protected Leaf nextLeaf;
+
+        protected ValueIterator(BitmapIndexedNode root) {
+            this(root.children);
+        }
+
+        /**
+         * Constructs a ValueIterator over the values beneath the specified children (or leaves) of a node.
+         */
+        protected ValueIterator(Object[] children) {
+            arrayStack = new ArrayDeque<Object[]>();
+            indexStack = new ArrayDeque<Integer>();
+            arrayStack.push(children);
+            indexStack.push(0);
+            nextLeaf = advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextLeaf != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+
+            if (nextLeaf == null)
+                throw new NoSuchElementException();
+
+            Object value = nextLeaf.value;
+            nextLeaf = advance();
+
+            return (V)value;
+        }
+
+        protected Leaf advance() {
+
+            while (arrayStack.isEmpty() == false) {
+                Object[] currentArray = arrayStack.peek();
+                int currentIndex = indexStack.pop();
+                if (currentIndex == currentArray.length) {
+                    arrayStack.pop();
+                    continue;
+                }
+                indexStack.push(currentIndex + 1);
+                Object child = currentArray[currentIndex];
+                if (child instanceof Leaf) {
+                    return (Leaf)child;
+                }
+                else {
+                    arrayStack.push(childrenOf(child));
+                    indexStack.push(0);
+                }
+            }
+
+            return null;
+        }
+    }
+
+    /**
+     * {@link Spliterator} over the values beneath a contiguous range of the children of a node.
+     * <p>
+     * Splits by halving the range of children, descending into the single remaining child when the range can't be halved.  Since nodes don't record the number of values beneath them, only the unsplit spliterator over the root reports an exact size, and after splitting the size is estimated from the proportion of children in each half.
+     * 
+     * @param <V> The type of values in the map.
+     */
+    protected static class ValueSpliterator<V> implements Spliterator<V> {
+
+        /** The children (or leaves) of the node currently being traversed. */
+        protected Object[] array;
+        /** The index of the next child to visit within 'array'. */
+        protected int index;
+        /** One past the index of the last child to visit within 'array'. */
+        protected int fence;
+        /** The (estimated) number of values remaining. */
+        protected long estimatedSize;
+        /** Whether 'estimatedSize' is exact. */
+        protected boolean sizeIsExact;
+        /** Iterator over the values beneath the child currently being traversed by {@link #tryAdvance}, or null if no child is being traversed. */
+        protected ValueIterator<V> currentIterator;
+
+        protected ValueSpliterator(Object[] array, int index, int fence, long estimatedSize, boolean sizeIsExact) {
+            this.array = array;
+            this.index = index;
+            this.fence = fence;
+            this.estimatedSize = estimatedSize;
+            this.sizeIsExact = sizeIsExact;
+            this.currentIterator = null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(Consumer<? super V> action) {
+
+            while (true) {
+                if (currentIterator != null) {
+                    if (currentIterator.hasNext() == true) {
+                        action.accept(currentIterator.next());
+                        return true;
+                    }
+                    currentIterator = null;
+                }
+                if (index >= fence) {
+                    return false;
+                }
+                Object child = array[index++];
+                if (child instanceof Leaf) {
+                    action.accept((V)((Leaf)child).value);
+                    return true;
+                }
+                currentIterator = new ValueIterator<V>(childrenOf(child));
+            }
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super V> action) {
+
+            if (currentIterator != null) {
+                currentIterator.forEachRemaining(action);
+                currentIterator = null;
+            }
+            while (index < fence) {
+                forEachValue(array[index++], action);
+            }
+        }
+
+        @Override
+        public Spliterator<V> trySplit() {
+
+            if (currentIterator != null) {
+                return null;
+            }
+            // Descend through nodes with a single remaining child, so the split divides the values beneath that child
+            while (fence - index == 1 && (array[index] instanceof Leaf) == false) {
+                array = childrenOf(array[index]);
+                index = 0;
+                fence = array.length;
+            }
+            int remainingChildCount = fence - index;
+            if (remainingChildCount < 2) {
+                return null;
+            }
+            int middle = (index + fence) >>> 1;
+            long prefixEstimatedSize = estimatedSize * (middle - index) / remainingChildCount;
+            var prefix = new ValueSpliterator<V>(array, index, middle, prefixEstimatedSize, false);
+            index = middle;
+            estimatedSize -= prefixEstimatedSize;
+            sizeIsExact = false;
+
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimatedSize;
+        }
+
+        @Override
+        public int characteristics() {
+            return IMMUTABLE | NONNULL | (sizeIsExact == true ? SIZED : 0);
+        }
+    }
+}
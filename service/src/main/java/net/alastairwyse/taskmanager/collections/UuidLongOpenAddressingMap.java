@@ -0,0 +1,166 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.collections;
+
+import java.util.UUID;
+import java.util.function.LongConsumer;
+
+/**
+ * Equivalent of {@link UuidOpenAddressingMap} with primitive long values, so that neither keys nor values require an object per entry.
+ * <p>
+ * Values must be non-zero, since 0 marks an empty slot.
+ * <p>
+ * Instances are not thread safe.
+ */
+public class UuidLongOpenAddressingMap extends AbstractUuidOpenAddressingMap<long[]> {
+
+    /**
+     * Constructs a UuidLongOpenAddressingMap.
+     */
+    public UuidLongOpenAddressingMap() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * Constructs a UuidLongOpenAddressingMap.
+     * 
+     * @param initialCapacity The minimum number of entries the map should be able to hold before growing.
+     */
+    public UuidLongOpenAddressingMap(int initialCapacity) {
+        super(initialCapacity, long[]::new);
+    }
+
+    /**
+     * Returns the value associated with the specified key.
+     * 
+     * @param key The key.
+     * @return The value associated with the key, or 0 if the map doesn't contain the key.
+     */
+    public long get(UUID key) {
+        return get(key.getMostSignificantBits(), key.getLeastSignificantBits());
+    }
+
+    /**
+     * Returns the value associated with the key with the specified most and least significant bits.  Doesn't allocate.
+     * 
+     * @param msb The most significant bits of the key.
+     * @param lsb The least significant bits of the key.
+     * @return The value associated with the key, or 0 if the map doesn't contain the key.
+     */
+    public long get(long msb, long lsb) {
+
+        int slot = findSlot(msb, lsb);
+
+        return slot < 0 ? 0 : values[slot];
+    }
+
+    /**
+     * Associates the specified value with the specified key.
+     * 
+     * @param key The key.
+     * @param value The value (cannot be 0).
+     * @return The value previously associated with the key, or 0 if the map didn't contain the key.
+     */
+    public long put(UUID key, long value) {
+
+        if (value == 0)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be 0.", "value"));
+
+        long msb = key.getMostSignificantBits();
+        long lsb = key.getLeastSignificantBits();
+        int slot = findSlotForInsert(msb, lsb);
+        if (slot >= 0) {
+            long previousValue = values[slot];
+            values[slot] = value;
+            return previousValue;
+        }
+        slot = -(slot + 1);
+        values[slot] = value;
+        insertKey(slot, msb, lsb);
+
+        return 0;
+    }
+
+    /**
+     * Associates the specified value with the specified key, only if the map already contains the key.
+     * 
+     * @param key The key.
+     * @param value The value (cannot be 0).
+     * @return The value previously associated with the key, or 0 if the map didn't contain the key (in which case the map is unchanged).
+     */
+    public long replace(UUID key, long value) {
+
+        if (value == 0)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be 0.", "value"));
+
+        int slot = findSlot(key.getMostSignificantBits(), key.getLeastSignificantBits());
+        if (slot < 0) {
+            return 0;
+        }
+        long previousValue = values[slot];
+        values[slot] = value;
+
+        return previousValue;
+    }
+
+    /**
+     * Removes the specified key and its associated value.
+     * 
+     * @param key The key.
+     * @return The value previously associated with the key, or 0 if the map didn't contain the key.
+     */
+    public long remove(UUID key) {
+
+        int slot = findSlot(key.getMostSignificantBits(), key.getLeastSignificantBits());
+        if (slot < 0) {
+            return 0;
+        }
+        long previousValue = values[slot];
+        removeSlot(slot);
+
+        return previousValue;
+    }
+
+    /**
+     * Performs the specified action for each value in the map.
+     * 
+     * @param action The action to perform.
+     */
+    public void forEachValue(LongConsumer action) {
+
+        for (long currentValue : values) {
+            if (currentValue != 0) {
+                action.accept(currentValue);
+            }
+        }
+    }
+
+    @Override
+    protected boolean isEmpty(long[] values, int slot) {
+        return values[slot] == 0;
+    }
+
+    @Override
+    protected void copyValue(long[] sourceValues, int sourceSlot, long[] destinationValues, int destinationSlot) {
+        destinationValues[destinationSlot] = sourceValues[sourceSlot];
+    }
+
+    @Override
+    protected void clearValue(long[] values, int slot) {
+        values[slot] = 0;
+    }
+}
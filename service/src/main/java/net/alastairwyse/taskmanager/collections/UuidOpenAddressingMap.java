@@ -0,0 +1,171 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.collections;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * A map keyed by {@link UUID}, which stores each key inline as its two 64 bit halves in parallel primitive arrays, using open addressing with linear probing (see {@link AbstractUuidOpenAddressingMap}).
+ * <p>
+ * Instances are not thread safe.
+ * 
+ * @param <V> The type of values in the map.
+ */
+public class UuidOpenAddressingMap<V> extends AbstractUuidOpenAddressingMap<Object[]> {
+
+    /**
+     * Constructs a UuidOpenAddressingMap.
+     */
+    public UuidOpenAddressingMap() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * Constructs a UuidOpenAddressingMap.
+     * 
+     * @param initialCapacity The minimum number of entries the map should be able to hold before growing.
+     */
+    public UuidOpenAddressingMap(int initialCapacity) {
+        super(initialCapacity, Object[]::new);
+    }
+
+    /**
+     * Returns the value associated with the specified key.
+     * 
+     * @param key The key.
+     * @return The value associated with the key, or null if the map doesn't contain the key.
+     */
+    public V get(UUID key) {
+        return get(key.getMostSignificantBits(), key.getLeastSignificantBits());
+    }
+
+    /**
+     * Returns the value associated with the key with the specified most and least significant bits.  Doesn't allocate.
+     * 
+     * @param msb The most significant bits of the key.
+     * @param lsb The least significant bits of the key.
+     * @return The value associated with the key, or null if the map doesn't contain the key.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long msb, long lsb) {
+
+        int slot = findSlot(msb, lsb);
+
+        return slot < 0 ? null : (V)values[slot];
+    }
+
+    /**
+     * Associates the specified value with the specified key.
+     * 
+     * @param key The key.
+     * @param value The value (cannot be null).
+     * @return The value previously associated with the key, or null if the map didn't contain the key.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(UUID key, V value) {
+
+        if (value == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null.", "value"));
+
+        long msb = key.getMostSignificantBits();
+        long lsb = key.getLeastSignificantBits();
+        int slot = findSlotForInsert(msb, lsb);
+        if (slot >= 0) {
+            Object previousValue = values[slot];
+            values[slot] = value;
+            return (V)previousValue;
+        }
+        slot = -(slot + 1);
+        values[slot] = value;
+        insertKey(slot, msb, lsb);
+
+        return null;
+    }
+
+    /**
+     * Associates the specified value with the specified key, only if the map already contains the key.
+     * 
+     * @param key The key.
+     * @param value The value (cannot be null).
+     * @return The value previously associated with the key, or null if the map didn't contain the key (in which case the map is unchanged).
+     */
+    @SuppressWarnings("unchecked")
+    public V replace(UUID key, V value) {
+
+        if (value == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null.", "value"));
+
+        int slot = findSlot(key.getMostSignificantBits(), key.getLeastSignificantBits());
+        if (slot < 0) {
+            return null;
+        }
+        Object previousValue = values[slot];
+        values[slot] = value;
+
+        return (V)previousValue;
+    }
+
+    /**
+     * Removes the specified key and its associated value.
+     * 
+     * @param key The key.
+     * @return The value previously associated with the key, or null if the map didn't contain the key.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(UUID key) {
+
+        int slot = findSlot(key.getMostSignificantBits(), key.getLeastSignificantBits());
+        if (slot < 0) {
+            return null;
+        }
+        Object previousValue = values[slot];
+        removeSlot(slot);
+
+        return (V)previousValue;
+    }
+
+    /**
+     * Performs the specified action for each value in the map.
+     * 
+     * @param action The action to perform.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<? super V> action) {
+
+        for (Object currentValue : values) {
+            if (currentValue != null) {
+                action.accept((V)currentValue);
+            }
+        }
+    }
+
+    @Override
+    protected boolean isEmpty(Object[] values, int slot) {
+        return values[slot] == null;
+    }
+
+    @Override
+    protected void copyValue(Object[] sourceValues, int sourceSlot, Object[] destinationValues, int destinationSlot) {
+        destinationValues[destinationSlot] = sourceValues[sourceSlot];
+    }
+
+    @Override
+    protected void clearValue(Object[] values, int slot) {
+        values[slot] = null;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.indexes;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import net.alastairwyse.taskmanager.models.Task;
+
+/**
+ * Secondary index of tasks ordered by due date, then by id, supporting range queries by due date.
+ * <p>
+ * Entries are held in a {@link ConcurrentSkipListMap} keyed by the epoch day of the due date and the id of the task, so a query for the tasks due within a range costs O(log n + k) for k matching tasks, rather than a scan of all tasks.  Tasks without a due date are not indexed.
+ * <p>
+ * Instances are safe for concurrent use, but the index doesn't itself order updates to the same task.  Callers must ensure that {@link #replace(Task, Task)} calls for a given task id are not made concurrently (e.g. by making them while holding a lock which covers the task).  A replacement adds the entry of the new version before removing that of the old, so a concurrent query may return both versions of a task whose due date changed, but never neither.
+ */
+public class DueDateIndex {
+
+    /** Orders tasks by due date, then by id.  Tasks without a due date are ordered last. */
+    public static final Comparator<Task> DUE_DATE_ORDER = Comparator
+        .comparing((Task task) -> task.getDueDate().orElse(LocalDate.MAX))
+        .thenComparing(Task::getId);
+
+    /** The indexed tasks. */
+    protected ConcurrentSkipListMap<Key, Task> keyToTaskMap;
+
+    /**
+     * Constructs a DueDateIndex.
+     */
+    public DueDateIndex() {
+        keyToTaskMap = new ConcurrentSkipListMap<Key, Task>();
+    }
+
+    /**
+     * @return The number of tasks in the index.
+     */
+    public int size() {
+        return keyToTaskMap.size();
+    }
+
+    /**
+     * Replaces a task in the index with a new version of the task.
+     * 
+     * @param oldTask The version of the task currently in the index, or null if the task is being added.
+     * @param newTask The new version of the task, or null if the task is being removed.
+     */
+    public void replace(Task oldTask, Task newTask) {
+
+        Key newKey = null;
+        if (newTask != null && newTask.getDueDate().isPresent() == true) {
+            newKey = new Key(newTask);
+            keyToTaskMap.put(newKey, newTask);
+        }
+        if (oldTask != null && oldTask.getDueDate().isPresent() == true) {
+            var oldKey = new Key(oldTask);
+            // If the key is unchanged the old version has already been overwritten
+            if (newKey == null || oldKey.compareTo(newKey) != 0) {
+                keyToTaskMap.remove(oldKey);
+            }
+        }
+    }
+
+    /**
+     * Removes all tasks from the index.
+     */
+    public void clear() {
+        keyToTaskMap.clear();
+    }
+
+    /**
+     * Returns the tasks due within the specified range of dates.
+     * 
+     * @param dueFrom The earliest due date to include, or null to include all tasks due up to 'dueTo'.
+     * @param dueTo The latest due date to include, or null to include all tasks due from 'dueFrom'.
+     * @return The tasks, ordered by due date then id.
+     */
+    public List<Task> getTasks(LocalDate dueFrom, LocalDate dueTo) {
+
+        ThrowExceptionIfRangeInvalid(dueFrom, dueTo);
+
+        var fromKey = new Key(dueFrom == null ? Long.MIN_VALUE : dueFrom.toEpochDay(), Long.MIN_VALUE, Long.MIN_VALUE);
+        var toKey = new Key(dueTo == null ? Long.MAX_VALUE : dueTo.toEpochDay(), Long.MAX_VALUE, Long.MAX_VALUE);
+
+        return new ArrayList<Task>(keyToTaskMap.subMap(fromKey, true, toKey, true).values());
+    }
+
+    /**
+     * Returns whether the specified task is due within the specified range of dates.
+     * 
+     * @param task The task.
+     * @param dueFrom The earliest due date in the range, or null if the range is unbounded below.
+     * @param dueTo The latest due date in the range, or null if the range is unbounded above.
+     * @return True if the task has a due date within the range.
+     */
+    public static boolean isDueBetween(Task task, LocalDate dueFrom, LocalDate dueTo) {
+
+        if (task.getDueDate().isPresent() == false) {
+            return false;
+        }
+        LocalDate dueDate = task.getDueDate().get();
+
+        return (dueFrom == null || dueDate.isBefore(dueFrom) == false) && (dueTo == null || dueDate.isAfter(dueTo) == false);
+    }
+
+    /**
+     * Throws an exception if the specified range of due dates is invalid.
+     * 
+     * @param dueFrom The earliest due date in the range, or null if the range is unbounded below.
+     * @param dueTo The latest due date in the range, or null if the range is unbounded above.
+     */
+    public static void ThrowExceptionIfRangeInvalid(LocalDate dueFrom, LocalDate dueTo) {
+
+        if (dueFrom != null && dueTo != null && dueFrom.isAfter(dueTo))
+            throw new IllegalArgumentException(String.format("Parameter '%s' with value '%s' must be less than or equal to parameter '%s' with value '%s'.", "dueFrom", dueFrom, "dueTo", dueTo));
+    }
+
+    /**
+     * Key of a task in the index, consisting of the epoch day of its due date and its id.
+     */
+    protected static class Key implements Comparable<Key> {
+
+        protected final long epochDay;
+        protected final long idMostSignificantBits;
+        protected final long idLeastSignificantBits;
+
+        protected Key(Task task) {
+            this(task.getDueDate().get().toEpochDay(), task.getId().getMostSignificantBits(), task.getId().getLeastSignificantBits());
+        }
+
+        protected Key(long epochDay, long idMostSignificantBits, long idLeastSignificantBits) {
+            this.epochDay = epochDay;
+            this.idMostSignificantBits = idMostSignificantBits;
+            this.idLeastSignificantBits = idLeastSignificantBits;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+
+            // Ids are compared the same way as UUID.compareTo(), so the order matches that of DUE_DATE_ORDER
+            int result = Long.compare(epochDay, other.epochDay);
+            if (result == 0) {
+                result = Long.compare(idMostSignificantBits, other.idMostSignificantBits);
+            }
+            if (result == 0) {
+                result = Long.compare(idLeastSignificantBits, other.idLeastSignificantBits);
+            }
+
+            return result;
+        }
+    }
+}
@@ -0,0 +1,580 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.indexes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+
+import net.alastairwyse.taskmanager.models.Task;
+
+/**
+ * Inverted index of the terms in the title and detail of tasks, supporting searches for tasks containing all of a set of terms.
+ * <p>
+ * Each indexed task is assigned a compact integer ordinal (ordinals of removed tasks are reused), and each term maps to a posting list holding the ordinals of the tasks containing it.  A search intersects the posting lists of its terms, iterating the shortest and probing the others, so its cost depends on the number of tasks containing the rarest term rather than on the total number of tasks.  Updating a task only touches the posting lists of terms which were added to or removed from it, and each posting list is split into blocks of ordinals, so adding or removing an ordinal only moves entries within a single bounded block regardless of how many tasks contain the term.
+ * <p>
+ * The tasks are distributed across a number of stripes by the hash of their id, each with its own ordinals, posting lists and lock, so updates to tasks in different stripes don't contend.  A search intersects the posting lists within each stripe and concatenates the results.
+ * <p>
+ * Instances are safe for concurrent use (updates to a stripe are serialized by the stripe's lock, and searches share it), but the index doesn't itself order updates to the same task.  Callers must ensure that {@link #replace(Task, Task)} calls for a given task id are not made concurrently (e.g. by making them while holding a lock which covers the task).
+ */
+public class FullTextIndex {
+
+    /** The stripes the tasks are distributed across. */
+    protected Stripe[] stripes;
+
+    /**
+     * Constructs a FullTextIndex with a single stripe, for callers which serialize all updates themselves.
+     */
+    public FullTextIndex() {
+        this(1);
+    }
+
+    /**
+     * Constructs a FullTextIndex.
+     * 
+     * @param stripeCount The number of stripes to distribute tasks across, i.e. the number of updates which can be made concurrently.
+     */
+    public FullTextIndex(int stripeCount) {
+
+        if (stripeCount < 1)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be greater than 0.", "stripeCount"));
+
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * @return The number of tasks in the index.
+     */
+    public int size() {
+
+        int size = 0;
+        for (Stripe currentStripe : stripes) {
+            currentStripe.lock.readLock().lock();
+            try {
+                size += currentStripe.idToOrdinalMap.size();
+            }
+            finally {
+                currentStripe.lock.readLock().unlock();
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * @return The number of distinct terms in the index.
+     */
+    public int getTermCount() {
+
+        var terms = new HashSet<String>();
+        for (Stripe currentStripe : stripes) {
+            currentStripe.lock.readLock().lock();
+            try {
+                terms.addAll(currentStripe.termToPostingListMap.keySet());
+            }
+            finally {
+                currentStripe.lock.readLock().unlock();
+            }
+        }
+
+        return terms.size();
+    }
+
+    /**
+     * Replaces a task in the index with a new version of the task.
+     * 
+     * @param oldTask The version of the task currently in the index, or null if the task is being added.
+     * @param newTask The new version of the task, or null if the task is being removed.
+     */
+    public void replace(Task oldTask, Task newTask) {
+
+        if (oldTask == null && newTask == null) {
+            return;
+        }
+        Set<String> oldTerms = oldTask == null ? Set.of() : getTerms(oldTask);
+        Set<String> newTerms = newTask == null ? Set.of() : getTerms(newTask);
+        UUID id = oldTask == null ? newTask.getId() : oldTask.getId();
+
+        Stripe stripe = getStripe(id);
+        stripe.lock.writeLock().lock();
+        try {
+            stripe.replace(id, oldTerms, newTask, newTerms);
+        }
+        finally {
+            stripe.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes all tasks from the index.
+     */
+    public void clear() {
+
+        for (Stripe currentStripe : stripes) {
+            currentStripe.lock.writeLock().lock();
+            try {
+                currentStripe.clear();
+            }
+            finally {
+                currentStripe.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns the tasks containing all the terms in the specified query.
+     * 
+     * @param query The query.  Split into terms using {@link Tokenizer}.
+     * @return The tasks whose title or detail contain every term in the query, in no particular order.  Empty if the query contains no terms.
+     */
+    public List<Task> search(String query) {
+
+        Set<String> terms = Tokenizer.tokenize(query);
+        var results = new ArrayList<Task>();
+        if (terms.isEmpty() == true) {
+            return results;
+        }
+
+        for (Stripe currentStripe : stripes) {
+            currentStripe.lock.readLock().lock();
+            try {
+                currentStripe.search(terms, results);
+            }
+            finally {
+                currentStripe.lock.readLock().unlock();
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Returns the distinct terms in the title and detail of the specified task.
+     * 
+     * @param task The task.
+     * @return The terms.
+     */
+    public static Set<String> getTerms(Task task) {
+
+        var terms = new HashSet<String>();
+        Tokenizer.addTerms(task.getTitle(), terms);
+        Tokenizer.addTerms(task.getDetail(), terms);
+
+        return terms;
+    }
+
+    /**
+     * Returns the stripe which holds the task with the specified id.
+     * 
+     * @param id The id of the task.
+     * @return The stripe.
+     */
+    protected Stripe getStripe(UUID id) {
+
+        int hash = id.hashCode();
+        hash = hash ^ (hash >>> 16);
+
+        return stripes[Math.floorMod(hash, stripes.length)];
+    }
+
+    /**
+     * The index of the tasks in a single stripe.  All methods must be called while holding the stripe's lock.
+     */
+    protected static class Stripe {
+
+        /** The ordinal assigned to each indexed task, indexed by the id of the task. */
+        protected final HashMap<UUID, Integer> idToOrdinalMap;
+        /** The indexed task with each ordinal, or null if the ordinal is not assigned. */
+        protected final ArrayList<Task> ordinalToTaskList;
+        /** Ordinals of removed tasks which are available to be reused. */
+        protected int[] freeOrdinals;
+        /** The number of valid entries in the 'freeOrdinals' field. */
+        protected int freeOrdinalCount;
+        /** The posting list of each term. */
+        protected final HashMap<String, PostingList> termToPostingListMap;
+        /** Lock protecting all the above fields. */
+        protected final ReentrantReadWriteLock lock;
+
+        protected Stripe() {
+            idToOrdinalMap = new HashMap<UUID, Integer>();
+            ordinalToTaskList = new ArrayList<Task>();
+            freeOrdinals = new int[16];
+            freeOrdinalCount = 0;
+            termToPostingListMap = new HashMap<String, PostingList>();
+            lock = new ReentrantReadWriteLock();
+        }
+
+        /**
+         * Replaces a task in the stripe with a new version of the task.  Must be called while holding the write lock.
+         * 
+         * @param id The id of the task.
+         * @param oldTerms The terms of the version of the task currently in the stripe, or an empty set if the task is being added.
+         * @param newTask The new version of the task, or null if the task is being removed.
+         * @param newTerms The terms of the new version of the task, or an empty set if the task is being removed.
+         */
+        protected void replace(UUID id, Set<String> oldTerms, Task newTask, Set<String> newTerms) {
+
+            Integer existingOrdinal = idToOrdinalMap.get(id);
+            int ordinal;
+            if (existingOrdinal != null) {
+                ordinal = existingOrdinal;
+            }
+            else if (newTask != null) {
+                ordinal = allocateOrdinal();
+                idToOrdinalMap.put(id, ordinal);
+                // The task isn't in the index, so none of its old terms are either
+                oldTerms = Set.of();
+            }
+            else {
+                return;
+            }
+
+            for (String currentTerm : oldTerms) {
+                if (newTerms.contains(currentTerm) == false) {
+                    PostingList postingList = termToPostingListMap.get(currentTerm);
+                    if (postingList != null) {
+                        postingList.remove(ordinal);
+                        if (postingList.size() == 0) {
+                            termToPostingListMap.remove(currentTerm);
+                        }
+                    }
+                }
+            }
+            for (String currentTerm : newTerms) {
+                if (oldTerms.contains(currentTerm) == false) {
+                    termToPostingListMap.computeIfAbsent(currentTerm, (String term) -> new PostingList()).add(ordinal);
+                }
+            }
+
+            if (newTask == null) {
+                idToOrdinalMap.remove(id);
+                ordinalToTaskList.set(ordinal, null);
+                freeOrdinal(ordinal);
+            }
+            else {
+                ordinalToTaskList.set(ordinal, newTask);
+            }
+        }
+
+        /**
+         * Removes all tasks from the stripe.  Must be called while holding the write lock.
+         */
+        protected void clear() {
+
+            idToOrdinalMap.clear();
+            ordinalToTaskList.clear();
+            freeOrdinalCount = 0;
+            termToPostingListMap.clear();
+        }
+
+        /**
+         * Adds the tasks in the stripe containing all the specified terms to a list.  Must be called while holding the read lock.
+         * 
+         * @param terms The terms.
+         * @param results The list to add the tasks to.
+         */
+        protected void search(Set<String> terms, List<Task> results) {
+
+            var postingLists = new PostingList[terms.size()];
+            int index = 0;
+            for (String currentTerm : terms) {
+                PostingList postingList = termToPostingListMap.get(currentTerm);
+                if (postingList == null) {
+                    return;
+                }
+                postingLists[index++] = postingList;
+            }
+            // Intersect starting from the shortest list, so the number of probes is bounded by the rarest term
+            Arrays.sort(postingLists, (PostingList first, PostingList second) -> Integer.compare(first.size(), second.size()));
+            postingLists[0].forEach((int currentOrdinal) -> 
+            {
+                for (int i = 1; i < postingLists.length; i++) {
+                    if (postingLists[i].contains(currentOrdinal) == false) {
+                        return;
+                    }
+                }
+                results.add(ordinalToTaskList.get(currentOrdinal));
+            });
+        }
+
+        /**
+         * Returns an unused ordinal, reusing the ordinal of a removed task if one is available.  Must be called while holding the write lock.
+         */
+        protected int allocateOrdinal() {
+
+            if (freeOrdinalCount > 0) {
+                freeOrdinalCount--;
+                return freeOrdinals[freeOrdinalCount];
+            }
+            ordinalToTaskList.add(null);
+
+            return ordinalToTaskList.size() - 1;
+        }
+
+        /**
+         * Makes the specified ordinal available for reuse.  Must be called while holding the write lock.
+         */
+        protected void freeOrdinal(int ordinal) {
+
+            if (freeOrdinalCount == freeOrdinals.length) {
+                freeOrdinals = Arrays.copyOf(freeOrdinals, freeOrdinals.length * 2);
+            }
+            freeOrdinals[freeOrdinalCount] = ordinal;
+            freeOrdinalCount++;
+        }
+    }
+
+    /**
+     * Set of the ordinals of the tasks containing a term.
+     * <p>
+     * Ordinals are grouped into blocks by their high bits, and the blocks are held in order of those bits.  Each block holds the low bits of its ordinals either as a sorted array (while it holds few ordinals) or as a bitmap, so adding or removing an ordinal moves at most the entries of one block, rather than of the whole list.  Only adding the first or removing the last ordinal of a block moves the (much shorter) list of blocks.
+     */
+    protected static class PostingList {
+
+        /** The number of low bits of an ordinal held within a block. */
+        protected static final int BLOCK_BITS = 12;
+        /** Mask to extract the low bits of an ordinal. */
+        protected static final int BLOCK_MASK = (1 << BLOCK_BITS) - 1;
+
+        /** The high bits of the ordinals in each block, in ascending order. */
+        protected int[] blockKeys;
+        /** The blocks, in the same order as the 'blockKeys' field. */
+        protected Block[] blocks;
+        /** The number of valid entries in the 'blockKeys' and 'blocks' fields. */
+        protected int blockCount;
+        /** The number of ordinals in the list. */
+        protected int size;
+
+        protected PostingList() {
+            blockKeys = new int[1];
+            blocks = new Block[1];
+            blockCount = 0;
+            size = 0;
+        }
+
+        protected int size() {
+            return size;
+        }
+
+        protected boolean contains(int ordinal) {
+
+            int blockIndex = Arrays.binarySearch(blockKeys, 0, blockCount, ordinal >>> BLOCK_BITS);
+
+            return blockIndex >= 0 && blocks[blockIndex].contains(ordinal & BLOCK_MASK);
+        }
+
+        protected void add(int ordinal) {
+
+            int blockKey = ordinal >>> BLOCK_BITS;
+            int blockIndex = Arrays.binarySearch(blockKeys, 0, blockCount, blockKey);
+            if (blockIndex < 0) {
+                blockIndex = -(blockIndex + 1);
+                if (blockCount == blockKeys.length) {
+                    blockKeys = Arrays.copyOf(blockKeys, blockKeys.length * 2);
+                    blocks = Arrays.copyOf(blocks, blocks.length * 2);
+                }
+                System.arraycopy(blockKeys, blockIndex, blockKeys, blockIndex + 1, blockCount - blockIndex);
+                System.arraycopy(blocks, blockIndex, blocks, blockIndex + 1, blockCount - blockIndex);
+                blockKeys[blockIndex] = blockKey;
+                blocks[blockIndex] = new Block();
+                blockCount++;
+            }
+            if (blocks[blockIndex].add(ordinal & BLOCK_MASK) == true) {
+                size++;
+            }
+        }
+
+        protected void remove(int ordinal) {
+
+            int blockIndex = Arrays.binarySearch(blockKeys, 0, blockCount, ordinal >>> BLOCK_BITS);
+            if (blockIndex < 0 || blocks[blockIndex].remove(ordinal & BLOCK_MASK) == false) {
+                return;
+            }
+            size--;
+            if (blocks[blockIndex].size == 0) {
+                System.arraycopy(blockKeys, blockIndex + 1, blockKeys, blockIndex, blockCount - blockIndex - 1);
+                System.arraycopy(blocks, blockIndex + 1, blocks, blockIndex, blockCount - blockIndex - 1);
+                blockCount--;
+                blocks[blockCount] = null;
+            }
+        }
+
+        /**
+         * Passes each ordinal in the list to the specified action, in ascending order.
+         */
+        protected void forEach(IntConsumer action) {
+
+            for (int i = 0; i < blockCount; i++) {
+                blocks[i].forEach(blockKeys[i] << BLOCK_BITS, action);
+            }
+        }
+    }
+
+    /**
+     * Block of a {@link PostingList}, holding the low bits of up to 2^{@link PostingList#BLOCK_BITS} ordinals.
+     */
+    protected static class Block {
+
+        /** The maximum number of values held in a sorted array, above which the block is converted to a bitmap (at which point both take the same space). */
+        protected static final int MAXIMUM_ARRAY_SIZE = (1 << PostingList.BLOCK_BITS) / 16;
+
+        /** The values in ascending order, or null if the block is a bitmap. */
+        protected char[] values;
+        /** Bitmap of the values, or null if the block is a sorted array. */
+        protected long[] bitmap;
+        /** The number of values in the block. */
+        protected int size;
+
+        protected Block() {
+            values = new char[4];
+            bitmap = null;
+            size = 0;
+        }
+
+        protected boolean contains(int value) {
+
+            if (bitmap != null) {
+                return (bitmap[value >>> 6] & (1L << value)) != 0;
+            }
+
+            return Arrays.binarySearch(values, 0, size, (char)value) >= 0;
+        }
+
+        /**
+         * Adds a value to the block.
+         * 
+         * @return True if the value was added, or false if the block already contained it.
+         */
+        protected boolean add(int value) {
+
+            if (bitmap == null) {
+                // Newly allocated ordinals are the largest, so in most cases this appends
+                int insertionPoint;
+                if (size == 0 || values[size - 1] < value) {
+                    insertionPoint = size;
+                }
+                else {
+                    insertionPoint = Arrays.binarySearch(values, 0, size, (char)value);
+                    if (insertionPoint >= 0) {
+                        return false;
+                    }
+                    insertionPoint = -(insertionPoint + 1);
+                }
+                if (size < MAXIMUM_ARRAY_SIZE) {
+                    if (size == values.length) {
+                        values = Arrays.copyOf(values, values.length * 2);
+                    }
+                    System.arraycopy(values, insertionPoint, values, insertionPoint + 1, size - insertionPoint);
+                    values[insertionPoint] = (char)value;
+                    size++;
+                    return true;
+                }
+                convertToBitmap();
+            }
+            long bit = 1L << value;
+            if ((bitmap[value >>> 6] & bit) != 0) {
+                return false;
+            }
+            bitmap[value >>> 6] |= bit;
+            size++;
+
+            return true;
+        }
+
+        /**
+         * Removes a value from the block.
+         * 
+         * @return True if the value was removed, or false if the block didn't contain it.
+         */
+        protected boolean remove(int value) {
+
+            if (bitmap == null) {
+                int index = Arrays.binarySearch(values, 0, size, (char)value);
+                if (index < 0) {
+                    return false;
+                }
+                System.arraycopy(values, index + 1, values, index, size - index - 1);
+                size--;
+                return true;
+            }
+            long bit = 1L << value;
+            if ((bitmap[value >>> 6] & bit) == 0) {
+                return false;
+            }
+            bitmap[value >>> 6] &= ~bit;
+            size--;
+            // Converted back at half the maximum, so a block whose size oscillates around the maximum isn't repeatedly converted
+            if (size <= MAXIMUM_ARRAY_SIZE / 2) {
+                convertToArray();
+            }
+
+            return true;
+        }
+
+        /**
+         * Passes each value in the block, plus the specified base, to the specified action, in ascending order.
+         */
+        protected void forEach(int base, IntConsumer action) {
+
+            if (bitmap == null) {
+                for (int i = 0; i < size; i++) {
+                    action.accept(base + values[i]);
+                }
+                return;
+            }
+            for (int i = 0; i < bitmap.length; i++) {
+                long word = bitmap[i];
+                while (word != 0) {
+                    action.accept(base + (i << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        protected void convertToBitmap() {
+
+            bitmap = new long[(1 << PostingList.BLOCK_BITS) / 64];
+            for (int i = 0; i < size; i++) {
+                bitmap[values[i] >>> 6] |= 1L << values[i];
+            }
+            values = null;
+        }
+
+        protected void convertToArray() {
+
+            values = new char[MAXIMUM_ARRAY_SIZE];
+            int index = 0;
+            for (int i = 0; i < bitmap.length; i++) {
+                long word = bitmap[i];
+                while (word != 0) {
+                    values[index++] = (char)((i << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            bitmap = null;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.indexes;
+
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.TaskPage;
+
+/**
+ * Secondary index of tasks ordered by id, supporting cursor-based paging through all tasks.
+ * <p>
+ * Entries are held in a {@link ConcurrentSkipListMap} keyed by task id, so a page starting after a given id is found with a single O(log n) seek followed by in-order traversal of the page.  Each id appears in the map at most once and is replaced atomically, so unlike the other indexes, reads need no coordination with updates.
+ * <p>
+ * Instances are safe for concurrent use, but the index doesn't itself order updates to the same task.  Callers must ensure that {@link #replace(Task, Task)} calls for a given task id are not made concurrently (e.g. by making them while holding a lock which covers the task).
+ */
+public class IdOrderIndex {
+
+    /** The indexed tasks. */
+    protected ConcurrentSkipListMap<UUID, Task> idToTaskMap;
+
+    /**
+     * Constructs an IdOrderIndex.
+     */
+    public IdOrderIndex() {
+        idToTaskMap = new ConcurrentSkipListMap<UUID, Task>();
+    }
+
+    /**
+     * @return The number of tasks in the index.
+     */
+    public int size() {
+        return idToTaskMap.size();
+    }
+
+    /**
+     * Replaces a task in the index with a new version of the task.
+     * 
+     * @param oldTask The version of the task currently in the index, or null if the task is being added.
+     * @param newTask The new version of the task, or null if the task is being removed.
+     */
+    public void replace(Task oldTask, Task newTask) {
+
+        if (newTask != null) {
+            idToTaskMap.put(newTask.getId(), newTask);
+        }
+        else if (oldTask != null) {
+            idToTaskMap.remove(oldTask.getId());
+        }
+    }
+
+    /**
+     * Removes all tasks from the index.
+     */
+    public void clear() {
+        idToTaskMap.clear();
+    }
+
+    /**
+     * Returns a page of tasks.
+     * 
+     * @param cursor The cursor returned with the previous page, or null to return the first page.
+     * @param limit The maximum number of tasks to return.
+     * @return The page.
+     */
+    public TaskPage getPage(String cursor, int limit) {
+
+        ThrowExceptionIfLimitInvalid(limit);
+        UUID lastId = TaskPage.decodeCursor(cursor);
+
+        var tasks = new ArrayList<Task>(Math.min(limit, 1024));
+        boolean hasNextPage = false;
+        for (Task currentTask : (lastId == null ? idToTaskMap : idToTaskMap.tailMap(lastId, false)).values()) {
+            if (tasks.size() == limit) {
+                hasNextPage = true;
+                break;
+            }
+            tasks.add(currentTask);
+        }
+
+        return new TaskPage(tasks, hasNextPage);
+    }
+
+    /**
+     * Throws an exception if the specified page size is invalid.
+     * 
+     * @param limit The maximum number of tasks to return in a page.
+     */
+    public static void ThrowExceptionIfLimitInvalid(int limit) {
+
+        if (limit < 1)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be greater than 0.", "limit"));
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.indexes;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import net.alastairwyse.taskmanager.models.Task;
+
+/**
+ * Secondary index of tasks ordered by lower-cased title, then by id, supporting retrieval of the tasks whose title starts with a prefix (e.g. for type-ahead suggestions).
+ * <p>
+ * Entries are held in a {@link ConcurrentSkipListSet} ordered by the lower-cased title and the id of the task.  All titles with a given prefix are adjacent in the set, so the first k matches are found with a single O(log n) seek followed by k steps of in-order traversal.  Each entry holds its task alongside its key, so the traversal allocates nothing per visited entry (unlike iterating the entries of a {@link java.util.concurrent.ConcurrentSkipListMap}, which allocates an entry object per step).
+ * <p>
+ * Instances are safe for concurrent use, but the index doesn't itself order updates to the same task.  Callers must ensure that {@link #replace(Task, Task)} calls for a given task id are not made concurrently (e.g. by making them while holding a lock which covers the task).  A replacement adds the entry of the new version before removing that of the old, so a concurrent query may return both versions of a task whose title changed, but never neither.
+ */
+public class TitlePrefixIndex {
+
+    /** Orders tasks by lower-cased title, then by id. */
+    public static final Comparator<Task> TITLE_ORDER = Comparator
+        .comparing((Task task) -> normalize(task.getTitle()))
+        .thenComparing(Task::getId);
+
+    /** The indexed tasks. */
+    protected ConcurrentSkipListSet<Entry> entries;
+
+    /**
+     * Constructs a TitlePrefixIndex.
+     */
+    public TitlePrefixIndex() {
+        entries = new ConcurrentSkipListSet<Entry>();
+    }
+
+    /**
+     * @return The number of tasks in the index.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Replaces a task in the index with a new version of the task.
+     * 
+     * @param oldTask The version of the task currently in the index, or null if the task is being added.
+     * @param newTask The new version of the task, or null if the task is being removed.
+     */
+    public void replace(Task oldTask, Task newTask) {
+
+        Entry newEntry = null;
+        if (newTask != null) {
+            newEntry = new Entry(newTask);
+            // Entries are compared by title and id only, so if the title is unchanged the existing entry is pointed at the new task instead
+            Entry existingEntry = entries.ceiling(newEntry);
+            if (existingEntry != null && existingEntry.compareTo(newEntry) == 0) {
+                existingEntry.task = newTask;
+            }
+            else {
+                entries.add(newEntry);
+            }
+        }
+        if (oldTask != null) {
+            var oldEntry = new Entry(oldTask);
+            if (newEntry == null || oldEntry.compareTo(newEntry) != 0) {
+                entries.remove(oldEntry);
+            }
+        }
+    }
+
+    /**
+     * Removes all tasks from the index.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Returns the tasks whose title starts with the specified prefix.
+     * 
+     * @param prefix The prefix.  Matched case-insensitively.
+     * @param limit The maximum number of tasks to return.
+     * @return The first 'limit' matching tasks, ordered by lower-cased title then id.
+     */
+    public List<Task> getTasks(String prefix, int limit) {
+
+        ThrowExceptionIfParametersInvalid(prefix, limit);
+
+        String normalizedPrefix = normalize(prefix);
+        var results = new ArrayList<Task>(Math.min(limit, 64));
+        for (Entry currentEntry : entries.tailSet(new Entry(normalizedPrefix, Long.MIN_VALUE, Long.MIN_VALUE, null), true)) {
+            if (results.size() == limit || currentEntry.title.startsWith(normalizedPrefix) == false) {
+                break;
+            }
+            results.add(currentEntry.task);
+        }
+
+        return results;
+    }
+
+    /**
+     * Returns whether the title of the specified task starts with the specified prefix.
+     * 
+     * @param task The task.
+     * @param prefix The prefix.  Matched case-insensitively.
+     * @return True if the title of the task starts with the prefix.
+     */
+    public static boolean titleStartsWith(Task task, String prefix) {
+
+        return normalize(task.getTitle()).startsWith(normalize(prefix));
+    }
+
+    /**
+     * Throws an exception if the specified parameters of a prefix query are invalid.
+     * 
+     * @param prefix The prefix.
+     * @param limit The maximum number of tasks to return.
+     */
+    public static void ThrowExceptionIfParametersInvalid(String prefix, int limit) {
+
+        if (prefix == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null.", "prefix"));
+        if (limit < 1)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be greater than 0.", "limit"));
+    }
+
+    /**
+     * Converts text to the form in which it's stored and compared in the index.
+     */
+    protected static String normalize(String text) {
+
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Entry for a task in the index, consisting of its lower-cased title and its id (which are compared), and the task itself (which is replaced when a task is updated without changing its title).
+     */
+    protected static class Entry implements Comparable<Entry> {
+
+        protected final String title;
+        protected final long idMostSignificantBits;
+        protected final long idLeastSignificantBits;
+        protected volatile Task task;
+
+        protected Entry(Task task) {
+            this(normalize(task.getTitle()), task.getId().getMostSignificantBits(), task.getId().getLeastSignificantBits(), task);
+        }
+
+        protected Entry(String title, long idMostSignificantBits, long idLeastSignificantBits, Task task) {
+            this.title = title;
+            this.idMostSignificantBits = idMostSignificantBits;
+            this.idLeastSignificantBits = idLeastSignificantBits;
+            this.task = task;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+
+            // Ids are compared the same way as UUID.compareTo(), so the order matches that of TITLE_ORDER
+            int result = title.compareTo(other.title);
+            if (result == 0) {
+                result = Long.compare(idMostSignificantBits, other.idMostSignificantBits);
+            }
+            if (result == 0) {
+                result = Long.compare(idLeastSignificantBits, other.idLeastSignificantBits);
+            }
+
+            return result;
+        }
+    }
+}
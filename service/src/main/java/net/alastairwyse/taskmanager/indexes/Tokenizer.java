@@ -0,0 +1,77 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.indexes;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits text into the terms used by a {@link FullTextIndex}.
+ * <p>
+ * A term is a maximal run of letters and digits, converted to lower case.  All other characters (whitespace, punctuation, symbols) separate terms.
+ */
+public class Tokenizer {
+
+    /**
+     * Returns the distinct terms in the specified text.
+     * 
+     * @param text The text to split into terms (can be null).
+     * @return The distinct terms, in order of first occurrence.
+     */
+    public static Set<String> tokenize(String text) {
+
+        var terms = new LinkedHashSet<String>();
+        if (text == null) {
+            return terms;
+        }
+        addTerms(text, terms);
+
+        return terms;
+    }
+
+    /**
+     * Adds the terms in the specified text to a set.
+     * 
+     * @param text The text to split into terms (can be null).
+     * @param terms The set to add the terms to.
+     */
+    public static void addTerms(String text, Set<String> terms) {
+
+        if (text == null) {
+            return;
+        }
+        int termStart = -1;
+        int index = 0;
+        while (index < text.length()) {
+            int codePoint = text.codePointAt(index);
+            if (Character.isLetterOrDigit(codePoint) == true) {
+                if (termStart < 0) {
+                    termStart = index;
+                }
+            }
+            else if (termStart >= 0) {
+                terms.add(text.substring(termStart, index).toLowerCase(Locale.ROOT));
+                termStart = -1;
+            }
+            index += Character.charCount(codePoint);
+        }
+        if (termStart >= 0) {
+            terms.add(text.substring(termStart).toLowerCase(Locale.ROOT));
+        }
+    }
+}
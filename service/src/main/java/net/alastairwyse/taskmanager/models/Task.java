@@ -39,6 +39,8 @@ public class Task {
     protected String detail;
     /** The optional due date of the task. */
     protected Optional<LocalDate> dueDate;
+    /** The version of the task manager at which the task was last stored, or 0 if it hasn't been stored. */
+    protected final long version;
     
     /**
      * @return A unique id for the task.
@@ -68,6 +70,23 @@ public class Task {
         return dueDate;
     }
 
+    /**
+     * @return The version of the task manager at which the task was last created, restored or updated, or 0 if it hasn't been stored in a task manager.  Changes whenever the task is stored, so can be used to detect that a task has changed (e.g. as an HTTP entity tag).
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns a copy of the task with the specified version.  Task manager implementations store (and return) a versioned copy rather than the task passed to them, so a task is never modified once created.
+     * 
+     * @param version The version of the task manager at which the task is being stored.
+     * @return The copy of the task.
+     */
+    public Task withVersion(long version) {
+        return new Task(this, version);
+    }
+
     /**
      * Constructs a Task.
      * 
@@ -82,6 +101,7 @@ public class Task {
         }
 
         id = UUID.randomUUID();
+        version = 0;
         title = newTaskDto.getTitle();
         detail = newTaskDto.getDetail();
         if (newTaskDto.getDueDate().isPresent() == true) {
@@ -98,6 +118,43 @@ public class Task {
         }
     }
 
+    /**
+     * Constructs a Task from previously validated task data (e.g. data being restored from storage).
+     * 
+     * @param id A unique id for the task.
+     * @param title The title or heading of the task.
+     * @param detail The detail of the task.
+     * @param dueDate The optional due date of the task.
+     */
+    public Task(UUID id, String title, String detail, Optional<LocalDate> dueDate) {
+        this(id, title, detail, dueDate, 0);
+    }
+
+    /**
+     * Constructs a Task from previously validated task data, as stored by a task manager (e.g. data being read back from off-heap storage).
+     * 
+     * @param id A unique id for the task.
+     * @param title The title or heading of the task.
+     * @param detail The detail of the task.
+     * @param dueDate The optional due date of the task.
+     * @param version The version of the task manager at which the task was stored.
+     */
+    public Task(UUID id, String title, String detail, Optional<LocalDate> dueDate, long version) {
+
+        if (id == null)
+            throw new IllegalArgumentException("Parameter 'id' cannot be null.");
+        if (title == null || title.isBlank())
+            throw new IllegalArgumentException("Parameter 'title' cannot be null or blank.");
+        if (dueDate == null)
+            throw new IllegalArgumentException("Parameter 'dueDate' cannot be null.");
+
+        this.id = id;
+        this.title = title;
+        this.detail = detail;
+        this.dueDate = dueDate;
+        this.version = version;
+    }
+
     /**
      * Constructs a Task.
      * 
@@ -108,4 +165,18 @@ public class Task {
         this((NewTaskDto)taskDto);
         id = taskDto.getId();
     }
+
+    /**
+     * Constructs a copy of the specified task with the specified version.
+     * 
+     * @param task The task to copy.
+     * @param version The version of the task manager at which the task is being stored.
+     */
+    protected Task(Task task, long version) {
+        this.id = task.id;
+        this.title = task.title;
+        this.detail = task.detail;
+        this.dueDate = task.dueDate;
+        this.version = version;
+    }
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.alastairwyse.taskmanager.TaskManager;
+import net.alastairwyse.taskmanager.models.dtos.NewTaskDto;
+
+/**
+ * The result of applying a single item of a batch operation on a {@link TaskManager}.  Each item in a batch succeeds or fails independently of the others.
+ */
+public class TaskBatchItemResult {
+
+    /** The task which was created, updated, or deleted, or the task which failed to be updated or deleted, or null if the item failed to be created. */
+    protected final Task task;
+    /** The exception describing why the item failed, or null if the item succeeded. */
+    protected final Exception exception;
+
+    /**
+     * @return The task which was created, updated, or deleted, or the task which failed to be updated or deleted, or null if the item failed to be created.
+     */
+    public Task getTask() {
+        return task;
+    }
+
+    /**
+     * @return The exception describing why the item failed, or null if the item succeeded.
+     */
+    public Exception getException() {
+        return exception;
+    }
+
+    /**
+     * @return Whether the item succeeded.
+     */
+    public boolean getSuccess() {
+        return exception == null;
+    }
+
+    /**
+     * Constructs a TaskBatchItemResult.
+     * 
+     * @param task The task which was created, updated, or deleted, or the task which failed to be updated or deleted, or null if the item failed to be created.
+     * @param exception The exception describing why the item failed, or null if the item succeeded.
+     */
+    public TaskBatchItemResult(Task task, Exception exception) {
+        this.task = task;
+        this.exception = exception;
+    }
+
+    /**
+     * Validates each of the specified {@link NewTaskDto} objects and creates a task from each valid one, without storing the tasks in a {@link TaskManager}.  Allows implementations of {@link TaskManager#createTasks(List)} to validate a batch before acquiring any locks.
+     * 
+     * @param newTaskDtos The {@link NewTaskDto} objects to create tasks from.
+     * @return The result for each {@link NewTaskDto}, in the same order.  A successful result contains the created task, and a failed result the {@link IllegalArgumentException} describing why the {@link NewTaskDto} was invalid.
+     */
+    public static List<TaskBatchItemResult> createTasks(List<NewTaskDto> newTaskDtos) {
+
+        var results = new ArrayList<TaskBatchItemResult>(newTaskDtos.size());
+        for (int i = 0; i < newTaskDtos.size(); i++) {
+            NewTaskDto currentNewTaskDto = newTaskDtos.get(i);
+            if (currentNewTaskDto == null) {
+                results.add(new TaskBatchItemResult(null, new IllegalArgumentException(String.format("Element %d of parameter '%s' cannot be null.", i, "newTaskDtos"))));
+                continue;
+            }
+            try {
+                results.add(new TaskBatchItemResult(new Task(currentNewTaskDto), null));
+            }
+            catch (IllegalArgumentException e) {
+                results.add(new TaskBatchItemResult(null, e));
+            }
+        }
+
+        return results;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.models;
+
+import java.util.UUID;
+
+import net.alastairwyse.taskmanager.TaskManager;
+
+/**
+ * A change to a single task in a {@link TaskManager}, as passed to a {@link net.alastairwyse.taskmanager.changes.TaskChangeListener}.
+ */
+public class TaskChange {
+
+    /** The type of the change. */
+    protected final TaskChangeType type;
+    /** The id of the changed task. */
+    protected final UUID id;
+    /** The task after the change, or null if the task was deleted. */
+    protected final Task task;
+    /** The version of the {@link TaskManager} resulting from the change. */
+    protected final long version;
+
+    /**
+     * @return The type of the change.
+     */
+    public TaskChangeType getType() {
+        return type;
+    }
+
+    /**
+     * @return The id of the changed task.
+     */
+    public UUID getId() {
+        return id;
+    }
+
+    /**
+     * @return The task after the change, or null if the task was deleted.
+     */
+    public Task getTask() {
+        return task;
+    }
+
+    /**
+     * @return The version of the {@link TaskManager} resulting from the change.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Constructs a TaskChange.
+     * 
+     * @param type The type of the change.
+     * @param id The id of the changed task.
+     * @param task The task after the change, or null if the task was deleted.
+     * @param version The version of the {@link TaskManager} resulting from the change.
+     */
+    public TaskChange(TaskChangeType type, UUID id, Task task, long version) {
+
+        if (type == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null.", "type"));
+        if (id == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null.", "id"));
+        if (type != TaskChangeType.DELETED && task == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null unless parameter '%s' is '%s'.", "task", "type", TaskChangeType.DELETED));
+
+        this.type = type;
+        this.id = id;
+        this.task = type == TaskChangeType.DELETED ? null : task;
+        this.version = version;
+    }
+}
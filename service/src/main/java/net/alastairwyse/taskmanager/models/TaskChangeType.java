@@ -0,0 +1,29 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.models;
+
+/**
+ * The type of a change to a task in a {@link net.alastairwyse.taskmanager.TaskManager}.
+ */
+public enum TaskChangeType {
+    /** The task was added to the manager. */
+    CREATED,
+    /** An existing task in the manager was replaced. */
+    UPDATED,
+    /** The task was removed from the manager. */
+    DELETED
+}
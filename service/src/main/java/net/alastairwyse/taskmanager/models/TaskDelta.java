@@ -0,0 +1,104 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.models;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import net.alastairwyse.taskmanager.TaskManager;
+
+/**
+ * The changes to the tasks in a {@link TaskManager} after a given version, returned from {@link TaskManager#getChangesSince(long)}, which allow a client holding a copy of the tasks at that version to bring its copy up to date without reloading all the tasks.
+ * <p>
+ * If the manager no longer retains the changes since the given version, the delta is instead a full snapshot (see {@link #getFullSnapshot()}), and the client should replace its copy with the tasks in the delta.
+ */
+public class TaskDelta {
+
+    /** The version of the {@link TaskManager} the delta brings a copy of the tasks up to, to be passed as the version in the next request for changes. */
+    protected final long version;
+    /** Whether the delta is a full snapshot of the tasks rather than the changes since the requested version. */
+    protected final boolean fullSnapshot;
+    /** The tasks created or updated since the requested version, or all tasks if the delta is a full snapshot. */
+    protected final Iterable<Task> tasks;
+    /** The ids of the tasks deleted since the requested version (i.e. tombstones), or empty if the delta is a full snapshot. */
+    protected final List<UUID> deletedIds;
+
+    /**
+     * @return The version of the {@link TaskManager} the delta brings a copy of the tasks up to, to be passed as the version in the next request for changes.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return Whether the delta is a full snapshot of the tasks rather than the changes since the requested version (in which case any tasks held by the client which aren't in the delta have been deleted).
+     */
+    public boolean getFullSnapshot() {
+        return fullSnapshot;
+    }
+
+    /**
+     * @return The tasks created or updated since the requested version, or all tasks if the delta is a full snapshot.
+     */
+    public Iterable<Task> getTasks() {
+        return tasks;
+    }
+
+    /**
+     * @return The ids of the tasks deleted since the requested version, or empty if the delta is a full snapshot.
+     */
+    public List<UUID> getDeletedIds() {
+        return deletedIds;
+    }
+
+    /**
+     * Constructs a TaskDelta containing the changes since a version.
+     * 
+     * @param version The version of the {@link TaskManager} the delta brings a copy of the tasks up to.
+     * @param tasks The tasks created or updated since the requested version.
+     * @param deletedIds The ids of the tasks deleted since the requested version.
+     */
+    public TaskDelta(long version, List<Task> tasks, List<UUID> deletedIds) {
+
+        if (tasks == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null.", "tasks"));
+        if (deletedIds == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null.", "deletedIds"));
+
+        this.version = version;
+        this.fullSnapshot = false;
+        this.tasks = Collections.unmodifiableList(tasks);
+        this.deletedIds = Collections.unmodifiableList(deletedIds);
+    }
+
+    /**
+     * Constructs a TaskDelta which is a full snapshot of the tasks.
+     * 
+     * @param snapshot The snapshot.
+     */
+    public TaskDelta(TaskSnapshot snapshot) {
+
+        if (snapshot == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null.", "snapshot"));
+
+        this.version = snapshot.getVersion();
+        this.fullSnapshot = true;
+        this.tasks = snapshot;
+        this.deletedIds = Collections.emptyList();
+    }
+}
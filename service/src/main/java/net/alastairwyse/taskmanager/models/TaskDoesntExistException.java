@@ -16,12 +16,16 @@
 
 package net.alastairwyse.taskmanager.models;
 
+import java.util.UUID;
+
 import net.alastairwyse.taskmanager.TaskManager;
 
 /**
  * An exception which is thrown when a specified {@link Task} doesn't exist in a {@link TaskManager}.
  */
 public class TaskDoesntExistException extends Exception {
+
+    private static final long serialVersionUID = 1L;
     
     /**
      * Constructs a TaskDoesntExistException.
@@ -31,4 +35,47 @@ public class TaskDoesntExistException extends Exception {
     public TaskDoesntExistException(String msg) {
         super(msg);
     }
+
+    /**
+     * Constructs a TaskDoesntExistException.
+     * 
+     * @param msg Details of the exception.
+     * @param writableStackTrace Whether the stack trace should be captured.  Exceptions which are reported rather than thrown (e.g. in the result of each missing item of a batch operation) can be created without one, which avoids walking the stack for every missing item of a large batch.
+     */
+    public TaskDoesntExistException(String msg, boolean writableStackTrace) {
+        super(msg, null, true, writableStackTrace);
+    }
+
+    /**
+     * Returns the message of the exception for a task with the specified id which doesn't exist, e.g. for reporting a missing task without creating an exception.
+     * 
+     * @param id The id of the task.
+     * @return The message.
+     */
+    public static String createMessage(UUID id) {
+
+        return String.format("A task with id '%s' does not exist in the task manager.", id);
+    }
+
+    /**
+     * Creates an exception for a task with the specified id which doesn't exist.
+     * 
+     * @param id The id of the task.
+     * @return The exception.
+     */
+    public static TaskDoesntExistException createWithId(UUID id) {
+
+        return new TaskDoesntExistException(createMessage(id));
+    }
+
+    /**
+     * Creates an exception without a stack trace for a task with the specified id which doesn't exist, for reporting in the result of an item of a batch operation.
+     * 
+     * @param id The id of the task.
+     * @return The exception.
+     */
+    public static TaskDoesntExistException createForBatchItem(UUID id) {
+
+        return new TaskDoesntExistException(createMessage(id), false);
+    }
 }
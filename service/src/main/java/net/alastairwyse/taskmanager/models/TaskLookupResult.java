@@ -0,0 +1,66 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.models;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import net.alastairwyse.taskmanager.TaskManager;
+
+/**
+ * The result of looking up multiple tasks by id via {@link TaskManager#getTasks(Collection)}.
+ */
+public class TaskLookupResult {
+
+    /** The tasks which were found. */
+    protected final List<Task> tasks;
+    /** The ids for which no task was found. */
+    protected final List<UUID> missingIds;
+
+    /**
+     * @return The tasks which were found, in the order of their ids in the lookup.
+     */
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    /**
+     * @return The ids for which no task was found, in the order they appeared in the lookup.
+     */
+    public List<UUID> getMissingIds() {
+        return missingIds;
+    }
+
+    /**
+     * Constructs a TaskLookupResult.
+     * 
+     * @param tasks The tasks which were found, in the order of their ids in the lookup.
+     * @param missingIds The ids for which no task was found, in the order they appeared in the lookup.
+     */
+    public TaskLookupResult(List<Task> tasks, List<UUID> missingIds) {
+
+        if (tasks == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null.", "tasks"));
+        if (missingIds == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null.", "missingIds"));
+
+        this.tasks = Collections.unmodifiableList(tasks);
+        this.missingIds = Collections.unmodifiableList(missingIds);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.models;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import net.alastairwyse.taskmanager.TaskManager;
+
+/**
+ * A page of tasks returned from {@link TaskManager#getTaskPage(String, int)}, in order of task id.
+ * <p>
+ * Pages are linked by an opaque cursor which encodes the id of the last task in the page.  The next page starts with the first task whose id follows that id, so tasks created or deleted between requests for successive pages don't cause other tasks to be skipped or repeated.
+ */
+public class TaskPage {
+
+    /** The version of the cursor format, stored as the first byte of each cursor. */
+    protected static final byte CURSOR_FORMAT_VERSION = 1;
+    /** The length in bytes of a decoded cursor. */
+    protected static final int CURSOR_LENGTH = 17;
+
+    /** The tasks in the page. */
+    protected final List<Task> tasks;
+    /** The cursor to pass to retrieve the next page, or null if this is the last page. */
+    protected final String nextCursor;
+
+    /**
+     * @return The tasks in the page, in order of task id.
+     */
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    /**
+     * @return The cursor to pass to retrieve the next page, or null if this is the last page.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Constructs a TaskPage.
+     * 
+     * @param tasks The tasks in the page, in order of task id.
+     * @param hasNextPage Whether there are further tasks after the last task in the page.
+     */
+    public TaskPage(List<Task> tasks, boolean hasNextPage) {
+
+        if (tasks == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null.", "tasks"));
+
+        this.tasks = Collections.unmodifiableList(tasks);
+        if (hasNextPage == true && tasks.isEmpty() == false) {
+            nextCursor = encodeCursor(tasks.get(tasks.size() - 1).getId());
+        }
+        else {
+            nextCursor = null;
+        }
+    }
+
+    /**
+     * Encodes the id of the last task in a page as a cursor.
+     * 
+     * @param lastId The id of the last task in the page.
+     * @return The cursor.
+     */
+    public static String encodeCursor(UUID lastId) {
+
+        ByteBuffer buffer = ByteBuffer.allocate(CURSOR_LENGTH);
+        buffer.put(CURSOR_FORMAT_VERSION);
+        buffer.putLong(lastId.getMostSignificantBits());
+        buffer.putLong(lastId.getLeastSignificantBits());
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * Decodes a cursor to the id of the last task in the page it was returned with.
+     * 
+     * @param cursor The cursor, or null to denote the start of the tasks.
+     * @return The id, or null if the cursor is null.
+     * @throws IllegalArgumentException If the cursor is not valid.
+     */
+    public static UUID decodeCursor(String cursor) {
+
+        if (cursor == null) {
+            return null;
+        }
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        }
+        catch (IllegalArgumentException e) {
+            throw CreateInvalidCursorException(cursor);
+        }
+        if (bytes.length != CURSOR_LENGTH || bytes[0] != CURSOR_FORMAT_VERSION)
+            throw CreateInvalidCursorException(cursor);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, CURSOR_LENGTH - 1);
+
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    protected static IllegalArgumentException CreateInvalidCursorException(String cursor) {
+
+        return new IllegalArgumentException(String.format("Parameter '%s' with value '%s' is not a valid cursor.", "cursor", cursor));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.models;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import net.alastairwyse.taskmanager.TaskManager;
+
+/**
+ * An immutable, point-in-time view of all the tasks in a {@link TaskManager}.
+ * <p>
+ * The contents of a snapshot never change after it's created, so it can be iterated or serialized without holding any lock, while the {@link TaskManager} it was taken from continues to be modified.
+ */
+public class TaskSnapshot implements Iterable<Task> {
+
+    /** The version of the {@link TaskManager} state the snapshot was taken from. */
+    protected final long version;
+    /** The tasks in the snapshot. */
+    protected final Collection<Task> tasks;
+
+    /**
+     * @return The version of the {@link TaskManager} state the snapshot was taken from.  Two snapshots with the same version taken from the same {@link TaskManager} contain the same tasks.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return The number of tasks in the snapshot.
+     */
+    public int getSize() {
+        return tasks.size();
+    }
+
+    /**
+     * Constructs a TaskSnapshot.
+     * 
+     * @param version The version of the {@link TaskManager} state the snapshot was taken from.
+     * @param tasks The tasks in the snapshot.  Must not be modified after being passed to the snapshot.
+     */
+    public TaskSnapshot(long version, Collection<Task> tasks) {
+
+        if (version < 0)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be greater than or equal to 0.", "version"));
+        if (tasks == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null.", "tasks"));
+
+        this.version = version;
+        this.tasks = Collections.unmodifiableCollection(tasks);
+    }
+
+    @Override
+    public Iterator<Task> iterator() {
+        return tasks.iterator();
+    }
+
+    @Override
+    public Spliterator<Task> spliterator() {
+        return tasks.spliterator();
+    }
+
+    /**
+     * Returns a sequential stream over the tasks in the snapshot.  The stream's spliterator is the one returned by {@link #spliterator()}, so the stream is sized and can be efficiently made parallel.
+     * 
+     * @return The stream.
+     */
+    public Stream<Task> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.models.dtos;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.TaskPage;
+
+/**
+ * DTO equivalent of {@link TaskPage} objects.
+ */
+public class TaskPageDto {
+
+    /** The tasks in the page. */
+    protected List<TaskDto> tasks;
+    /** The cursor to pass to retrieve the next page, or null if this is the last page. */
+    protected String nextCursor;
+
+    /**
+     * @return The tasks in the page.
+     */
+    public List<TaskDto> getTasks() {
+        return tasks;
+    }
+
+    /**
+     * @param tasks The tasks in the page.
+     */
+    public void setTasks(List<TaskDto> tasks) {
+        this.tasks = tasks;
+    }
+
+    /**
+     * @return The cursor to pass to retrieve the next page, or null if this is the last page.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * @param nextCursor The cursor to pass to retrieve the next page, or null if this is the last page.
+     */
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Constructs a TaskPageDto.
+     */
+    public TaskPageDto() {
+        tasks = new ArrayList<TaskDto>();
+        nextCursor = null;
+    }
+
+    /**
+     * Constructs a TaskPageDto from an instance of {@link TaskPage}.
+     * 
+     * @param taskPage The {@link TaskPage} to create the TaskPageDto from.
+     */
+    public TaskPageDto(TaskPage taskPage) {
+        tasks = new ArrayList<TaskDto>(taskPage.getTasks().size());
+        for (Task currentTask : taskPage.getTasks()) {
+            tasks.add(new TaskDto(currentTask));
+        }
+        nextCursor = taskPage.getNextCursor();
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.offheap;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+/**
+ * Allocates blocks of memory outside of the Java heap, from large 'slabs' of direct {@link ByteBuffer} memory.
+ * <p>
+ * Blocks are allocated in power-of-2 size classes.  Freed blocks are kept on a free list for their size class and reused by later allocations of the same class, so the number of slabs is proportional to the peak amount of live data rather than the total ever allocated.  Requests larger than the slab size are given a dedicated slab, which is released when the block is freed.
+ * <p>
+ * Blocks are identified by a 'handle'; a long value which encodes the block's size class, slab, and offset within the slab.  Handles are never 0.
+ * <p>
+ * Instances are not thread safe.
+ */
+public class SlabAllocator {
+
+    /** The size in bytes of the smallest size class. */
+    protected static final int MINIMUM_BLOCK_SIZE = 32;
+    /** The size class recorded in handles of blocks which occupy a dedicated slab. */
+    protected static final int DEDICATED_SLAB_SIZE_CLASS = 127;
+    /** The default size in bytes of each slab. */
+    protected static final int DEFAULT_SLAB_SIZE = 4 * 1024 * 1024;
+
+    /** The size in bytes of each (non-dedicated) slab. */
+    protected final int slabSize;
+    /** The slabs, indexed by slab number.  Elements are null for released dedicated slabs. */
+    protected final ArrayList<ByteBuffer> slabs;
+    /** The index within 'slabs' of the slab currently being allocated from, or -1 if no slab has been allocated. */
+    protected int currentSlabIndex;
+    /** The offset of the next unallocated byte within the current slab. */
+    protected int currentSlabPosition;
+    /** Stacks of handles of freed blocks, indexed by size class. */
+    protected final long[][] freeLists;
+    /** The number of handles in each of the stacks in 'freeLists'. */
+    protected final int[] freeListSizes;
+    /** The total size in bytes of all currently allocated blocks. */
+    protected long allocatedBytes;
+
+    /**
+     * Constructs a SlabAllocator with the default slab size.
+     */
+    public SlabAllocator() {
+        this(DEFAULT_SLAB_SIZE);
+    }
+
+    /**
+     * Constructs a SlabAllocator.
+     * 
+     * @param slabSize The size in bytes of each slab.  Must be a power of 2, and at least 32.
+     */
+    public SlabAllocator(int slabSize) {
+
+        if (slabSize < MINIMUM_BLOCK_SIZE || Integer.bitCount(slabSize) != 1)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be a power of 2 greater than or equal to %d.", "slabSize", MINIMUM_BLOCK_SIZE));
+
+        this.slabSize = slabSize;
+        slabs = new ArrayList<ByteBuffer>();
+        currentSlabIndex = -1;
+        currentSlabPosition = 0;
+        int sizeClassCount = sizeClassOf(slabSize) + 1;
+        freeLists = new long[sizeClassCount][];
+        freeListSizes = new int[sizeClassCount];
+        for (int i = 0; i < sizeClassCount; i++) {
+            freeLists[i] = new long[16];
+        }
+        allocatedBytes = 0;
+    }
+
+    /**
+     * @return The total size in bytes of all currently allocated blocks.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * @return The total size in bytes of all slabs currently reserved from the operating system.
+     */
+    public long getReservedBytes() {
+
+        long reservedBytes = 0;
+        for (ByteBuffer currentSlab : slabs) {
+            if (currentSlab != null) {
+                reservedBytes += currentSlab.capacity();
+            }
+        }
+
+        return reservedBytes;
+    }
+
+    /**
+     * Allocates a block of at least the specified size.
+     * 
+     * @param size The required size of the block in bytes.
+     * @return The handle of the allocated block.
+     */
+    public long allocate(int size) {
+
+        if (size < 1)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be greater than 0.", "size"));
+
+        if (size > slabSize) {
+            slabs.add(ByteBuffer.allocateDirect(size));
+            allocatedBytes += size;
+            return createHandle(DEDICATED_SLAB_SIZE_CLASS, slabs.size() - 1, 0);
+        }
+
+        int sizeClass = sizeClassOf(size);
+        int blockSize = MINIMUM_BLOCK_SIZE << sizeClass;
+        allocatedBytes += blockSize;
+        if (freeListSizes[sizeClass] > 0) {
+            freeListSizes[sizeClass]--;
+            return freeLists[sizeClass][freeListSizes[sizeClass]];
+        }
+        if (currentSlabIndex == -1 || currentSlabPosition + blockSize > slabSize) {
+            // The remainder of the current slab (if any) is abandoned
+            slabs.add(ByteBuffer.allocateDirect(slabSize));
+            currentSlabIndex = slabs.size() - 1;
+            currentSlabPosition = 0;
+        }
+        long handle = createHandle(sizeClass, currentSlabIndex, currentSlabPosition);
+        currentSlabPosition += blockSize;
+
+        return handle;
+    }
+
+    /**
+     * Frees the block with the specified handle, making it available for reuse.
+     * 
+     * @param handle The handle of the block.
+     */
+    public void free(long handle) {
+
+        int sizeClass = sizeClassOfHandle(handle);
+        if (sizeClass == DEDICATED_SLAB_SIZE_CLASS) {
+            int slabIndex = slabIndexOfHandle(handle);
+            allocatedBytes -= slabs.get(slabIndex).capacity();
+            slabs.set(slabIndex, null);
+            return;
+        }
+        allocatedBytes -= MINIMUM_BLOCK_SIZE << sizeClass;
+        if (freeListSizes[sizeClass] == freeLists[sizeClass].length) {
+            var newFreeList = new long[freeLists[sizeClass].length * 2];
+            System.arraycopy(freeLists[sizeClass], 0, newFreeList, 0, freeListSizes[sizeClass]);
+            freeLists[sizeClass] = newFreeList;
+        }
+        freeLists[sizeClass][freeListSizes[sizeClass]] = handle;
+        freeListSizes[sizeClass]++;
+    }
+
+    /**
+     * Returns the size of the block with the specified handle.
+     * 
+     * @param handle The handle of the block.
+     * @return The size of the block in bytes (which may be larger than the size requested when it was allocated).
+     */
+    public int getCapacity(long handle) {
+
+        int sizeClass = sizeClassOfHandle(handle);
+        if (sizeClass == DEDICATED_SLAB_SIZE_CLASS) {
+            return slabs.get(slabIndexOfHandle(handle)).capacity();
+        }
+
+        return MINIMUM_BLOCK_SIZE << sizeClass;
+    }
+
+    /**
+     * Returns the slab containing the block with the specified handle.  The block should be accessed using the absolute get and put methods of the slab, starting at the offset returned by {@link #getOffset(long)}.
+     * 
+     * @param handle The handle of the block.
+     * @return The slab.
+     */
+    public ByteBuffer getSlab(long handle) {
+        return slabs.get(slabIndexOfHandle(handle));
+    }
+
+    /**
+     * Returns the offset within its slab of the block with the specified handle.
+     * 
+     * @param handle The handle of the block.
+     * @return The offset.
+     */
+    public int getOffset(long handle) {
+        return (int)handle;
+    }
+
+    /**
+     * Returns the size class of blocks used for allocations of the specified size.
+     */
+    protected static int sizeClassOf(int size) {
+
+        if (size <= MINIMUM_BLOCK_SIZE) {
+            return 0;
+        }
+
+        return 32 - Integer.numberOfLeadingZeros(size - 1) - Integer.numberOfTrailingZeros(MINIMUM_BLOCK_SIZE);
+    }
+
+    protected static long createHandle(int sizeClass, int slabIndex, int offset) {
+        return ((long)sizeClass << 56) | ((long)(slabIndex + 1) << 32) | (offset & 0xFFFFFFFFL);
+    }
+
+    protected static int sizeClassOfHandle(long handle) {
+        return (int)(handle >>> 56);
+    }
+
+    protected static int slabIndexOfHandle(long handle) {
+        return (int)((handle >>> 32) & 0xFFFFFF) - 1;
+    }
+}
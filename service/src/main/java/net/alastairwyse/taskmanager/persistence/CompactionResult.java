@@ -0,0 +1,86 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.persistence;
+
+/**
+ * The outcome of a run of a {@link LogCompactor}.
+ */
+public class CompactionResult {
+
+    /** The number of sealed segments examined. */
+    protected final int segmentCount;
+    /** The number of segments rewritten without their dead records. */
+    protected final int rewrittenSegmentCount;
+    /** The number of segments deleted because they contained only dead records. */
+    protected final int deletedSegmentCount;
+    /** The number of dead records removed. */
+    protected final long removedRecordCount;
+    /** The number of bytes of disk space reclaimed. */
+    protected final long reclaimedBytes;
+
+    /**
+     * Constructs a CompactionResult.
+     * 
+     * @param segmentCount The number of sealed segments examined.
+     * @param rewrittenSegmentCount The number of segments rewritten without their dead records.
+     * @param deletedSegmentCount The number of segments deleted because they contained only dead records.
+     * @param removedRecordCount The number of dead records removed.
+     * @param reclaimedBytes The number of bytes of disk space reclaimed.
+     */
+    public CompactionResult(int segmentCount, int rewrittenSegmentCount, int deletedSegmentCount, long removedRecordCount, long reclaimedBytes) {
+        this.segmentCount = segmentCount;
+        this.rewrittenSegmentCount = rewrittenSegmentCount;
+        this.deletedSegmentCount = deletedSegmentCount;
+        this.removedRecordCount = removedRecordCount;
+        this.reclaimedBytes = reclaimedBytes;
+    }
+
+    /**
+     * @return The number of sealed segments examined.
+     */
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
+    /**
+     * @return The number of segments rewritten without their dead records.
+     */
+    public int getRewrittenSegmentCount() {
+        return rewrittenSegmentCount;
+    }
+
+    /**
+     * @return The number of segments deleted because they contained only dead records.
+     */
+    public int getDeletedSegmentCount() {
+        return deletedSegmentCount;
+    }
+
+    /**
+     * @return The number of dead records removed.
+     */
+    public long getRemovedRecordCount() {
+        return removedRecordCount;
+    }
+
+    /**
+     * @return The number of bytes of disk space reclaimed.
+     */
+    public long getReclaimedBytes() {
+        return reclaimedBytes;
+    }
+}
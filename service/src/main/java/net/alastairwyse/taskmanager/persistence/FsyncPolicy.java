@@ -0,0 +1,30 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.persistence;
+
+/**
+ * Policies for when the write-ahead log forces written records to the storage device.
+ */
+public enum FsyncPolicy {
+
+    /** Force after every batch of records is written.  Mutations don't return until their record is durable. */
+    EVERY_BATCH,
+    /** Force at a fixed interval.  Mutations return once their record has been written to the operating system, and records written within the interval before a power loss or operating system crash may be lost. */
+    INTERVAL,
+    /** Never force (except when a segment is sealed or the log is closed), leaving the operating system to decide when to write records to the device. */
+    OPERATING_SYSTEM
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.persistence;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Limits the rate of I/O to a fixed number of bytes per second, using a token bucket which holds at most one second's worth of bytes.
+ * <p>
+ * Instances are not thread safe.
+ */
+public class IoRateLimiter {
+
+    /** The maximum rate in bytes per second. */
+    protected final long bytesPerSecond;
+    /** The number of bytes which can be transferred without waiting (negative if transfers have exceeded the rate). */
+    protected double availableBytes;
+    /** The time (from {@link System#nanoTime()}) at which 'availableBytes' was last refilled. */
+    protected long lastRefillTime;
+
+    /**
+     * Constructs an IoRateLimiter.
+     * 
+     * @param bytesPerSecond The maximum rate in bytes per second.
+     */
+    public IoRateLimiter(long bytesPerSecond) {
+
+        if (bytesPerSecond < 1)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be greater than 0.", "bytesPerSecond"));
+
+        this.bytesPerSecond = bytesPerSecond;
+        availableBytes = bytesPerSecond;
+        lastRefillTime = System.nanoTime();
+    }
+
+    /**
+     * @return The maximum rate in bytes per second.
+     */
+    public long getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    /**
+     * Accounts for the transfer of the specified number of bytes, waiting if necessary so that the rate isn't exceeded.
+     * 
+     * @param bytes The number of bytes being transferred.
+     */
+    public void acquire(long bytes) {
+
+        long now = System.nanoTime();
+        availableBytes = Math.min(bytesPerSecond, availableBytes + (now - lastRefillTime) * bytesPerSecond / 1_000_000_000.0);
+        lastRefillTime = now;
+        availableBytes -= bytes;
+        if (availableBytes < 0) {
+            long waitNanos = (long)(-availableBytes * 1_000_000_000.0 / bytesPerSecond);
+            long waitEnd = now + waitNanos;
+            while (System.nanoTime() - waitEnd < 0) {
+                LockSupport.parkNanos(waitEnd - System.nanoTime());
+            }
+        }
+    }
+}
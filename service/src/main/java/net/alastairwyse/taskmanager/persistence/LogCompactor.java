@@ -0,0 +1,216 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Removes dead records from the sealed (i.e. no longer appended to) segments of a {@link WriteAheadLog}, so that the size of the log, and the time to replay it, are proportional to the number of live tasks rather than the total number of changes ever made.
+ * <p>
+ * A record is dead if a later record for the same task exists in the sealed segments, or if it's a {@link LogRecord.Type#DELETE} record ('tombstone') which is the latest record for its task, and whose log sequence number is not greater than that of the most recent snapshot (since replay of the log starts from the snapshot, which already reflects the deletion).
+ * <p>
+ * Each segment is compacted independently; its live records are written to a temporary file which is then forced and atomically renamed over the original, so a crash during compaction leaves either the original or the compacted segment.  Segments with no live records are deleted.  Since a segment's file name records the lowest log sequence number it may contain, compacted segments keep their original names.  All reads and writes are throttled by an {@link IoRateLimiter}, so compaction running in the background has a bounded impact on the I/O available to the log itself.
+ */
+public class LogCompactor {
+
+    /** The default minimum proportion of records in a segment which must be dead for the segment to be rewritten. */
+    public static final double DEFAULT_MINIMUM_DEAD_RECORD_RATIO = 0.25;
+
+    protected static final String TEMPORARY_FILE_EXTENSION = ".compacting";
+    protected static final int WRITE_BUFFER_SIZE = 1024 * 1024;
+
+    /** The log to compact. */
+    protected final WriteAheadLog log;
+    /** Limits the rate of compaction reads and writes. */
+    protected final IoRateLimiter rateLimiter;
+    /** The minimum proportion of records in a segment which must be dead for the segment to be rewritten. */
+    protected final double minimumDeadRecordRatio;
+    /** Encodes the tasks in rewritten records. */
+    protected final TaskCodec codec;
+
+    /**
+     * Constructs a LogCompactor with the default minimum dead record ratio.
+     * 
+     * @param log The log to compact.
+     * @param bytesPerSecond The maximum rate in bytes per second of compaction reads and writes.
+     */
+    public LogCompactor(WriteAheadLog log, long bytesPerSecond) {
+        this(log, bytesPerSecond, DEFAULT_MINIMUM_DEAD_RECORD_RATIO);
+    }
+
+    /**
+     * Constructs a LogCompactor.
+     * 
+     * @param log The log to compact.
+     * @param bytesPerSecond The maximum rate in bytes per second of compaction reads and writes.
+     * @param minimumDeadRecordRatio The minimum proportion of records in a segment which must be dead for the segment to be rewritten (between 0 and 1), which avoids rewriting a whole segment to remove only a few records.
+     */
+    public LogCompactor(WriteAheadLog log, long bytesPerSecond, double minimumDeadRecordRatio) {
+
+        if (log == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null.", "log"));
+        if (minimumDeadRecordRatio < 0.0 || minimumDeadRecordRatio > 1.0)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be between 0 and 1.", "minimumDeadRecordRatio"));
+
+        this.log = log;
+        this.rateLimiter = new IoRateLimiter(bytesPerSecond);
+        this.minimumDeadRecordRatio = minimumDeadRecordRatio;
+        codec = new TaskCodec();
+    }
+
+    /**
+     * Compacts the sealed segments of the log.  The log must be open.
+     * 
+     * @param snapshotLsn The log sequence number of the most recent snapshot.  Tombstones with this or a lower log sequence number are removed.
+     * @return The outcome of the compaction.
+     * @throws IOException If an error occurs reading or writing a segment, or a sealed segment is corrupt.
+     */
+    public synchronized CompactionResult compact(long snapshotLsn) throws IOException {
+
+        deleteTemporaryFiles();
+        List<Path> segmentPaths = log.getSegmentPaths();
+        if (segmentPaths.size() < 2) {
+            return new CompactionResult(0, 0, 0, 0, 0);
+        }
+        // The last segment is being appended to by the log's commit thread
+        List<Path> sealedSegmentPaths = segmentPaths.subList(0, segmentPaths.size() - 1);
+
+        // Find the log sequence number of the latest record for each task
+        var latestLsns = new HashMap<UUID, Long>();
+        for (Path currentSegmentPath : sealedSegmentPaths) {
+            log.replaySegment(currentSegmentPath, false, (LogRecord record) -> latestLsns.put(record.getId(), record.getLsn()), rateLimiter);
+        }
+
+        int rewrittenSegmentCount = 0;
+        int deletedSegmentCount = 0;
+        long removedRecordCount = 0;
+        long reclaimedBytes = 0;
+        for (Path currentSegmentPath : sealedSegmentPaths) {
+            var liveRecords = new ArrayList<LogRecord>();
+            long[] recordCount = new long[1];
+            log.replaySegment(currentSegmentPath, false, (LogRecord record) -> 
+            {
+                recordCount[0]++;
+                if (isLive(record, latestLsns, snapshotLsn) == true) {
+                    liveRecords.add(record);
+                }
+            }, rateLimiter);
+            long deadRecordCount = recordCount[0] - liveRecords.size();
+            if (deadRecordCount == 0 || deadRecordCount < minimumDeadRecordRatio * recordCount[0]) {
+                continue;
+            }
+            long originalSize = Files.size(currentSegmentPath);
+            if (liveRecords.isEmpty() == true) {
+                Files.delete(currentSegmentPath);
+                deletedSegmentCount++;
+                reclaimedBytes += originalSize;
+            }
+            else {
+                rewriteSegment(currentSegmentPath, liveRecords);
+                rewrittenSegmentCount++;
+                reclaimedBytes += originalSize - Files.size(currentSegmentPath);
+            }
+            removedRecordCount += deadRecordCount;
+        }
+        if (rewrittenSegmentCount > 0 || deletedSegmentCount > 0) {
+            log.forceDirectory();
+        }
+
+        return new CompactionResult(sealedSegmentPaths.size(), rewrittenSegmentCount, deletedSegmentCount, removedRecordCount, reclaimedBytes);
+    }
+
+    /**
+     * Returns whether the specified record is live.
+     */
+    protected boolean isLive(LogRecord record, HashMap<UUID, Long> latestLsns, long snapshotLsn) {
+
+        if (latestLsns.get(record.getId()) != record.getLsn()) {
+            return false;
+        }
+
+        return record.getType() == LogRecord.Type.PUT || record.getLsn() > snapshotLsn;
+    }
+
+    /**
+     * Replaces the specified segment with one containing only the specified records.
+     */
+    protected void rewriteSegment(Path segmentPath, List<LogRecord> records) throws IOException {
+
+        Path temporaryPath = segmentPath.resolveSibling(segmentPath.getFileName().toString() + TEMPORARY_FILE_EXTENSION);
+        try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+            var checksum = new CRC32C();
+            for (LogRecord currentRecord : records) {
+                byte[] payload = currentRecord.getType() == LogRecord.Type.PUT ? codec.encode(currentRecord.getTask()) : WriteAheadLog.encodeDeletePayload(currentRecord.getId());
+                int recordSize = WriteAheadLog.RECORD_HEADER_SIZE + WriteAheadLog.RECORD_BODY_PREFIX_SIZE + payload.length;
+                if (buffer.remaining() < recordSize) {
+                    flush(buffer, channel);
+                    if (buffer.capacity() < recordSize) {
+                        buffer = ByteBuffer.allocate(recordSize);
+                    }
+                }
+                WriteAheadLog.writeRecord(buffer, checksum, currentRecord.getType(), currentRecord.getLsn(), payload);
+            }
+            flush(buffer, channel);
+            channel.force(false);
+        }
+        catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporaryPath);
+            throw e;
+        }
+        Files.move(temporaryPath, segmentPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Writes the contents of the specified buffer to the specified channel at the limited rate, and clears the buffer.
+     */
+    protected void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+
+        buffer.flip();
+        rateLimiter.acquire(buffer.remaining());
+        while (buffer.hasRemaining() == true) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Deletes any temporary files left by a compaction interrupted by a crash.
+     */
+    protected void deleteTemporaryFiles() throws IOException {
+
+        try (Stream<Path> paths = Files.list(log.getDirectory())) {
+            for (Path currentPath : (Iterable<Path>)paths::iterator) {
+                if (currentPath.getFileName().toString().endsWith(TEMPORARY_FILE_EXTENSION)) {
+                    Files.delete(currentPath);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.persistence;
+
+import java.util.UUID;
+
+import net.alastairwyse.taskmanager.models.Task;
+
+/**
+ * A record read from the write-ahead log.
+ */
+public class LogRecord {
+
+    /**
+     * The type of change to a task recorded by a log record.
+     */
+    public enum Type {
+
+        /** The task was created, updated, or restored.  The record contains the full task. */
+        PUT((byte)1),
+        /** The task was deleted.  The record contains only the task id (i.e. it's a 'tombstone'). */
+        DELETE((byte)2);
+
+        protected final byte code;
+
+        Type(byte code) {
+            this.code = code;
+        }
+
+        /**
+         * @return The code identifying the type in the encoded record.
+         */
+        public byte getCode() {
+            return code;
+        }
+
+        /**
+         * Returns the type with the specified code.
+         * 
+         * @param code The code.
+         * @return The type.
+         * @throws IllegalArgumentException If no type has the specified code.
+         */
+        public static Type fromCode(byte code) {
+
+            for (Type currentType : values()) {
+                if (currentType.code == code) {
+                    return currentType;
+                }
+            }
+
+            throw new IllegalArgumentException(String.format("No log record type has code %d.", code));
+        }
+    }
+
+    /** The type of change recorded. */
+    protected final Type type;
+    /** The log sequence number of the record. */
+    protected final long lsn;
+    /** The id of the changed task. */
+    protected final UUID id;
+    /** The task, for records of type {@link Type#PUT}, or null for records of type {@link Type#DELETE}. */
+    protected final Task task;
+
+    /**
+     * Constructs a LogRecord.
+     * 
+     * @param type The type of change recorded.
+     * @param lsn The log sequence number of the record.
+     * @param id The id of the changed task.
+     * @param task The task, for records of type {@link Type#PUT}, or null for records of type {@link Type#DELETE}.
+     */
+    public LogRecord(Type type, long lsn, UUID id, Task task) {
+        this.type = type;
+        this.lsn = lsn;
+        this.id = id;
+        this.task = task;
+    }
+
+    /**
+     * @return The type of change recorded.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return The log sequence number of the record.
+     */
+    public long getLsn() {
+        return lsn;
+    }
+
+    /**
+     * @return The id of the changed task.
+     */
+    public UUID getId() {
+        return id;
+    }
+
+    /**
+     * @return The task, for records of type {@link Type#PUT}, or null for records of type {@link Type#DELETE}.
+     */
+    public Task getTask() {
+        return task;
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.TaskSnapshot;
+
+/**
+ * Writes snapshots of the full set of tasks to, and loads them from, a directory of compact binary snapshot files.
+ * <p>
+ * Each file consists of a header (a magic number (int), format version (int), the log sequence number of the last {@link WriteAheadLog} record reflected in the snapshot (long), and the number of tasks (long)), a record per task (the length of the encoded task (int) and the task encoded by {@link TaskCodec}), and a trailer holding the CRC32C checksum of everything preceding it (int).
+ * <p>
+ * Files are written to a temporary file, forced, and then atomically renamed, so a crash while writing never leaves a partial snapshot in place of a complete one.  Files are loaded by memory mapping them ({@link FileChannel#map}) and decoding the tasks directly from the mapped pages, which avoids copying the file contents through intermediate buffers, so loading proceeds at close to the speed the file can be read from the storage device (or page cache).
+ */
+public class SnapshotStore {
+
+    protected static final String SNAPSHOT_FILE_EXTENSION = ".snapshot";
+    protected static final String TEMPORARY_FILE_EXTENSION = ".tmp";
+    /** The magic number identifying snapshot files ('TMSN' in ASCII). */
+    protected static final int MAGIC_NUMBER = 0x544D534E;
+    protected static final int FORMAT_VERSION = 1;
+    protected static final int HEADER_SIZE = 24;
+    protected static final int TRAILER_SIZE = 4;
+    protected static final int RECORD_LENGTH_SIZE = 4;
+    /** The maximum size of the region of a file mapped at once. */
+    protected static final long MAXIMUM_MAPPED_REGION_SIZE = 1L << 30;
+    protected static final int WRITE_BUFFER_SIZE = 1024 * 1024;
+
+    /** The directory containing the snapshot files. */
+    protected final Path directory;
+    /** Encodes and decodes the tasks in snapshot files. */
+    protected final TaskCodec codec;
+
+    /**
+     * Constructs a SnapshotStore.
+     * 
+     * @param directory The directory to store the snapshot files in (created if it doesn't exist).
+     */
+    public SnapshotStore(Path directory) {
+
+        if (directory == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null.", "directory"));
+
+        this.directory = directory;
+        codec = new TaskCodec();
+    }
+
+    /**
+     * @return The directory containing the snapshot files.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Returns the paths of the snapshot files in the directory, in log sequence number order.
+     * 
+     * @return The snapshot file paths.
+     * @throws IOException If an error occurs listing the directory.
+     */
+    public List<Path> getSnapshotPaths() throws IOException {
+
+        var snapshotPaths = new ArrayList<Path>();
+        if (Files.isDirectory(directory) == false) {
+            return snapshotPaths;
+        }
+        try (Stream<Path> paths = Files.list(directory)) {
+            paths.filter((Path path) -> path.getFileName().toString().endsWith(SNAPSHOT_FILE_EXTENSION)).forEach(snapshotPaths::add);
+        }
+        // File names are zero padded, so lexical order is log sequence number order
+        Collections.sort(snapshotPaths);
+
+        return snapshotPaths;
+    }
+
+    /**
+     * Writes the specified tasks to a new snapshot file, and then deletes any older snapshot files.
+     * 
+     * @param snapshot The tasks to write.
+     * @param lsn The log sequence number of the last {@link WriteAheadLog} record reflected in the snapshot.
+     * @return The path of the new snapshot file.
+     * @throws IOException If an error occurs writing the file.
+     */
+    public Path write(TaskSnapshot snapshot, long lsn) throws IOException {
+
+        if (snapshot == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null.", "snapshot"));
+        if (lsn < 0)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be greater than or equal to 0.", "lsn"));
+
+        Files.createDirectories(directory);
+        Path snapshotPath = directory.resolve(String.format("%020d%s", lsn, SNAPSHOT_FILE_EXTENSION));
+        Path temporaryPath = directory.resolve(snapshotPath.getFileName().toString() + TEMPORARY_FILE_EXTENSION);
+        var checksum = new CRC32C();
+        try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+            buffer.putInt(MAGIC_NUMBER);
+            buffer.putInt(FORMAT_VERSION);
+            buffer.putLong(lsn);
+            buffer.putLong(snapshot.getSize());
+            long taskCount = 0;
+            for (Task currentTask : snapshot) {
+                byte[] encodedTask = codec.encode(currentTask);
+                if (buffer.remaining() < RECORD_LENGTH_SIZE + encodedTask.length) {
+                    flush(buffer, channel, checksum);
+                }
+                buffer.putInt(encodedTask.length);
+                if (buffer.remaining() < encodedTask.length) {
+                    // Task is larger than the buffer
+                    flush(buffer, channel, checksum);
+                    ByteBuffer encodedTaskBuffer = ByteBuffer.wrap(encodedTask);
+                    checksum.update(encodedTaskBuffer.duplicate());
+                    while (encodedTaskBuffer.hasRemaining() == true) {
+                        channel.write(encodedTaskBuffer);
+                    }
+                }
+                else {
+                    buffer.put(encodedTask);
+                }
+                taskCount++;
+            }
+            if (taskCount != snapshot.getSize())
+                throw new IllegalStateException(String.format("Snapshot contained %d tasks, but reported size %d.", taskCount, snapshot.getSize()));
+            flush(buffer, channel, checksum);
+            buffer.putInt((int)checksum.getValue());
+            buffer.flip();
+            while (buffer.hasRemaining() == true) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporaryPath);
+            throw e;
+        }
+        Files.move(temporaryPath, snapshotPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        forceDirectory();
+        for (Path currentPath : getSnapshotPaths()) {
+            if (currentPath.equals(snapshotPath) == false) {
+                Files.deleteIfExists(currentPath);
+            }
+        }
+
+        return snapshotPath;
+    }
+
+    /**
+     * Loads the tasks from the most recent valid snapshot file.  Files which fail validation are skipped in favour of the next most recent.
+     * 
+     * @param taskHandler Handler which is passed each task in the snapshot.
+     * @return The log sequence number of the last {@link WriteAheadLog} record reflected in the loaded snapshot, or 0 if no valid snapshot exists.
+     * @throws IOException If an error occurs reading a snapshot file.
+     */
+    public long load(Consumer<Task> taskHandler) throws IOException {
+
+        if (taskHandler == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null.", "taskHandler"));
+
+        List<Path> snapshotPaths = getSnapshotPaths();
+        for (int i = snapshotPaths.size() - 1; i >= 0; i--) {
+            try (FileChannel channel = FileChannel.open(snapshotPaths.get(i), StandardOpenOption.READ)) {
+                if (isValid(channel) == true) {
+                    return load(channel, taskHandler);
+                }
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Returns whether the specified snapshot file has a valid header and checksum.
+     */
+    protected boolean isValid(FileChannel channel) throws IOException {
+
+        long size = channel.size();
+        if (size < HEADER_SIZE + TRAILER_SIZE) {
+            return false;
+        }
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+        if (header.getInt(0) != MAGIC_NUMBER || header.getInt(4) != FORMAT_VERSION) {
+            return false;
+        }
+        var checksum = new CRC32C();
+        long checksummedSize = size - TRAILER_SIZE;
+        for (long position = 0; position < checksummedSize; position += MAXIMUM_MAPPED_REGION_SIZE) {
+            checksum.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAXIMUM_MAPPED_REGION_SIZE, checksummedSize - position)));
+        }
+        MappedByteBuffer trailer = channel.map(FileChannel.MapMode.READ_ONLY, checksummedSize, TRAILER_SIZE);
+
+        return trailer.getInt(0) == (int)checksum.getValue();
+    }
+
+    /**
+     * Decodes the tasks in the specified (validated) snapshot file, and passes them to the specified handler.
+     * 
+     * @return The log sequence number in the snapshot header.
+     */
+    protected long load(FileChannel channel, Consumer<Task> taskHandler) throws IOException {
+
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+        long lsn = header.getLong(8);
+        long taskCount = header.getLong(16);
+        long recordsEnd = channel.size() - TRAILER_SIZE;
+        // Files larger than the maximum region size are mapped a region at a time, remapping from the start of any record which would span the end of the current region
+        long regionStart = HEADER_SIZE;
+        MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, regionStart, Math.min(MAXIMUM_MAPPED_REGION_SIZE, recordsEnd - regionStart));
+        for (long i = 0; i < taskCount; i++) {
+            if (region.remaining() < RECORD_LENGTH_SIZE || region.remaining() < RECORD_LENGTH_SIZE + region.getInt(region.position())) {
+                regionStart += region.position();
+                region = channel.map(FileChannel.MapMode.READ_ONLY, regionStart, Math.min(MAXIMUM_MAPPED_REGION_SIZE, recordsEnd - regionStart));
+                if (region.remaining() < RECORD_LENGTH_SIZE || region.remaining() < RECORD_LENGTH_SIZE + region.getInt(region.position()))
+                    throw new IOException(String.format("Snapshot file record %d at position %d is invalid.", i, regionStart));
+            }
+            int recordLength = region.getInt();
+            Task task;
+            try {
+                task = codec.decode(region.slice(region.position(), recordLength));
+            }
+            catch (IllegalArgumentException e) {
+                throw new IOException(String.format("Snapshot file record %d at position %d is invalid.", i, regionStart + region.position()), e);
+            }
+            region.position(region.position() + recordLength);
+            taskHandler.accept(task);
+        }
+
+        return lsn;
+    }
+
+    /**
+     * Writes the contents of the specified buffer to the specified channel, updating the specified checksum, and clears the buffer.
+     */
+    protected void flush(ByteBuffer buffer, FileChannel channel, CRC32C checksum) throws IOException {
+
+        buffer.flip();
+        checksum.update(buffer.duplicate());
+        while (buffer.hasRemaining() == true) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Forces the snapshot directory, so that renamed files survive a crash.
+     */
+    protected void forceDirectory() {
+
+        try (FileChannel directoryChannel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            directoryChannel.force(true);
+        }
+        catch (IOException e) {
+            // Opening a directory as a channel isn't supported on all platforms (e.g. Windows), where directory entries are made durable by the file system
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.persistence;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+
+import net.alastairwyse.taskmanager.models.Task;
+
+/**
+ * Encodes tasks to and decodes tasks from the compact binary form used in persistent storage.
+ * <p>
+ * The encoded form is (in big-endian order): the most and least significant bits of the id (2 longs), the epoch day of the due date or Long.MIN_VALUE if the task has no due date (long), the length of the UTF-8 encoded title (int), the UTF-8 encoded title, the length of the UTF-8 encoded detail or -1 if the detail is null (int), and the UTF-8 encoded detail.
+ */
+public class TaskCodec {
+
+    protected static final long NO_DUE_DATE = Long.MIN_VALUE;
+    protected static final int NULL_DETAIL_LENGTH = -1;
+
+    /**
+     * Encodes the specified task.
+     * 
+     * @param task The task to encode.
+     * @return The encoded task.
+     */
+    public byte[] encode(Task task) {
+
+        byte[] titleBytes = task.getTitle().getBytes(StandardCharsets.UTF_8);
+        byte[] detailBytes = task.getDetail() == null ? null : task.getDetail().getBytes(StandardCharsets.UTF_8);
+        var buffer = ByteBuffer.allocate(32 + titleBytes.length + (detailBytes == null ? 0 : detailBytes.length));
+        buffer.putLong(task.getId().getMostSignificantBits());
+        buffer.putLong(task.getId().getLeastSignificantBits());
+        buffer.putLong(task.getDueDate().isPresent() ? task.getDueDate().get().toEpochDay() : NO_DUE_DATE);
+        buffer.putInt(titleBytes.length);
+        buffer.put(titleBytes);
+        if (detailBytes == null) {
+            buffer.putInt(NULL_DETAIL_LENGTH);
+        }
+        else {
+            buffer.putInt(detailBytes.length);
+            buffer.put(detailBytes);
+        }
+
+        return buffer.array();
+    }
+
+    /**
+     * Decodes a task from the current position of the specified buffer, advancing the position past the encoded task.
+     * 
+     * @param buffer The buffer containing the encoded task.
+     * @return The decoded task.
+     * @throws IllegalArgumentException If the buffer doesn't contain a valid encoded task at its current position.
+     */
+    public Task decode(ByteBuffer buffer) {
+
+        try {
+            var id = new UUID(buffer.getLong(), buffer.getLong());
+            long dueDateEpochDay = buffer.getLong();
+            Optional<LocalDate> dueDate = dueDateEpochDay == NO_DUE_DATE ? Optional.empty() : Optional.of(LocalDate.ofEpochDay(dueDateEpochDay));
+            String title = decodeString(buffer, buffer.getInt());
+            int detailLength = buffer.getInt();
+            String detail = detailLength == NULL_DETAIL_LENGTH ? null : decodeString(buffer, detailLength);
+
+            return new Task(id, title, detail, dueDate);
+        }
+        catch (BufferUnderflowException | IndexOutOfBoundsException | DateTimeException e) {
+            throw new IllegalArgumentException("Parameter 'buffer' does not contain a valid encoded task.", e);
+        }
+    }
+
+    protected String decodeString(ByteBuffer buffer, int length) {
+
+        if (length < 0 || length > buffer.remaining())
+            throw new IndexOutOfBoundsException(String.format("Encoded string length %d is invalid.", length));
+
+        String decoded;
+        if (buffer.hasArray()) {
+            decoded = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        }
+        else {
+            var bytes = new byte[length];
+            buffer.get(bytes);
+            decoded = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        return decoded;
+    }
+}
@@ -0,0 +1,792 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import net.alastairwyse.taskmanager.models.Task;
+
+/**
+ * A write-ahead log of changes to tasks, stored in a directory of append-only segment files.
+ * <p>
+ * Records are appended to an in-memory queue by the threads making changes, and written to the current segment file by a single 'group commit' thread.  The commit thread takes all records queued since its previous write as one batch, so when many threads make changes concurrently, their records are written (and forced to the storage device, depending on the {@link FsyncPolicy}) with a single write and a single force.  Threads wait for their record to be committed by calling {@link #awaitCommit(long)}.  The queue is bounded, and appending threads wait for the commit thread to take the queued records once it's full, so writers are slowed to the rate the storage device can sustain rather than growing the queue without limit.
+ * <p>
+ * If the commit thread fails to write or force records (or stops for any other reason), the log is broken: threads waiting for records to be committed or for space in the queue are woken and throw, as do subsequent appends and calls to {@link #ThrowExceptionIfFailed()}.
+ * <p>
+ * Each record is stored as: the length of the record body (int), the CRC32C checksum of the body (int), and the body; consisting of the record type code (byte), the log sequence number (long), and for {@link LogRecord.Type#PUT} records the task encoded by {@link TaskCodec}, or for {@link LogRecord.Type#DELETE} records the most and least significant bits of the task id (2 longs).
+ * <p>
+ * Segment files are named by the log sequence number of their first record, and a new segment is started once the current segment exceeds the configured segment size.  On opening the log, the segments are replayed in order.  A record in the last segment which is incomplete or fails its checksum is assumed to be the result of a write interrupted by a crash, and it and everything after it are truncated.  Such a record in any other segment indicates corruption, and causes opening to fail.
+ */
+public class WriteAheadLog implements Closeable {
+
+    /** The default size in bytes at which a new segment is started. */
+    public static final long DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    /** The default interval in milliseconds between forces when using {@link FsyncPolicy#INTERVAL}. */
+    public static final long DEFAULT_FSYNC_INTERVAL = 100;
+    /** The default maximum size in bytes of the records queued for the commit thread. */
+    public static final int DEFAULT_MAXIMUM_QUEUE_SIZE = 16 * 1024 * 1024;
+
+    protected static final String SEGMENT_FILE_EXTENSION = ".wal";
+    protected static final int RECORD_HEADER_SIZE = 8;
+    protected static final int RECORD_BODY_PREFIX_SIZE = 9;
+    protected static final int MAXIMUM_RECORD_BODY_SIZE = 64 * 1024 * 1024;
+    protected static final int INITIAL_QUEUE_CAPACITY = 64 * 1024;
+
+    /** The directory containing the segment files. */
+    protected final Path directory;
+    /** When the log forces written records to the storage device. */
+    protected final FsyncPolicy fsyncPolicy;
+    /** The interval in nanoseconds between forces when using {@link FsyncPolicy#INTERVAL}. */
+    protected final long fsyncIntervalNanos;
+    /** The size in bytes at which a new segment is started. */
+    protected final long segmentSize;
+    /** The maximum size in bytes of the records queued for the commit thread, beyond which appends wait (a single record larger than this is still accepted into an empty queue). */
+    protected final int maximumQueueSize;
+    /** Encodes tasks into record bodies. */
+    protected final TaskCodec codec;
+    /** Lock protecting the queue of appended records and the log sequence number fields. */
+    protected final ReentrantLock queueLock;
+    /** Signalled when records are appended to the queue, or the log is closed. */
+    protected final Condition recordsAppended;
+    /** Signalled when the commit thread has committed a batch of records, or failed. */
+    protected final Condition recordsCommitted;
+    /** Signalled when the commit thread takes the queued records, or fails, or the log is closed. */
+    protected final Condition queueSpaceAvailable;
+    /** Calculates record checksums.  Protected by the 'queueLock' field. */
+    protected final CRC32C checksum;
+    /** Records appended but not yet taken by the commit thread.  Protected by the 'queueLock' field. */
+    protected ByteBuffer queuedRecords;
+    /** The buffer holding the batch of records being written by the commit thread, swapped with 'queuedRecords' when a batch is taken. */
+    protected ByteBuffer batchRecords;
+    /** The log sequence number of the most recently appended record.  Protected by the 'queueLock' field. */
+    protected long lastLsn;
+    /** The log sequence number of the most recent record written to the current segment.  Protected by the 'queueLock' field. */
+    protected long writtenLsn;
+    /** The log sequence number of the most recent record forced to the storage device.  Protected by the 'queueLock' field. */
+    protected long durableLsn;
+    /** The number of times the commit thread has forced the current segment.  Protected by the 'queueLock' field. */
+    protected long forceCount;
+    /** The exception which caused the commit thread to fail, or null if it hasn't failed.  Protected by the 'queueLock' field. */
+    protected IOException failure;
+    /** Whether the log has been opened.  Protected by the 'queueLock' field. */
+    protected boolean opened;
+    /** Whether the log has been closed.  Protected by the 'queueLock' field. */
+    protected boolean closed;
+    /** The segment file currently being appended to.  Accessed only by the commit thread once the log is opened. */
+    protected FileChannel currentSegment;
+    /** The thread which writes and forces batches of records. */
+    protected Thread commitThread;
+
+    /**
+     * Constructs a WriteAheadLog with the default segment size and fsync interval.
+     * 
+     * @param directory The directory to store the segment files in (created if it doesn't exist).
+     * @param fsyncPolicy When the log forces written records to the storage device.
+     */
+    public WriteAheadLog(Path directory, FsyncPolicy fsyncPolicy) {
+        this(directory, fsyncPolicy, DEFAULT_FSYNC_INTERVAL, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Constructs a WriteAheadLog with the default maximum queue size.
+     * 
+     * @param directory The directory to store the segment files in (created if it doesn't exist).
+     * @param fsyncPolicy When the log forces written records to the storage device.
+     * @param fsyncInterval The interval in milliseconds between forces when using {@link FsyncPolicy#INTERVAL}.
+     * @param segmentSize The size in bytes at which a new segment is started.
+     */
+    public WriteAheadLog(Path directory, FsyncPolicy fsyncPolicy, long fsyncInterval, long segmentSize) {
+        this(directory, fsyncPolicy, fsyncInterval, segmentSize, DEFAULT_MAXIMUM_QUEUE_SIZE);
+    }
+
+    /**
+     * Constructs a WriteAheadLog.
+     * 
+     * @param directory The directory to store the segment files in (created if it doesn't exist).
+     * @param fsyncPolicy When the log forces written records to the storage device.
+     * @param fsyncInterval The interval in milliseconds between forces when using {@link FsyncPolicy#INTERVAL}.
+     * @param segmentSize The size in bytes at which a new segment is started.
+     * @param maximumQueueSize The maximum size in bytes of the records queued for the commit thread, beyond which appends wait for the commit thread to take them.
+     */
+    public WriteAheadLog(Path directory, FsyncPolicy fsyncPolicy, long fsyncInterval, long segmentSize, int maximumQueueSize) {
+
+        if (directory == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null.", "directory"));
+        if (fsyncPolicy == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null.", "fsyncPolicy"));
+        if (fsyncInterval < 1)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be greater than 0.", "fsyncInterval"));
+        if (segmentSize < 1)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be greater than 0.", "segmentSize"));
+        if (maximumQueueSize < 1)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be greater than 0.", "maximumQueueSize"));
+
+        this.directory = directory;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fsyncInterval);
+        this.segmentSize = segmentSize;
+        this.maximumQueueSize = maximumQueueSize;
+        codec = new TaskCodec();
+        queueLock = new ReentrantLock();
+        recordsAppended = queueLock.newCondition();
+        recordsCommitted = queueLock.newCondition();
+        queueSpaceAvailable = queueLock.newCondition();
+        checksum = new CRC32C();
+        queuedRecords = ByteBuffer.allocate(Math.min(INITIAL_QUEUE_CAPACITY, maximumQueueSize));
+        batchRecords = ByteBuffer.allocate(Math.min(INITIAL_QUEUE_CAPACITY, maximumQueueSize));
+        lastLsn = 0;
+        writtenLsn = 0;
+        durableLsn = 0;
+        forceCount = 0;
+        failure = null;
+        opened = false;
+        closed = false;
+    }
+
+    /**
+     * @return The directory containing the segment files.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return The log sequence number of the most recently appended record.
+     */
+    public long getLastLsn() {
+
+        queueLock.lock();
+        try {
+            return lastLsn;
+        }
+        finally {
+            queueLock.unlock();
+        }
+    }
+
+    /**
+     * @return The log sequence number of the most recent record forced to the storage device.
+     */
+    public long getDurableLsn() {
+
+        queueLock.lock();
+        try {
+            return durableLsn;
+        }
+        finally {
+            queueLock.unlock();
+        }
+    }
+
+    /**
+     * @return The number of times the log has been forced to the storage device.
+     */
+    public long getForceCount() {
+
+        queueLock.lock();
+        try {
+            return forceCount;
+        }
+        finally {
+            queueLock.unlock();
+        }
+    }
+
+    /**
+     * Throws an exception if the commit thread has failed, after which no further records can be committed.  Allows callers to check the log before making a change they would then be unable to record.
+     * 
+     * @throws UncheckedIOException If the commit thread failed to write or force the log.
+     */
+    public void ThrowExceptionIfFailed() {
+
+        queueLock.lock();
+        try {
+            if (failure != null)
+                throw new UncheckedIOException("Failed to write to the write-ahead log.", failure);
+        }
+        finally {
+            queueLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the paths of the segment files in the log directory, in log sequence number order.
+     * 
+     * @return The segment file paths.
+     * @throws IOException If an error occurs listing the directory.
+     */
+    public List<Path> getSegmentPaths() throws IOException {
+
+        var segmentPaths = new ArrayList<Path>();
+        if (Files.isDirectory(directory) == false) {
+            return segmentPaths;
+        }
+        try (Stream<Path> paths = Files.list(directory)) {
+            paths.filter((Path path) -> path.getFileName().toString().endsWith(SEGMENT_FILE_EXTENSION)).forEach(segmentPaths::add);
+        }
+        // File names are zero padded, so lexical order is log sequence number order
+        Collections.sort(segmentPaths);
+
+        return segmentPaths;
+    }
+
+    /**
+     * Replays all records in the log, then opens the log for appending and starts the commit thread.
+     * 
+     * @param replayHandler Handler which is passed each record in the log in log sequence number order.
+     * @return The log sequence number of the last record in the log, or 0 if the log is empty.
+     * @throws IOException If an error occurs reading the log, or a segment other than the last is corrupt.
+     */
+    public long open(Consumer<LogRecord> replayHandler) throws IOException {
+
+        return open(0, replayHandler);
+    }
+
+    /**
+     * Replays the records in the log following the specified log sequence number (e.g. that of a snapshot which already reflects earlier records), then opens the log for appending and starts the commit thread.
+     * 
+     * @param afterLsn Records with this or a lower log sequence number are not replayed.
+     * @param replayHandler Handler which is passed each replayed record in log sequence number order.
+     * @return The log sequence number of the last record in the log, or 'afterLsn' if greater.
+     * @throws IOException If an error occurs reading the log, or a replayed segment other than the last is corrupt.
+     */
+    public long open(long afterLsn, Consumer<LogRecord> replayHandler) throws IOException {
+
+        if (afterLsn < 0)
+            throw new IllegalArgumentException(String.format("Parameter '%s' must be greater than or equal to 0.", "afterLsn"));
+        if (replayHandler == null)
+            throw new IllegalArgumentException(String.format("Parameter '%s' cannot be null.", "replayHandler"));
+
+        queueLock.lock();
+        try {
+            if (opened == true)
+                throw new IllegalStateException("The write-ahead log has already been opened.");
+
+            Files.createDirectories(directory);
+            List<Path> segmentPaths = getSegmentPaths();
+            // Records with log sequence numbers up to 'afterLsn' may have been lost in a crash, so numbering continues after the greater of the two
+            long replayedLsn = afterLsn;
+            Consumer<LogRecord> filteredHandler = (LogRecord record) -> 
+            {
+                if (record.getLsn() > afterLsn) {
+                    replayHandler.accept(record);
+                }
+            };
+            for (int i = 0; i < segmentPaths.size(); i++) {
+                boolean isLastSegment = (i == segmentPaths.size() - 1);
+                // Skip segments whose records all precede 'afterLsn'
+                if (isLastSegment == false && getSegmentFirstLsn(segmentPaths.get(i + 1)) - 1 <= afterLsn) {
+                    continue;
+                }
+                replayedLsn = Math.max(replayedLsn, replaySegment(segmentPaths.get(i), isLastSegment, filteredHandler));
+            }
+            if (segmentPaths.isEmpty() == true) {
+                currentSegment = createSegment(replayedLsn + 1);
+            }
+            else {
+                // The last segment may be empty, with the records preceding it removed by compaction
+                replayedLsn = Math.max(replayedLsn, getSegmentFirstLsn(segmentPaths.get(segmentPaths.size() - 1)) - 1);
+                currentSegment = FileChannel.open(segmentPaths.get(segmentPaths.size() - 1), StandardOpenOption.WRITE);
+                currentSegment.position(currentSegment.size());
+            }
+            lastLsn = replayedLsn;
+            writtenLsn = replayedLsn;
+            durableLsn = replayedLsn;
+            opened = true;
+            commitThread = new Thread(this::runCommitThread, "WriteAheadLogCommitThread");
+            commitThread.setDaemon(true);
+            commitThread.start();
+
+            return replayedLsn;
+        }
+        finally {
+            queueLock.unlock();
+        }
+    }
+
+    /**
+     * Appends a record of the creation, update, or restoration of a task to the log.  The record is not necessarily written when this method returns, and {@link #awaitCommit(long)} should be called to wait for it to be committed.
+     * 
+     * @param task The task.
+     * @return The log sequence number of the record.
+     */
+    public long appendPut(Task task) {
+
+        return append(LogRecord.Type.PUT, codec.encode(task));
+    }
+
+    /**
+     * Appends a record of the deletion of a task to the log.  The record is not necessarily written when this method returns, and {@link #awaitCommit(long)} should be called to wait for it to be committed.
+     * 
+     * @param id The id of the task.
+     * @return The log sequence number of the record.
+     */
+    public long appendDelete(UUID id) {
+
+        return append(LogRecord.Type.DELETE, encodeDeletePayload(id));
+    }
+
+    /**
+     * Waits until the record with the specified log sequence number is committed.  A record is committed once it's been forced to the storage device when using {@link FsyncPolicy#EVERY_BATCH}, or once it's been written to the operating system when using other policies.
+     * 
+     * @param lsn The log sequence number of the record.
+     * @throws UncheckedIOException If the commit thread failed to write or force the log.
+     */
+    public void awaitCommit(long lsn) {
+
+        queueLock.lock();
+        try {
+            while (true) {
+                if (failure != null)
+                    throw new UncheckedIOException("Failed to write to the write-ahead log.", failure);
+                long committedLsn = fsyncPolicy == FsyncPolicy.EVERY_BATCH ? durableLsn : writtenLsn;
+                if (committedLsn >= lsn) {
+                    return;
+                }
+                recordsCommitted.awaitUninterruptibly();
+            }
+        }
+        finally {
+            queueLock.unlock();
+        }
+    }
+
+    /**
+     * Writes and forces any queued records, stops the commit thread, and closes the current segment.
+     * 
+     * @throws IOException If the commit thread failed to write or force the log, or an error occurs closing the current segment.
+     */
+    @Override
+    public void close() throws IOException {
+
+        queueLock.lock();
+        try {
+            if (closed == true) {
+                return;
+            }
+            closed = true;
+            if (opened == false) {
+                return;
+            }
+            recordsAppended.signalAll();
+            queueSpaceAvailable.signalAll();
+        }
+        finally {
+            queueLock.unlock();
+        }
+        boolean interrupted = false;
+        while (commitThread.isAlive()) {
+            try {
+                commitThread.join();
+            }
+            catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted == true) {
+            Thread.currentThread().interrupt();
+        }
+        currentSegment.close();
+        if (failure != null)
+            throw new IOException("Failed to write to the write-ahead log.", failure);
+    }
+
+    /**
+     * Appends a record to the queue to be written by the commit thread, first waiting for the commit thread to take the queued records if the queue is full.
+     * 
+     * @param type The type of the record.
+     * @param payload The part of the record body following the log sequence number.
+     * @return The log sequence number of the record.
+     */
+    protected long append(LogRecord.Type type, byte[] payload) {
+
+        int bodyLength = RECORD_BODY_PREFIX_SIZE + payload.length;
+        if (bodyLength > MAXIMUM_RECORD_BODY_SIZE)
+            throw new IllegalArgumentException(String.format("Log record size %d exceeds the maximum of %d bytes.", bodyLength, MAXIMUM_RECORD_BODY_SIZE));
+
+        queueLock.lock();
+        try {
+            if (opened == false)
+                throw new IllegalStateException("The write-ahead log has not been opened.");
+            while (true) {
+                if (closed == true)
+                    throw new IllegalStateException("The write-ahead log has been closed.");
+                if (failure != null)
+                    throw new UncheckedIOException("Failed to write to the write-ahead log.", failure);
+                // A record larger than the maximum is accepted into an empty queue, so it can't wait indefinitely
+                if (queuedRecords.position() == 0 || queuedRecords.position() + RECORD_HEADER_SIZE + bodyLength <= maximumQueueSize) {
+                    break;
+                }
+                queueSpaceAvailable.awaitUninterruptibly();
+            }
+
+            if (queuedRecords.remaining() < RECORD_HEADER_SIZE + bodyLength) {
+                int newCapacity = Math.max(Math.min(queuedRecords.capacity() * 2, maximumQueueSize), queuedRecords.position() + RECORD_HEADER_SIZE + bodyLength);
+                var newQueuedRecords = ByteBuffer.allocate(newCapacity);
+                newQueuedRecords.put(queuedRecords.flip());
+                queuedRecords = newQueuedRecords;
+            }
+            lastLsn++;
+            writeRecord(queuedRecords, checksum, type, lastLsn, payload);
+            recordsAppended.signal();
+
+            return lastLsn;
+        }
+        finally {
+            queueLock.unlock();
+        }
+    }
+
+    /**
+     * Writes a record in the log format to the specified buffer.
+     * 
+     * @param buffer The buffer to write to, which must be backed by an array and have sufficient space remaining for the record.
+     * @param checksum The checksum to calculate the record checksum with.
+     * @param type The type of the record.
+     * @param lsn The log sequence number of the record.
+     * @param payload The part of the record body following the log sequence number.
+     */
+    protected static void writeRecord(ByteBuffer buffer, CRC32C checksum, LogRecord.Type type, long lsn, byte[] payload) {
+
+        int bodyLength = RECORD_BODY_PREFIX_SIZE + payload.length;
+        int recordStart = buffer.position();
+        buffer.putInt(bodyLength);
+        buffer.putInt(0);
+        buffer.put(type.getCode());
+        buffer.putLong(lsn);
+        buffer.put(payload);
+        checksum.reset();
+        checksum.update(buffer.array(), buffer.arrayOffset() + recordStart + RECORD_HEADER_SIZE, bodyLength);
+        buffer.putInt(recordStart + 4, (int)checksum.getValue());
+    }
+
+    /**
+     * Returns the part of the body of a {@link LogRecord.Type#DELETE} record following the log sequence number.
+     * 
+     * @param id The id of the deleted task.
+     * @return The payload.
+     */
+    protected static byte[] encodeDeletePayload(UUID id) {
+
+        var payload = ByteBuffer.allocate(16);
+        payload.putLong(id.getMostSignificantBits());
+        payload.putLong(id.getLeastSignificantBits());
+
+        return payload.array();
+    }
+
+    /**
+     * The body of the commit thread, which repeatedly takes all queued records, writes them to the current segment, and forces the segment as dictated by the fsync policy.
+     */
+    protected void runCommitThread() {
+
+        long lastForceTime = System.nanoTime();
+        boolean unforcedWrites = false;
+        while (true) {
+            ByteBuffer batch;
+            long batchLastLsn;
+            boolean closing;
+            queueLock.lock();
+            try {
+                while (queuedRecords.position() == 0 && closed == false) {
+                    if (fsyncPolicy == FsyncPolicy.INTERVAL && unforcedWrites == true) {
+                        long remainingNanos = fsyncIntervalNanos - (System.nanoTime() - lastForceTime);
+                        if (remainingNanos <= 0) {
+                            break;
+                        }
+                        recordsAppended.awaitNanos(remainingNanos);
+                    }
+                    else {
+                        recordsAppended.await();
+                    }
+                }
+                batch = queuedRecords;
+                queuedRecords = batchRecords;
+                batchRecords = batch;
+                batchLastLsn = lastLsn;
+                closing = closed;
+                queueSpaceAvailable.signalAll();
+            }
+            catch (InterruptedException e) {
+                // The commit thread is stopped via the 'closed' field, so interruption is ignored
+                continue;
+            }
+            finally {
+                queueLock.unlock();
+            }
+
+            boolean forced = false;
+            try {
+                batch.flip();
+                if (batch.hasRemaining() == true) {
+                    while (batch.hasRemaining() == true) {
+                        currentSegment.write(batch);
+                    }
+                    unforcedWrites = true;
+                }
+                batch.clear();
+                if (currentSegment.position() >= segmentSize) {
+                    sealCurrentSegment(batchLastLsn + 1);
+                    forced = true;
+                }
+                else if (unforcedWrites == true) {
+                    boolean forceRequired = closing == true 
+                        || fsyncPolicy == FsyncPolicy.EVERY_BATCH 
+                        || (fsyncPolicy == FsyncPolicy.INTERVAL && System.nanoTime() - lastForceTime >= fsyncIntervalNanos);
+                    if (forceRequired == true) {
+                        currentSegment.force(false);
+                        forced = true;
+                    }
+                }
+            }
+            catch (IOException e) {
+                Fail(e);
+                return;
+            }
+            catch (RuntimeException | Error e) {
+                // Any other exception also stops the commit thread, so must equally fail the records waiting to be committed
+                Fail(new IOException("The write-ahead log commit thread failed unexpectedly.", e));
+                throw e;
+            }
+
+            if (forced == true) {
+                lastForceTime = System.nanoTime();
+                unforcedWrites = false;
+            }
+            queueLock.lock();
+            try {
+                writtenLsn = batchLastLsn;
+                if (forced == true) {
+                    durableLsn = batchLastLsn;
+                    forceCount++;
+                }
+                recordsCommitted.signalAll();
+            }
+            finally {
+                queueLock.unlock();
+            }
+            if (closing == true) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Records the failure of the commit thread, and wakes all threads waiting for records to be committed or for space in the queue, which then throw.
+     * 
+     * @param e The exception which caused the failure.
+     */
+    protected void Fail(IOException e) {
+
+        queueLock.lock();
+        try {
+            failure = e;
+            recordsCommitted.signalAll();
+            queueSpaceAvailable.signalAll();
+        }
+        finally {
+            queueLock.unlock();
+        }
+    }
+
+    /**
+     * Forces and closes the current segment, and starts a new segment.
+     * 
+     * @param firstLsn The log sequence number of the first record in the new segment.
+     */
+    protected void sealCurrentSegment(long firstLsn) throws IOException {
+
+        currentSegment.force(false);
+        currentSegment.close();
+        currentSegment = createSegment(firstLsn);
+    }
+
+    /**
+     * Creates a new, empty segment file.
+     * 
+     * @param firstLsn The log sequence number of the first record in the segment.
+     * @return A channel open for writing to the segment.
+     */
+    protected FileChannel createSegment(long firstLsn) throws IOException {
+
+        FileChannel segment = FileChannel.open(getSegmentPath(firstLsn), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        forceDirectory();
+
+        return segment;
+    }
+
+    /**
+     * Returns the path of the segment file whose first record has the specified log sequence number.
+     */
+    protected Path getSegmentPath(long firstLsn) {
+
+        return directory.resolve(String.format("%020d%s", firstLsn, SEGMENT_FILE_EXTENSION));
+    }
+
+    /**
+     * Returns the log sequence number of the first record in the specified segment file, from the segment file name.
+     */
+    protected long getSegmentFirstLsn(Path segmentPath) {
+
+        String fileName = segmentPath.getFileName().toString();
+
+        return Long.parseLong(fileName.substring(0, fileName.length() - SEGMENT_FILE_EXTENSION.length()));
+    }
+
+    /**
+     * Forces the log directory, so that files created in or renamed into it survive a crash.
+     */
+    protected void forceDirectory() {
+
+        try (FileChannel directoryChannel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            directoryChannel.force(true);
+        }
+        catch (IOException e) {
+            // Opening a directory as a channel isn't supported on all platforms (e.g. Windows), where directory entries are made durable by the file system
+        }
+    }
+
+    /**
+     * Passes each record in the specified segment to the specified handler.
+     * 
+     * @param segmentPath The path of the segment file.
+     * @param isLastSegment Whether the segment is the last in the log, and hence whether an incomplete or invalid record should be truncated rather than treated as corruption.
+     * @param replayHandler The handler to pass the records to.
+     * @return The log sequence number of the last record in the segment, or 0 if the segment is empty.
+     */
+    protected long replaySegment(Path segmentPath, boolean isLastSegment, Consumer<LogRecord> replayHandler) throws IOException {
+
+        return replaySegment(segmentPath, isLastSegment, replayHandler, null);
+    }
+
+    /**
+     * Passes each record in the specified segment to the specified handler, limiting the rate the segment is read at.
+     * 
+     * @param segmentPath The path of the segment file.
+     * @param isLastSegment Whether the segment is the last in the log, and hence whether an incomplete or invalid record should be truncated rather than treated as corruption.
+     * @param replayHandler The handler to pass the records to.
+     * @param rateLimiter Limits the rate the segment is read at, or null to read without limit.
+     * @return The log sequence number of the last record in the segment, or 0 if the segment is empty.
+     */
+    protected long replaySegment(Path segmentPath, boolean isLastSegment, Consumer<LogRecord> replayHandler, IoRateLimiter rateLimiter) throws IOException {
+
+        // Segments may be read by a compactor concurrently with appends, so the 'checksum' field isn't used
+        var checksum = new CRC32C();
+        try (FileChannel segment = FileChannel.open(segmentPath, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            InputStream input = new BufferedInputStream(Channels.newInputStream(segment), 1024 * 1024);
+            var header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+            var body = new byte[1024];
+            long validPosition = 0;
+            long segmentLastLsn = 0;
+            boolean corrupt = false;
+            while (true) {
+                int bytesRead = input.readNBytes(header.array(), 0, RECORD_HEADER_SIZE);
+                if (bytesRead == 0) {
+                    break;
+                }
+                if (bytesRead < RECORD_HEADER_SIZE) {
+                    corrupt = true;
+                    break;
+                }
+                int bodyLength = header.getInt(0);
+                int expectedChecksum = header.getInt(4);
+                if (bodyLength < RECORD_BODY_PREFIX_SIZE || bodyLength > MAXIMUM_RECORD_BODY_SIZE) {
+                    corrupt = true;
+                    break;
+                }
+                if (body.length < bodyLength) {
+                    body = new byte[Math.max(bodyLength, body.length * 2)];
+                }
+                if (input.readNBytes(body, 0, bodyLength) < bodyLength) {
+                    corrupt = true;
+                    break;
+                }
+                checksum.reset();
+                checksum.update(body, 0, bodyLength);
+                if ((int)checksum.getValue() != expectedChecksum) {
+                    corrupt = true;
+                    break;
+                }
+                LogRecord record;
+                try {
+                    record = decodeRecord(ByteBuffer.wrap(body, 0, bodyLength));
+                }
+                catch (IllegalArgumentException e) {
+                    corrupt = true;
+                    break;
+                }
+                if (rateLimiter != null) {
+                    rateLimiter.acquire(RECORD_HEADER_SIZE + bodyLength);
+                }
+                replayHandler.accept(record);
+                segmentLastLsn = record.getLsn();
+                validPosition += RECORD_HEADER_SIZE + bodyLength;
+            }
+            if (corrupt == true) {
+                if (isLastSegment == false)
+                    throw new IOException(String.format("Write-ahead log segment '%s' is corrupt at position %d.", segmentPath, validPosition));
+                // Discard the remains of a write interrupted by a crash
+                segment.truncate(validPosition);
+                segment.force(false);
+            }
+
+            return segmentLastLsn;
+        }
+    }
+
+    /**
+     * Decodes a record body.
+     * 
+     * @param body Buffer containing the record body.
+     * @return The decoded record.
+     * @throws IllegalArgumentException If the body is invalid.
+     */
+    protected LogRecord decodeRecord(ByteBuffer body) {
+
+        LogRecord.Type type = LogRecord.Type.fromCode(body.get());
+        long lsn = body.getLong();
+        if (type == LogRecord.Type.PUT) {
+            Task task = codec.decode(body);
+            return new LogRecord(type, lsn, task.getId(), task);
+        }
+        else {
+            if (body.remaining() < 16)
+                throw new IllegalArgumentException("Delete record is too short.");
+            return new LogRecord(type, lsn, new UUID(body.getLong(), body.getLong()), null);
+        }
+    }
+}
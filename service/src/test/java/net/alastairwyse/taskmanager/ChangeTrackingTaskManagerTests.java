@@ -0,0 +1,137 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import net.alastairwyse.taskmanager.changes.TaskChangeIndex;
+import net.alastairwyse.taskmanager.models.dtos.NewTaskDto;
+import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.TaskDelta;
+
+import static org.junit.Assert.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link ChangeTrackingTaskManager} class.
+ * <p>
+ * The behaviour common to all {@link TaskManager} implementations is tested by {@link TaskManagerContractTests}, against a {@link ChangeTrackingTaskManager} decorating a {@link ConcurrentTaskManager}.
+ */
+public class ChangeTrackingTaskManagerTests extends TaskManagerContractTests {
+
+    @Override
+    protected TaskManager CreateTaskManager() {
+
+        return new ChangeTrackingTaskManager(new ConcurrentTaskManager());
+    }
+
+    @Test
+    public void constructor_TaskManagerParameterNull() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+        {
+            new ChangeTrackingTaskManager(null);
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'taskManager' cannot be null."));
+    }
+
+    @Test
+    public void constructor_ChangeIndexParameterNull() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+        {
+            new ChangeTrackingTaskManager(new DefaultTaskManager(), null);
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'changeIndex' cannot be null."));
+    }
+
+    @Override
+    @Test
+    public void getChangesSince() throws Exception {
+
+        var newTaskDto = new NewTaskDto();
+        newTaskDto.setTitle("Do Christmas Shopping");
+        Task createdTask1 = testTaskManager.createTask(newTaskDto);
+        Task createdTask2 = testTaskManager.createTask(newTaskDto);
+        long version = testTaskManager.getVersion();
+        var updatedTask = new Task(createdTask1.getId(), "Do Christmas Shopping", "Turkey, crackers, prawns, presents", Optional.empty());
+        testTaskManager.updateTask(updatedTask);
+        testTaskManager.deleteTask(createdTask2);
+        Task createdTask3 = testTaskManager.createTask(newTaskDto);
+
+        TaskDelta result = testTaskManager.getChangesSince(version);
+
+        assertFalse(result.getFullSnapshot());
+        assertEquals(testTaskManager.getVersion(), result.getVersion());
+        Set<UUID> resultIds = StreamSupport.stream(result.getTasks().spliterator(), false).map(Task::getId).collect(Collectors.toSet());
+        assertEquals(Set.of(createdTask1.getId(), createdTask3.getId()), resultIds);
+        assertEquals(List.of(createdTask2.getId()), result.getDeletedIds());
+
+        result = testTaskManager.getChangesSince(result.getVersion());
+
+        assertFalse(result.getFullSnapshot());
+        assertEquals(testTaskManager.getVersion(), result.getVersion());
+        assertFalse(result.getTasks().iterator().hasNext());
+        assertEquals(0, result.getDeletedIds().size());
+
+        // A version later than the current one (e.g. from before a restart) results in a full snapshot
+        result = testTaskManager.getChangesSince(testTaskManager.getVersion() + 1);
+
+        assertTrue(result.getFullSnapshot());
+        assertEquals(2, StreamSupport.stream(result.getTasks().spliterator(), false).count());
+        assertEquals(0, result.getDeletedIds().size());
+    }
+
+    @Test
+    public void getChangesSince_ConcurrentWriters() throws Exception {
+
+        var decoratedTaskManager = new ConcurrentTaskManager();
+        var changeIndex = new TaskChangeIndex();
+        var testChangeTrackingTaskManager = new ChangeTrackingTaskManager(decoratedTaskManager, changeIndex);
+        var newTaskDto = new NewTaskDto();
+        newTaskDto.setTitle("Do Christmas Shopping");
+        var threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() ->
+            {
+                for (int j = 0; j < 1000; j++) {
+                    testChangeTrackingTaskManager.createTask(newTaskDto);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread currentThread : threads) {
+            currentThread.join();
+        }
+
+        TaskDelta result = testChangeTrackingTaskManager.getChangesSince(0);
+
+        assertFalse(result.getFullSnapshot());
+        assertEquals(4000, result.getVersion());
+        assertEquals(4000, changeIndex.getCompleteVersion());
+        assertEquals(4000, StreamSupport.stream(result.getTasks().spliterator(), false).count());
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import net.alastairwyse.taskmanager.models.dtos.NewTaskDto;
+import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.TaskSnapshot;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link ConcurrentTaskManager} class.
+ * <p>
+ * The behaviour common to all {@link TaskManager} implementations is tested by {@link TaskManagerContractTests}.
+ */
+public class ConcurrentTaskManagerTests extends TaskManagerContractTests {
+
+    private ConcurrentTaskManager testConcurrentTaskManager;
+
+    @Override
+    protected TaskManager CreateTaskManager() {
+
+        testConcurrentTaskManager = new ConcurrentTaskManager();
+
+        return testConcurrentTaskManager;
+    }
+
+    @Test
+    public void getSnapshot_UnaffectedByLaterChanges() throws Exception {
+
+        var testNewTaskDto = new NewTaskDto();
+        testNewTaskDto.setTitle("Do Christmas Shopping");
+        Task createdTask = testConcurrentTaskManager.createTask(testNewTaskDto);
+
+        TaskSnapshot snapshot = testConcurrentTaskManager.getSnapshot();
+        testConcurrentTaskManager.updateTask(new Task(createdTask.getId(), "Do New Year Shopping", "Champagne", Optional.empty()));
+        testConcurrentTaskManager.createTask(testNewTaskDto);
+
+        assertEquals(createdTask.getVersion(), snapshot.getVersion());
+        assertEquals(1, snapshot.getSize());
+        assertSame(createdTask, snapshot.iterator().next());
+        assertEquals(2, testConcurrentTaskManager.getSnapshot().getSize());
+    }
+
+    @Test
+    public void getSnapshot_ConcurrentWriters() throws Exception {
+
+        int threadCount = 4;
+        int tasksPerThread = 2000;
+        var threads = new ArrayList<Thread>();
+        for (int i = 0; i < threadCount; i++) {
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < tasksPerThread; j++) {
+                    var newTaskDto = new NewTaskDto();
+                    newTaskDto.setTitle("Task " + j);
+                    testConcurrentTaskManager.createTask(newTaskDto);
+                }
+            }));
+        }
+        for (Thread currentThread : threads) {
+            currentThread.start();
+        }
+        boolean writersAlive = true;
+        while (writersAlive == true) {
+            writersAlive = threads.stream().anyMatch(Thread::isAlive);
+            // Each create increments the version once, so a consistent snapshot holds exactly as many tasks as its version
+            TaskSnapshot snapshot = testConcurrentTaskManager.getSnapshot();
+            assertEquals(snapshot.getVersion(), snapshot.getSize());
+            assertEquals(snapshot.getVersion(), snapshot.stream().count());
+        }
+        for (Thread currentThread : threads) {
+            currentThread.join();
+        }
+
+        assertEquals(threadCount * tasksPerThread, testConcurrentTaskManager.getSnapshot().getSize());
+        assertEquals(threadCount * tasksPerThread, testConcurrentTaskManager.getVersion());
+    }
+
+    @Test
+    public void suggestTasksAndGetTasksDueBetween_ConcurrentUpdates() throws Exception {
+
+        var testNewTaskDto = new NewTaskDto();
+        testNewTaskDto.setTitle("Book flights");
+        Task createdTask = testConcurrentTaskManager.createTask(testNewTaskDto);
+        testConcurrentTaskManager.updateTask(new Task(createdTask.getId(), "Book flights", null, Optional.of(LocalDate.of(2023, 12, 2))));
+        var updater = new Thread(() -> 
+        {
+            for (int i = 0; i < 2000; i++) {
+                String title = (i % 2 == 0) ? "Book hotel" : "Book flights";
+                LocalDate dueDate = LocalDate.of(2023, 12, 1).plusDays(i % 2);
+                testConcurrentTaskManager.tryUpdateTask(new Task(createdTask.getId(), title, null, Optional.of(dueDate)));
+            }
+        });
+
+        updater.start();
+        while (updater.isAlive() == true) {
+            // The task is always found exactly once, whichever version of it is current
+            assertEquals(1, testConcurrentTaskManager.suggestTasks("book", 10).size());
+            assertEquals(1, testConcurrentTaskManager.getTasksDueBetween(LocalDate.of(2023, 12, 1), LocalDate.of(2023, 12, 2)).size());
+        }
+        updater.join();
+    }
+
+    @Test
+    public void RemoveSupersededVersions_EarlierVersionsRemoved() {
+
+        var id = UUID.randomUUID();
+        var otherTask = new Task(UUID.randomUUID(), "Book hotel", null, Optional.empty()).withVersion(2);
+        var oldTask = new Task(id, "Book flights", null, Optional.empty()).withVersion(1);
+        var newTask = new Task(id, "Book ferry", null, Optional.empty()).withVersion(3);
+
+        List<Task> result = ConcurrentTaskManager.RemoveSupersededVersions(List.of(newTask, otherTask, oldTask));
+
+        assertEquals(List.of(newTask, otherTask), result);
+        result = ConcurrentTaskManager.RemoveSupersededVersions(List.of(oldTask, otherTask, newTask));
+        assertEquals(List.of(otherTask, newTask), result);
+    }
+}
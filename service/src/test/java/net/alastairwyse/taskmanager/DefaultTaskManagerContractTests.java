@@ -0,0 +1,76 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager;
+
+import java.util.Optional;
+
+import net.alastairwyse.taskmanager.models.dtos.NewTaskDto;
+import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.TaskSnapshot;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Runs the tests in {@link TaskManagerContractTests} against the {@link DefaultTaskManager} class, alongside the original tests in {@link DefaultTaskManagerTests}.
+ * <p>
+ * Also tests the behaviour of {@link DefaultTaskManager} not covered by the contract.
+ */
+public class DefaultTaskManagerContractTests extends TaskManagerContractTests {
+
+    private DefaultTaskManager testDefaultTaskManager;
+
+    @Override
+    protected TaskManager CreateTaskManager() {
+
+        testDefaultTaskManager = new DefaultTaskManager();
+
+        return testDefaultTaskManager;
+    }
+
+    @Test
+    public void getSnapshot_UnchangedSnapshotReused() {
+
+        var testNewTaskDto = new NewTaskDto();
+        testNewTaskDto.setTitle("Do Christmas Shopping");
+        Task createdTask = testDefaultTaskManager.createTask(testNewTaskDto);
+
+        TaskSnapshot firstSnapshot = testDefaultTaskManager.getSnapshot();
+        TaskSnapshot secondSnapshot = testDefaultTaskManager.getSnapshot();
+
+        assertSame(firstSnapshot, secondSnapshot);
+        assertSame(createdTask, firstSnapshot.iterator().next());
+    }
+
+    @Test
+    public void getSnapshot_UnaffectedByLaterChanges() throws Exception {
+
+        var testNewTaskDto = new NewTaskDto();
+        testNewTaskDto.setTitle("Do Christmas Shopping");
+        Task createdTask = testDefaultTaskManager.createTask(testNewTaskDto);
+
+        TaskSnapshot snapshot = testDefaultTaskManager.getSnapshot();
+        testDefaultTaskManager.updateTask(new Task(createdTask.getId(), "Do New Year Shopping", "Champagne", Optional.empty()));
+        testDefaultTaskManager.createTask(testNewTaskDto);
+        testDefaultTaskManager.tryDeleteTask(createdTask.getId());
+
+        assertEquals(createdTask.getVersion(), snapshot.getVersion());
+        assertEquals(1, snapshot.getSize());
+        assertSame(createdTask, snapshot.iterator().next());
+        assertEquals(1, testDefaultTaskManager.getSnapshot().getSize());
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager;
+
+import java.util.Optional;
+import java.util.stream.StreamSupport;
+
+import net.alastairwyse.taskmanager.models.dtos.NewTaskDto;
+import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.TaskSnapshot;
+
+import static org.junit.Assert.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link OffHeapTaskManager} class.
+ * <p>
+ * The behaviour common to all {@link TaskManager} implementations is tested by {@link TaskManagerContractTests}.
+ */
+public class OffHeapTaskManagerTests extends TaskManagerContractTests {
+
+    private OffHeapTaskManager testOffHeapTaskManager;
+
+    @Override
+    protected TaskManager CreateTaskManager() {
+
+        testOffHeapTaskManager = new OffHeapTaskManager();
+
+        return testOffHeapTaskManager;
+    }
+
+    @Test
+    public void createTask_NonAsciiTitleAndNoDueDate() throws Exception {
+
+        var testNewTaskDto = new NewTaskDto();
+        testNewTaskDto.setTitle("Réserver le restaurant \uD83C\uDF84");
+
+        Task result = testOffHeapTaskManager.createTask(testNewTaskDto);
+
+        Task createdTask = testOffHeapTaskManager.getTask(result.getId());
+        assertEquals("Réserver le restaurant \uD83C\uDF84", createdTask.getTitle());
+        assertEquals(testNewTaskDto.getDetail(), createdTask.getDetail());
+        assertEquals(Optional.empty(), createdTask.getDueDate());
+    }
+
+    @Test
+    public void updateTask_RecordFitsInExistingBlock() throws Exception {
+
+        var testNewTaskDto = new NewTaskDto();
+        testNewTaskDto.setTitle("Do Christmas Shopping");
+        testNewTaskDto.setDetail("Turkey, crackers, prawns, presents");
+        Task createdTask = testOffHeapTaskManager.createTask(testNewTaskDto);
+        long allocatedBytes = testOffHeapTaskManager.getAllocatedBytes();
+        var updatedTask = new Task(createdTask.getId(), "Do Shopping", null, Optional.empty());
+
+        testOffHeapTaskManager.updateTask(updatedTask);
+
+        assertEquals(allocatedBytes, testOffHeapTaskManager.getAllocatedBytes());
+        Task result = testOffHeapTaskManager.getTask(createdTask.getId());
+        assertEquals("Do Shopping", result.getTitle());
+        assertNull(result.getDetail());
+    }
+
+    @Test
+    public void updateTask_RecordDoesntFitInExistingBlock() throws Exception {
+
+        var testNewTaskDto = new NewTaskDto();
+        testNewTaskDto.setTitle("Do Christmas Shopping");
+        Task createdTask = testOffHeapTaskManager.createTask(testNewTaskDto);
+        long allocatedBytes = testOffHeapTaskManager.getAllocatedBytes();
+        var updatedTask = new Task(createdTask.getId(), "Do Christmas Shopping", "x".repeat(1000), Optional.empty());
+
+        testOffHeapTaskManager.updateTask(updatedTask);
+
+        assertTrue(testOffHeapTaskManager.getAllocatedBytes() > allocatedBytes);
+        assertEquals("x".repeat(1000), testOffHeapTaskManager.getTask(createdTask.getId()).getDetail());
+        assertEquals(1, StreamSupport.stream(testOffHeapTaskManager.getAllTasks().spliterator(), false).count());
+    }
+
+    @Test
+    public void deleteTask_BlockReused() throws Exception {
+
+        var testNewTaskDto = new NewTaskDto();
+        testNewTaskDto.setTitle("Do Christmas Shopping");
+        for (int i = 0; i < 1000; i++) {
+            Task createdTask = testOffHeapTaskManager.createTask(testNewTaskDto);
+            testOffHeapTaskManager.deleteTask(createdTask);
+        }
+
+        assertEquals(0, testOffHeapTaskManager.getAllocatedBytes());
+        testOffHeapTaskManager.createTask(testNewTaskDto);
+        assertEquals(64, testOffHeapTaskManager.getAllocatedBytes());
+        assertEquals(4 * 1024 * 1024, testOffHeapTaskManager.getReservedBytes());
+    }
+
+    @Test
+    public void getSnapshot_UnaffectedByLaterChanges() throws Exception {
+
+        var testNewTaskDto = new NewTaskDto();
+        testNewTaskDto.setTitle("Do Christmas Shopping");
+        testNewTaskDto.setDetail("Turkey, crackers, prawns, presents");
+        Task createdTask1 = testOffHeapTaskManager.createTask(testNewTaskDto);
+        // Record larger than a snapshot chunk
+        Task createdTask2 = testOffHeapTaskManager.createTask(testNewTaskDto);
+        testOffHeapTaskManager.updateTask(new Task(createdTask2.getId(), "Write Christmas Cards", "x".repeat(5 * 1024 * 1024), Optional.empty()));
+        Task createdTask3 = testOffHeapTaskManager.createTask(testNewTaskDto);
+
+        TaskSnapshot result = testOffHeapTaskManager.getSnapshot();
+        testOffHeapTaskManager.updateTask(new Task(createdTask1.getId(), "Do Shopping", null, Optional.empty()));
+        testOffHeapTaskManager.deleteTask(createdTask3);
+        testOffHeapTaskManager.createTask(testNewTaskDto);
+
+        assertEquals(3, result.getSize());
+        assertEquals(3, result.stream().count());
+        for (Task currentTask : result) {
+            if (currentTask.getId().equals(createdTask2.getId())) {
+                assertEquals("Write Christmas Cards", currentTask.getTitle());
+                assertEquals(5 * 1024 * 1024, currentTask.getDetail().length());
+            }
+            else {
+                assertEquals("Do Christmas Shopping", currentTask.getTitle());
+                assertEquals("Turkey, crackers, prawns, presents", currentTask.getDetail());
+                assertTrue(currentTask.getId().equals(createdTask1.getId()) || currentTask.getId().equals(createdTask3.getId()));
+            }
+        }
+    }
+}
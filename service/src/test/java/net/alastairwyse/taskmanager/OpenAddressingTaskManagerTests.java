@@ -0,0 +1,82 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager;
+
+import java.util.List;
+
+import net.alastairwyse.taskmanager.models.dtos.NewTaskDto;
+import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.TaskSnapshot;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link OpenAddressingTaskManager} class.
+ * <p>
+ * The behaviour common to all {@link TaskManager} implementations is tested by {@link TaskManagerContractTests}.
+ */
+public class OpenAddressingTaskManagerTests extends TaskManagerContractTests {
+
+    private OpenAddressingTaskManager testOpenAddressingTaskManager;
+
+    @Override
+    protected TaskManager CreateTaskManager() {
+
+        testOpenAddressingTaskManager = new OpenAddressingTaskManager();
+
+        return testOpenAddressingTaskManager;
+    }
+
+    @Test
+    public void getSnapshot_UnchangedSnapshotReused() {
+
+        var testNewTaskDto = new NewTaskDto();
+        testNewTaskDto.setTitle("Do Christmas Shopping");
+        Task createdTask = testOpenAddressingTaskManager.createTask(testNewTaskDto);
+
+        TaskSnapshot firstSnapshot = testOpenAddressingTaskManager.getSnapshot();
+        TaskSnapshot secondSnapshot = testOpenAddressingTaskManager.getSnapshot();
+
+        assertSame(firstSnapshot, secondSnapshot);
+        assertSame(createdTask, firstSnapshot.iterator().next());
+    }
+
+    @Test
+    public void constructor_IndexesEnabled() {
+
+        var testNewTaskDto = new NewTaskDto();
+        testNewTaskDto.setTitle("Do Christmas Shopping");
+        testOpenAddressingTaskManager = new OpenAddressingTaskManager(true);
+        Task createdTask = testOpenAddressingTaskManager.createTask(testNewTaskDto);
+
+        List<Task> result = testOpenAddressingTaskManager.suggestTasks("do christmas", 10);
+
+        assertNotNull(testOpenAddressingTaskManager.titlePrefixIndex);
+        assertEquals(List.of(createdTask), result);
+        assertEquals(List.of(createdTask), testOpenAddressingTaskManager.searchTasks("shopping"));
+    }
+
+    @Test
+    public void constructor_IndexesDisabledByDefault() {
+
+        assertNull(testOpenAddressingTaskManager.dueDateIndex);
+        assertNull(testOpenAddressingTaskManager.fullTextIndex);
+        assertNull(testOpenAddressingTaskManager.titlePrefixIndex);
+        assertNull(testOpenAddressingTaskManager.idOrderIndex);
+    }
+}
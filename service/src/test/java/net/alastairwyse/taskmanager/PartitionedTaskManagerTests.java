@@ -0,0 +1,122 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import net.alastairwyse.taskmanager.models.dtos.NewTaskDto;
+import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.TaskBatchItemResult;
+
+import static org.junit.Assert.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link PartitionedTaskManager} class.
+ * <p>
+ * The behaviour common to all {@link TaskManager} implementations is tested by {@link TaskManagerContractTests}.
+ */
+public class PartitionedTaskManagerTests extends TaskManagerContractTests {
+
+    private PartitionedTaskManager testPartitionedTaskManager;
+
+    @Override
+    protected TaskManager CreateTaskManager() {
+
+        testPartitionedTaskManager = new PartitionedTaskManager(4);
+
+        return testPartitionedTaskManager;
+    }
+
+    @Test
+    public void constructor_PartitionCountParameterLessThan1() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> 
+        {
+            new PartitionedTaskManager(0);
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'partitionCount' must be greater than 0."));
+    }
+
+    @Test
+    public void getPartitionSizes() {
+
+        for (int i = 0; i < 100; i++) {
+            var testNewTaskDto = new NewTaskDto();
+            testNewTaskDto.setTitle("Task " + i);
+            testPartitionedTaskManager.createTask(testNewTaskDto);
+        }
+
+        List<Integer> result = testPartitionedTaskManager.getPartitionSizes();
+
+        assertEquals(4, testPartitionedTaskManager.getPartitionCount());
+        assertEquals(4, result.size());
+        assertEquals(100, result.stream().mapToInt(Integer::intValue).sum());
+        assertEquals(100, testPartitionedTaskManager.getSnapshot().getSize());
+        assertEquals(100, testPartitionedTaskManager.getSnapshot().getVersion());
+    }
+
+    @Test
+    public void updateTasks_SetsVersion() throws Exception {
+
+        var testNewTaskDto = new NewTaskDto();
+        testNewTaskDto.setTitle("Do Christmas Shopping");
+        Task createdTask = testPartitionedTaskManager.createTask(testNewTaskDto);
+        var updatedTask = new Task(createdTask.getId(), "Do New Year Shopping", "Champagne", Optional.empty());
+        var missingTask = new Task(UUID.randomUUID(), "Book flights", null, Optional.empty());
+
+        List<TaskBatchItemResult> results = testPartitionedTaskManager.updateTasks(List.of(updatedTask, missingTask));
+
+        assertTrue(results.get(0).getTask().getVersion() > createdTask.getVersion());
+        assertEquals(testPartitionedTaskManager.getVersion(), results.get(0).getTask().getVersion());
+        assertEquals(testPartitionedTaskManager.getVersion(), testPartitionedTaskManager.getTask(createdTask.getId()).getVersion());
+        assertEquals(0, updatedTask.getVersion());
+        assertSame(missingTask, results.get(1).getTask());
+        assertEquals(0, missingTask.getVersion());
+    }
+
+    @Test
+    public void suggestTasksAndGetTasksDueBetween_ConcurrentUpdates() throws Exception {
+
+        var testNewTaskDto = new NewTaskDto();
+        testNewTaskDto.setTitle("Book flights");
+        Task createdTask = testPartitionedTaskManager.createTask(testNewTaskDto);
+        testPartitionedTaskManager.updateTask(new Task(createdTask.getId(), "Book flights", null, Optional.of(LocalDate.of(2023, 12, 2))));
+        var updater = new Thread(() -> 
+        {
+            for (int i = 0; i < 2000; i++) {
+                String title = (i % 2 == 0) ? "Book hotel" : "Book flights";
+                LocalDate dueDate = LocalDate.of(2023, 12, 1).plusDays(i % 2);
+                testPartitionedTaskManager.tryUpdateTask(new Task(createdTask.getId(), title, null, Optional.of(dueDate)));
+            }
+        });
+
+        updater.start();
+        while (updater.isAlive() == true) {
+            // The indexes are read without locking, but the task is still found exactly once, whichever version of it is current
+            assertEquals(1, testPartitionedTaskManager.suggestTasks("book", 10).size());
+            assertEquals(1, testPartitionedTaskManager.getTasksDueBetween(LocalDate.of(2023, 12, 1), LocalDate.of(2023, 12, 2)).size());
+        }
+        updater.join();
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import net.alastairwyse.taskmanager.models.dtos.NewTaskDto;
+import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.TaskBatchItemResult;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link PersistentTaskManager} class.
+ * <p>
+ * The behaviour common to all {@link TaskManager} implementations is tested by {@link TaskManagerContractTests}.
+ */
+public class PersistentTaskManagerTests extends TaskManagerContractTests {
+
+    private PersistentTaskManager testPersistentTaskManager;
+
+    @Override
+    protected TaskManager CreateTaskManager() {
+
+        testPersistentTaskManager = new PersistentTaskManager();
+
+        return testPersistentTaskManager;
+    }
+
+    @Test
+    public void updateTasks_ConcurrentSingleTaskWriters() throws Exception {
+
+        var batchTasks = new ArrayList<Task>();
+        for (int i = 0; i < 100; i++) {
+            var newTaskDto = new NewTaskDto();
+            newTaskDto.setTitle("Batch task " + i);
+            batchTasks.add(testPersistentTaskManager.createTask(newTaskDto));
+        }
+        var singleTaskDto = new NewTaskDto();
+        singleTaskDto.setTitle("Single task");
+        Task singleTask = testPersistentTaskManager.createTask(singleTaskDto);
+        long initialVersion = testPersistentTaskManager.getVersion();
+        int singleUpdateCount = 2000;
+        int batchUpdateCount = 50;
+        var writer = new Thread(() -> 
+        {
+            for (int i = 0; i < singleUpdateCount; i++) {
+                testPersistentTaskManager.tryUpdateTask(new Task(singleTask.getId(), "Single task " + i, null, Optional.empty()));
+            }
+        });
+
+        writer.start();
+        for (int i = 0; i < batchUpdateCount; i++) {
+            List<TaskBatchItemResult> results = testPersistentTaskManager.updateTasks(batchTasks);
+            // Each batch is published as a whole with a single version, even if rebuilt after losing a race with the single task writer
+            long batchVersion = results.get(0).getTask().getVersion();
+            for (TaskBatchItemResult currentResult : results) {
+                assertTrue(currentResult.getSuccess());
+                assertEquals(batchVersion, currentResult.getTask().getVersion());
+                assertEquals(batchVersion, testPersistentTaskManager.getTask(currentResult.getTask().getId()).getVersion());
+            }
+        }
+        writer.join();
+
+        assertEquals(initialVersion + singleUpdateCount + batchUpdateCount, testPersistentTaskManager.getVersion());
+        assertEquals(batchTasks.size() + 1, testPersistentTaskManager.getSnapshot().getSize());
+    }
+}
@@ -0,0 +1,782 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.Spliterator;
+import java.util.HashSet;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import net.alastairwyse.taskmanager.changes.TaskChangeListener;
+import net.alastairwyse.taskmanager.models.dtos.DateOnlyDto;
+import net.alastairwyse.taskmanager.models.dtos.NewTaskDto;
+import net.alastairwyse.taskmanager.models.dtos.TaskDto;
+import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.TaskBatchItemResult;
+import net.alastairwyse.taskmanager.models.TaskChange;
+import net.alastairwyse.taskmanager.models.TaskChangeType;
+import net.alastairwyse.taskmanager.models.TaskDelta;
+import net.alastairwyse.taskmanager.models.TaskDoesntExistException;
+import net.alastairwyse.taskmanager.models.TaskLookupResult;
+import net.alastairwyse.taskmanager.models.TaskPage;
+import net.alastairwyse.taskmanager.models.TaskSnapshot;
+
+import static org.junit.Assert.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of the behaviour common to all {@link TaskManager} implementations.
+ * <p>
+ * A test class for each implementation extends this class, creating the implementation in {@link #CreateTaskManager()}, and adds tests of the behaviour specific to the implementation.  {@link DefaultTaskManager} keeps its original {@link DefaultTaskManagerTests} alongside {@link DefaultTaskManagerContractTests}.
+ */
+public abstract class TaskManagerContractTests {
+
+    protected TaskManager testTaskManager;
+
+    @Before
+    public void setUp() throws Exception {
+
+        testTaskManager = CreateTaskManager();
+    }
+
+    /**
+     * Creates the {@link TaskManager} to test.
+     * 
+     * @return The task manager.
+     */
+    protected abstract TaskManager CreateTaskManager() throws Exception;
+
+    @Test
+    public void createTask() {
+
+        var testNewTaskDto = new NewTaskDto();
+        testNewTaskDto.setTitle("Do Christmas Shopping");
+        testNewTaskDto.setDetail("Turkey, crackers, prawns, presents");
+        testNewTaskDto.setDueDate(Optional.of(new DateOnlyDto(2023, 12, 18)));
+
+        Task result = testTaskManager.createTask(testNewTaskDto);
+
+        
+        Task createdTask = null;
+        try {
+            createdTask = testTaskManager.getTask(result.getId());
+        }
+        catch (Exception e) {
+            fail("Unexpected exception thrown.");
+        }
+        AssertTaskEquals(result, createdTask);
+    }
+    
+    @Test
+    public void restoreTask() throws Exception {
+
+        var testTask = new Task(UUID.fromString("287acea2-21ff-4a42-b379-af6830bd2066"), "Do Christmas Shopping", "Turkey, crackers, prawns, presents", Optional.of(LocalDate.of(2023, 12, 18)));
+        var replacementTask = new Task(testTask.getId(), "Do New Year Shopping", null, Optional.empty());
+
+        testTaskManager.restoreTask(testTask);
+        testTaskManager.restoreTask(replacementTask);
+
+        Task result = testTaskManager.getTask(testTask.getId());
+        assertEquals("Do New Year Shopping", result.getTitle());
+        assertNull(result.getDetail());
+        assertEquals(Optional.empty(), result.getDueDate());
+        assertEquals(1, StreamSupport.stream(testTaskManager.getAllTasks().spliterator(), false).count());
+    }
+
+    @Test
+    public void deleteTask_TaskWithIdDoesntExist() {
+
+        var testTaskDto = new TaskDto();
+        testTaskDto.setId(UUID.randomUUID());
+        testTaskDto.setTitle("Do Christmas Shopping");
+        testTaskDto.setDetail("Turkey, crackers, prawns, presents");
+        testTaskDto.setDueDate(Optional.of(new DateOnlyDto(2023, 12, 18)));
+        var testTask = new Task(testTaskDto);
+
+        TaskDoesntExistException e = assertThrows(TaskDoesntExistException.class, () -> 
+        {
+            testTaskManager.deleteTask(testTask);
+        });
+
+        assertTrue(e.getMessage().contains(String.format("A task with id '%s' does not exist in the task manager.", testTask.getId())));
+    }
+
+    @Test
+    public void deleteTask() {
+
+        var testTaskDto = new TaskDto();
+        testTaskDto.setId(UUID.randomUUID());
+        testTaskDto.setTitle("Do Christmas Shopping");
+        testTaskDto.setDetail("Turkey, crackers, prawns, presents");
+        testTaskDto.setDueDate(Optional.of(new DateOnlyDto(2023, 12, 18)));
+        Task testTask = testTaskManager.createTask(testTaskDto);
+        
+        try {
+            testTaskManager.deleteTask(testTask);
+        }
+        catch (Exception e) {
+            fail("Unexpected exception thrown.");
+        }
+
+        assertEquals(0, StreamSupport.stream(testTaskManager.getAllTasks().spliterator(), false).count());
+    }
+
+    @Test
+    public void getTask_TaskWithIdDoesntExist() {
+
+        TaskDoesntExistException e = assertThrows(TaskDoesntExistException.class, () -> 
+        {
+            testTaskManager.getTask(UUID.fromString("287acea2-21ff-4a42-b379-af6830bd2066"));
+        });
+
+        assertTrue(e.getMessage().contains("A task with id '287acea2-21ff-4a42-b379-af6830bd2066' does not exist in the task manager."));
+    }
+
+    @Test
+    public void getTask() {
+
+        var testTaskDto = new TaskDto();
+        testTaskDto.setId(UUID.randomUUID());
+        testTaskDto.setTitle("Do Christmas Shopping");
+        testTaskDto.setDetail("Turkey, crackers, prawns, presents");
+        testTaskDto.setDueDate(Optional.of(new DateOnlyDto(2023, 12, 18)));
+        Task testTask = testTaskManager.createTask(testTaskDto);
+
+        Task result = null;
+        try {
+            result = testTaskManager.getTask(testTask.getId());
+        }
+        catch (Exception e) {
+            fail("Unexpected exception thrown.");
+        }
+
+        assertEquals(testTask.getId(), result.getId());
+        assertEquals(testTask.getTitle(), result.getTitle());
+        assertEquals(testTask.getDetail(), result.getDetail());
+        assertEquals(testTask.getDueDate(), result.getDueDate());
+    }
+
+    @Test
+    public void getTasks() {
+
+        var testTasks = new ArrayList<Task>();
+        for (int i = 0; i < 20; i++) {
+            var newTaskDto = new NewTaskDto();
+            newTaskDto.setTitle(String.format("Task %d", i));
+            testTasks.add(testTaskManager.createTask(newTaskDto));
+        }
+        UUID missingId1 = UUID.fromString("287acea2-21ff-4a42-b379-af6830bd2066");
+        UUID missingId2 = UUID.fromString("0f1d2a9e-6a43-4c8e-8d0b-3e7f0a6c5b41");
+
+        TaskLookupResult result = testTaskManager.getTasks(List.of(testTasks.get(5).getId(), missingId1, testTasks.get(0).getId(), testTasks.get(19).getId(), missingId2));
+
+        assertEquals(3, result.getTasks().size());
+        assertEquals(testTasks.get(5).getId(), result.getTasks().get(0).getId());
+        assertEquals("Task 5", result.getTasks().get(0).getTitle());
+        assertEquals(testTasks.get(0).getId(), result.getTasks().get(1).getId());
+        assertEquals(testTasks.get(19).getId(), result.getTasks().get(2).getId());
+        assertEquals(List.of(missingId1, missingId2), result.getMissingIds());
+
+        result = testTaskManager.getTasks(List.of());
+
+        assertEquals(0, result.getTasks().size());
+        assertEquals(0, result.getMissingIds().size());
+    }
+
+    @Test
+    public void findTask() {
+
+        var newTaskDto = new NewTaskDto();
+        newTaskDto.setTitle("Do Christmas Shopping");
+        Task testTask = testTaskManager.createTask(newTaskDto);
+
+        Optional<Task> result = testTaskManager.findTask(testTask.getId());
+
+        assertTrue(result.isPresent());
+        assertEquals(testTask.getId(), result.get().getId());
+        assertEquals("Do Christmas Shopping", result.get().getTitle());
+
+        result = testTaskManager.findTask(UUID.fromString("287acea2-21ff-4a42-b379-af6830bd2066"));
+
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    public void getAllTasks() {
+
+        assertEquals(0, StreamSupport.stream(testTaskManager.getAllTasks().spliterator(), false).count());
+        var testTaskDto1 = new TaskDto();
+        testTaskDto1.setId(UUID.randomUUID());
+        testTaskDto1.setTitle("Do Christmas Shopping");
+        testTaskDto1.setDetail("Turkey, crackers, prawns, presents");
+        testTaskDto1.setDueDate(Optional.of(new DateOnlyDto(2023, 12, 18)));
+        var testTaskDto2 = new TaskDto();
+        testTaskDto2.setId(UUID.randomUUID());
+        testTaskDto2.setTitle("Apply for leave");
+        testTaskDto2.setDetail("First week of January");
+        testTaskDto2.setDueDate(Optional.of(new DateOnlyDto(2023, 12, 02)));
+        testTaskManager.createTask(testTaskDto1);
+        testTaskManager.createTask(testTaskDto2);
+        var result = new ArrayList<Task>();
+
+        for (Task currentTask : testTaskManager.getAllTasks()) {
+            result.add(currentTask);
+        }
+
+        Comparator<Task> taskComparator = (Task task1, Task task2) -> 
+        { 
+            return task1.getTitle().compareTo(task2.getTitle());
+        };
+        Collections.sort(result, taskComparator);
+        assertEquals(testTaskDto1.getTitle(), result.get(1).getTitle());
+        assertEquals(testTaskDto1.getDetail(), result.get(1).getDetail());
+        assertEquals(testTaskDto1.getDueDate().get().getYear(), result.get(1).getDueDate().get().getYear());
+        assertEquals(testTaskDto1.getDueDate().get().getMonth(), result.get(1).getDueDate().get().getMonthValue());
+        assertEquals(testTaskDto1.getDueDate().get().getDay(), result.get(1).getDueDate().get().getDayOfMonth());
+        assertEquals(testTaskDto2.getTitle(), result.get(0).getTitle());
+        assertEquals(testTaskDto2.getDetail(), result.get(0).getDetail());
+        assertEquals(testTaskDto2.getDueDate().get().getYear(), result.get(0).getDueDate().get().getYear());
+        assertEquals(testTaskDto2.getDueDate().get().getMonth(), result.get(0).getDueDate().get().getMonthValue());
+        assertEquals(testTaskDto2.getDueDate().get().getDay(), result.get(0).getDueDate().get().getDayOfMonth());
+    }
+    
+    @Test
+    public void getSnapshot() {
+
+        var testNewTaskDto = new NewTaskDto();
+        testNewTaskDto.setTitle("Do Christmas Shopping");
+        TaskSnapshot initialSnapshot = testTaskManager.getSnapshot();
+        Task createdTask = testTaskManager.createTask(testNewTaskDto);
+        TaskSnapshot firstSnapshot = testTaskManager.getSnapshot();
+        TaskSnapshot secondSnapshot = testTaskManager.getSnapshot();
+        try {
+            testTaskManager.deleteTask(createdTask);
+        }
+        catch (Exception e) {
+            fail("Unexpected exception thrown.");
+        }
+        TaskSnapshot thirdSnapshot = testTaskManager.getSnapshot();
+
+        assertEquals(0, initialSnapshot.getSize());
+        assertTrue(firstSnapshot.getVersion() > initialSnapshot.getVersion());
+        assertEquals(firstSnapshot.getVersion(), secondSnapshot.getVersion());
+        assertEquals(1, firstSnapshot.getSize());
+        AssertTaskEquals(createdTask, firstSnapshot.iterator().next());
+        assertTrue(thirdSnapshot.getVersion() > firstSnapshot.getVersion());
+        assertEquals(0, thirdSnapshot.getSize());
+    }
+
+    @Test
+    public void getAllTasks_IterationUnaffectedByConcurrentChanges() {
+
+        for (int i = 0; i < 10; i++) {
+            var testNewTaskDto = new NewTaskDto();
+            testNewTaskDto.setTitle("Task " + i);
+            testTaskManager.createTask(testNewTaskDto);
+        }
+
+        int count = 0;
+        for (Task currentTask : testTaskManager.getAllTasks()) {
+            var testNewTaskDto = new NewTaskDto();
+            testNewTaskDto.setTitle("Additional task");
+            testTaskManager.createTask(testNewTaskDto);
+            try {
+                testTaskManager.deleteTask(currentTask);
+            }
+            catch (Exception e) {
+                fail("Unexpected exception thrown.");
+            }
+            count++;
+        }
+
+        assertEquals(10, count);
+        assertEquals(10, StreamSupport.stream(testTaskManager.getAllTasks().spliterator(), false).count());
+    }
+
+    @Test
+    public void streamTasks_Parallel() {
+
+        var expectedIds = new HashSet<UUID>();
+        for (int i = 0; i < 1000; i++) {
+            var testNewTaskDto = new NewTaskDto();
+            testNewTaskDto.setTitle("Task " + i);
+            expectedIds.add(testTaskManager.createTask(testNewTaskDto).getId());
+        }
+
+        Spliterator<Task> spliterator = testTaskManager.streamTasks().spliterator();
+        long sizeBeforeSplit = spliterator.getExactSizeIfKnown();
+        Spliterator<Task> prefix = spliterator.trySplit();
+        Set<UUID> result = testTaskManager.streamTasks().parallel().map(Task::getId).collect(Collectors.toSet());
+
+        assertEquals(1000, sizeBeforeSplit);
+        assertNotNull(prefix);
+        assertTrue(prefix.estimateSize() > 0);
+        assertTrue(spliterator.estimateSize() > 0);
+        assertEquals(1000, testTaskManager.streamTasks().parallel().count());
+        assertEquals(expectedIds, result);
+    }
+
+    @Test
+    public void getTaskPage() throws Exception {
+
+        var ids = new ArrayList<UUID>();
+        for (int i = 0; i < 5; i++) {
+            var task = new Task(UUID.randomUUID(), "Task " + i, null, Optional.empty());
+            testTaskManager.restoreTask(task);
+            ids.add(task.getId());
+        }
+        Collections.sort(ids);
+
+        TaskPage result = testTaskManager.getTaskPage(null, 2);
+
+        assertEquals(ids.subList(0, 2), result.getTasks().stream().map(Task::getId).toList());
+        assertNotNull(result.getNextCursor());
+
+        // Deleting the last returned task and creating a task before the cursor doesn't affect the next page
+        testTaskManager.deleteTask(result.getTasks().get(1));
+        testTaskManager.restoreTask(new Task(new UUID(Long.MIN_VALUE, 0), "Task 5", null, Optional.empty()));
+        result = testTaskManager.getTaskPage(result.getNextCursor(), 2);
+
+        assertEquals(ids.subList(2, 4), result.getTasks().stream().map(Task::getId).toList());
+        assertNotNull(result.getNextCursor());
+
+        result = testTaskManager.getTaskPage(result.getNextCursor(), 2);
+
+        assertEquals(ids.subList(4, 5), result.getTasks().stream().map(Task::getId).toList());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    public void getTaskPage_InvalidCursor() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> 
+        {
+            testTaskManager.getTaskPage("not-a-cursor", 10);
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'cursor' with value 'not-a-cursor' is not a valid cursor."));
+    }
+
+    @Test
+    public void getTasksDueBetween() throws Exception {
+
+        var task1 = new Task(UUID.fromString("287acea2-21ff-4a42-b379-af6830bd2066"), "Do Christmas Shopping", null, Optional.of(LocalDate.of(2023, 12, 18)));
+        var task2 = new Task(UUID.fromString("09cd3b6c-1b3e-4e2b-9e9c-2b8f4a1e8d6f"), "Apply for leave", null, Optional.of(LocalDate.of(2023, 12, 20)));
+        var task3 = new Task(UUID.fromString("7f3e1e34-6d1f-4f3e-8a43-5b1c0d4f2a9b"), "Book flights", null, Optional.of(LocalDate.of(2023, 12, 18)));
+        var task4 = new Task(UUID.fromString("c5b2a1d0-3e4f-4a5b-9c6d-7e8f9a0b1c2d"), "Pay bills", null, Optional.of(LocalDate.of(2023, 12, 25)));
+        var task5 = new Task(UUID.fromString("a1b2c3d4-e5f6-4a7b-8c9d-0e1f2a3b4c5d"), "Clean house", null, Optional.empty());
+        for (Task currentTask : List.of(task1, task2, task3, task4, task5)) {
+            testTaskManager.restoreTask(currentTask);
+        }
+        var updatedTask2 = new Task(task2.getId(), "Apply for leave", null, Optional.of(LocalDate.of(2024, 1, 5)));
+        testTaskManager.updateTask(updatedTask2);
+        testTaskManager.deleteTask(task4);
+
+        List<Task> result = testTaskManager.getTasksDueBetween(LocalDate.of(2023, 12, 1), LocalDate.of(2023, 12, 31));
+
+        // Tasks due on the same date are ordered by id
+        assertEquals(List.of(task1.getId(), task3.getId()), result.stream().map(Task::getId).toList());
+
+        result = testTaskManager.getTasksDueBetween(LocalDate.of(2023, 12, 19), null);
+
+        assertEquals(1, result.size());
+        AssertTaskEquals(updatedTask2, result.get(0));
+
+        result = testTaskManager.getTasksDueBetween(null, LocalDate.of(2024, 1, 5));
+
+        assertEquals(List.of(task1.getId(), task3.getId(), task2.getId()), result.stream().map(Task::getId).toList());
+    }
+
+    @Test
+    public void getTasksDueBetween_DueFromAfterDueTo() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> 
+        {
+            testTaskManager.getTasksDueBetween(LocalDate.of(2023, 12, 31), LocalDate.of(2023, 12, 1));
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'dueFrom' with value '2023-12-31' must be less than or equal to parameter 'dueTo' with value '2023-12-01'."));
+    }
+
+    @Test
+    public void searchTasks() throws Exception {
+
+        var task1 = new Task(UUID.fromString("287acea2-21ff-4a42-b379-af6830bd2066"), "Do Christmas Shopping", "Turkey, crackers, prawns, presents", Optional.empty());
+        var task2 = new Task(UUID.fromString("09cd3b6c-1b3e-4e2b-9e9c-2b8f4a1e8d6f"), "Do New Year Shopping", "Champagne", Optional.empty());
+        var task3 = new Task(UUID.fromString("7f3e1e34-6d1f-4f3e-8a43-5b1c0d4f2a9b"), "Buy presents", null, Optional.empty());
+        for (Task currentTask : List.of(task1, task2, task3)) {
+            testTaskManager.restoreTask(currentTask);
+        }
+        var updatedTask3 = new Task(task3.getId(), "Wrap presents", "Before Christmas", Optional.empty());
+        testTaskManager.updateTask(updatedTask3);
+        testTaskManager.deleteTask(task2);
+
+        assertEquals(Set.of(task1.getId(), task3.getId()), testTaskManager.searchTasks("PRESENTS").stream().map(Task::getId).collect(Collectors.toSet()));
+        assertEquals(Set.of(task1.getId()), testTaskManager.searchTasks("christmas, shopping").stream().map(Task::getId).collect(Collectors.toSet()));
+        AssertTaskEquals(updatedTask3, testTaskManager.searchTasks("wrap christmas").get(0));
+        assertEquals(0, testTaskManager.searchTasks("buy").size());
+        assertEquals(0, testTaskManager.searchTasks("champagne").size());
+        assertEquals(0, testTaskManager.searchTasks(" ,. ").size());
+    }
+
+    @Test
+    public void suggestTasks() throws Exception {
+
+        var task1 = new Task(UUID.fromString("287acea2-21ff-4a42-b379-af6830bd2066"), "Book flights", null, Optional.empty());
+        var task2 = new Task(UUID.fromString("09cd3b6c-1b3e-4e2b-9e9c-2b8f4a1e8d6f"), "book hotel", null, Optional.empty());
+        var task3 = new Task(UUID.fromString("7f3e1e34-6d1f-4f3e-8a43-5b1c0d4f2a9b"), "Boat trip", null, Optional.empty());
+        var task4 = new Task(UUID.fromString("c5b2a1d0-3e4f-4a5b-9c6d-7e8f9a0b1c2d"), "Apply for leave", null, Optional.empty());
+        for (Task currentTask : List.of(task1, task2, task3, task4)) {
+            testTaskManager.restoreTask(currentTask);
+        }
+        var updatedTask3 = new Task(task3.getId(), "Book boat trip", null, Optional.empty());
+        testTaskManager.updateTask(updatedTask3);
+        testTaskManager.deleteTask(task2);
+
+        assertEquals(List.of(updatedTask3.getId(), task1.getId()), testTaskManager.suggestTasks("BOOK", 10).stream().map(Task::getId).toList());
+        assertEquals(List.of(updatedTask3.getId()), testTaskManager.suggestTasks("bo", 1).stream().map(Task::getId).toList());
+        assertEquals(List.of(task1.getId()), testTaskManager.suggestTasks("Book f", 10).stream().map(Task::getId).toList());
+        assertEquals(0, testTaskManager.suggestTasks("boat", 10).size());
+        assertEquals(3, testTaskManager.suggestTasks("", 10).size());
+    }
+
+    @Test
+    public void createTasks() throws Exception {
+
+        var validNewTaskDto1 = new NewTaskDto();
+        validNewTaskDto1.setTitle("Do Christmas Shopping");
+        validNewTaskDto1.setDueDate(Optional.of(new DateOnlyDto(2023, 12, 18)));
+        var invalidNewTaskDto = new NewTaskDto();
+        invalidNewTaskDto.setTitle("");
+        var validNewTaskDto2 = new NewTaskDto();
+        validNewTaskDto2.setTitle("Apply for leave");
+        long initialVersion = testTaskManager.getSnapshot().getVersion();
+
+        List<TaskBatchItemResult> results = testTaskManager.createTasks(List.of(validNewTaskDto1, invalidNewTaskDto, validNewTaskDto2));
+
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).getSuccess());
+        assertEquals("Do Christmas Shopping", testTaskManager.getTask(results.get(0).getTask().getId()).getTitle());
+        assertFalse(results.get(1).getSuccess());
+        assertNull(results.get(1).getTask());
+        assertTrue(results.get(1).getException() instanceof IllegalArgumentException);
+        assertTrue(results.get(2).getSuccess());
+        assertEquals("Apply for leave", testTaskManager.getTask(results.get(2).getTask().getId()).getTitle());
+        assertEquals(2, testTaskManager.getSnapshot().getSize());
+        assertTrue(testTaskManager.getSnapshot().getVersion() > initialVersion);
+    }
+
+    @Test
+    public void updateTasks() throws Exception {
+
+        var testNewTaskDto = new NewTaskDto();
+        testNewTaskDto.setTitle("Do Christmas Shopping");
+        Task createdTask1 = testTaskManager.createTask(testNewTaskDto);
+        Task createdTask2 = testTaskManager.createTask(testNewTaskDto);
+        var updatedTask1 = new Task(createdTask1.getId(), "Do New Year Shopping", "Champagne", Optional.of(LocalDate.of(2023, 12, 31)));
+        var updatedTask2 = new Task(createdTask2.getId(), "Apply for leave", null, Optional.empty());
+        var missingTask = new Task(UUID.randomUUID(), "Book flights", null, Optional.empty());
+
+        List<TaskBatchItemResult> results = testTaskManager.updateTasks(List.of(updatedTask1, missingTask, updatedTask2));
+
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).getSuccess());
+        assertFalse(results.get(1).getSuccess());
+        assertSame(missingTask, results.get(1).getTask());
+        assertTrue(results.get(1).getException() instanceof TaskDoesntExistException);
+        assertEquals(String.format("A task with id '%s' does not exist in the task manager.", missingTask.getId()), results.get(1).getException().getMessage());
+        // Exceptions for missing items are reported rather than thrown, so are created without a stack trace
+        assertEquals(0, results.get(1).getException().getStackTrace().length);
+        assertTrue(results.get(2).getSuccess());
+        assertEquals("Do New Year Shopping", testTaskManager.getTask(createdTask1.getId()).getTitle());
+        assertEquals(Optional.of(LocalDate.of(2023, 12, 31)), testTaskManager.getTask(createdTask1.getId()).getDueDate());
+        assertEquals("Apply for leave", testTaskManager.getTask(createdTask2.getId()).getTitle());
+        assertEquals(2, testTaskManager.getSnapshot().getSize());
+    }
+
+    @Test
+    public void deleteTasks() throws Exception {
+
+        var testNewTaskDto = new NewTaskDto();
+        testNewTaskDto.setTitle("Do Christmas Shopping");
+        Task createdTask1 = testTaskManager.createTask(testNewTaskDto);
+        Task createdTask2 = testTaskManager.createTask(testNewTaskDto);
+        Task createdTask3 = testTaskManager.createTask(testNewTaskDto);
+
+        List<TaskBatchItemResult> results = testTaskManager.deleteTasks(List.of(createdTask1, createdTask3, createdTask1));
+
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).getSuccess());
+        assertTrue(results.get(1).getSuccess());
+        // The second occurrence of the same task fails, since it's already been deleted
+        assertFalse(results.get(2).getSuccess());
+        assertTrue(results.get(2).getException() instanceof TaskDoesntExistException);
+        assertEquals(1, testTaskManager.getSnapshot().getSize());
+        assertEquals(createdTask2.getId(), testTaskManager.getSnapshot().iterator().next().getId());
+    }
+
+    @Test
+    public void tryUpdateTask() throws Exception {
+
+        var newTaskDto = new NewTaskDto();
+        newTaskDto.setTitle("Do Christmas Shopping");
+        Task testTask = testTaskManager.createTask(newTaskDto);
+        var updatedTask = new Task(testTask.getId(), "Do Christmas Shopping", "Turkey, crackers, prawns, presents", Optional.of(LocalDate.of(2023, 12, 18)));
+
+        boolean result = testTaskManager.tryUpdateTask(updatedTask);
+
+        assertTrue(result);
+        assertEquals("Turkey, crackers, prawns, presents", testTaskManager.getTask(testTask.getId()).getDetail());
+
+        result = testTaskManager.tryUpdateTask(new Task(UUID.fromString("287acea2-21ff-4a42-b379-af6830bd2066"), "Apply for leave", "", Optional.empty()));
+
+        assertFalse(result);
+        assertEquals("Do Christmas Shopping", testTaskManager.getTask(testTask.getId()).getTitle());
+    }
+
+    @Test
+    public void tryDeleteTask() {
+
+        var newTaskDto = new NewTaskDto();
+        newTaskDto.setTitle("Do Christmas Shopping");
+        Task testTask = testTaskManager.createTask(newTaskDto);
+
+        boolean result = testTaskManager.tryDeleteTask(testTask.getId());
+
+        assertTrue(result);
+        assertTrue(testTaskManager.findTask(testTask.getId()).isEmpty());
+
+        result = testTaskManager.tryDeleteTask(testTask.getId());
+
+        assertFalse(result);
+    }
+
+    @Test
+    public void getVersion() throws Exception {
+
+        long initialVersion = testTaskManager.getVersion();
+        var newTaskDto = new NewTaskDto();
+        newTaskDto.setTitle("Do Christmas Shopping");
+        Task createdTask = testTaskManager.createTask(newTaskDto);
+
+        assertTrue(testTaskManager.getVersion() > initialVersion);
+        assertEquals(testTaskManager.getVersion(), createdTask.getVersion());
+        assertEquals(testTaskManager.getVersion(), testTaskManager.getSnapshot().getVersion());
+        assertEquals(createdTask.getVersion(), testTaskManager.getTask(createdTask.getId()).getVersion());
+
+        long createdVersion = testTaskManager.getVersion();
+        var updatedTask = new Task(createdTask.getId(), "Do Christmas Shopping", "Turkey, crackers, prawns, presents", Optional.empty());
+        testTaskManager.updateTask(updatedTask);
+
+        assertTrue(testTaskManager.getVersion() > createdVersion);
+        assertEquals(testTaskManager.getVersion(), testTaskManager.getTask(createdTask.getId()).getVersion());
+        assertEquals(0, updatedTask.getVersion());
+
+        long updatedVersion = testTaskManager.getVersion();
+        testTaskManager.tryUpdateTask(new Task(UUID.fromString("287acea2-21ff-4a42-b379-af6830bd2066"), "Apply for leave", "", Optional.empty()));
+
+        assertEquals(updatedVersion, testTaskManager.getVersion());
+
+        testTaskManager.deleteTask(updatedTask);
+
+        assertTrue(testTaskManager.getVersion() > updatedVersion);
+        assertEquals(testTaskManager.getVersion(), testTaskManager.getSnapshot().getVersion());
+    }
+
+    @Test
+    public void addChangeListener() throws Exception {
+
+        var notifiedVersions = new ArrayList<Long>();
+        var notifiedChanges = new ArrayList<TaskChange>();
+        TaskChangeListener listener = (long version, List<TaskChange> changes) -> 
+        {
+            notifiedVersions.add(version);
+            notifiedChanges.addAll(changes);
+        };
+        testTaskManager.addChangeListener(listener);
+        var newTaskDto = new NewTaskDto();
+        newTaskDto.setTitle("Do Christmas Shopping");
+
+        Task createdTask = testTaskManager.createTask(newTaskDto);
+        var updatedTask = new Task(createdTask.getId(), "Do Christmas Shopping", "Turkey, crackers, prawns, presents", Optional.empty());
+        testTaskManager.updateTask(updatedTask);
+        testTaskManager.tryUpdateTask(new Task(UUID.fromString("287acea2-21ff-4a42-b379-af6830bd2066"), "Apply for leave", "", Optional.empty()));
+        long updatedVersion = testTaskManager.getVersion();
+        testTaskManager.deleteTask(updatedTask);
+        List<TaskBatchItemResult> createResults = testTaskManager.createTasks(List.of(newTaskDto, new NewTaskDto()));
+        Task batchTask = createResults.get(0).getTask();
+        testTaskManager.deleteTasks(List.of(batchTask, updatedTask));
+
+        assertEquals(5, notifiedVersions.size());
+        assertEquals(5, notifiedChanges.size());
+        assertEquals(TaskChangeType.CREATED, notifiedChanges.get(0).getType());
+        assertEquals(createdTask.getId(), notifiedChanges.get(0).getId());
+        assertSame(createdTask, notifiedChanges.get(0).getTask());
+        assertEquals((long)notifiedVersions.get(0), notifiedChanges.get(0).getVersion());
+        assertEquals(TaskChangeType.UPDATED, notifiedChanges.get(1).getType());
+        AssertTaskEquals(updatedTask, notifiedChanges.get(1).getTask());
+        assertEquals(updatedVersion, (long)notifiedVersions.get(1));
+        assertEquals(updatedVersion, notifiedChanges.get(1).getTask().getVersion());
+        assertEquals(updatedVersion, notifiedChanges.get(1).getVersion());
+        assertEquals(TaskChangeType.DELETED, notifiedChanges.get(2).getType());
+        assertEquals(createdTask.getId(), notifiedChanges.get(2).getId());
+        assertNull(notifiedChanges.get(2).getTask());
+        assertTrue(notifiedVersions.get(2) > updatedVersion);
+        assertEquals(TaskChangeType.CREATED, notifiedChanges.get(3).getType());
+        assertSame(batchTask, notifiedChanges.get(3).getTask());
+        assertEquals(batchTask.getVersion(), (long)notifiedVersions.get(3));
+        assertEquals(TaskChangeType.DELETED, notifiedChanges.get(4).getType());
+        assertEquals(batchTask.getId(), notifiedChanges.get(4).getId());
+        assertEquals(testTaskManager.getVersion(), (long)notifiedVersions.get(4));
+
+        assertTrue(testTaskManager.removeChangeListener(listener));
+        testTaskManager.createTask(newTaskDto);
+
+        assertEquals(5, notifiedVersions.size());
+        assertFalse(testTaskManager.removeChangeListener(listener));
+    }
+
+    @Test
+    public void getChangesSince_VersionParameterLessThan0() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+        {
+            testTaskManager.getChangesSince(-1);
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'version' must be greater than or equal to 0."));
+    }
+
+    @Test
+    public void getChangesSince() throws Exception {
+
+        var newTaskDto = new NewTaskDto();
+        newTaskDto.setTitle("Do Christmas Shopping");
+        testTaskManager.createTask(newTaskDto);
+        long version = testTaskManager.getVersion();
+        testTaskManager.createTask(newTaskDto);
+
+        // Engines don't index changes, so a full snapshot is returned
+        TaskDelta result = testTaskManager.getChangesSince(version);
+
+        assertTrue(result.getFullSnapshot());
+        assertEquals(testTaskManager.getVersion(), result.getVersion());
+        assertEquals(2, StreamSupport.stream(result.getTasks().spliterator(), false).count());
+        assertEquals(0, result.getDeletedIds().size());
+    }
+
+    @Test
+    public void updateTask_TaskWithIdDoesntExist() {
+
+        var testTaskDto = new TaskDto();
+        testTaskDto.setId(UUID.fromString("287acea2-21ff-4a42-b379-af6830bd2066"));
+        testTaskDto.setTitle("Do Christmas Shopping");
+        testTaskDto.setDetail("Turkey, crackers, prawns, presents");
+        testTaskDto.setDueDate(Optional.of(new DateOnlyDto(2023, 12, 18)));
+        var testTask = new Task(testTaskDto);
+
+        TaskDoesntExistException e = assertThrows(TaskDoesntExistException.class, () -> 
+        {
+            testTaskManager.updateTask(testTask);
+        });
+
+        assertTrue(e.getMessage().contains("A task with id '287acea2-21ff-4a42-b379-af6830bd2066' does not exist in the task manager."));
+    }
+
+    @Test
+    public void updateTask() {
+
+        var testTaskDto = new TaskDto();
+        testTaskDto.setTitle("Do Christmas Shopping");
+        testTaskDto.setDetail("Turkey, crackers, prawns, presents");
+        testTaskDto.setDueDate(Optional.of(new DateOnlyDto(2023, 12, 18)));
+        Task createdTask = testTaskManager.createTask(testTaskDto);
+        var updatedTaskDto = new TaskDto();
+        updatedTaskDto.setId(createdTask.getId());
+        updatedTaskDto.setTitle("Do New Year Shopping");
+        updatedTaskDto.setDetail("Champagne");
+        updatedTaskDto.setDueDate(Optional.empty());
+        var updatedTask = new Task(updatedTaskDto);
+
+        Task result = null;
+        try {
+            testTaskManager.updateTask(updatedTask);
+            result = testTaskManager.getTask(createdTask.getId());
+        }
+        catch (Exception e) {
+            fail("Unexpected exception thrown.");
+        }
+
+        AssertTaskEquals(updatedTask, result);
+        assertEquals(1, StreamSupport.stream(testTaskManager.getAllTasks().spliterator(), false).count());
+    }
+
+    @Test
+    public void createTask_ConcurrentWriters() throws Exception {
+
+        int threadCount = 8;
+        int tasksPerThread = 1000;
+        var threads = new ArrayList<Thread>();
+        for (int i = 0; i < threadCount; i++) {
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < tasksPerThread; j++) {
+                    var newTaskDto = new NewTaskDto();
+                    newTaskDto.setTitle("Task " + j);
+                    Task createdTask = testTaskManager.createTask(newTaskDto);
+                    if (j % 2 == 0) {
+                        try {
+                            testTaskManager.deleteTask(createdTask);
+                        }
+                        catch (TaskDoesntExistException e) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                }
+            }));
+        }
+        for (Thread currentThread : threads) {
+            currentThread.start();
+        }
+        for (Thread currentThread : threads) {
+            currentThread.join();
+        }
+
+        assertEquals(threadCount * tasksPerThread / 2, StreamSupport.stream(testTaskManager.getAllTasks().spliterator(), false).count());
+    }
+
+    /**
+     * Asserts that a task returned by the task manager has the same properties as the task it was stored from (implementations may return a copy of the stored task).
+     */
+    protected void AssertTaskEquals(Task expected, Task actual) {
+
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertEquals(expected.getDetail(), actual.getDetail());
+        assertEquals(expected.getDueDate(), actual.getDueDate());
+    }
+}
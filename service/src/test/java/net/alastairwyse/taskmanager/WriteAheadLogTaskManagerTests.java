@@ -0,0 +1,344 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import net.alastairwyse.taskmanager.models.dtos.DateOnlyDto;
+import net.alastairwyse.taskmanager.models.dtos.NewTaskDto;
+import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.TaskBatchItemResult;
+import net.alastairwyse.taskmanager.models.TaskChange;
+import net.alastairwyse.taskmanager.models.TaskDoesntExistException;
+import net.alastairwyse.taskmanager.persistence.CompactionResult;
+import net.alastairwyse.taskmanager.persistence.FsyncPolicy;
+import net.alastairwyse.taskmanager.persistence.LogCompactor;
+import net.alastairwyse.taskmanager.persistence.LogRecord;
+import net.alastairwyse.taskmanager.persistence.SnapshotStore;
+import net.alastairwyse.taskmanager.persistence.WriteAheadLog;
+
+import static org.junit.Assert.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link WriteAheadLogTaskManager} class.
+ */
+public class WriteAheadLogTaskManagerTests {
+
+    private Path testDirectory;
+    private WriteAheadLogTaskManager testWriteAheadLogTaskManager;
+
+    @Before
+    public void setUp() throws IOException {
+
+        testDirectory = Files.createTempDirectory("WriteAheadLogTaskManagerTests");
+        testWriteAheadLogTaskManager = new WriteAheadLogTaskManager(new DefaultTaskManager(), new WriteAheadLog(testDirectory, FsyncPolicy.EVERY_BATCH));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+
+        testWriteAheadLogTaskManager.close();
+        try (Stream<Path> paths = Files.walk(testDirectory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach((Path path) -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void constructor_ReplaysLog() throws Exception {
+
+        var testNewTaskDto1 = new NewTaskDto();
+        testNewTaskDto1.setTitle("Do Christmas Shopping");
+        testNewTaskDto1.setDetail("Turkey, crackers, prawns, presents");
+        testNewTaskDto1.setDueDate(Optional.of(new DateOnlyDto(2023, 12, 18)));
+        var testNewTaskDto2 = new NewTaskDto();
+        testNewTaskDto2.setTitle("Apply for leave");
+        var testNewTaskDto3 = new NewTaskDto();
+        testNewTaskDto3.setTitle("Book flights");
+        Task createdTask1 = testWriteAheadLogTaskManager.createTask(testNewTaskDto1);
+        Task createdTask2 = testWriteAheadLogTaskManager.createTask(testNewTaskDto2);
+        Task createdTask3 = testWriteAheadLogTaskManager.createTask(testNewTaskDto3);
+        var updatedTask1 = new Task(createdTask1.getId(), "Do New Year Shopping", "Champagne", Optional.empty());
+        testWriteAheadLogTaskManager.updateTask(updatedTask1);
+        testWriteAheadLogTaskManager.deleteTask(createdTask2);
+        testWriteAheadLogTaskManager.close();
+
+        testWriteAheadLogTaskManager = new WriteAheadLogTaskManager(new DefaultTaskManager(), new WriteAheadLog(testDirectory, FsyncPolicy.EVERY_BATCH));
+
+        assertEquals(2, testWriteAheadLogTaskManager.getSnapshot().getSize());
+        Task result = testWriteAheadLogTaskManager.getTask(createdTask1.getId());
+        assertEquals("Do New Year Shopping", result.getTitle());
+        assertEquals("Champagne", result.getDetail());
+        assertEquals(Optional.empty(), result.getDueDate());
+        assertEquals(createdTask3.getTitle(), testWriteAheadLogTaskManager.getTask(createdTask3.getId()).getTitle());
+        assertThrows(TaskDoesntExistException.class, () -> 
+        {
+            testWriteAheadLogTaskManager.getTask(createdTask2.getId());
+        });
+    }
+
+    @Test
+    public void constructor_LoadsSnapshotAndReplaysSubsequentLog() throws Exception {
+
+        testWriteAheadLogTaskManager.close();
+        testWriteAheadLogTaskManager = new WriteAheadLogTaskManager(new DefaultTaskManager(), new WriteAheadLog(testDirectory.resolve("log"), FsyncPolicy.EVERY_BATCH), new SnapshotStore(testDirectory.resolve("snapshots")));
+        var testNewTaskDto = new NewTaskDto();
+        testNewTaskDto.setTitle("Do Christmas Shopping");
+        Task createdTask1 = testWriteAheadLogTaskManager.createTask(testNewTaskDto);
+        Task createdTask2 = testWriteAheadLogTaskManager.createTask(testNewTaskDto);
+        long snapshotLsn = testWriteAheadLogTaskManager.writeSnapshot();
+        testWriteAheadLogTaskManager.deleteTask(createdTask1);
+        Task createdTask3 = testWriteAheadLogTaskManager.createTask(testNewTaskDto);
+        testWriteAheadLogTaskManager.close();
+        var replayedLsns = new ArrayList<Long>();
+        var restoredIds = new ArrayList<UUID>();
+        var recordingTaskManager = new DefaultTaskManager() {
+            @Override
+            public void restoreTask(Task task) {
+                restoredIds.add(task.getId());
+                super.restoreTask(task);
+            }
+        };
+
+        testWriteAheadLogTaskManager = new WriteAheadLogTaskManager(recordingTaskManager, new WriteAheadLog(testDirectory.resolve("log"), FsyncPolicy.EVERY_BATCH) {
+            @Override
+            public long open(long afterLsn, Consumer<LogRecord> replayHandler) throws IOException {
+                replayedLsns.add(afterLsn);
+                return super.open(afterLsn, replayHandler);
+            }
+        }, new SnapshotStore(testDirectory.resolve("snapshots")));
+
+        assertEquals(2, snapshotLsn);
+        assertEquals(List.of(2L), replayedLsns);
+        // Two tasks loaded from the snapshot, and one from the log
+        assertEquals(3, restoredIds.size());
+        assertEquals(Set.of(createdTask1.getId(), createdTask2.getId()), Set.copyOf(restoredIds.subList(0, 2)));
+        assertEquals(createdTask3.getId(), restoredIds.get(2));
+        assertEquals(2, testWriteAheadLogTaskManager.getSnapshot().getSize());
+        assertEquals(createdTask2.getId(), testWriteAheadLogTaskManager.getTask(createdTask2.getId()).getId());
+        assertEquals(createdTask3.getId(), testWriteAheadLogTaskManager.getTask(createdTask3.getId()).getId());
+    }
+
+    @Test
+    public void writeSnapshot_NoSnapshotStore() {
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> 
+        {
+            testWriteAheadLogTaskManager.writeSnapshot();
+        });
+
+        assertTrue(e.getMessage().contains("The task manager was not constructed with a snapshot store."));
+    }
+
+    @Test
+    public void startPeriodicSnapshots() throws Exception {
+
+        testWriteAheadLogTaskManager.close();
+        var snapshotStore = new SnapshotStore(testDirectory.resolve("snapshots"));
+        testWriteAheadLogTaskManager = new WriteAheadLogTaskManager(new DefaultTaskManager(), new WriteAheadLog(testDirectory.resolve("log"), FsyncPolicy.EVERY_BATCH), snapshotStore);
+        var testNewTaskDto = new NewTaskDto();
+        testNewTaskDto.setTitle("Do Christmas Shopping");
+        testWriteAheadLogTaskManager.createTask(testNewTaskDto);
+
+        testWriteAheadLogTaskManager.startPeriodicSnapshots(10);
+
+        long waitStart = System.currentTimeMillis();
+        while (snapshotStore.getSnapshotPaths().isEmpty() == true && System.currentTimeMillis() - waitStart < 5000) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, snapshotStore.getSnapshotPaths().size());
+        assertNull(testWriteAheadLogTaskManager.getLastSnapshotException());
+    }
+
+    @Test
+    public void compactLog() throws Exception {
+
+        testWriteAheadLogTaskManager.close();
+        var log = new WriteAheadLog(testDirectory.resolve("log"), FsyncPolicy.EVERY_BATCH, 100, 32);
+        testWriteAheadLogTaskManager = new WriteAheadLogTaskManager(new DefaultTaskManager(), log, new SnapshotStore(testDirectory.resolve("snapshots")));
+        var testNewTaskDto = new NewTaskDto();
+        testNewTaskDto.setTitle("Do Christmas Shopping");
+        Task createdTask1 = testWriteAheadLogTaskManager.createTask(testNewTaskDto);
+        Task createdTask2 = testWriteAheadLogTaskManager.createTask(testNewTaskDto);
+        testWriteAheadLogTaskManager.updateTask(new Task(createdTask1.getId(), "Do New Year Shopping", null, Optional.empty()));
+        testWriteAheadLogTaskManager.deleteTask(createdTask2);
+        testWriteAheadLogTaskManager.writeSnapshot();
+        Task createdTask3 = testWriteAheadLogTaskManager.createTask(testNewTaskDto);
+
+        CompactionResult result = testWriteAheadLogTaskManager.compactLog(new LogCompactor(log, 100_000_000));
+
+        // The create of the first task is superseded by its update, and the create and delete of the second task precede the snapshot
+        assertEquals(3, result.getRemovedRecordCount());
+        assertNull(testWriteAheadLogTaskManager.getLastCompactionException());
+        testWriteAheadLogTaskManager.close();
+        try (Stream<Path> paths = Files.list(testDirectory.resolve("snapshots"))) {
+            paths.forEach((Path path) -> path.toFile().delete());
+        }
+        testWriteAheadLogTaskManager = new WriteAheadLogTaskManager(new DefaultTaskManager(), new WriteAheadLog(testDirectory.resolve("log"), FsyncPolicy.EVERY_BATCH, 100, 32));
+        assertEquals(2, testWriteAheadLogTaskManager.getSnapshot().getSize());
+        assertEquals("Do New Year Shopping", testWriteAheadLogTaskManager.getTask(createdTask1.getId()).getTitle());
+        assertEquals(createdTask3.getId(), testWriteAheadLogTaskManager.getTask(createdTask3.getId()).getId());
+    }
+
+    @Test
+    public void batchOperations_ReplayedFromLog() throws Exception {
+
+        var testNewTaskDto1 = new NewTaskDto();
+        testNewTaskDto1.setTitle("Do Christmas Shopping");
+        var invalidNewTaskDto = new NewTaskDto();
+        invalidNewTaskDto.setTitle("");
+        var testNewTaskDto2 = new NewTaskDto();
+        testNewTaskDto2.setTitle("Apply for leave");
+        var testNewTaskDto3 = new NewTaskDto();
+        testNewTaskDto3.setTitle("Book flights");
+        List<TaskBatchItemResult> createResults = testWriteAheadLogTaskManager.createTasks(List.of(testNewTaskDto1, invalidNewTaskDto, testNewTaskDto2, testNewTaskDto3));
+        Task createdTask1 = createResults.get(0).getTask();
+        Task createdTask2 = createResults.get(2).getTask();
+        Task createdTask3 = createResults.get(3).getTask();
+        var updatedTask1 = new Task(createdTask1.getId(), "Do New Year Shopping", "Champagne", Optional.empty());
+        var missingTask = new Task(UUID.randomUUID(), "Book hotel", null, Optional.empty());
+        List<TaskBatchItemResult> updateResults = testWriteAheadLogTaskManager.updateTasks(List.of(updatedTask1, missingTask));
+        List<TaskBatchItemResult> deleteResults = testWriteAheadLogTaskManager.deleteTasks(List.of(createdTask2, missingTask));
+        long lastLsn = testWriteAheadLogTaskManager.log.getLastLsn();
+        testWriteAheadLogTaskManager.close();
+
+        testWriteAheadLogTaskManager = new WriteAheadLogTaskManager(new DefaultTaskManager(), new WriteAheadLog(testDirectory, FsyncPolicy.EVERY_BATCH));
+
+        assertFalse(createResults.get(1).getSuccess());
+        assertFalse(updateResults.get(1).getSuccess());
+        assertFalse(deleteResults.get(1).getSuccess());
+        // Only successful items are logged
+        assertEquals(5, lastLsn);
+        assertEquals(2, testWriteAheadLogTaskManager.getSnapshot().getSize());
+        assertEquals("Do New Year Shopping", testWriteAheadLogTaskManager.getTask(createdTask1.getId()).getTitle());
+        assertEquals(createdTask3.getTitle(), testWriteAheadLogTaskManager.getTask(createdTask3.getId()).getTitle());
+        assertThrows(TaskDoesntExistException.class, () -> 
+        {
+            testWriteAheadLogTaskManager.getTask(createdTask2.getId());
+        });
+    }
+
+    @Test
+    public void deleteTask_TaskWithIdDoesntExist() throws Exception {
+
+        var testTask = new Task(UUID.fromString("287acea2-21ff-4a42-b379-af6830bd2066"), "Do Christmas Shopping", null, Optional.empty());
+
+        TaskDoesntExistException e = assertThrows(TaskDoesntExistException.class, () -> 
+        {
+            testWriteAheadLogTaskManager.deleteTask(testTask);
+        });
+
+        assertTrue(e.getMessage().contains("A task with id '287acea2-21ff-4a42-b379-af6830bd2066' does not exist in the task manager."));
+        testWriteAheadLogTaskManager.close();
+        // Failed changes aren't recorded in the log
+        var records = new ArrayList<Object>();
+        try (var log = new WriteAheadLog(testDirectory, FsyncPolicy.EVERY_BATCH)) {
+            log.open(records::add);
+        }
+        assertEquals(0, records.size());
+    }
+
+    @Test
+    public void createTask_ConcurrentWriters() throws Exception {
+
+        int threadCount = 8;
+        int tasksPerThread = 100;
+        var threads = new ArrayList<Thread>();
+        for (int i = 0; i < threadCount; i++) {
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < tasksPerThread; j++) {
+                    var newTaskDto = new NewTaskDto();
+                    newTaskDto.setTitle("Task " + j);
+                    Task createdTask = testWriteAheadLogTaskManager.createTask(newTaskDto);
+                    if (j % 2 == 0) {
+                        try {
+                            testWriteAheadLogTaskManager.deleteTask(createdTask);
+                        }
+                        catch (TaskDoesntExistException e) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                }
+            }));
+        }
+        for (Thread currentThread : threads) {
+            currentThread.start();
+        }
+        for (Thread currentThread : threads) {
+            currentThread.join();
+        }
+        testWriteAheadLogTaskManager.close();
+
+        testWriteAheadLogTaskManager = new WriteAheadLogTaskManager(new DefaultTaskManager(), new WriteAheadLog(testDirectory, FsyncPolicy.EVERY_BATCH));
+
+        assertEquals(threadCount * tasksPerThread / 2, testWriteAheadLogTaskManager.getSnapshot().getSize());
+    }
+
+    @Test
+    public void createTask_LogFailed() throws Exception {
+
+        testWriteAheadLogTaskManager.close();
+        // A segment size of 1 causes the first batch to seal the segment
+        var testWriteAheadLog = new WriteAheadLog(testDirectory, FsyncPolicy.EVERY_BATCH, 100, 1) {
+            @Override
+            protected void sealCurrentSegment(long firstLsn) throws IOException {
+                throw new IOException("Disk full.");
+            }
+        };
+        var testDefaultTaskManager = new DefaultTaskManager();
+        testWriteAheadLogTaskManager = new WriteAheadLogTaskManager(testDefaultTaskManager, testWriteAheadLog);
+        var notifiedChanges = new ArrayList<TaskChange>();
+        testWriteAheadLogTaskManager.addChangeListener((long version, List<TaskChange> changes) -> 
+        {
+            notifiedChanges.addAll(changes);
+        });
+        var testNewTaskDto = new NewTaskDto();
+        testNewTaskDto.setTitle("Do Christmas Shopping");
+
+        assertThrows(UncheckedIOException.class, () -> 
+        {
+            testWriteAheadLogTaskManager.createTask(testNewTaskDto);
+        });
+        // Once the log has failed, changes are rejected before their records are appended
+        assertThrows(UncheckedIOException.class, () -> 
+        {
+            testWriteAheadLogTaskManager.createTask(testNewTaskDto);
+        });
+        // Changes are only applied to the decorated manager once committed
+        assertEquals(0, testDefaultTaskManager.getSnapshot().getSize());
+        assertEquals(0, notifiedChanges.size());
+        assertThrows(IOException.class, () -> 
+        {
+            testWriteAheadLogTaskManager.close();
+        });
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.benchmarks;
+
+import java.util.HashMap;
+import java.util.UUID;
+
+import net.alastairwyse.taskmanager.ConcurrentTaskManager;
+import net.alastairwyse.taskmanager.DefaultTaskManager;
+import net.alastairwyse.taskmanager.OpenAddressingTaskManager;
+import net.alastairwyse.taskmanager.PersistentTaskManager;
+import net.alastairwyse.taskmanager.TaskManager;
+import net.alastairwyse.taskmanager.collections.UuidOpenAddressingMap;
+import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.dtos.NewTaskDto;
+
+/**
+ * Compares the heap used per entry by a {@link HashMap} task index with the {@link UuidOpenAddressingMap} index in {@link net.alastairwyse.taskmanager.OpenAddressingTaskManager}.
+ * <p>
+ * Only the index itself is measured, since the {@link Task} objects (including their ids) are the same for both.  The heap used by whole managers holding the same tasks is then measured, including the secondary indexes, and the copy of each task stamped with its version.  Run with a fixed heap size (e.g. '-Xms4g -Xmx4g') so that the measurements aren't distorted by heap resizing.
+ */
+public class IndexMemoryBenchmark {
+
+    /** Holds the index being measured, to ensure it's reachable at the point its size is measured. */
+    protected static Object measuredIndex;
+
+    public static void main(String[] args) {
+
+        int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        var tasks = new Task[taskCount];
+        var newTaskDto = new NewTaskDto();
+        newTaskDto.setTitle("Task");
+        for (int i = 0; i < taskCount; i++) {
+            tasks[i] = new Task(newTaskDto);
+        }
+
+        // The first measurement includes memory used during JVM startup which is released by subsequent collections
+        usedHeap();
+        long baseline = usedHeap();
+        var hashMap = new HashMap<UUID, Task>();
+        for (Task currentTask : tasks) {
+            hashMap.put(currentTask.getId(), currentTask);
+        }
+        measuredIndex = hashMap;
+        long hashMapBytes = usedHeap() - baseline;
+        System.out.println(String.format("HashMap:               %,d entries, %.1f bytes per entry", hashMap.size(), (double)hashMapBytes / taskCount));
+        hashMap = null;
+        measuredIndex = null;
+
+        baseline = usedHeap();
+        var openAddressingMap = new UuidOpenAddressingMap<Task>();
+        for (Task currentTask : tasks) {
+            openAddressingMap.put(currentTask.getId(), currentTask);
+        }
+        measuredIndex = openAddressingMap;
+        long openAddressingMapBytes = usedHeap() - baseline;
+        System.out.println(String.format("UuidOpenAddressingMap: %,d entries, %.1f bytes per entry", openAddressingMap.size(), (double)openAddressingMapBytes / taskCount));
+        openAddressingMap = null;
+        measuredIndex = null;
+
+        measureTaskManager("DefaultTaskManager", new DefaultTaskManager(), tasks);
+        measureTaskManager("OpenAddressingTaskManager (indexes enabled)", new OpenAddressingTaskManager(true), tasks);
+        measureTaskManager("OpenAddressingTaskManager (indexes disabled)", new OpenAddressingTaskManager(), tasks);
+        measureTaskManager("ConcurrentTaskManager", new ConcurrentTaskManager(), tasks);
+        measureTaskManager("PersistentTaskManager", new PersistentTaskManager(), tasks);
+    }
+
+    protected static void measureTaskManager(String name, TaskManager taskManager, Task[] tasks) {
+
+        long baseline = usedHeap();
+        for (Task currentTask : tasks) {
+            taskManager.restoreTask(currentTask);
+        }
+        measuredIndex = taskManager;
+        long taskManagerBytes = usedHeap() - baseline;
+        System.out.println(String.format("%s: %,d tasks, %.1f bytes per task", name, tasks.length, (double)taskManagerBytes / tasks.length));
+        measuredIndex = null;
+    }
+
+    protected static long usedHeap() {
+
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        Runtime runtime = Runtime.getRuntime();
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import net.alastairwyse.taskmanager.DefaultTaskManager;
+import net.alastairwyse.taskmanager.WriteAheadLogTaskManager;
+import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.persistence.FsyncPolicy;
+import net.alastairwyse.taskmanager.persistence.LogRecord;
+import net.alastairwyse.taskmanager.persistence.SnapshotStore;
+import net.alastairwyse.taskmanager.persistence.WriteAheadLog;
+
+/**
+ * Compares the time for a {@link WriteAheadLogTaskManager} to become ready after a restart, when rebuilding its tasks by replaying the write-ahead log versus loading a snapshot.
+ * <p>
+ * For each task count specified (default 1,000,000 and 10,000,000), the log is populated with one record per task, the tasks are rebuilt by replaying the log, a snapshot is written, and then the tasks are rebuilt again from the snapshot.  The files will generally be read from the page cache, so the results reflect decoding and population time rather than device speed.  Run with sufficient heap for the largest task count (e.g. '-Xmx8g' for 10,000,000 tasks).
+ */
+public class RestartBenchmark {
+
+    public static void main(String[] args) throws IOException {
+
+        long[] taskCounts = args.length > 0 ? Stream.of(args).mapToLong(Long::parseLong).toArray() : new long[] { 1_000_000, 10_000_000 };
+        for (long currentTaskCount : taskCounts) {
+            Path directory = Files.createTempDirectory("RestartBenchmark");
+            try {
+                run(currentTaskCount, directory);
+            }
+            finally {
+                try (Stream<Path> paths = Files.walk(directory)) {
+                    paths.sorted(Comparator.reverseOrder()).forEach((Path path) -> path.toFile().delete());
+                }
+            }
+        }
+    }
+
+    protected static void run(long taskCount, Path directory) throws IOException {
+
+        Path logDirectory = directory.resolve("log");
+        Path snapshotDirectory = directory.resolve("snapshots");
+        try (var log = new WriteAheadLog(logDirectory, FsyncPolicy.OPERATING_SYSTEM)) {
+            log.open((LogRecord record) -> {});
+            long lsn = 0;
+            for (long i = 0; i < taskCount; i++) {
+                lsn = log.appendPut(new Task(UUID.randomUUID(), "Task " + i, "Detail of task " + i, Optional.empty()));
+            }
+            log.awaitCommit(lsn);
+        }
+        System.gc();
+
+        long startTime = System.nanoTime();
+        var taskManager = new WriteAheadLogTaskManager(new DefaultTaskManager(), new WriteAheadLog(logDirectory, FsyncPolicy.OPERATING_SYSTEM), new SnapshotStore(snapshotDirectory));
+        long logReplayTime = System.nanoTime() - startTime;
+        startTime = System.nanoTime();
+        taskManager.writeSnapshot();
+        long snapshotWriteTime = System.nanoTime() - startTime;
+        taskManager.close();
+        taskManager = null;
+        System.gc();
+
+        startTime = System.nanoTime();
+        taskManager = new WriteAheadLogTaskManager(new DefaultTaskManager(), new WriteAheadLog(logDirectory, FsyncPolicy.OPERATING_SYSTEM), new SnapshotStore(snapshotDirectory));
+        long snapshotLoadTime = System.nanoTime() - startTime;
+        int loadedTaskCount = taskManager.getSnapshot().getSize();
+        taskManager.close();
+
+        System.out.println(String.format("%,d tasks (%,d loaded)", taskCount, loadedTaskCount));
+        System.out.println(String.format("  Log replay:     %,8d ms (%,d bytes of log)", logReplayTime / 1_000_000, directorySize(logDirectory)));
+        System.out.println(String.format("  Snapshot write: %,8d ms", snapshotWriteTime / 1_000_000));
+        System.out.println(String.format("  Snapshot load:  %,8d ms (%,d bytes of snapshot)", snapshotLoadTime / 1_000_000, directorySize(snapshotDirectory)));
+    }
+
+    protected static long directorySize(Path directory) throws IOException {
+
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.mapToLong((Path path) -> path.toFile().length()).sum();
+        }
+    }
+}
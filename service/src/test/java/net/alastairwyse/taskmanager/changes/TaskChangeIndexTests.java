@@ -0,0 +1,224 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.changes;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import net.alastairwyse.taskmanager.DefaultTaskManager;
+import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.TaskChange;
+import net.alastairwyse.taskmanager.models.TaskChangeType;
+import net.alastairwyse.taskmanager.models.TaskDelta;
+
+import static org.junit.Assert.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link TaskChangeIndex} class.
+ */
+public class TaskChangeIndexTests {
+
+    private Task testTask1;
+    private Task testTask2;
+    private UUID deletedId;
+    private DefaultTaskManager taskManager;
+    private TaskChangeIndex testTaskChangeIndex;
+
+    @Before
+    public void setUp() {
+
+        testTask1 = new Task(UUID.fromString("2c4b1b0e-7d3e-4a36-9a6f-0f6f0f1a5a01"), "Do Christmas Shopping", "Turkey, crackers, prawns, presents", Optional.empty());
+        testTask2 = new Task(UUID.fromString("9b0d5f2e-3c1a-4f6e-8e4b-5d2c1a7f3b02"), "Apply for leave", "", Optional.empty());
+        deletedId = UUID.fromString("287acea2-21ff-4a42-b379-af6830bd2066");
+        // The task manager is only used to read the current values of changed tasks
+        taskManager = new DefaultTaskManager();
+        taskManager.restoreTask(testTask1);
+        taskManager.restoreTask(testTask2);
+        testTaskChangeIndex = new TaskChangeIndex();
+    }
+
+    @Test
+    public void constructor_MaximumChangeCountParameterLessThan0() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+        {
+            new TaskChangeIndex(-1, 1000);
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'maximumChangeCount' must be greater than or equal to 0."));
+    }
+
+    @Test
+    public void constructor_AbandonedVersionTimeoutParameterLessThan0() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+        {
+            new TaskChangeIndex(1, -1);
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'abandonedVersionTimeout' must be greater than or equal to 0."));
+    }
+
+    @Test
+    public void getChangesSince_VersionParameterLessThan0() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+        {
+            testTaskChangeIndex.getChangesSince(-1, taskManager);
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'version' must be greater than or equal to 0."));
+    }
+
+    @Test
+    public void getChangesSince() {
+
+        testTaskChangeIndex.tasksChanged(1, List.of(new TaskChange(TaskChangeType.CREATED, testTask1.getId(), testTask1, 1)));
+        testTaskChangeIndex.tasksChanged(2, List.of(new TaskChange(TaskChangeType.CREATED, testTask2.getId(), testTask2, 2)));
+        testTaskChangeIndex.tasksChanged(3, List.of(new TaskChange(TaskChangeType.UPDATED, testTask1.getId(), testTask1, 3)));
+        testTaskChangeIndex.tasksChanged(4, List.of(new TaskChange(TaskChangeType.DELETED, deletedId, null, 4)));
+
+        TaskDelta result = testTaskChangeIndex.getChangesSince(0, taskManager);
+
+        assertFalse(result.getFullSnapshot());
+        assertEquals(4, result.getVersion());
+        assertEquals(Set.of(testTask1.getId(), testTask2.getId()), GetIds(result));
+        assertEquals(List.of(deletedId), result.getDeletedIds());
+        assertEquals(4, testTaskChangeIndex.getCompleteVersion());
+        assertEquals(4, testTaskChangeIndex.getChangeCount());
+
+        result = testTaskChangeIndex.getChangesSince(2, taskManager);
+
+        assertFalse(result.getFullSnapshot());
+        assertEquals(4, result.getVersion());
+        assertEquals(Set.of(testTask1.getId()), GetIds(result));
+        assertEquals(List.of(deletedId), result.getDeletedIds());
+
+        result = testTaskChangeIndex.getChangesSince(4, taskManager);
+
+        assertFalse(result.getFullSnapshot());
+        assertEquals(4, result.getVersion());
+        assertEquals(Set.of(), GetIds(result));
+        assertEquals(0, result.getDeletedIds().size());
+    }
+
+    @Test
+    public void getChangesSince_ChangesNotifiedOutOfOrder() {
+
+        testTaskChangeIndex.tasksChanged(2, List.of(new TaskChange(TaskChangeType.CREATED, testTask2.getId(), testTask2, 2)));
+
+        TaskDelta result = testTaskChangeIndex.getChangesSince(0, taskManager);
+
+        // Version 2 isn't returned until version 1 has been notified
+        assertEquals(0, testTaskChangeIndex.getCompleteVersion());
+        assertFalse(result.getFullSnapshot());
+        assertEquals(0, result.getVersion());
+        assertEquals(Set.of(), GetIds(result));
+
+        testTaskChangeIndex.tasksChanged(1, List.of(new TaskChange(TaskChangeType.CREATED, testTask1.getId(), testTask1, 1)));
+        result = testTaskChangeIndex.getChangesSince(0, taskManager);
+
+        assertEquals(2, testTaskChangeIndex.getCompleteVersion());
+        assertEquals(2, result.getVersion());
+        assertEquals(Set.of(testTask1.getId(), testTask2.getId()), GetIds(result));
+    }
+
+    @Test
+    public void getChangesSince_OlderChangeNotifiedAfterNewerChange() {
+
+        testTaskChangeIndex.tasksChanged(2, List.of(new TaskChange(TaskChangeType.UPDATED, testTask1.getId(), testTask1, 2)));
+        testTaskChangeIndex.tasksChanged(1, List.of(new TaskChange(TaskChangeType.CREATED, testTask1.getId(), testTask1, 1)));
+
+        TaskDelta result = testTaskChangeIndex.getChangesSince(1, taskManager);
+
+        assertEquals(2, result.getVersion());
+        assertEquals(Set.of(testTask1.getId()), GetIds(result));
+    }
+
+    @Test
+    public void getChangesSince_ChangesDiscarded() {
+
+        testTaskChangeIndex = new TaskChangeIndex(1, TaskChangeIndex.DEFAULT_ABANDONED_VERSION_TIMEOUT);
+        UUID otherDeletedId = UUID.fromString("5e6f7a8b-9c0d-4e1f-a2b3-c4d5e6f7a803");
+        testTaskChangeIndex.tasksChanged(1, List.of(new TaskChange(TaskChangeType.DELETED, deletedId, null, 1)));
+        testTaskChangeIndex.tasksChanged(2, List.of(new TaskChange(TaskChangeType.DELETED, otherDeletedId, null, 2)));
+
+        TaskDelta result = testTaskChangeIndex.getChangesSince(0, taskManager);
+
+        // The deletion at version 1 can no longer be reported, so a full snapshot is returned
+        assertEquals(1, testTaskChangeIndex.getChangeCount());
+        assertTrue(result.getFullSnapshot());
+        assertEquals(Set.of(testTask1.getId(), testTask2.getId()), GetIds(result));
+        assertEquals(0, result.getDeletedIds().size());
+
+        result = testTaskChangeIndex.getChangesSince(1, taskManager);
+
+        assertFalse(result.getFullSnapshot());
+        assertEquals(List.of(otherDeletedId), result.getDeletedIds());
+    }
+
+    @Test
+    public void getChangesSince_AbandonedVersionSkipped() {
+
+        testTaskChangeIndex = new TaskChangeIndex(TaskChangeIndex.DEFAULT_MAXIMUM_CHANGE_COUNT, 0);
+        testTaskChangeIndex.tasksChanged(2, List.of(new TaskChange(TaskChangeType.CREATED, testTask2.getId(), testTask2, 2)));
+
+        TaskDelta result = testTaskChangeIndex.getChangesSince(0, taskManager);
+
+        // Version 1 has been missing for longer than the timeout, so is skipped
+        assertFalse(result.getFullSnapshot());
+        assertEquals(2, result.getVersion());
+        assertEquals(Set.of(testTask2.getId()), GetIds(result));
+
+        testTaskChangeIndex.tasksChanged(1, List.of(new TaskChange(TaskChangeType.CREATED, testTask1.getId(), testTask1, 1)));
+        result = testTaskChangeIndex.getChangesSince(2, taskManager);
+
+        // The delta up to version 2 missed the change at version 1, so a full snapshot is returned
+        assertTrue(result.getFullSnapshot());
+        assertEquals(Set.of(testTask1.getId(), testTask2.getId()), GetIds(result));
+
+        testTaskChangeIndex.tasksChanged(3, List.of(new TaskChange(TaskChangeType.UPDATED, testTask1.getId(), testTask1, 3)));
+        result = testTaskChangeIndex.getChangesSince(3, taskManager);
+
+        assertFalse(result.getFullSnapshot());
+        assertEquals(3, result.getVersion());
+    }
+
+    @Test
+    public void getChangesSince_VersionLaterThanCompleteVersion() {
+
+        testTaskChangeIndex.tasksChanged(1, List.of(new TaskChange(TaskChangeType.CREATED, testTask1.getId(), testTask1, 1)));
+
+        TaskDelta result = testTaskChangeIndex.getChangesSince(5, taskManager);
+
+        assertTrue(result.getFullSnapshot());
+        assertEquals(Set.of(testTask1.getId(), testTask2.getId()), GetIds(result));
+    }
+
+    private Set<UUID> GetIds(TaskDelta delta) {
+
+        return StreamSupport.stream(delta.getTasks().spliterator(), false).map(Task::getId).collect(Collectors.toSet());
+    }
+}
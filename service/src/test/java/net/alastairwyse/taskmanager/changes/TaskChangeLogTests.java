@@ -0,0 +1,148 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.changes;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.TaskChange;
+import net.alastairwyse.taskmanager.models.TaskChangeType;
+
+import static org.junit.Assert.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link TaskChangeLog} class.
+ */
+public class TaskChangeLogTests {
+
+    private TaskChangeLog testTaskChangeLog;
+
+    @Before
+    public void setUp() {
+
+        testTaskChangeLog = new TaskChangeLog(3);
+    }
+
+    @Test
+    public void constructor_CapacityParameterLessThan1() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+        {
+            new TaskChangeLog(0);
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'capacity' must be greater than 0."));
+    }
+
+    @Test
+    public void getChangesAfter_SequenceParameterLessThan0() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+        {
+            testTaskChangeLog.getChangesAfter(-1, 10);
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'sequence' must be greater than or equal to 0."));
+    }
+
+    @Test
+    public void getChangesAfter_MaximumCountParameterLessThan1() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+        {
+            testTaskChangeLog.getChangesAfter(0, 0);
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'maximumCount' must be greater than 0."));
+    }
+
+    @Test
+    public void getChangesAfter_NoChanges() {
+
+        Optional<List<TaskChange>> result = testTaskChangeLog.getChangesAfter(0, 10);
+
+        assertEquals(0, testTaskChangeLog.getLastSequence());
+        assertTrue(result.isPresent());
+        assertEquals(0, result.get().size());
+    }
+
+    @Test
+    public void getChangesAfter() {
+
+        TaskChange change1 = CreateChange(TaskChangeType.CREATED, 1);
+        TaskChange change2 = CreateChange(TaskChangeType.CREATED, 2);
+        TaskChange change3 = new TaskChange(TaskChangeType.DELETED, change1.getId(), null, 2);
+        testTaskChangeLog.tasksChanged(1, List.of(change1));
+        testTaskChangeLog.tasksChanged(2, List.of(change2, change3));
+
+        Optional<List<TaskChange>> result = testTaskChangeLog.getChangesAfter(0, 10);
+
+        assertEquals(3, testTaskChangeLog.getLastSequence());
+        assertEquals(List.of(change1, change2, change3), result.get());
+
+        result = testTaskChangeLog.getChangesAfter(1, 10);
+
+        assertEquals(List.of(change2, change3), result.get());
+
+        result = testTaskChangeLog.getChangesAfter(1, 1);
+
+        assertEquals(List.of(change2), result.get());
+
+        result = testTaskChangeLog.getChangesAfter(3, 10);
+
+        assertEquals(0, result.get().size());
+    }
+
+    @Test
+    public void getChangesAfter_ChangesOverwritten() {
+
+        TaskChange change1 = CreateChange(TaskChangeType.CREATED, 1);
+        TaskChange change2 = CreateChange(TaskChangeType.CREATED, 2);
+        TaskChange change3 = CreateChange(TaskChangeType.CREATED, 3);
+        TaskChange change4 = CreateChange(TaskChangeType.UPDATED, 4);
+        testTaskChangeLog.tasksChanged(1, List.of(change1));
+        testTaskChangeLog.tasksChanged(2, List.of(change2));
+        testTaskChangeLog.tasksChanged(3, List.of(change3));
+        testTaskChangeLog.tasksChanged(4, List.of(change4));
+
+        assertEquals(4, testTaskChangeLog.getLastSequence());
+        assertFalse(testTaskChangeLog.getChangesAfter(0, 10).isPresent());
+        assertEquals(List.of(change2, change3, change4), testTaskChangeLog.getChangesAfter(1, 10).get());
+        assertEquals(List.of(change4), testTaskChangeLog.getChangesAfter(3, 10).get());
+    }
+
+    @Test
+    public void getChangesAfter_SequenceAfterLastChange() {
+
+        testTaskChangeLog.tasksChanged(1, List.of(CreateChange(TaskChangeType.CREATED, 1)));
+
+        assertFalse(testTaskChangeLog.getChangesAfter(2, 10).isPresent());
+    }
+
+    private TaskChange CreateChange(TaskChangeType type, long version) {
+
+        var task = new Task(UUID.randomUUID(), "Task " + version, null, Optional.empty());
+
+        return new TaskChange(type, task.getId(), task, version);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.changes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import net.alastairwyse.taskmanager.models.TaskChange;
+import net.alastairwyse.taskmanager.models.TaskChangeType;
+
+import static org.junit.Assert.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link TaskChangeNotifier} class.
+ */
+public class TaskChangeNotifierTests {
+
+    private TaskChangeNotifier testTaskChangeNotifier;
+
+    @Before
+    public void setUp() {
+
+        testTaskChangeNotifier = new TaskChangeNotifier();
+    }
+
+    @Test
+    public void addListener_ListenerParameterNull() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+        {
+            testTaskChangeNotifier.addListener(null);
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'listener' cannot be null."));
+    }
+
+    @Test
+    public void notifyDeleted_ListenerThrowsException() {
+
+        var id = UUID.randomUUID();
+        var listenerException = new IllegalStateException("Listener failed.");
+        var receivedChanges = new ArrayList<List<TaskChange>>();
+        var handledExceptions = new ArrayList<Throwable>();
+        testTaskChangeNotifier.addListener((long version, List<TaskChange> changes) -> 
+        {
+            throw listenerException;
+        });
+        testTaskChangeNotifier.addListener((long version, List<TaskChange> changes) -> 
+        {
+            receivedChanges.add(changes);
+        });
+        Thread currentThread = Thread.currentThread();
+        Thread.UncaughtExceptionHandler previousHandler = currentThread.getUncaughtExceptionHandler();
+        currentThread.setUncaughtExceptionHandler((Thread thread, Throwable exception) -> 
+        {
+            handledExceptions.add(exception);
+        });
+        try {
+            testTaskChangeNotifier.notifyDeleted(5, id);
+        }
+        finally {
+            currentThread.setUncaughtExceptionHandler(previousHandler);
+        }
+
+        assertEquals(1, receivedChanges.size());
+        assertEquals(TaskChangeType.DELETED, receivedChanges.get(0).get(0).getType());
+        assertEquals(id, receivedChanges.get(0).get(0).getId());
+        assertEquals(1, handledExceptions.size());
+        assertSame(listenerException, handledExceptions.get(0));
+    }
+}
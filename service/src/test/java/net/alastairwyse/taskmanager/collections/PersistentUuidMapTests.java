@@ -0,0 +1,231 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.collections;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import java.util.UUID;
+
+import org.junit.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link PersistentUuidMap} class.
+ */
+public class PersistentUuidMapTests {
+
+    @Test
+    public void put_ValueParameterNull() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> 
+        {
+            PersistentUuidMap.<String>empty().put(UUID.randomUUID(), null);
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'value' cannot be null."));
+    }
+
+    @Test
+    public void put_OriginalMapUnchanged() {
+
+        UUID key = UUID.randomUUID();
+        PersistentUuidMap<String> emptyMap = PersistentUuidMap.empty();
+
+        PersistentUuidMap<String> result = emptyMap.put(key, "value1");
+        PersistentUuidMap<String> replacedResult = result.put(key, "value2");
+
+        assertEquals(0, emptyMap.size());
+        assertNull(emptyMap.get(key));
+        assertEquals(1, result.size());
+        assertEquals("value1", result.get(key));
+        assertEquals(1, replacedResult.size());
+        assertEquals("value2", replacedResult.get(key));
+    }
+
+    @Test
+    public void put_SameValueInstanceReturnsSameMap() {
+
+        UUID key = UUID.randomUUID();
+        String value = "value1";
+        PersistentUuidMap<String> testMap = PersistentUuidMap.<String>empty().put(key, value);
+
+        PersistentUuidMap<String> result = testMap.put(key, value);
+
+        assertSame(testMap, result);
+    }
+
+    @Test
+    public void remove_KeyDoesntExistReturnsSameMap() {
+
+        PersistentUuidMap<String> testMap = PersistentUuidMap.<String>empty().put(UUID.randomUUID(), "value1");
+
+        PersistentUuidMap<String> result = testMap.remove(UUID.randomUUID());
+
+        assertSame(testMap, result);
+    }
+
+    @Test
+    public void putGetRemove_KeysWithCollidingHashes() {
+
+        // UUIDs whose most and least significant bits are swapped have the same hash code
+        var key1 = new UUID(1, 0);
+        var key2 = new UUID(0, 1);
+        var key3 = new UUID(2, 3);
+        var key4 = new UUID(3, 2);
+        assertEquals(key1.hashCode(), key2.hashCode());
+        assertEquals(key3.hashCode(), key4.hashCode());
+        PersistentUuidMap<String> testMap = PersistentUuidMap.<String>empty()
+            .put(key1, "value1")
+            .put(key2, "value2")
+            .put(key3, "value3")
+            .put(key4, "value4");
+
+        assertEquals(4, testMap.size());
+        assertEquals("value1", testMap.get(key1));
+        assertEquals("value2", testMap.get(key2));
+        assertEquals("value3", testMap.get(key3));
+        assertEquals("value4", testMap.get(key4));
+
+        PersistentUuidMap<String> result = testMap.remove(key1).remove(key4);
+
+        assertEquals(2, result.size());
+        assertNull(result.get(key1));
+        assertEquals("value2", result.get(key2));
+        assertEquals("value3", result.get(key3));
+        assertNull(result.get(key4));
+        assertFalse(result.containsKey(key1));
+        assertEquals(4, testMap.size());
+    }
+
+    @Test
+    public void putGetRemove_RandomOperationsMatchHashMap() {
+
+        var random = new Random(42);
+        var keys = new ArrayList<UUID>();
+        for (int i = 0; i < 2000; i++) {
+            keys.add(new UUID(random.nextLong(), random.nextLong()));
+        }
+        var expectedMap = new HashMap<UUID, Integer>();
+        PersistentUuidMap<Integer> testMap = PersistentUuidMap.empty();
+
+        for (int i = 0; i < 20000; i++) {
+            UUID key = keys.get(random.nextInt(keys.size()));
+            if (random.nextInt(3) == 0) {
+                expectedMap.remove(key);
+                testMap = testMap.remove(key);
+            }
+            else {
+                expectedMap.put(key, i);
+                testMap = testMap.put(key, i);
+            }
+        }
+
+        assertEquals(expectedMap.size(), testMap.size());
+        for (UUID currentKey : keys) {
+            assertEquals(expectedMap.get(currentKey), testMap.get(currentKey));
+        }
+        var values = new HashSet<Integer>();
+        for (Integer currentValue : testMap.values()) {
+            values.add(currentValue);
+        }
+        assertEquals(new HashSet<Integer>(expectedMap.values()), values);
+        assertEquals(expectedMap.size(), testMap.values().size());
+    }
+
+    @Test
+    public void remove_AllKeys() {
+
+        var random = new Random(7);
+        var keys = new ArrayList<UUID>();
+        PersistentUuidMap<String> testMap = PersistentUuidMap.empty();
+        for (int i = 0; i < 500; i++) {
+            var key = new UUID(random.nextLong(), random.nextLong());
+            keys.add(key);
+            testMap = testMap.put(key, key.toString());
+        }
+
+        for (UUID currentKey : keys) {
+            testMap = testMap.remove(currentKey);
+        }
+
+        assertEquals(0, testMap.size());
+        assertFalse(testMap.values().iterator().hasNext());
+    }
+
+    @Test
+    public void values_SpliteratorSplitsAllValues() {
+
+        var random = new Random(11);
+        var expectedValues = new HashSet<String>();
+        PersistentUuidMap<String> testMap = PersistentUuidMap.empty();
+        for (int i = 0; i < 5000; i++) {
+            var key = new UUID(random.nextLong(), random.nextLong());
+            expectedValues.add(key.toString());
+            testMap = testMap.put(key, key.toString());
+        }
+
+        Spliterator<String> spliterator = testMap.values().spliterator();
+        long sizeBeforeSplit = spliterator.getExactSizeIfKnown();
+        Spliterator<String> prefix = spliterator.trySplit();
+        var values = new HashSet<String>();
+        prefix.forEachRemaining(values::add);
+        int prefixCount = values.size();
+        assertTrue(spliterator.tryAdvance(values::add));
+        spliterator.forEachRemaining(values::add);
+
+        assertEquals(5000, sizeBeforeSplit);
+        assertNotNull(prefix);
+        assertEquals(-1, spliterator.getExactSizeIfKnown());
+        assertTrue(prefixCount > 0);
+        assertTrue(prefixCount < 5000);
+        assertEquals(expectedValues, values);
+        assertEquals(expectedValues, StreamSupport.stream(testMap.values().spliterator(), true).collect(Collectors.toSet()));
+    }
+
+    @Test
+    public void values_SpliteratorSplitsThroughSingleChildNodes() {
+
+        // Keys with hashes differing only in the highest bits are stored beneath a chain of nodes with a single child
+        PersistentUuidMap<String> testMap = PersistentUuidMap.empty();
+        var expectedValues = new HashSet<String>();
+        for (long i = 0; i < 4; i++) {
+            var key = new UUID(0, i << 30);
+            expectedValues.add(key.toString());
+            testMap = testMap.put(key, key.toString());
+        }
+
+        Spliterator<String> spliterator = testMap.values().spliterator();
+        Spliterator<String> prefix = spliterator.trySplit();
+        var values = new HashSet<String>();
+        prefix.forEachRemaining(values::add);
+        spliterator.forEachRemaining(values::add);
+
+        assertNotNull(prefix);
+        assertEquals(expectedValues, values);
+    }
+}
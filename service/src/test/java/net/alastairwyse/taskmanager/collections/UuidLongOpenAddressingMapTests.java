@@ -0,0 +1,127 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.collections;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link UuidLongOpenAddressingMap} class.
+ */
+public class UuidLongOpenAddressingMapTests {
+
+    @Test
+    public void constructor_InitialCapacityParameterLessThan1() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> 
+        {
+            new UuidLongOpenAddressingMap(0);
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'initialCapacity' must be greater than 0."));
+    }
+
+    @Test
+    public void put_ValueParameter0() {
+
+        var testMap = new UuidLongOpenAddressingMap();
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> 
+        {
+            testMap.put(UUID.randomUUID(), 0);
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'value' cannot be 0."));
+    }
+
+    @Test
+    public void putGet() {
+
+        var testMap = new UuidLongOpenAddressingMap(1);
+        UUID key = UUID.randomUUID();
+
+        assertEquals(0, testMap.put(key, 1));
+        assertEquals(1, testMap.put(key, 2));
+
+        assertEquals(1, testMap.size());
+        assertEquals(2, testMap.get(key));
+        assertEquals(2, testMap.get(key.getMostSignificantBits(), key.getLeastSignificantBits()));
+        assertTrue(testMap.containsKey(key));
+        assertEquals(0, testMap.get(UUID.randomUUID()));
+    }
+
+    @Test
+    public void replace_KeyDoesntExist() {
+
+        var testMap = new UuidLongOpenAddressingMap();
+        UUID key = UUID.randomUUID();
+
+        long result = testMap.replace(key, 1);
+
+        assertEquals(0, result);
+        assertEquals(0, testMap.size());
+        assertFalse(testMap.containsKey(key));
+    }
+
+    @Test
+    public void putGetRemove_RandomOperationsMatchHashMap() {
+
+        var random = new Random(42);
+        var keys = new ArrayList<UUID>();
+        for (int i = 0; i < 2000; i++) {
+            // Use a small range of bits, so that many keys share probe sequences
+            keys.add(new UUID(random.nextInt(64), random.nextInt(64)));
+        }
+        var expectedMap = new HashMap<UUID, Long>();
+        var testMap = new UuidLongOpenAddressingMap();
+
+        for (long i = 1; i <= 50000; i++) {
+            UUID key = keys.get(random.nextInt(keys.size()));
+            switch (random.nextInt(4)) {
+                case 0:
+                    assertEquals(orZero(expectedMap.remove(key)), testMap.remove(key));
+                    break;
+                case 1:
+                    assertEquals(orZero(expectedMap.replace(key, i)), testMap.replace(key, i));
+                    break;
+                default:
+                    assertEquals(orZero(expectedMap.put(key, i)), testMap.put(key, i));
+            }
+        }
+
+        assertEquals(expectedMap.size(), testMap.size());
+        for (UUID currentKey : keys) {
+            assertEquals(orZero(expectedMap.get(currentKey)), testMap.get(currentKey));
+        }
+        var values = new HashSet<Long>();
+        testMap.forEachValue(values::add);
+        assertEquals(new HashSet<Long>(expectedMap.values()), values);
+    }
+
+    private long orZero(Long value) {
+        return value == null ? 0 : value;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.indexes;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import net.alastairwyse.taskmanager.models.Task;
+
+import static org.junit.Assert.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link DueDateIndex} class.
+ */
+public class DueDateIndexTests {
+
+    private DueDateIndex testDueDateIndex;
+
+    @Before
+    public void setUp() {
+
+        testDueDateIndex = new DueDateIndex();
+    }
+
+    @Test
+    public void replace_AddTasks() {
+
+        var task1 = new Task(UUID.fromString("287acea2-21ff-4a42-b379-af6830bd2066"), "Do Christmas Shopping", null, Optional.of(LocalDate.of(2023, 12, 18)));
+        var task2 = new Task(UUID.fromString("f9cd3b6c-1b3e-4e2b-9e9c-2b8f4a1e8d6f"), "Apply for leave", null, Optional.of(LocalDate.of(2023, 12, 18)));
+        var task3 = new Task(UUID.fromString("7f3e1e34-6d1f-4f3e-8a43-5b1c0d4f2a9b"), "Book flights", null, Optional.of(LocalDate.of(2023, 12, 17)));
+        var task4 = new Task(UUID.fromString("c5b2a1d0-3e4f-4a5b-9c6d-7e8f9a0b1c2d"), "Clean house", null, Optional.empty());
+
+        for (Task currentTask : List.of(task1, task2, task3, task4)) {
+            testDueDateIndex.replace(null, currentTask);
+        }
+
+        // Tasks without a due date aren't indexed, and tasks due on the same date are ordered as by UUID.compareTo()
+        assertEquals(3, testDueDateIndex.size());
+        List<Task> result = testDueDateIndex.getTasks(null, null);
+        assertEquals(List.of(task3, task2, task1), result);
+        assertEquals(result, List.of(task1, task2, task3, task4).stream().sorted(DueDateIndex.DUE_DATE_ORDER).limit(3).toList());
+    }
+
+    @Test
+    public void replace_UpdateAndRemoveTasks() {
+
+        var task1 = new Task(UUID.fromString("287acea2-21ff-4a42-b379-af6830bd2066"), "Do Christmas Shopping", null, Optional.of(LocalDate.of(2023, 12, 18)));
+        var task2 = new Task(UUID.fromString("7f3e1e34-6d1f-4f3e-8a43-5b1c0d4f2a9b"), "Book flights", null, Optional.of(LocalDate.of(2023, 12, 20)));
+        testDueDateIndex.replace(null, task1);
+        testDueDateIndex.replace(null, task2);
+        var updatedTask1 = new Task(task1.getId(), "Do Christmas Shopping", null, Optional.of(LocalDate.of(2023, 12, 22)));
+        var updatedTask2 = new Task(task2.getId(), "Book flights", null, Optional.empty());
+
+        testDueDateIndex.replace(task1, updatedTask1);
+        testDueDateIndex.replace(task2, updatedTask2);
+
+        assertEquals(List.of(updatedTask1), testDueDateIndex.getTasks(null, null));
+
+        testDueDateIndex.replace(updatedTask1, null);
+
+        assertEquals(0, testDueDateIndex.size());
+    }
+
+    @Test
+    public void replace_NewVersionAddedBeforeOldVersionRemoved() {
+
+        var task = new Task(UUID.randomUUID(), "Book flights", null, Optional.of(LocalDate.of(2023, 12, 18)));
+        testDueDateIndex.replace(null, task);
+        var sameDateTask = new Task(task.getId(), "Book flights", "Return", Optional.of(LocalDate.of(2023, 12, 18)));
+        var changedDateTask = new Task(task.getId(), "Book flights", "Return", Optional.of(LocalDate.of(2023, 12, 20)));
+
+        testDueDateIndex.replace(null, sameDateTask);
+
+        assertEquals(List.of(sameDateTask), testDueDateIndex.getTasks(null, null));
+
+        testDueDateIndex.replace(task, sameDateTask);
+
+        assertEquals(List.of(sameDateTask), testDueDateIndex.getTasks(null, null));
+
+        testDueDateIndex.replace(null, changedDateTask);
+
+        assertEquals(List.of(sameDateTask, changedDateTask), testDueDateIndex.getTasks(null, null));
+
+        testDueDateIndex.replace(sameDateTask, changedDateTask);
+
+        assertEquals(List.of(changedDateTask), testDueDateIndex.getTasks(null, null));
+    }
+
+    @Test
+    public void getTasks_InclusiveBounds() {
+
+        var task1 = new Task(UUID.randomUUID(), "Task 1", null, Optional.of(LocalDate.of(2023, 12, 17)));
+        var task2 = new Task(UUID.randomUUID(), "Task 2", null, Optional.of(LocalDate.of(2023, 12, 18)));
+        var task3 = new Task(UUID.randomUUID(), "Task 3", null, Optional.of(LocalDate.of(2023, 12, 19)));
+        var task4 = new Task(UUID.randomUUID(), "Task 4", null, Optional.of(LocalDate.of(2023, 12, 20)));
+        for (Task currentTask : List.of(task1, task2, task3, task4)) {
+            testDueDateIndex.replace(null, currentTask);
+        }
+
+        assertEquals(List.of(task2, task3), testDueDateIndex.getTasks(LocalDate.of(2023, 12, 18), LocalDate.of(2023, 12, 19)));
+        assertEquals(List.of(task3), testDueDateIndex.getTasks(LocalDate.of(2023, 12, 19), LocalDate.of(2023, 12, 19)));
+        assertEquals(List.of(task1, task2), testDueDateIndex.getTasks(null, LocalDate.of(2023, 12, 18)));
+        assertEquals(List.of(task4), testDueDateIndex.getTasks(LocalDate.of(2023, 12, 20), null));
+        assertEquals(0, testDueDateIndex.getTasks(LocalDate.of(2024, 1, 1), null).size());
+    }
+
+    @Test
+    public void getTasks_DueFromAfterDueTo() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> 
+        {
+            testDueDateIndex.getTasks(LocalDate.of(2023, 12, 19), LocalDate.of(2023, 12, 18));
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'dueFrom' with value '2023-12-19' must be less than or equal to parameter 'dueTo' with value '2023-12-18'."));
+    }
+
+    @Test
+    public void isDueBetween() {
+
+        var task = new Task(UUID.randomUUID(), "Task", null, Optional.of(LocalDate.of(2023, 12, 18)));
+
+        assertTrue(DueDateIndex.isDueBetween(task, LocalDate.of(2023, 12, 18), LocalDate.of(2023, 12, 18)));
+        assertTrue(DueDateIndex.isDueBetween(task, null, null));
+        assertFalse(DueDateIndex.isDueBetween(task, LocalDate.of(2023, 12, 19), null));
+        assertFalse(DueDateIndex.isDueBetween(task, null, LocalDate.of(2023, 12, 17)));
+        assertFalse(DueDateIndex.isDueBetween(new Task(UUID.randomUUID(), "Task", null, Optional.empty()), null, null));
+    }
+}
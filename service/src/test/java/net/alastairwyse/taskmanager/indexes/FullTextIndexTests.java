@@ -0,0 +1,186 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.indexes;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import net.alastairwyse.taskmanager.models.Task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link FullTextIndex} class.
+ */
+public class FullTextIndexTests {
+
+    private FullTextIndex testFullTextIndex;
+
+    @Before
+    public void setUp() {
+
+        testFullTextIndex = new FullTextIndex();
+    }
+
+    @Test
+    public void constructor_StripeCountLessThan1() {
+
+        var e = assertThrows(IllegalArgumentException.class, () -> {
+            new FullTextIndex(0);
+        });
+
+        assertEquals("Parameter 'stripeCount' must be greater than 0.", e.getMessage());
+    }
+
+    @Test
+    public void search() {
+
+        var task1 = new Task(UUID.randomUUID(), "Do Christmas Shopping", "Turkey, crackers, prawns, presents", Optional.empty());
+        var task2 = new Task(UUID.randomUUID(), "Do New Year Shopping", "Champagne", Optional.empty());
+        var task3 = new Task(UUID.randomUUID(), "Wrap presents", null, Optional.empty());
+        for (Task currentTask : List.of(task1, task2, task3)) {
+            testFullTextIndex.replace(null, currentTask);
+        }
+
+        assertEquals(Set.of(task1, task2), new HashSet<Task>(testFullTextIndex.search("shopping")));
+        assertEquals(Set.of(task1, task3), new HashSet<Task>(testFullTextIndex.search("Presents")));
+        assertEquals(List.of(task1), testFullTextIndex.search("presents shopping"));
+        assertEquals(List.of(task2), testFullTextIndex.search("champagne DO"));
+        assertEquals(0, testFullTextIndex.search("presents champagne").size());
+        assertEquals(0, testFullTextIndex.search("fireworks").size());
+        assertEquals(0, testFullTextIndex.search("").size());
+        assertEquals(0, testFullTextIndex.search(null).size());
+    }
+
+    @Test
+    public void replace_UpdateTask() {
+
+        var task = new Task(UUID.randomUUID(), "Do Christmas Shopping", "Turkey", Optional.empty());
+        testFullTextIndex.replace(null, task);
+        var updatedTask = new Task(task.getId(), "Do New Year Shopping", null, Optional.empty());
+
+        testFullTextIndex.replace(task, updatedTask);
+
+        assertEquals(1, testFullTextIndex.size());
+        assertEquals(0, testFullTextIndex.search("christmas").size());
+        assertEquals(0, testFullTextIndex.search("turkey").size());
+        assertSame(updatedTask, testFullTextIndex.search("shopping").get(0));
+        assertSame(updatedTask, testFullTextIndex.search("new year").get(0));
+        // Terms with no remaining tasks are removed
+        assertEquals(4, testFullTextIndex.getTermCount());
+    }
+
+    @Test
+    public void replace_RemoveTaskAndReuseOrdinal() {
+
+        var tasks = new ArrayList<Task>();
+        for (int i = 0; i < 10; i++) {
+            tasks.add(new Task(UUID.randomUUID(), "Task " + i, i % 2 == 0 ? "even" : "odd", Optional.empty()));
+            testFullTextIndex.replace(null, tasks.get(i));
+        }
+
+        testFullTextIndex.replace(tasks.get(2), null);
+        testFullTextIndex.replace(tasks.get(4), null);
+        // Reuses the ordinals of the removed tasks, so is inserted in the middle of the posting lists
+        var newTask1 = new Task(UUID.randomUUID(), "Task 10", "even", Optional.empty());
+        var newTask2 = new Task(UUID.randomUUID(), "Task 12", "even", Optional.empty());
+        testFullTextIndex.replace(null, newTask1);
+        testFullTextIndex.replace(null, newTask2);
+
+        assertEquals(10, testFullTextIndex.size());
+        assertEquals(10, testFullTextIndex.search("task").size());
+        assertEquals(Set.of(tasks.get(0), tasks.get(6), tasks.get(8), newTask1, newTask2), new HashSet<Task>(testFullTextIndex.search("even task")));
+        assertEquals(0, testFullTextIndex.search("2").size());
+        assertEquals(List.of(newTask2), testFullTextIndex.search("12 even"));
+    }
+
+    @Test
+    public void replace_RemoveTaskNotInIndex() {
+
+        testFullTextIndex.replace(new Task(UUID.randomUUID(), "Task", null, Optional.empty()), null);
+
+        assertEquals(0, testFullTextIndex.size());
+        assertEquals(0, testFullTextIndex.getTermCount());
+    }
+
+    @Test
+    public void search_MultipleStripes() {
+
+        testFullTextIndex = new FullTextIndex(4);
+        var tasks = new ArrayList<Task>();
+        for (int i = 0; i < 40; i++) {
+            tasks.add(new Task(UUID.randomUUID(), "Task " + i, i % 2 == 0 ? "even" : "odd", Optional.empty()));
+            testFullTextIndex.replace(null, tasks.get(i));
+        }
+        testFullTextIndex.replace(tasks.get(0), null);
+        var updatedTask = new Task(tasks.get(1).getId(), "Task 1", "even", Optional.empty());
+        testFullTextIndex.replace(tasks.get(1), updatedTask);
+
+        assertEquals(39, testFullTextIndex.size());
+        // 'task', 'even', 'odd', and the numbers 1 to 39
+        assertEquals(42, testFullTextIndex.getTermCount());
+        assertEquals(39, testFullTextIndex.search("task").size());
+        assertEquals(20, testFullTextIndex.search("task even").size());
+        assertEquals(List.of(updatedTask), testFullTextIndex.search("1 even"));
+        assertEquals(0, testFullTextIndex.search("0").size());
+        assertEquals(19, testFullTextIndex.search("odd").size());
+    }
+
+    @Test
+    public void search_LargePostingLists() {
+
+        // Enough tasks to span multiple posting list blocks, and to convert blocks between sorted arrays and bitmaps
+        var tasks = new ArrayList<Task>();
+        for (int i = 0; i < 10000; i++) {
+            tasks.add(new Task(UUID.randomUUID(), "Task", i % 3 == 0 ? "third" : null, Optional.empty()));
+            testFullTextIndex.replace(null, tasks.get(i));
+        }
+
+        assertEquals(10000, testFullTextIndex.search("task").size());
+        assertEquals(3334, testFullTextIndex.search("third task").size());
+
+        var remainingTasks = new HashSet<Task>();
+        for (int i = 0; i < tasks.size(); i++) {
+            if (i % 100 == 0) {
+                remainingTasks.add(tasks.get(i));
+            }
+            else {
+                testFullTextIndex.replace(tasks.get(i), null);
+            }
+        }
+
+        assertEquals(100, testFullTextIndex.size());
+        assertEquals(remainingTasks, new HashSet<Task>(testFullTextIndex.search("task")));
+        assertEquals(34, testFullTextIndex.search("task third").size());
+
+        // Reuses the freed ordinals, so adds to blocks converted back to sorted arrays
+        for (int i = 0; i < 1000; i++) {
+            testFullTextIndex.replace(null, new Task(UUID.randomUUID(), "Task", "third", Optional.empty()));
+        }
+
+        assertEquals(1100, testFullTextIndex.search("task").size());
+        assertEquals(1034, testFullTextIndex.search("third").size());
+    }
+}
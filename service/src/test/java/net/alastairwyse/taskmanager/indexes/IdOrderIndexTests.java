@@ -0,0 +1,112 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.indexes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.TaskPage;
+
+import static org.junit.Assert.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link IdOrderIndex} class.
+ */
+public class IdOrderIndexTests {
+
+    private IdOrderIndex testIdOrderIndex;
+
+    @Before
+    public void setUp() {
+
+        testIdOrderIndex = new IdOrderIndex();
+    }
+
+    @Test
+    public void getPage_LimitParameterLessThan1() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> 
+        {
+            testIdOrderIndex.getPage(null, 0);
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'limit' must be greater than 0."));
+    }
+
+    @Test
+    public void getPage() {
+
+        var ids = new ArrayList<UUID>();
+        for (int i = 0; i < 7; i++) {
+            var task = new Task(UUID.randomUUID(), "Task " + i, null, Optional.empty());
+            testIdOrderIndex.replace(null, task);
+            ids.add(task.getId());
+        }
+        Collections.sort(ids);
+
+        var pagedIds = new ArrayList<UUID>();
+        String cursor = null;
+        int pageCount = 0;
+        do {
+            TaskPage page = testIdOrderIndex.getPage(cursor, 3);
+            page.getTasks().forEach((Task task) -> pagedIds.add(task.getId()));
+            cursor = page.getNextCursor();
+            pageCount++;
+        }
+        while (cursor != null);
+
+        assertEquals(ids, pagedIds);
+        assertEquals(3, pageCount);
+    }
+
+    @Test
+    public void getPage_ExactMultipleOfLimit() {
+
+        for (int i = 0; i < 4; i++) {
+            testIdOrderIndex.replace(null, new Task(UUID.randomUUID(), "Task " + i, null, Optional.empty()));
+        }
+
+        TaskPage result = testIdOrderIndex.getPage(null, 4);
+
+        assertEquals(4, result.getTasks().size());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    public void replace_UpdateAndRemoveTasks() {
+
+        var task1 = new Task(UUID.randomUUID(), "Task 1", null, Optional.empty());
+        var task2 = new Task(UUID.randomUUID(), "Task 2", null, Optional.empty());
+        testIdOrderIndex.replace(null, task1);
+        testIdOrderIndex.replace(null, task2);
+        var updatedTask1 = new Task(task1.getId(), "Updated task 1", null, Optional.empty());
+
+        testIdOrderIndex.replace(task1, updatedTask1);
+        testIdOrderIndex.replace(task2, null);
+
+        assertEquals(1, testIdOrderIndex.size());
+        assertEquals(List.of(updatedTask1), testIdOrderIndex.getPage(null, 10).getTasks());
+    }
+}
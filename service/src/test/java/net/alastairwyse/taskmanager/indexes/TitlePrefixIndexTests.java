@@ -0,0 +1,144 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.indexes;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import net.alastairwyse.taskmanager.models.Task;
+
+import static org.junit.Assert.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link TitlePrefixIndex} class.
+ */
+public class TitlePrefixIndexTests {
+
+    private TitlePrefixIndex testTitlePrefixIndex;
+
+    @Before
+    public void setUp() {
+
+        testTitlePrefixIndex = new TitlePrefixIndex();
+    }
+
+    @Test
+    public void getTasks_PrefixParameterNull() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> 
+        {
+            testTitlePrefixIndex.getTasks(null, 10);
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'prefix' cannot be null."));
+    }
+
+    @Test
+    public void getTasks_LimitParameterLessThan1() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> 
+        {
+            testTitlePrefixIndex.getTasks("book", 0);
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'limit' must be greater than 0."));
+    }
+
+    @Test
+    public void getTasks() {
+
+        var task1 = new Task(UUID.fromString("287acea2-21ff-4a42-b379-af6830bd2066"), "Book flights", null, Optional.empty());
+        var task2 = new Task(UUID.fromString("f9cd3b6c-1b3e-4e2b-9e9c-2b8f4a1e8d6f"), "book flights", null, Optional.empty());
+        var task3 = new Task(UUID.fromString("7f3e1e34-6d1f-4f3e-8a43-5b1c0d4f2a9b"), "Book", null, Optional.empty());
+        var task4 = new Task(UUID.fromString("c5b2a1d0-3e4f-4a5b-9c6d-7e8f9a0b1c2d"), "Booking", null, Optional.empty());
+        var task5 = new Task(UUID.fromString("a1b2c3d4-e5f6-4a7b-8c9d-0e1f2a3b4c5d"), "Boo", null, Optional.empty());
+        var task6 = new Task(UUID.fromString("b1b2c3d4-e5f6-4a7b-8c9d-0e1f2a3b4c5d"), "Bookz", null, Optional.empty());
+        for (Task currentTask : List.of(task1, task2, task3, task4, task5, task6)) {
+            testTitlePrefixIndex.replace(null, currentTask);
+        }
+
+        // Titles which are equal ignoring case are ordered as by UUID.compareTo()
+        List<Task> result = testTitlePrefixIndex.getTasks("BOOK", 10);
+        assertEquals(List.of(task3, task2, task1, task4, task6), result);
+        assertEquals(result, List.of(task1, task2, task3, task4, task6).stream().sorted(TitlePrefixIndex.TITLE_ORDER).toList());
+        assertEquals(List.of(task3, task2), testTitlePrefixIndex.getTasks("book", 2));
+        assertEquals(List.of(task4), testTitlePrefixIndex.getTasks("booki", 10));
+        assertEquals(0, testTitlePrefixIndex.getTasks("bookings", 10).size());
+        assertEquals(0, testTitlePrefixIndex.getTasks("c", 10).size());
+        assertEquals(6, testTitlePrefixIndex.getTasks("", 10).size());
+    }
+
+    @Test
+    public void replace_NewVersionAddedBeforeOldVersionRemoved() {
+
+        var task = new Task(UUID.randomUUID(), "Book flights", null, Optional.empty());
+        testTitlePrefixIndex.replace(null, task);
+        var sameTitleTask = new Task(task.getId(), "Book flights", "Return", Optional.empty());
+        var changedTitleTask = new Task(task.getId(), "Book return flights", null, Optional.empty());
+
+        testTitlePrefixIndex.replace(null, sameTitleTask);
+
+        assertEquals(List.of(sameTitleTask), testTitlePrefixIndex.getTasks("book", 10));
+
+        testTitlePrefixIndex.replace(null, changedTitleTask);
+
+        assertEquals(List.of(sameTitleTask, changedTitleTask), testTitlePrefixIndex.getTasks("book", 10));
+
+        testTitlePrefixIndex.replace(sameTitleTask, changedTitleTask);
+
+        assertEquals(List.of(changedTitleTask), testTitlePrefixIndex.getTasks("book", 10));
+    }
+
+    @Test
+    public void replace_UpdateAndRemoveTasks() {
+
+        var task1 = new Task(UUID.randomUUID(), "Book flights", null, Optional.empty());
+        var task2 = new Task(UUID.randomUUID(), "Book hotel", null, Optional.empty());
+        testTitlePrefixIndex.replace(null, task1);
+        testTitlePrefixIndex.replace(null, task2);
+        var updatedTask1 = new Task(task1.getId(), "Book flights", "Return", Optional.empty());
+        var updatedTask2 = new Task(task2.getId(), "Cancel hotel", null, Optional.empty());
+
+        testTitlePrefixIndex.replace(task1, updatedTask1);
+        testTitlePrefixIndex.replace(task2, updatedTask2);
+
+        assertEquals(2, testTitlePrefixIndex.size());
+        assertSame(updatedTask1, testTitlePrefixIndex.getTasks("book", 10).get(0));
+        assertEquals(1, testTitlePrefixIndex.getTasks("book", 10).size());
+        assertSame(updatedTask2, testTitlePrefixIndex.getTasks("cancel", 10).get(0));
+
+        testTitlePrefixIndex.replace(updatedTask1, null);
+
+        assertEquals(1, testTitlePrefixIndex.size());
+        assertEquals(0, testTitlePrefixIndex.getTasks("book", 10).size());
+    }
+
+    @Test
+    public void titleStartsWith() {
+
+        var task = new Task(UUID.randomUUID(), "Book Flights", null, Optional.empty());
+
+        assertTrue(TitlePrefixIndex.titleStartsWith(task, "book f"));
+        assertTrue(TitlePrefixIndex.titleStartsWith(task, ""));
+        assertFalse(TitlePrefixIndex.titleStartsWith(task, "flights"));
+    }
+}
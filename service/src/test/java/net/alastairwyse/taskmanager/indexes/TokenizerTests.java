@@ -0,0 +1,54 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.indexes;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link Tokenizer} class.
+ */
+public class TokenizerTests {
+
+    @Test
+    public void tokenize() {
+
+        Set<String> result = Tokenizer.tokenize("Turkey, crackers,prawns &  presents (turkey) 2023");
+
+        assertEquals(List.of("turkey", "crackers", "prawns", "presents", "2023"), List.copyOf(result));
+    }
+
+    @Test
+    public void tokenize_NonAsciiCharacters() {
+
+        Set<String> result = Tokenizer.tokenize("Café-Öffnungszeiten 東京 𝐀bc");
+
+        // Supplementary code points (e.g. mathematical bold 'A') are treated as letters
+        assertEquals(List.of("café", "öffnungszeiten", "東京", "𝐀bc"), List.copyOf(result));
+    }
+
+    @Test
+    public void tokenize_NoTerms() {
+
+        assertEquals(0, Tokenizer.tokenize(null).size());
+        assertEquals(0, Tokenizer.tokenize("").size());
+        assertEquals(0, Tokenizer.tokenize(" -- , ").size());
+    }
+}
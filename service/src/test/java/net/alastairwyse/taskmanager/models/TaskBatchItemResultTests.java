@@ -0,0 +1,60 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.models;
+
+import java.util.Arrays;
+import java.util.List;
+
+import net.alastairwyse.taskmanager.models.dtos.NewTaskDto;
+
+import org.junit.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link TaskBatchItemResult} class.
+ */
+public class TaskBatchItemResultTests {
+
+    @Test
+    public void createTasks() {
+
+        var validNewTaskDto = new NewTaskDto();
+        validNewTaskDto.setTitle("Do Christmas Shopping");
+        validNewTaskDto.setDetail("Turkey, crackers, prawns, presents");
+        var invalidNewTaskDto = new NewTaskDto();
+        invalidNewTaskDto.setTitle(" ");
+
+        List<TaskBatchItemResult> results = TaskBatchItemResult.createTasks(Arrays.asList(validNewTaskDto, null, invalidNewTaskDto));
+
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).getSuccess());
+        assertNull(results.get(0).getException());
+        assertEquals("Do Christmas Shopping", results.get(0).getTask().getTitle());
+        assertEquals("Turkey, crackers, prawns, presents", results.get(0).getTask().getDetail());
+        assertFalse(results.get(1).getSuccess());
+        assertNull(results.get(1).getTask());
+        assertTrue(results.get(1).getException() instanceof IllegalArgumentException);
+        assertEquals("Element 1 of parameter 'newTaskDtos' cannot be null.", results.get(1).getException().getMessage());
+        assertFalse(results.get(2).getSuccess());
+        assertNull(results.get(2).getTask());
+        assertTrue(results.get(2).getException() instanceof IllegalArgumentException);
+        assertTrue(results.get(2).getException().getMessage().contains("The Title cannot be blank."));
+    }
+}
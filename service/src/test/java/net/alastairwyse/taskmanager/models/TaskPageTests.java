@@ -0,0 +1,88 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.models;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link TaskPage} class.
+ */
+public class TaskPageTests {
+
+    @Test
+    public void constructor_TasksParameterNull() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> 
+        {
+            new TaskPage(null, false);
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'tasks' cannot be null."));
+    }
+
+    @Test
+    public void constructor() {
+
+        var task = new Task(UUID.fromString("287acea2-21ff-4a42-b379-af6830bd2066"), "Do Christmas Shopping", null, Optional.empty());
+
+        var result = new TaskPage(List.of(task), true);
+
+        assertEquals(task.getId(), TaskPage.decodeCursor(result.getNextCursor()));
+        assertNull(new TaskPage(List.of(task), false).getNextCursor());
+        assertNull(new TaskPage(new ArrayList<Task>(), true).getNextCursor());
+    }
+
+    @Test
+    public void encodeCursor() {
+
+        var id = UUID.fromString("ffffffff-21ff-4a42-b379-af6830bd2066");
+
+        String result = TaskPage.encodeCursor(id);
+
+        // Cursors are URL safe
+        assertTrue(result.matches("[A-Za-z0-9_-]+"));
+        assertEquals(id, TaskPage.decodeCursor(result));
+    }
+
+    @Test
+    public void decodeCursor_NullCursor() {
+
+        assertNull(TaskPage.decodeCursor(null));
+    }
+
+    @Test
+    public void decodeCursor_InvalidCursor() {
+
+        String validCursor = TaskPage.encodeCursor(UUID.randomUUID());
+        for (String currentCursor : List.of("", "!!!", validCursor.substring(1), "B" + validCursor.substring(1))) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> 
+            {
+                TaskPage.decodeCursor(currentCursor);
+            });
+
+            assertTrue(e.getMessage().contains(String.format("Parameter 'cursor' with value '%s' is not a valid cursor.", currentCursor)));
+        }
+    }
+}
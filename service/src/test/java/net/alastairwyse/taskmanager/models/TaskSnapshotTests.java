@@ -0,0 +1,95 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.models;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import net.alastairwyse.taskmanager.models.dtos.NewTaskDto;
+
+import org.junit.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link TaskSnapshot} class.
+ */
+public class TaskSnapshotTests {
+
+    @Test
+    public void constructor_VersionParameterNegative() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> 
+        {
+            new TaskSnapshot(-1, new ArrayList<Task>());
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'version' must be greater than or equal to 0."));
+    }
+
+    @Test
+    public void constructor_TasksParameterNull() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> 
+        {
+            new TaskSnapshot(0, null);
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'tasks' cannot be null."));
+    }
+
+    @Test
+    public void iterator_CannotModifySnapshot() {
+
+        var newTaskDto = new NewTaskDto();
+        newTaskDto.setTitle("Do Christmas Shopping");
+        var testTask = new Task(newTaskDto);
+        var testSnapshot = new TaskSnapshot(3, List.of(testTask));
+
+        Iterator<Task> iterator = testSnapshot.iterator();
+        assertSame(testTask, iterator.next());
+        assertThrows(UnsupportedOperationException.class, () -> 
+        {
+            iterator.remove();
+        });
+        assertEquals(3, testSnapshot.getVersion());
+        assertEquals(1, testSnapshot.getSize());
+    }
+
+    @Test
+    public void stream() {
+
+        var tasks = new ArrayList<Task>();
+        for (int i = 0; i < 100; i++) {
+            var newTaskDto = new NewTaskDto();
+            newTaskDto.setTitle("Task " + i);
+            tasks.add(new Task(newTaskDto));
+        }
+        var testSnapshot = new TaskSnapshot(3, tasks);
+
+        List<Task> result = testSnapshot.stream().collect(Collectors.toList());
+
+        assertEquals(tasks, result);
+        assertTrue(testSnapshot.stream().spliterator().hasCharacteristics(Spliterator.SIZED));
+        assertEquals(100, testSnapshot.stream().parallel().count());
+    }
+}
@@ -16,6 +16,7 @@
 
 package net.alastairwyse.taskmanager.models;
 
+import java.time.LocalDate;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -24,6 +25,7 @@ import net.alastairwyse.taskmanager.models.dtos.TaskDto;
 
 import org.junit.Before;
 import org.junit.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -53,4 +55,28 @@ public class TaskTests {
 
         assertTrue(e.getMessage().contains("Failed to create Task instance.  The DueDate failed to validate.  Year 0, month 0, and day of month 0 could not be converted to a valid date."));
     }
+
+    @Test
+    public void constructorWithFieldParameters_TitleParameterBlank() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> 
+        {
+            new Task(UUID.randomUUID(), " ", "Turkey, crackers, prawns, presents", Optional.empty());
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'title' cannot be null or blank."));
+    }
+
+    @Test
+    public void constructorWithFieldParameters() {
+
+        UUID id = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+        var result = new Task(id, "Do Christmas Shopping", "Turkey, crackers, prawns, presents", Optional.of(LocalDate.of(2023, 12, 18)));
+
+        assertEquals(id, result.getId());
+        assertEquals("Do Christmas Shopping", result.getTitle());
+        assertEquals("Turkey, crackers, prawns, presents", result.getDetail());
+        assertEquals(LocalDate.of(2023, 12, 18), result.getDueDate().get());
+    }
 }
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.offheap;
+
+import java.util.HashSet;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link SlabAllocator} class.
+ */
+public class SlabAllocatorTests {
+
+    private SlabAllocator testSlabAllocator;
+
+    @Before
+    public void setUp() {
+
+        testSlabAllocator = new SlabAllocator(1024);
+    }
+
+    @Test
+    public void constructor_SlabSizeParameterNotPowerOf2() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> 
+        {
+            new SlabAllocator(1000);
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'slabSize' must be a power of 2 greater than or equal to 32."));
+    }
+
+    @Test
+    public void allocate_SizeParameterLessThan1() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> 
+        {
+            testSlabAllocator.allocate(0);
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'size' must be greater than 0."));
+    }
+
+    @Test
+    public void allocate() {
+
+        long handle1 = testSlabAllocator.allocate(1);
+        long handle2 = testSlabAllocator.allocate(33);
+        long handle3 = testSlabAllocator.allocate(1024);
+
+        assertNotEquals(0, handle1);
+        assertEquals(32, testSlabAllocator.getCapacity(handle1));
+        assertEquals(0, testSlabAllocator.getOffset(handle1));
+        assertEquals(64, testSlabAllocator.getCapacity(handle2));
+        assertEquals(32, testSlabAllocator.getOffset(handle2));
+        assertEquals(1024, testSlabAllocator.getCapacity(handle3));
+        assertEquals(0, testSlabAllocator.getOffset(handle3));
+        assertNotSame(testSlabAllocator.getSlab(handle1), testSlabAllocator.getSlab(handle3));
+        assertEquals(32 + 64 + 1024, testSlabAllocator.getAllocatedBytes());
+        assertEquals(2048, testSlabAllocator.getReservedBytes());
+    }
+
+    @Test
+    public void allocate_BlocksDontOverlap() {
+
+        var handles = new HashSet<Long>();
+        for (int i = 0; i < 100; i++) {
+            long handle = testSlabAllocator.allocate(100);
+            testSlabAllocator.getSlab(handle).putInt(testSlabAllocator.getOffset(handle), i);
+            handles.add(handle);
+        }
+
+        assertEquals(100, handles.size());
+        var values = new HashSet<Integer>();
+        for (Long currentHandle : handles) {
+            values.add(testSlabAllocator.getSlab(currentHandle).getInt(testSlabAllocator.getOffset(currentHandle)));
+        }
+        assertEquals(100, values.size());
+    }
+
+    @Test
+    public void allocate_SizeParameterLargerThanSlabSize() {
+
+        long handle = testSlabAllocator.allocate(5000);
+
+        assertEquals(5000, testSlabAllocator.getCapacity(handle));
+        assertEquals(5000, testSlabAllocator.getAllocatedBytes());
+        assertEquals(5000, testSlabAllocator.getReservedBytes());
+
+        testSlabAllocator.free(handle);
+
+        assertEquals(0, testSlabAllocator.getAllocatedBytes());
+        assertEquals(0, testSlabAllocator.getReservedBytes());
+    }
+
+    @Test
+    public void free() {
+
+        long handle1 = testSlabAllocator.allocate(40);
+        long handle2 = testSlabAllocator.allocate(40);
+        testSlabAllocator.free(handle1);
+
+        assertEquals(64, testSlabAllocator.getAllocatedBytes());
+
+        long result = testSlabAllocator.allocate(60);
+
+        assertEquals(handle1, result);
+        assertNotEquals(handle2, result);
+        assertEquals(128, testSlabAllocator.getAllocatedBytes());
+        assertEquals(1024, testSlabAllocator.getReservedBytes());
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.persistence;
+
+import org.junit.Test;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link IoRateLimiter} class.
+ */
+public class IoRateLimiterTests {
+
+    @Test
+    public void constructor_BytesPerSecondParameterLessThan1() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> 
+        {
+            new IoRateLimiter(0);
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'bytesPerSecond' must be greater than 0."));
+    }
+
+    @Test
+    public void acquire() {
+
+        var testIoRateLimiter = new IoRateLimiter(10_000);
+
+        long startTime = System.nanoTime();
+        testIoRateLimiter.acquire(10_000);
+        long burstTime = System.nanoTime() - startTime;
+        testIoRateLimiter.acquire(2_000);
+        long totalTime = System.nanoTime() - startTime;
+
+        // The first second's worth of bytes is available immediately, and the remainder is limited to the rate
+        assertTrue(burstTime < 100_000_000);
+        assertTrue(totalTime >= 150_000_000);
+    }
+}
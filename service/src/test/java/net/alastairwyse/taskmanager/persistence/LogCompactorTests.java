@@ -0,0 +1,207 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.persistence;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import net.alastairwyse.taskmanager.models.Task;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link LogCompactor} class.
+ */
+public class LogCompactorTests {
+
+    private Path testDirectory;
+    private WriteAheadLog testWriteAheadLog;
+
+    @Before
+    public void setUp() throws IOException {
+
+        testDirectory = Files.createTempDirectory("LogCompactorTests");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+
+        if (testWriteAheadLog != null) {
+            testWriteAheadLog.close();
+        }
+        try (Stream<Path> paths = Files.walk(testDirectory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach((Path path) -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void constructor_MinimumDeadRecordRatioParameterGreaterThan1() {
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> 
+        {
+            new LogCompactor(new WriteAheadLog(testDirectory, FsyncPolicy.EVERY_BATCH), 1_000_000, 1.5);
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'minimumDeadRecordRatio' must be between 0 and 1."));
+    }
+
+    @Test
+    public void compact_SingleRecordSegments() throws IOException {
+
+        // Each record is larger than the segment size, so is sealed in its own segment
+        openLog(32);
+        UUID idA = UUID.randomUUID();
+        UUID idB = UUID.randomUUID();
+        UUID idC = UUID.randomUUID();
+        append(new Task(idA, "Task A version 1", null, Optional.empty()));
+        append(new Task(idA, "Task A version 2", null, Optional.empty()));
+        append(new Task(idB, "Task B", null, Optional.empty()));
+        appendDelete(idB);
+        append(new Task(idC, "Task C", null, Optional.empty()));
+        var testLogCompactor = new LogCompactor(testWriteAheadLog, 100_000_000);
+
+        CompactionResult result = testLogCompactor.compact(0);
+
+        assertEquals(5, result.getSegmentCount());
+        assertEquals(0, result.getRewrittenSegmentCount());
+        assertEquals(2, result.getDeletedSegmentCount());
+        assertEquals(2, result.getRemovedRecordCount());
+        assertTrue(result.getReclaimedBytes() > 0);
+        List<LogRecord> records = reopenAndReplay(32);
+        assertEquals(3, records.size());
+        assertEquals(2, records.get(0).getLsn());
+        assertEquals("Task A version 2", records.get(0).getTask().getTitle());
+        assertEquals(LogRecord.Type.DELETE, records.get(1).getType());
+        assertEquals(idB, records.get(1).getId());
+        assertEquals(idC, records.get(2).getId());
+
+        // The tombstone is removed once it precedes the snapshot
+        result = new LogCompactor(testWriteAheadLog, 100_000_000).compact(4);
+
+        assertEquals(1, result.getDeletedSegmentCount());
+        records = reopenAndReplay(32);
+        assertEquals(2, records.size());
+        assertEquals(idA, records.get(0).getId());
+        assertEquals(idC, records.get(1).getId());
+    }
+
+    @Test
+    public void compact_MultipleRecordSegments() throws IOException {
+
+        openLog(200);
+        var ids = new ArrayList<UUID>();
+        for (int i = 0; i < 4; i++) {
+            ids.add(UUID.randomUUID());
+            append(new Task(ids.get(i), "Task " + i, null, Optional.empty()));
+        }
+        // Supersede the second task in a later segment, and fill that segment so it's sealed
+        append(new Task(ids.get(1), "Task 1 version 2", null, Optional.empty()));
+        for (int i = 4; i < 7; i++) {
+            ids.add(UUID.randomUUID());
+            append(new Task(ids.get(i), "Task " + i, null, Optional.empty()));
+        }
+        Path firstSegmentPath = testWriteAheadLog.getSegmentPaths().get(0);
+        long originalSize = Files.size(firstSegmentPath);
+
+        CompactionResult result = new LogCompactor(testWriteAheadLog, 100_000_000, 0.0).compact(0);
+
+        assertEquals(1, result.getRewrittenSegmentCount());
+        assertEquals(1, result.getRemovedRecordCount());
+        assertEquals(originalSize - Files.size(firstSegmentPath), result.getReclaimedBytes());
+        List<LogRecord> records = reopenAndReplay(200);
+        assertEquals(7, records.size());
+        assertEquals(List.of(1L, 3L, 4L, 5L, 6L, 7L, 8L), records.stream().map(LogRecord::getLsn).toList());
+        assertEquals("Task 1 version 2", records.get(3).getTask().getTitle());
+    }
+
+    @Test
+    public void compact_DeadRecordRatioBelowMinimum() throws IOException {
+
+        openLog(200);
+        var ids = new ArrayList<UUID>();
+        for (int i = 0; i < 4; i++) {
+            ids.add(UUID.randomUUID());
+            append(new Task(ids.get(i), "Task " + i, null, Optional.empty()));
+        }
+        append(new Task(ids.get(1), "Task 1 version 2", null, Optional.empty()));
+        for (int i = 4; i < 7; i++) {
+            ids.add(UUID.randomUUID());
+            append(new Task(ids.get(i), "Task " + i, null, Optional.empty()));
+        }
+
+        CompactionResult result = new LogCompactor(testWriteAheadLog, 100_000_000, 0.5).compact(0);
+
+        assertEquals(2, result.getSegmentCount());
+        assertEquals(0, result.getRewrittenSegmentCount());
+        assertEquals(0, result.getRemovedRecordCount());
+        assertEquals(8, reopenAndReplay(200).size());
+    }
+
+    @Test
+    public void compact_AllRecordsRemoved() throws IOException {
+
+        openLog(32);
+        UUID id = UUID.randomUUID();
+        append(new Task(id, "Task", null, Optional.empty()));
+        appendDelete(id);
+
+        CompactionResult result = new LogCompactor(testWriteAheadLog, 100_000_000).compact(Long.MAX_VALUE);
+
+        assertEquals(2, result.getDeletedSegmentCount());
+        assertEquals(0, reopenAndReplay(32).size());
+        // Numbering continues from before the removed records
+        assertEquals(3, testWriteAheadLog.appendDelete(UUID.randomUUID()));
+    }
+
+    private void openLog(long segmentSize) throws IOException {
+
+        testWriteAheadLog = new WriteAheadLog(testDirectory, FsyncPolicy.EVERY_BATCH, 100, segmentSize);
+        testWriteAheadLog.open((LogRecord record) -> {});
+    }
+
+    private void append(Task task) {
+
+        testWriteAheadLog.awaitCommit(testWriteAheadLog.appendPut(task));
+    }
+
+    private void appendDelete(UUID id) {
+
+        testWriteAheadLog.awaitCommit(testWriteAheadLog.appendDelete(id));
+    }
+
+    private List<LogRecord> reopenAndReplay(long segmentSize) throws IOException {
+
+        testWriteAheadLog.close();
+        var records = new ArrayList<LogRecord>();
+        testWriteAheadLog = new WriteAheadLog(testDirectory, FsyncPolicy.EVERY_BATCH, 100, segmentSize);
+        testWriteAheadLog.open(records::add);
+
+        return records;
+    }
+}
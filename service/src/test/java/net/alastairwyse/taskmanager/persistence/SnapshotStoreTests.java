@@ -0,0 +1,126 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.persistence;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import net.alastairwyse.taskmanager.models.Task;
+import net.alastairwyse.taskmanager.models.TaskSnapshot;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Unit tests for the {@link SnapshotStore} class.
+ */
+public class SnapshotStoreTests {
+
+    private Path testDirectory;
+    private SnapshotStore testSnapshotStore;
+
+    @Before
+    public void setUp() throws IOException {
+
+        testDirectory = Files.createTempDirectory("SnapshotStoreTests");
+        testSnapshotStore = new SnapshotStore(testDirectory.resolve("snapshots"));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+
+        try (Stream<Path> paths = Files.walk(testDirectory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach((Path path) -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void load_NoSnapshot() throws IOException {
+
+        var tasks = new ArrayList<Task>();
+
+        long result = testSnapshotStore.load(tasks::add);
+
+        assertEquals(0, result);
+        assertEquals(0, tasks.size());
+    }
+
+    @Test
+    public void writeLoad() throws IOException {
+
+        var testTasks = List.of(
+            new Task(UUID.randomUUID(), "Do Christmas Shopping", "Turkey, crackers, prawns, presents", Optional.of(LocalDate.of(2023, 12, 18))), 
+            new Task(UUID.randomUUID(), "Apply for leave", null, Optional.empty()), 
+            new Task(UUID.randomUUID(), "x".repeat(2 * 1024 * 1024), "Larger than the write buffer", Optional.empty())
+        );
+        testSnapshotStore.write(new TaskSnapshot(5, testTasks), 123);
+        var tasks = new ArrayList<Task>();
+
+        long result = testSnapshotStore.load(tasks::add);
+
+        assertEquals(123, result);
+        assertEquals(3, tasks.size());
+        for (int i = 0; i < testTasks.size(); i++) {
+            assertEquals(testTasks.get(i).getId(), tasks.get(i).getId());
+            assertEquals(testTasks.get(i).getTitle(), tasks.get(i).getTitle());
+            assertEquals(testTasks.get(i).getDetail(), tasks.get(i).getDetail());
+            assertEquals(testTasks.get(i).getDueDate(), tasks.get(i).getDueDate());
+        }
+        assertNull(tasks.get(1).getDetail());
+    }
+
+    @Test
+    public void write_OlderSnapshotsDeleted() throws IOException {
+
+        testSnapshotStore.write(new TaskSnapshot(1, List.of()), 10);
+        Path result = testSnapshotStore.write(new TaskSnapshot(2, List.of()), 20);
+
+        assertEquals(List.of(result), testSnapshotStore.getSnapshotPaths());
+        assertEquals("00000000000000000020.snapshot", result.getFileName().toString());
+    }
+
+    @Test
+    public void load_CorruptSnapshotSkipped() throws IOException {
+
+        var testTask = new Task(UUID.randomUUID(), "Do Christmas Shopping", null, Optional.empty());
+        Path olderSnapshotPath = testSnapshotStore.write(new TaskSnapshot(1, List.of(testTask)), 10);
+        byte[] olderSnapshotContents = Files.readAllBytes(olderSnapshotPath);
+        Path newerSnapshotPath = testSnapshotStore.write(new TaskSnapshot(2, List.of(testTask, testTask)), 20);
+        // Restore the older snapshot and corrupt the newer one
+        Files.write(olderSnapshotPath, olderSnapshotContents);
+        byte[] newerSnapshotContents = Files.readAllBytes(newerSnapshotPath);
+        newerSnapshotContents[30] ^= 0xFF;
+        Files.write(newerSnapshotPath, newerSnapshotContents);
+        var tasks = new ArrayList<Task>();
+
+        long result = testSnapshotStore.load(tasks::add);
+
+        assertEquals(10, result);
+        assertEquals(1, tasks.size());
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.persistence;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+
+import net.alastairwyse.taskmanager.models.Task;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link TaskCodec} class.
+ */
+public class TaskCodecTests {
+
+    private TaskCodec testTaskCodec;
+
+    @Before
+    public void setUp() {
+
+        testTaskCodec = new TaskCodec();
+    }
+
+    @Test
+    public void encodeDecode() {
+
+        var testTask = new Task(UUID.randomUUID(), "Réserver le restaurant", "Turkey, crackers, prawns, presents", Optional.of(LocalDate.of(2023, 12, 18)));
+
+        ByteBuffer buffer = ByteBuffer.wrap(testTaskCodec.encode(testTask));
+        Task result = testTaskCodec.decode(buffer);
+
+        assertEquals(testTask.getId(), result.getId());
+        assertEquals(testTask.getTitle(), result.getTitle());
+        assertEquals(testTask.getDetail(), result.getDetail());
+        assertEquals(testTask.getDueDate(), result.getDueDate());
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void encodeDecode_NullDetailAndNoDueDate() {
+
+        var testTask = new Task(UUID.randomUUID(), "Do Christmas Shopping", null, Optional.empty());
+
+        Task result = testTaskCodec.decode(ByteBuffer.wrap(testTaskCodec.encode(testTask)));
+
+        assertEquals(testTask.getId(), result.getId());
+        assertEquals(testTask.getTitle(), result.getTitle());
+        assertNull(result.getDetail());
+        assertTrue(result.getDueDate().isEmpty());
+    }
+
+    @Test
+    public void decode_BufferTruncated() {
+
+        var testTask = new Task(UUID.randomUUID(), "Do Christmas Shopping", null, Optional.empty());
+        byte[] encodedTask = testTaskCodec.encode(testTask);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> 
+        {
+            testTaskCodec.decode(ByteBuffer.wrap(encodedTask, 0, encodedTask.length - 5));
+        });
+
+        assertTrue(e.getMessage().contains("Parameter 'buffer' does not contain a valid encoded task."));
+    }
+}
@@ -0,0 +1,344 @@
+/*
+ * Copyright 2023 Alastair Wyse (https://github.com/alastairwyse/JavaTaskManager/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.alastairwyse.taskmanager.persistence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import net.alastairwyse.taskmanager.models.Task;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link WriteAheadLog} class.
+ */
+public class WriteAheadLogTests {
+
+    private Path testDirectory;
+
+    @Before
+    public void setUp() throws IOException {
+
+        testDirectory = Files.createTempDirectory("WriteAheadLogTests");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+
+        try (Stream<Path> paths = Files.walk(testDirectory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach((Path path) -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void appendPut_LogNotOpened() {
+
+        var testWriteAheadLog = new WriteAheadLog(testDirectory, FsyncPolicy.EVERY_BATCH);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> 
+        {
+            testWriteAheadLog.appendPut(new Task(UUID.randomUUID(), "Do Christmas Shopping", null, Optional.empty()));
+        });
+
+        assertTrue(e.getMessage().contains("The write-ahead log has not been opened."));
+    }
+
+    @Test
+    public void open_EmptyDirectory() throws IOException {
+
+        var records = new ArrayList<LogRecord>();
+
+        try (var testWriteAheadLog = new WriteAheadLog(testDirectory.resolve("log"), FsyncPolicy.EVERY_BATCH)) {
+            long result = testWriteAheadLog.open(records::add);
+
+            assertEquals(0, result);
+            assertEquals(0, records.size());
+            assertEquals(1, testWriteAheadLog.getSegmentPaths().size());
+        }
+    }
+
+    @Test
+    public void appendReplay() throws IOException {
+
+        var testTask1 = new Task(UUID.randomUUID(), "Do Christmas Shopping", "Turkey, crackers, prawns, presents", Optional.of(LocalDate.of(2023, 12, 18)));
+        var testTask2 = new Task(UUID.randomUUID(), "Apply for leave", null, Optional.empty());
+        try (var testWriteAheadLog = new WriteAheadLog(testDirectory, FsyncPolicy.EVERY_BATCH)) {
+            testWriteAheadLog.open((LogRecord record) -> {});
+            testWriteAheadLog.appendPut(testTask1);
+            testWriteAheadLog.appendPut(testTask2);
+            long lsn = testWriteAheadLog.appendDelete(testTask1.getId());
+            testWriteAheadLog.awaitCommit(lsn);
+            assertEquals(3, testWriteAheadLog.getDurableLsn());
+        }
+        var records = new ArrayList<LogRecord>();
+
+        try (var testWriteAheadLog = new WriteAheadLog(testDirectory, FsyncPolicy.EVERY_BATCH)) {
+            long result = testWriteAheadLog.open(records::add);
+
+            assertEquals(3, result);
+            assertEquals(3, records.size());
+            assertEquals(LogRecord.Type.PUT, records.get(0).getType());
+            assertEquals(1, records.get(0).getLsn());
+            assertEquals(testTask1.getId(), records.get(0).getId());
+            assertEquals(testTask1.getTitle(), records.get(0).getTask().getTitle());
+            assertEquals(testTask1.getDetail(), records.get(0).getTask().getDetail());
+            assertEquals(testTask1.getDueDate(), records.get(0).getTask().getDueDate());
+            assertEquals(testTask2.getId(), records.get(1).getId());
+            assertNull(records.get(1).getTask().getDetail());
+            assertEquals(LogRecord.Type.DELETE, records.get(2).getType());
+            assertEquals(testTask1.getId(), records.get(2).getId());
+            assertNull(records.get(2).getTask());
+            // Appends continue from the last replayed log sequence number
+            assertEquals(4, testWriteAheadLog.appendDelete(testTask2.getId()));
+        }
+    }
+
+    @Test
+    public void appendReplay_MultipleSegments() throws IOException {
+
+        var ids = new ArrayList<UUID>();
+        try (var testWriteAheadLog = new WriteAheadLog(testDirectory, FsyncPolicy.OPERATING_SYSTEM, 100, 256)) {
+            testWriteAheadLog.open((LogRecord record) -> {});
+            for (int i = 0; i < 50; i++) {
+                var testTask = new Task(UUID.randomUUID(), "Task " + i, null, Optional.empty());
+                ids.add(testTask.getId());
+                testWriteAheadLog.awaitCommit(testWriteAheadLog.appendPut(testTask));
+            }
+            assertTrue(testWriteAheadLog.getSegmentPaths().size() > 1);
+        }
+        var records = new ArrayList<LogRecord>();
+
+        try (var testWriteAheadLog = new WriteAheadLog(testDirectory, FsyncPolicy.OPERATING_SYSTEM, 100, 256)) {
+            testWriteAheadLog.open(records::add);
+        }
+
+        assertEquals(50, records.size());
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i + 1, records.get(i).getLsn());
+            assertEquals(ids.get(i), records.get(i).getId());
+        }
+    }
+
+    @Test
+    public void open_AfterLsnParameterSpecified() throws IOException {
+
+        try (var testWriteAheadLog = new WriteAheadLog(testDirectory, FsyncPolicy.EVERY_BATCH, 100, 32)) {
+            testWriteAheadLog.open((LogRecord record) -> {});
+            for (int i = 0; i < 5; i++) {
+                testWriteAheadLog.awaitCommit(testWriteAheadLog.appendDelete(UUID.randomUUID()));
+            }
+        }
+        var records = new ArrayList<LogRecord>();
+
+        try (var testWriteAheadLog = new WriteAheadLog(testDirectory, FsyncPolicy.EVERY_BATCH, 100, 32)) {
+            long result = testWriteAheadLog.open(3, records::add);
+
+            assertEquals(5, result);
+            assertEquals(2, records.size());
+            assertEquals(4, records.get(0).getLsn());
+            assertEquals(5, records.get(1).getLsn());
+        }
+    }
+
+    @Test
+    public void open_AfterLsnParameterGreaterThanLastLsn() throws IOException {
+
+        try (var testWriteAheadLog = new WriteAheadLog(testDirectory, FsyncPolicy.EVERY_BATCH)) {
+            testWriteAheadLog.open((LogRecord record) -> {});
+            testWriteAheadLog.awaitCommit(testWriteAheadLog.appendDelete(UUID.randomUUID()));
+        }
+
+        try (var testWriteAheadLog = new WriteAheadLog(testDirectory, FsyncPolicy.EVERY_BATCH)) {
+            long result = testWriteAheadLog.open(10, (LogRecord record) -> {});
+
+            assertEquals(10, result);
+            assertEquals(11, testWriteAheadLog.appendDelete(UUID.randomUUID()));
+        }
+    }
+
+    @Test
+    public void open_TornRecordAtEndOfLastSegment() throws IOException {
+
+        var testTask = new Task(UUID.randomUUID(), "Do Christmas Shopping", null, Optional.empty());
+        try (var testWriteAheadLog = new WriteAheadLog(testDirectory, FsyncPolicy.EVERY_BATCH)) {
+            testWriteAheadLog.open((LogRecord record) -> {});
+            testWriteAheadLog.appendPut(testTask);
+            testWriteAheadLog.awaitCommit(testWriteAheadLog.appendPut(testTask));
+            assertEquals(1, testWriteAheadLog.getSegmentPaths().size());
+        }
+        Path segmentPath = new WriteAheadLog(testDirectory, FsyncPolicy.EVERY_BATCH).getSegmentPaths().get(0);
+        long segmentSize = Files.size(segmentPath);
+        try (FileChannel segment = FileChannel.open(segmentPath, StandardOpenOption.WRITE)) {
+            segment.truncate(segmentSize - 3);
+        }
+        var records = new ArrayList<LogRecord>();
+
+        try (var testWriteAheadLog = new WriteAheadLog(testDirectory, FsyncPolicy.EVERY_BATCH)) {
+            long result = testWriteAheadLog.open(records::add);
+
+            assertEquals(1, result);
+            assertEquals(1, records.size());
+            assertEquals(segmentSize / 2, Files.size(segmentPath));
+        }
+    }
+
+    @Test
+    public void open_CorruptRecordInEarlierSegment() throws IOException {
+
+        try (var testWriteAheadLog = new WriteAheadLog(testDirectory, FsyncPolicy.EVERY_BATCH, 100, 32)) {
+            testWriteAheadLog.open((LogRecord record) -> {});
+            for (int i = 0; i < 4; i++) {
+                testWriteAheadLog.awaitCommit(testWriteAheadLog.appendPut(new Task(UUID.randomUUID(), "Task " + i, null, Optional.empty())));
+            }
+        }
+        List<Path> segmentPaths = new WriteAheadLog(testDirectory, FsyncPolicy.EVERY_BATCH).getSegmentPaths();
+        byte[] segmentContents = Files.readAllBytes(segmentPaths.get(0));
+        segmentContents[segmentContents.length - 1] ^= 0xFF;
+        Files.write(segmentPaths.get(0), segmentContents);
+
+        IOException e = assertThrows(IOException.class, () -> 
+        {
+            new WriteAheadLog(testDirectory, FsyncPolicy.EVERY_BATCH).open((LogRecord record) -> {});
+        });
+
+        assertTrue(e.getMessage().contains(String.format("Write-ahead log segment '%s' is corrupt at position 0.", segmentPaths.get(0))));
+    }
+
+    @Test
+    public void awaitCommit_ConcurrentAppendsGroupCommitted() throws Exception {
+
+        int threadCount = 8;
+        int recordsPerThread = 100;
+        try (var testWriteAheadLog = new WriteAheadLog(testDirectory, FsyncPolicy.EVERY_BATCH)) {
+            testWriteAheadLog.open((LogRecord record) -> {});
+            var threads = new ArrayList<Thread>();
+            for (int i = 0; i < threadCount; i++) {
+                threads.add(new Thread(() -> {
+                    for (int j = 0; j < recordsPerThread; j++) {
+                        testWriteAheadLog.awaitCommit(testWriteAheadLog.appendDelete(UUID.randomUUID()));
+                    }
+                }));
+            }
+            for (Thread currentThread : threads) {
+                currentThread.start();
+            }
+            for (Thread currentThread : threads) {
+                currentThread.join();
+            }
+
+            assertEquals(threadCount * recordsPerThread, testWriteAheadLog.getDurableLsn());
+            assertTrue(testWriteAheadLog.getForceCount() <= threadCount * recordsPerThread);
+        }
+        var records = new ArrayList<LogRecord>();
+        try (var testWriteAheadLog = new WriteAheadLog(testDirectory, FsyncPolicy.EVERY_BATCH)) {
+            testWriteAheadLog.open(records::add);
+        }
+        assertEquals(threadCount * recordsPerThread, records.size());
+    }
+
+    @Test
+    public void awaitCommit_IntervalPolicy() throws Exception {
+
+        try (var testWriteAheadLog = new WriteAheadLog(testDirectory, FsyncPolicy.INTERVAL, 10, WriteAheadLog.DEFAULT_SEGMENT_SIZE)) {
+            testWriteAheadLog.open((LogRecord record) -> {});
+            testWriteAheadLog.awaitCommit(testWriteAheadLog.appendDelete(UUID.randomUUID()));
+
+            long waitStart = System.currentTimeMillis();
+            while (testWriteAheadLog.getDurableLsn() < 1 && System.currentTimeMillis() - waitStart < 5000) {
+                Thread.sleep(5);
+            }
+
+            assertEquals(1, testWriteAheadLog.getDurableLsn());
+        }
+    }
+
+    @Test
+    public void append_QueueFullWaitsForCommitThread() throws IOException {
+
+        // Each delete record is 33 bytes, so the queue holds only one at a time
+        try (var testWriteAheadLog = new WriteAheadLog(testDirectory, FsyncPolicy.OPERATING_SYSTEM, 100, WriteAheadLog.DEFAULT_SEGMENT_SIZE, 64)) {
+            testWriteAheadLog.open((LogRecord record) -> {});
+            long lsn = 0;
+            for (int i = 0; i < 100; i++) {
+                lsn = testWriteAheadLog.appendDelete(UUID.randomUUID());
+            }
+            testWriteAheadLog.awaitCommit(lsn);
+        }
+        var records = new ArrayList<LogRecord>();
+
+        try (var testWriteAheadLog = new WriteAheadLog(testDirectory, FsyncPolicy.EVERY_BATCH)) {
+            testWriteAheadLog.open(records::add);
+        }
+
+        assertEquals(100, records.size());
+    }
+
+    @Test
+    public void awaitCommit_CommitThreadFailed() throws IOException {
+
+        // A segment size of 1 causes the first batch to seal the segment
+        var testWriteAheadLog = new WriteAheadLog(testDirectory, FsyncPolicy.EVERY_BATCH, 100, 1) {
+            @Override
+            protected void sealCurrentSegment(long firstLsn) throws IOException {
+                throw new IOException("Disk full.");
+            }
+        };
+        testWriteAheadLog.open((LogRecord record) -> {});
+        long lsn = testWriteAheadLog.appendDelete(UUID.randomUUID());
+
+        UncheckedIOException e = assertThrows(UncheckedIOException.class, () -> 
+        {
+            testWriteAheadLog.awaitCommit(lsn);
+        });
+        assertEquals("Disk full.", e.getCause().getMessage());
+
+        e = assertThrows(UncheckedIOException.class, () -> 
+        {
+            testWriteAheadLog.appendDelete(UUID.randomUUID());
+        });
+        assertEquals("Disk full.", e.getCause().getMessage());
+
+        e = assertThrows(UncheckedIOException.class, () -> 
+        {
+            testWriteAheadLog.ThrowExceptionIfFailed();
+        });
+        assertEquals("Disk full.", e.getCause().getMessage());
+
+        IOException closeException = assertThrows(IOException.class, () -> 
+        {
+            testWriteAheadLog.close();
+        });
+        assertEquals("Disk full.", closeException.getCause().getMessage());
+    }
+}